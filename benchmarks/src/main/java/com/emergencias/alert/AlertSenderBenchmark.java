@@ -0,0 +1,93 @@
+package main.java.com.emergencias.alert;
+
+import main.java.com.emergencias.benchmarks.DatosSinteticos;
+import main.java.com.emergencias.model.EmergencyEvent;
+import main.java.com.emergencias.model.UserData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Construcción del paquete de alerta y persistencia en el log ({@code buildAlertPackage},
+ * {@code persistAlert}). Está en el paquete de {@link AlertSender} para llegar a esos métodos.
+ * El catálogo aquí es la población de usuarios de los eventos; el log va a un directorio temporal.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlertSenderBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Emisor {
+        @Param({"100", "10000"})
+        public int tamanoCatalogo;
+
+        AlertSender sender;
+        EmergencyEvent[] eventos;
+        private Path directorio;
+
+        @Setup(Level.Trial)
+        public void preparar() throws IOException {
+            directorio = Files.createTempDirectory("bench-alertas");
+            sender = new AlertSender("112", ConfiguracionPipeline.porDefecto().sinTrazasConsola(),
+                    directorio.resolve("alertas_log.txt"));
+            List<UserData> usuarios = DatosSinteticos.usuarios(tamanoCatalogo, 42);
+            eventos = new EmergencyEvent[usuarios.size()];
+            for (int i = 0; i < eventos.length; i++) {
+                UserData u = usuarios.get(i);
+                eventos[i] = new EmergencyEvent("Sanitaria",
+                        String.format("%.4f, %.4f", u.getLatitudSimulada(), u.getLongitudSimulada()), u);
+                eventos[i].setEsGrave(true);
+                eventos[i].leerSignosVitales(null);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void limpiar() throws IOException {
+            sender.cerrar(30);
+            try (Stream<Path> ficheros = Files.list(directorio)) {
+                for (Path p : (Iterable<Path>) ficheros::iterator) Files.deleteIfExists(p);
+            }
+            Files.deleteIfExists(directorio);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int siguiente;
+
+        EmergencyEvent siguiente(Emisor emisor) {
+            siguiente = siguiente + 1 == emisor.eventos.length ? 0 : siguiente + 1;
+            return emisor.eventos[siguiente];
+        }
+    }
+
+    @Benchmark
+    public String buildAlertPackage(Emisor emisor, Cursor cursor) {
+        return emisor.sender.buildAlertPackage(cursor.siguiente(emisor));
+    }
+
+    @Benchmark
+    public void persistAlert(Emisor emisor, Cursor cursor) {
+        emisor.sender.persistAlert(cursor.siguiente(emisor));
+    }
+}
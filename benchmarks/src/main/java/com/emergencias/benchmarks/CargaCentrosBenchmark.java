@@ -0,0 +1,57 @@
+package main.java.com.emergencias.benchmarks;
+
+import main.java.com.emergencias.controller.CentroSaludLoader;
+import main.java.com.emergencias.model.CentroSalud;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carga del catálogo de centros desde JSON ({@link CentroSaludLoader#cargarCentros(Path)}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CargaCentrosBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int tamanoCatalogo;
+
+    private Path fichero;
+    private final CentroSaludLoader loader = new CentroSaludLoader();
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        fichero = Files.createTempFile("bench-centros", ".json");
+        DatosSinteticos.escribirCentrosJson(fichero, tamanoCatalogo, 42);
+    }
+
+    @TearDown(Level.Trial)
+    public void limpiar() throws IOException {
+        Files.deleteIfExists(fichero);
+    }
+
+    @Benchmark
+    public List<CentroSalud> cargarCentros() {
+        return loader.cargarCentros(fichero);
+    }
+}
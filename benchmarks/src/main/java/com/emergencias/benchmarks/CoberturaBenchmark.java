@@ -0,0 +1,63 @@
+package main.java.com.emergencias.benchmarks;
+
+import main.java.com.emergencias.geo.AnalisisCobertura;
+import main.java.com.emergencias.geo.CentroSaludIndex;
+import main.java.com.emergencias.geo.InformeCobertura;
+import main.java.com.emergencias.geo.MallaCobertura;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Análisis de cobertura ({@link AnalisisCobertura}) de una malla de 1 millón de celdas sobre
+ * la caja de los datos sintéticos, con un solo hilo frente a todos los núcleos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CoberturaBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int tamanoCatalogo;
+
+    /** Hilos del pool (0 = todos los núcleos). */
+    @Param({"1", "0"})
+    public int hilos;
+
+    private ForkJoinPool pool;
+    private AnalisisCobertura analisis;
+    private final MallaCobertura malla = new MallaCobertura(DatosSinteticos.LAT_MIN, DatosSinteticos.LAT_MAX,
+            DatosSinteticos.LON_MIN, DatosSinteticos.LON_MAX, 1000, 1000);
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        pool = new ForkJoinPool(hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors());
+        analisis = new AnalisisCobertura(CentroSaludIndex.construir(DatosSinteticos.centros(tamanoCatalogo, 42)), pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public InformeCobertura analizarMillonDeCeldas() {
+        return analisis.analizar(malla, AnalisisCobertura.UMBRAL_POR_DEFECTO_KM);
+    }
+}
@@ -0,0 +1,114 @@
+package main.java.com.emergencias.benchmarks;
+
+import main.java.com.emergencias.alert.CodificadorAlertas;
+import main.java.com.emergencias.model.EmergencyEvent;
+import main.java.com.emergencias.model.UserData;
+import main.java.com.emergencias.model.VentanaVitales;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización de una alerta: formateo original con {@code String.format} (paquete y línea de
+ * log por separado, signos vitales y marca de tiempo formateados en cada alerta) frente al
+ * {@link CodificadorAlertas} con búferes por hilo. Lanzar con el perfilador de GC
+ * ({@code -prof gc}, activado en {@link EjecutarBenchmarks}) para comparar
+ * {@code gc.alloc.rate.norm} (bytes reservados por operación).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodificacionAlertasBenchmark {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @State(Scope.Benchmark)
+    public static class Eventos {
+        @Param({"100", "10000"})
+        public int tamanoCatalogo;
+
+        EmergencyEvent[] eventos;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            List<UserData> usuarios = DatosSinteticos.usuarios(tamanoCatalogo, 42);
+            eventos = new EmergencyEvent[usuarios.size()];
+            long ahora = System.currentTimeMillis();
+            for (int i = 0; i < eventos.length; i++) {
+                UserData u = usuarios.get(i);
+                eventos[i] = new EmergencyEvent("Sanitaria",
+                        String.format("%.4f, %.4f", u.getLatitudSimulada(), u.getLongitudSimulada()), u);
+                eventos[i].setEsGrave(true);
+                eventos[i].leerSignosVitales(new VentanaVitales(60_000, new long[]{ahora},
+                        new int[][]{{60 + i % 100}, {90 + i % 10}, {110 + i % 50}, {70 + i % 30}}));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int siguiente;
+
+        EmergencyEvent siguiente(Eventos eventos) {
+            siguiente = siguiente + 1 == eventos.eventos.length ? 0 : siguiente + 1;
+            return eventos.eventos[siguiente];
+        }
+    }
+
+    @Benchmark
+    public byte[] paqueteStringFormat(Eventos eventos, Cursor cursor) {
+        EmergencyEvent event = cursor.siguiente(eventos);
+        UserData user = event.getDatosUsuario();
+        String signosInfo = (event.getVitalSigns() != null) ? event.getVitalSigns().toString() : "No disponibles";
+        String evolucion = (event.getHistorialVitales() != null)
+                ? "EVOLUCIÓN: " + event.getHistorialVitales() + "\n" : "";
+        return String.format(
+                "DESTINO: %s | TIPO: %s | ID Evento: %s\n" +
+                        "UBICACIÓN: %s\n" +
+                        "INFO PACIENTE: %s (Tel: %s)\n" +
+                        "INFO MÉDICA: %s\n" +
+                        "SIGNOS VITALES: %s\n%s",
+                "112", event.getTipoEmergencia(), event.getIdEvento().substring(0, 8),
+                event.getUbicacion(), user.getNombre(), user.getTelefono(), user.getInfoMedica(),
+                signosInfo, evolucion).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ByteBuffer paqueteCodificador(Eventos eventos, Cursor cursor) {
+        return CodificadorAlertas.delHilo().paqueteUtf8("112", cursor.siguiente(eventos));
+    }
+
+    @Benchmark
+    public byte[] lineaLogStringFormat(Eventos eventos, Cursor cursor) {
+        EmergencyEvent event = cursor.siguiente(eventos);
+        String signosInfo = (event.getVitalSigns() != null) ? event.getVitalSigns().toString() : "N/A";
+        return String.format(
+                "[%s] ALERTA GRAVE | Tipo: %s | ID: %s | Vitales: %s | Ubicacion: %s | Usuario: %s\n",
+                LocalDateTime.now().format(FORMATTER), event.getTipoEmergencia(), event.getIdEvento(),
+                signosInfo, event.getUbicacion(), event.getDatosUsuario().getNombre())
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ByteBuffer lineaLogCodificador(Eventos eventos, Cursor cursor) {
+        return CodificadorAlertas.delHilo().lineaLog(cursor.siguiente(eventos), System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,75 @@
+package main.java.com.emergencias.benchmarks;
+
+import main.java.com.emergencias.model.CentroSalud;
+import main.java.com.emergencias.model.UserData;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Catálogos y usuarios sintéticos, reproducibles por semilla, repartidos por la Región de Murcia
+ * como los de {@code centros.json}, para poder medir con tamaños mayores que el real.
+ */
+public final class DatosSinteticos {
+
+    public static final double LAT_MIN = 37.4, LAT_MAX = 38.8;
+    public static final double LON_MIN = -2.3, LON_MAX = -0.7;
+
+    private DatosSinteticos() {}
+
+    /** @return {@code n} centros con coordenadas aleatorias dentro de la región. */
+    public static List<CentroSalud> centros(int n, long semilla) {
+        Random rnd = new Random(semilla);
+        List<CentroSalud> centros = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            centros.add(new CentroSalud(String.valueOf(10_000 + i), "CENTRO DE SALUD SINTÉTICO " + i,
+                    "C/ Prueba, " + i, "Municipio " + (i % 45), String.format("968%06d", i % 1_000_000),
+                    coordenada(rnd, LAT_MIN, LAT_MAX), coordenada(rnd, LON_MIN, LON_MAX)));
+        }
+        return centros;
+    }
+
+    /**
+     * Escribe {@code n} centros en un fichero JSON con el formato de {@code centros.json}.
+     */
+    public static void escribirCentrosJson(Path destino, int n, long semilla) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(destino, StandardCharsets.UTF_8)) {
+            w.write("[\n");
+            List<CentroSalud> centros = centros(n, semilla);
+            for (int i = 0; i < centros.size(); i++) {
+                CentroSalud c = centros.get(i);
+                w.write(String.format("  {\n    \"Código\": \"%s\",\n    \"Nombre\": \"%s\",\n    \"Dirección\": \"%s\",\n"
+                                + "    \"Municipio\": \"%s\",\n    \"Teléfono\": \"%s\",\n    \"Latitud\": \"%s\",\n    \"Longitud\": \"%s\"\n  }%s\n",
+                        c.getCodigo(), c.getNombre(), c.getDirección(), c.getMunicipio(), c.getTelefono(),
+                        c.getLatitud(), c.getLongitud(), i + 1 < centros.size() ? "," : ""));
+            }
+            w.write("]\n");
+        }
+    }
+
+    /** @return {@code n} usuarios con ubicación aleatoria dentro de la región. */
+    public static List<UserData> usuarios(int n, long semilla) {
+        Random rnd = new Random(semilla);
+        List<UserData> usuarios = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            usuarios.add(new UserData("U" + i, "Usuario Sintético " + i, String.valueOf(600_000_000 + i),
+                    "Sin alergias conocidas", aleatorio(rnd, LAT_MIN, LAT_MAX), aleatorio(rnd, LON_MIN, LON_MAX)));
+        }
+        return usuarios;
+    }
+
+    public static double aleatorio(Random rnd, double min, double max) {
+        return min + rnd.nextDouble() * (max - min);
+    }
+
+    private static String coordenada(Random rnd, double min, double max) {
+        return String.format(Locale.ROOT, "%.7f", aleatorio(rnd, min, max));
+    }
+}
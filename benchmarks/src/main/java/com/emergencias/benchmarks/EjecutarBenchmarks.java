@@ -0,0 +1,37 @@
+package main.java.com.emergencias.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Lanza la batería de benchmarks una vez por cada número de hilos, dejando un informe JSON
+ * por ejecución ({@code jmh-hilos-N.json}) para comparar entre versiones. El perfilador de GC
+ * añade a cada resultado los bytes reservados por operación ({@code gc.alloc.rate.norm}).
+ * Uso: {@code java ... main.java.com.emergencias.benchmarks.EjecutarBenchmarks [filtro] [hilos,...]}
+ * p. ej. {@code GeoBenchmark 1,4,8}. Sin argumentos ejecuta todo con 1, 2 y todos los núcleos.
+ */
+public class EjecutarBenchmarks {
+
+    public static void main(String[] args) throws RunnerException {
+        String filtro = args.length > 0 ? args[0] : "main\\.java\\.com\\.emergencias\\..*Benchmark";
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        String[] hilos = (args.length > 1 ? args[1] : "1,2," + nucleos).split(",");
+
+        for (String h : hilos) {
+            int n = Integer.parseInt(h.trim());
+            System.out.printf("%n=== Benchmarks con %d hilo(s) ===%n", n);
+            Options opciones = new OptionsBuilder()
+                    .include(filtro)
+                    .threads(n)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("jmh-hilos-" + n + ".json")
+                    .build();
+            new Runner(opciones).run();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package main.java.com.emergencias.benchmarks;
+
+import main.java.com.emergencias.geo.CentroSaludIndex;
+import main.java.com.emergencias.geo.GeoUtils;
+import main.java.com.emergencias.model.CentroSalud;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distancia Haversine y búsqueda del centro más cercano: recorrido lineal (implementación
+ * original de {@code recomendarCentroCercano}) frente al índice espacial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Catalogo {
+        @Param({"100", "1000", "10000", "100000"})
+        public int tamanoCatalogo;
+
+        double[] latitudes;
+        double[] longitudes;
+        CentroSaludIndex indice;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            List<CentroSalud> centros = DatosSinteticos.centros(tamanoCatalogo, 42);
+            latitudes = new double[centros.size()];
+            longitudes = new double[centros.size()];
+            for (int i = 0; i < centros.size(); i++) {
+                latitudes[i] = Double.parseDouble(centros.get(i).getLatitud());
+                longitudes[i] = Double.parseDouble(centros.get(i).getLongitud());
+            }
+            indice = CentroSaludIndex.construir(centros);
+        }
+    }
+
+    /** Puntos de consulta propios de cada hilo, recorridos en ciclo. */
+    @State(Scope.Thread)
+    public static class Consultas {
+        final double[] latitudes = new double[1024];
+        final double[] longitudes = new double[1024];
+        int siguiente;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            Random rnd = new Random(Thread.currentThread().threadId());
+            for (int i = 0; i < latitudes.length; i++) {
+                latitudes[i] = DatosSinteticos.aleatorio(rnd, DatosSinteticos.LAT_MIN, DatosSinteticos.LAT_MAX);
+                longitudes[i] = DatosSinteticos.aleatorio(rnd, DatosSinteticos.LON_MIN, DatosSinteticos.LON_MAX);
+            }
+        }
+
+        int avanzar() {
+            siguiente = (siguiente + 1) & (latitudes.length - 1);
+            return siguiente;
+        }
+    }
+
+    @Benchmark
+    public double haversine(Catalogo catalogo, Consultas consultas) {
+        int q = consultas.avanzar();
+        int c = q % catalogo.latitudes.length;
+        return GeoUtils.calcularHaversine(consultas.latitudes[q], consultas.longitudes[q],
+                catalogo.latitudes[c], catalogo.longitudes[c]);
+    }
+
+    @Benchmark
+    public int masCercanoRecorridoLineal(Catalogo catalogo, Consultas consultas) {
+        int q = consultas.avanzar();
+        int mejor = -1;
+        double minimo = Double.MAX_VALUE;
+        for (int c = 0; c < catalogo.latitudes.length; c++) {
+            double d = GeoUtils.calcularHaversine(consultas.latitudes[q], consultas.longitudes[q],
+                    catalogo.latitudes[c], catalogo.longitudes[c]);
+            if (d < minimo) {
+                minimo = d;
+                mejor = c;
+            }
+        }
+        return mejor;
+    }
+
+    @Benchmark
+    public Object masCercanoIndice(Catalogo catalogo, Consultas consultas) {
+        int q = consultas.avanzar();
+        return catalogo.indice.masCercano(consultas.latitudes[q], consultas.longitudes[q]);
+    }
+}
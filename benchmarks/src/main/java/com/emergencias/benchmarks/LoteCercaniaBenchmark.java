@@ -0,0 +1,89 @@
+package main.java.com.emergencias.benchmarks;
+
+import main.java.com.emergencias.geo.CentroSaludIndex;
+import main.java.com.emergencias.geo.ResultadoCercania;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ráfaga de avisos simultáneos: centro más cercano (y los 3 más cercanos) de cada punto con
+ * una llamada por punto frente a la consulta en lote ({@link CentroSaludIndex#masCercanos}).
+ * En un incidente los puntos se concentran en pocos kilómetros; "dispersos" los reparte por toda la región.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoteCercaniaBenchmark {
+
+    @Param({"63", "250", "1000", "10000"})
+    public int tamanoCatalogo;
+
+    @Param({"500"})
+    public int tamanoLote;
+
+    @Param({"incidente", "dispersos"})
+    public String distribucion;
+
+    private CentroSaludIndex indice;
+    private double[] latitudes;
+    private double[] longitudes;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        indice = CentroSaludIndex.construir(DatosSinteticos.centros(tamanoCatalogo, 42));
+        Random rnd = new Random(7);
+        latitudes = new double[tamanoLote];
+        longitudes = new double[tamanoLote];
+        double latFoco = 37.98, lonFoco = -1.13; // Radio de ~5 km alrededor del foco
+        for (int i = 0; i < tamanoLote; i++) {
+            if ("incidente".equals(distribucion)) {
+                latitudes[i] = latFoco + DatosSinteticos.aleatorio(rnd, -0.045, 0.045);
+                longitudes[i] = lonFoco + DatosSinteticos.aleatorio(rnd, -0.057, 0.057);
+            } else {
+                latitudes[i] = DatosSinteticos.aleatorio(rnd, DatosSinteticos.LAT_MIN, DatosSinteticos.LAT_MAX);
+                longitudes[i] = DatosSinteticos.aleatorio(rnd, DatosSinteticos.LON_MIN, DatosSinteticos.LON_MAX);
+            }
+        }
+    }
+
+    @Benchmark
+    public ResultadoCercania[] independientes() {
+        ResultadoCercania[] res = new ResultadoCercania[tamanoLote];
+        for (int i = 0; i < tamanoLote; i++) res[i] = indice.masCercano(latitudes[i], longitudes[i]);
+        return res;
+    }
+
+    @Benchmark
+    public ResultadoCercania[] lote() {
+        return indice.masCercanos(latitudes, longitudes);
+    }
+
+    @Benchmark
+    public Object[] tresIndependientes() {
+        Object[] res = new Object[tamanoLote];
+        for (int i = 0; i < tamanoLote; i++) res[i] = indice.kMasCercanos(latitudes[i], longitudes[i], 3);
+        return res;
+    }
+
+    @Benchmark
+    public List<List<ResultadoCercania>> tresEnLote() {
+        return indice.kMasCercanos(latitudes, longitudes, 3);
+    }
+}
@@ -0,0 +1,98 @@
+package main.java.com.emergencias.benchmarks;
+
+import main.java.com.emergencias.model.EmergencyEvent;
+import main.java.com.emergencias.model.GeneradorIds;
+import main.java.com.emergencias.model.IdEvento;
+import main.java.com.emergencias.model.UserData;
+import main.java.com.emergencias.model.VitalSigns;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creación de los objetos del modelo en cada alerta: {@link EmergencyEvent} (incluido su ID,
+ * UUID aleatorio frente a UUIDv7) y {@link VitalSigns}. El catálogo aquí es la población de
+ * usuarios que originan los eventos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModeloBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Usuarios {
+        @Param({"100", "10000"})
+        public int tamanoCatalogo;
+
+        UserData[] perfiles;
+        private PrintStream salidaOriginal;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            List<UserData> usuarios = DatosSinteticos.usuarios(tamanoCatalogo, 42);
+            perfiles = usuarios.toArray(new UserData[0]);
+            // new VitalSigns() anuncia cada lectura por consola; se descarta para medir la creación
+            salidaOriginal = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+
+        @TearDown(Level.Trial)
+        public void restaurar() {
+            System.setOut(salidaOriginal);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int siguiente;
+
+        UserData siguiente(Usuarios usuarios) {
+            siguiente = siguiente + 1 == usuarios.perfiles.length ? 0 : siguiente + 1;
+            return usuarios.perfiles[siguiente];
+        }
+    }
+
+    @Benchmark
+    public EmergencyEvent crearEvento(Usuarios usuarios, Cursor cursor) {
+        return new EmergencyEvent("Sanitaria", "38.2265, -1.6188", cursor.siguiente(usuarios));
+    }
+
+    @Benchmark
+    public UUID generarUuid() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public IdEvento generarIdUuidV7() {
+        return GeneradorIds.uuidV7().siguiente();
+    }
+
+    @Benchmark
+    public VitalSigns vitalSignsSimulados() {
+        return new VitalSigns();
+    }
+
+    @Benchmark
+    public VitalSigns vitalSignsConValores(Cursor cursor) {
+        int i = ++cursor.siguiente;
+        return new VitalSigns(60 + (i & 63), 90 + (i & 7), 110 + (i & 31), 70 + (i & 15));
+    }
+}
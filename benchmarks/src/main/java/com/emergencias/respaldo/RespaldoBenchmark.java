@@ -0,0 +1,104 @@
+package main.java.com.emergencias.respaldo;
+
+import main.java.com.emergencias.alert.CodificadorAlertas;
+import main.java.com.emergencias.benchmarks.DatosSinteticos;
+import main.java.com.emergencias.model.EmergencyEvent;
+import main.java.com.emergencias.model.UserData;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Rendimiento de la subida del respaldo según el tamaño de lote: lectura de la bandeja,
+ * compresión y un POST al {@link ServidorRespaldoLocal}, con y sin latencia de red simulada.
+ * El contador auxiliar {@code alertas} da las alertas subidas por segundo; con lotes de una
+ * alerta cada una paga su ida y vuelta, con lotes grandes se reparte. Está en el paquete del
+ * cliente para llegar a {@code prepararLote} y {@code enviarLote}. Cada hilo reenvía siempre el
+ * mismo lote (el servidor lo trata como duplicado, con el mismo coste de proceso).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RespaldoBenchmark {
+
+    @State(Scope.Thread)
+    public static class Subida {
+        @Param({"1", "32", "512"})
+        public int registrosPorLote;
+
+        @Param({"0", "1"})
+        public long latenciaMs;
+
+        ServidorRespaldoLocal servidor;
+        BandejaSalida bandeja;
+        ClienteRespaldo cliente;
+        private Path directorio;
+
+        @Setup(Level.Trial)
+        public void preparar() throws IOException {
+            directorio = Files.createTempDirectory("bench-respaldo");
+            servidor = new ServidorRespaldoLocal(0, null).iniciar();
+            servidor.setLatenciaMs(latenciaMs);
+            bandeja = new BandejaSalida(directorio);
+            List<UserData> usuarios = DatosSinteticos.usuarios(registrosPorLote, 42);
+            for (UserData u : usuarios) {
+                EmergencyEvent e = new EmergencyEvent("Sanitaria",
+                        String.format("%.4f, %.4f", u.getLatitudSimulada(), u.getLongitudSimulada()), u);
+                e.leerSignosVitales(null);
+                bandeja.anotar(e.getId(), CodificadorAlertas.delHilo().lineaLog(e, System.currentTimeMillis()));
+            }
+            cliente = new ClienteRespaldo(bandeja, ConfiguracionRespaldo.porDefecto(servidor.getUrl())
+                    .conRegistrosPorLote(registrosPorLote).sinTrazasConsola());
+        }
+
+        @TearDown(Level.Trial)
+        public void cerrar() throws IOException {
+            cliente.cerrar(0);
+            bandeja.close();
+            servidor.close();
+            try (Stream<Path> ficheros = Files.list(directorio)) {
+                for (Path p : (Iterable<Path>) ficheros::iterator) Files.deleteIfExists(p);
+            }
+            Files.deleteIfExists(directorio);
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Contador {
+        public long alertas;
+
+        @Setup(Level.Iteration)
+        public void reiniciar() {
+            alertas = 0;
+        }
+    }
+
+    @Benchmark
+    public int subirLote(Subida s, Contador contador) throws Exception {
+        int registros = s.cliente.prepararLote(s.bandeja.getConfirmada());
+        int estado = s.cliente.enviarLote();
+        contador.alertas += registros;
+        return estado;
+    }
+}
@@ -0,0 +1,33 @@
+package main.java.com.emergencias.alert;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Acuse de recibo del despacho crítico de una alerta al servicio de destino.
+ * Cuando se emite, la alerta ya consta de forma duradera en el log local y en la
+ * bandeja de salida del respaldo. Solo quedan fuera de la ruta crítica la subida del
+ * respaldo a la nube, que hace el cliente de respaldo por lotes, y la notificación a
+ * contactos, que puede esperarse mediante {@link #getTareasSecundarias()}.
+ */
+public class AcuseDespacho {
+    private final String idEvento;
+    private final String destino;
+    private final LocalDateTime instante;
+    private final CompletableFuture<Void> tareasSecundarias;
+
+    public AcuseDespacho(String idEvento, String destino, LocalDateTime instante,
+                         CompletableFuture<Void> tareasSecundarias) {
+        this.idEvento = idEvento;
+        this.destino = destino;
+        this.instante = instante;
+        this.tareasSecundarias = tareasSecundarias;
+    }
+
+    public String getIdEvento() { return idEvento; }
+    public String getDestino() { return destino; }
+    public LocalDateTime getInstante() { return instante; }
+
+    /** @return Futuro que termina cuando la notificación a contactos ha concluido; el respaldo ya está anotado. */
+    public CompletableFuture<Void> getTareasSecundarias() { return tareasSecundarias; }
+}
@@ -0,0 +1,231 @@
+package main.java.com.emergencias.alert;
+
+import main.java.com.emergencias.detector.TemporizadorConfirmaciones;
+import main.java.com.emergencias.model.EmergencyEvent;
+import main.java.com.emergencias.model.IdEvento;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Etapa delante del {@link AlertSender} que agrupa ráfagas de alertas casi idénticas: un
+ * dispositivo que falla o un usuario que pulsa el botón una y otra vez.
+ *
+ * Las alertas se agrupan por usuario y tipo de emergencia en una ventana deslizante. La primera
+ * se envía en el acto por la ruta completa (despacho, respaldo y contactos). Las que llegan
+ * mientras la ventana está abierta no se envían: se suman a ella, y cada vez que vence el plazo
+ * se manda una sola actualización de la alerta original con el número de alertas agrupadas y la
+ * ubicación y los signos vitales de la más reciente ({@link AlertSender#sendUpdate}). La ventana
+ * se cierra cuando pasa un plazo entero sin alertas nuevas. Si el despacho de la original falla,
+ * la ventana se descarta y la alerta agrupada más reciente se envía como alerta nueva.
+ *
+ * Las ventanas viven en un mapa concurrente acotado: con {@code capacidad} ventanas abiertas, las
+ * alertas de claves nuevas se envían sin agrupar (nunca se descarta una emergencia). Los plazos
+ * los lleva el {@link TemporizadorConfirmaciones}, sin hilos por ventana.
+ */
+public class AgrupadorAlertas implements EmisorAlertas {
+
+    public static final long VENTANA_POR_DEFECTO_MS = 30_000;
+    public static final int CAPACIDAD_POR_DEFECTO = 10_000;
+
+    private final AlertSender sender;
+    private final long ventanaMs;
+    private final long ventanaNanos;
+    private final int capacidad;
+    private final TemporizadorConfirmaciones temporizador;
+    private final ConcurrentHashMap<String, Ventana> ventanas = new ConcurrentHashMap<>();
+    private final LongAdder enviadas = new LongAdder();
+    private final LongAdder agrupadas = new LongAdder();
+    private final LongAdder actualizaciones = new LongAdder();
+    private final LongAdder sinAgrupar = new LongAdder();
+
+    /**
+     * Agrupador con la ventana y la capacidad por defecto sobre el temporizador compartido.
+     */
+    public AgrupadorAlertas(AlertSender sender) {
+        this(sender, VENTANA_POR_DEFECTO_MS, CAPACIDAD_POR_DEFECTO, TemporizadorConfirmaciones.global());
+    }
+
+    /**
+     * @param sender Emisor al que se reenvían las alertas y las actualizaciones.
+     * @param ventanaMs Plazo sin alertas nuevas tras el que se cierra una ventana.
+     * @param capacidad Máximo de ventanas abiertas a la vez.
+     * @param temporizador Rueda donde se arman los vencimientos de las ventanas.
+     */
+    public AgrupadorAlertas(AlertSender sender, long ventanaMs, int capacidad, TemporizadorConfirmaciones temporizador) {
+        if (ventanaMs <= 0 || capacidad <= 0) {
+            throw new IllegalArgumentException("La ventana y la capacidad deben ser positivas.");
+        }
+        this.sender = sender;
+        this.ventanaMs = ventanaMs;
+        this.ventanaNanos = TimeUnit.MILLISECONDS.toNanos(ventanaMs);
+        this.capacidad = capacidad;
+        this.temporizador = temporizador;
+    }
+
+    /**
+     * Envía la alerta o la agrupa con la de su ventana abierta.
+     * @return Acuse de la alerta enviada; si se ha agrupado, el de la alerta original de su
+     * ventana (su {@link AcuseDespacho#getIdEvento()} es el de la original).
+     */
+    @Override
+    public CompletableFuture<AcuseDespacho> sendAlert(EmergencyEvent event) {
+        if (event == null || !event.esGrave()) return sender.sendAlert(event); // El emisor lo rechaza
+
+        String clave = event.getDatosUsuario().getId() + '|' + event.getTipoEmergencia().trim().toLowerCase();
+        while (true) {
+            Ventana abierta = ventanas.get(clave);
+            if (abierta == null) {
+                if (ventanas.size() >= capacidad) {
+                    sinAgrupar.increment();
+                    return enviar(event);
+                }
+                Ventana nueva = new Ventana(clave, event.getId());
+                synchronized (nueva) {
+                    if (ventanas.putIfAbsent(clave, nueva) != null) continue; // Otra alerta abrió la ventana antes
+                    try {
+                        nueva.acuse = enviar(event);
+                    } catch (RuntimeException e) {
+                        nueva.cerrada = true;
+                        ventanas.remove(clave, nueva);
+                        throw e;
+                    }
+                }
+                armar(nueva, ventanaMs);
+                // Si la original no llega a despacharse, la ventana no puede agrupar nada más
+                nueva.acuse.whenComplete((acuse, error) -> {
+                    if (error != null) descartar(nueva);
+                });
+                return nueva.acuse;
+            }
+            synchronized (abierta) {
+                if (abierta.cerrada || abierta.acuse.isCompletedExceptionally()) {
+                    // Se cerró justo ahora y está enviando su última actualización: se abre otra
+                    ventanas.remove(clave, abierta);
+                    continue;
+                }
+                abierta.ultimaNanos = System.nanoTime();
+                abierta.pendiente = event;
+                abierta.pendientes++;
+                agrupadas.increment();
+                return abierta.acuse;
+            }
+        }
+    }
+
+    private CompletableFuture<AcuseDespacho> enviar(EmergencyEvent event) {
+        enviadas.increment();
+        return sender.sendAlert(event);
+    }
+
+    private void armar(Ventana ventana, long plazoMs) {
+        temporizador.armar(plazoMs, () -> vencer(ventana));
+    }
+
+    /**
+     * Vencimiento del plazo de una ventana: envía la actualización con lo agrupado y, si ha
+     * habido alertas en el último plazo, vuelve a armarse para lo que falte; si no, se cierra.
+     */
+    private void vencer(Ventana ventana) {
+        EmergencyEvent ultima;
+        int pendientes;
+        long restanteNanos;
+        synchronized (ventana) {
+            if (ventana.cerrada) return; // Vaciada al cerrar
+            ultima = ventana.pendiente;
+            pendientes = ventana.pendientes;
+            ventana.pendiente = null;
+            ventana.pendientes = 0;
+            restanteNanos = ventana.ultimaNanos + ventanaNanos - System.nanoTime();
+            if (restanteNanos <= 0) ventana.cerrada = true;
+        }
+        if (ultima != null) {
+            actualizaciones.increment();
+            sender.sendUpdate(ventana.original, ultima, pendientes);
+        }
+        // Se retira después de encolar la actualización: quien ya no ve la ventana ve su envío
+        if (restanteNanos > 0) armar(ventana, Math.max(1, TimeUnit.NANOSECONDS.toMillis(restanteNanos)));
+        else ventanas.remove(ventana.clave, ventana);
+    }
+
+    /**
+     * Cierra la ventana cuya alerta original ha fallado. La alerta agrupada más reciente, si la
+     * hay, se envía como alerta nueva: no hay original a la que actualizar.
+     */
+    private void descartar(Ventana ventana) {
+        EmergencyEvent ultima;
+        synchronized (ventana) {
+            if (ventana.cerrada) return;
+            ultima = ventana.pendiente;
+            ventana.pendiente = null;
+            ventana.pendientes = 0;
+            ventana.cerrada = true;
+        }
+        ventanas.remove(ventana.clave, ventana);
+        if (ultima != null) {
+            try {
+                sendAlert(ultima);
+            } catch (RuntimeException e) {
+                System.err.println("⚠️ No se pudo reenviar la alerta agrupada: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Cierra todas las ventanas abiertas enviando ya sus actualizaciones pendientes.
+     * Se llama antes de cerrar el emisor para no perder lo agrupado.
+     */
+    public void vaciar() {
+        for (Ventana ventana : ventanas.values()) {
+            EmergencyEvent ultima;
+            int pendientes;
+            synchronized (ventana) {
+                if (ventana.cerrada) continue;
+                ultima = ventana.pendiente;
+                pendientes = ventana.pendientes;
+                ventana.pendiente = null;
+                ventana.cerrada = true;
+            }
+            if (ultima != null) {
+                actualizaciones.increment();
+                sender.sendUpdate(ventana.original, ultima, pendientes);
+            }
+            ventanas.remove(ventana.clave, ventana);
+        }
+    }
+
+    /** @return Alertas reenviadas al emisor (primeras de su ventana o sin agrupar). */
+    public long getEnviadas() { return enviadas.sum(); }
+
+    /** @return Alertas sumadas a una ventana abierta en lugar de enviarse. */
+    public long getAgrupadas() { return agrupadas.sum(); }
+
+    /** @return Actualizaciones enviadas por vencimiento de ventanas con alertas agrupadas. */
+    public long getActualizaciones() { return actualizaciones.sum(); }
+
+    /** @return Alertas enviadas sin agrupar por estar llenas las ventanas. */
+    public long getSinAgrupar() { return sinAgrupar.sum(); }
+
+    /** @return Ventanas abiertas ahora mismo. */
+    public int getVentanasAbiertas() { return ventanas.size(); }
+
+    /**
+     * Alertas de un usuario y tipo agrupadas con la primera. Se modifica con su monitor.
+     */
+    private static final class Ventana {
+        private final String clave;
+        private final IdEvento original;
+        private CompletableFuture<AcuseDespacho> acuse;
+        private long ultimaNanos = System.nanoTime();
+        private EmergencyEvent pendiente; // Más reciente sin enviar en una actualización
+        private int pendientes;
+        private boolean cerrada;
+
+        Ventana(String clave, IdEvento original) {
+            this.clave = clave;
+            this.original = original;
+        }
+    }
+}
@@ -0,0 +1,597 @@
+package main.java.com.emergencias.alert;
+
+import main.java.com.emergencias.model.IdEvento;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Motor de consultas sobre el log de alertas ({@code alertas_log.txt}) para auditoría.
+ * El log se mapea en memoria y se mantiene un índice auxiliar en {@code <log>.idx} con una
+ * entrada por línea (offset, segundo, ID y tipo). A partir de él se construyen en memoria:
+ * <ul>
+ *   <li>un mapa ID → offset (búsqueda exacta en O(1), también por los 8 primeros caracteres del ID
+ *       y por la forma corta de {@link IdEvento} que se muestra en pantalla),</li>
+ *   <li>listas de offsets por tipo de emergencia,</li>
+ *   <li>un índice temporal disperso (un bloque cada {@value #LINEAS_POR_BLOQUE} líneas) para saltar
+ *       directamente al inicio de un rango de fechas.</li>
+ * </ul>
+ * Cada consulta incorpora primero las líneas añadidas desde la última vez, leyendo solo la cola
+ * del fichero. Si el log se ha truncado o sustituido (tamaño menor o prefijo distinto, como tras
+ * sellar el segmento vivo), el índice se reconstruye desde cero.
+ *
+ * Los segmentos sellados ({@link SegmentosLog}) también entran en las consultas, antes que el vivo.
+ * Como ya no cambian, cada uno se indexa en memoria una sola vez (ID y tipo → número de línea y
+ * rango de fechas); las líneas encontradas se leen recorriendo solo los segmentos que las contienen.
+ * En las alertas de un segmento sellado el offset es el número de línea dentro del segmento.
+ *
+ * Formato del índice (big-endian):
+ * <pre>
+ *   int    magic ('AIDX')
+ *   short  versión
+ *   long   bytes del log ya indexados
+ *   int    longitud del prefijo del log verificado
+ *   long   CRC32 de ese prefijo
+ *   ...    registros: long offset, long segundo (UTC), UTF id, UTF tipo
+ * </pre>
+ */
+public class AlertLogQuery implements AutoCloseable {
+
+    public static final Path RUTA_LOG = Paths.get("alertas_log.txt");
+
+    private static final int MAGIC = 0x41494458; // 'AIDX'
+    private static final short VERSION = 1;
+    private static final int TAM_CABECERA = 4 + 2 + 8 + 4 + 8;
+    private static final int TAM_PREFIJO = 4096;
+    private static final int LONGITUD_ID_CORTO = 8;
+    static final int LINEAS_POR_BLOQUE = 64;
+
+    private final Path rutaLog;
+    private final Path rutaIndice;
+
+    private final Map<String, Long> porId = new HashMap<>();
+    private final Map<String, ListaOffsets> porIdCorto = new HashMap<>();
+    private final Map<String, ListaOffsets> porTipo = new HashMap<>();
+
+    // Índice temporal disperso: inicio de cada bloque, segundo mínimo del bloque y máximo acumulado
+    private long[] bloqueOffset = new long[16];
+    private long[] bloqueMinimo = new long[16];
+    private long[] bloqueMaximoAcumulado = new long[16];
+    private int bloques;
+    private int lineasEnUltimoBloque;
+
+    private long indexadoHasta;
+    private int longitudPrefijo;
+    private long crcPrefijo;
+    private long tamIndice;          // Bytes válidos del fichero .idx
+    private int entradas;
+    private boolean indiceCargado;
+
+    private MappedByteBuffer mapa;
+
+    // Segmentos sellados indexados, del más antiguo al más reciente
+    private Map<Path, IndiceSellado> sellados = new LinkedHashMap<>();
+
+    /**
+     * @param rutaLog Fichero de log a consultar. El índice se guarda junto a él con extensión {@code .idx}.
+     */
+    public AlertLogQuery(Path rutaLog) {
+        this.rutaLog = rutaLog;
+        this.rutaIndice = rutaLog.resolveSibling(rutaLog.getFileName() + ".idx");
+    }
+
+    public Path getRutaLog() { return rutaLog; }
+    public Path getRutaIndice() { return rutaIndice; }
+
+    // --- CONSULTAS ---
+
+    /**
+     * Busca una alerta por su ID completo.
+     * @return La línea del log o null si el ID no aparece.
+     */
+    public synchronized LineaLogAlerta buscarPorId(String idEvento) throws IOException {
+        actualizar();
+        Long offset = porId.get(idEvento);
+        if (offset != null) return leerLinea(offset);
+        for (IndiceSellado s : sellados.values()) {
+            Long numero = s.porId.get(idEvento);
+            if (numero == null) continue;
+            List<LineaLogAlerta> encontradas = new ArrayList<>(1);
+            leerSellado(s, new long[]{numero}, null, encontradas);
+            if (!encontradas.isEmpty()) return encontradas.get(0);
+        }
+        return null;
+    }
+
+    /**
+     * Busca las alertas cuyo ID empieza por el prefijo indicado (p. ej. "e7d7de5a", la forma
+     * corta de los logs antiguos) o cuya forma corta de {@link IdEvento} es la indicada
+     * (p. ej. "7ZK3M9Q2TB", la que se muestra ahora). Con 8 o más caracteres se resuelve por índice.
+     */
+    public synchronized List<LineaLogAlerta> buscarPorPrefijoId(String prefijo) throws IOException {
+        actualizar();
+        List<LineaLogAlerta> resultado = new ArrayList<>();
+        String corto = IdEvento.normalizarCorto(prefijo);
+        for (IndiceSellado s : sellados.values()) {
+            ListaOffsets numeros = corto == null ? null : s.porIdCorto.get(corto);
+            if (numeros != null) {
+                leerSellado(s, numeros.ordenados(), null, resultado);
+            } else if (prefijo.length() >= LONGITUD_ID_CORTO) {
+                numeros = s.porIdCorto.get(prefijo.substring(0, LONGITUD_ID_CORTO));
+                if (numeros != null) leerSellado(s, numeros.ordenados(), l -> l.getIdEvento().startsWith(prefijo), resultado);
+            } else {
+                ListaOffsets coincidentes = new ListaOffsets();
+                for (Map.Entry<String, Long> e : s.porId.entrySet()) {
+                    if (e.getKey().startsWith(prefijo)) coincidentes.agregar(e.getValue());
+                }
+                leerSellado(s, coincidentes.ordenados(), null, resultado);
+            }
+        }
+        ListaOffsets porCorto = corto == null ? null : porIdCorto.get(corto);
+        if (porCorto != null) {
+            for (int i = 0; i < porCorto.n; i++) {
+                LineaLogAlerta linea = leerLinea(porCorto.valores[i]);
+                if (linea != null) resultado.add(linea);
+            }
+            return resultado;
+        }
+        if (prefijo.length() >= LONGITUD_ID_CORTO) {
+            ListaOffsets candidatos = porIdCorto.get(prefijo.substring(0, LONGITUD_ID_CORTO));
+            if (candidatos == null) return resultado;
+            for (int i = 0; i < candidatos.n; i++) {
+                LineaLogAlerta linea = leerLinea(candidatos.valores[i]);
+                if (linea != null && linea.getIdEvento().startsWith(prefijo)) resultado.add(linea);
+            }
+        } else {
+            int desdeVivo = resultado.size();
+            for (Map.Entry<String, Long> e : porId.entrySet()) {
+                if (e.getKey().startsWith(prefijo)) resultado.add(leerLinea(e.getValue()));
+            }
+            resultado.subList(desdeVivo, resultado.size()).sort((a, b) -> Long.compare(a.getOffset(), b.getOffset()));
+        }
+        return resultado;
+    }
+
+    /**
+     * @return Todas las alertas del tipo indicado (sin distinguir mayúsculas ni tildes), en orden de escritura.
+     */
+    public synchronized List<LineaLogAlerta> buscarPorTipo(String tipo) throws IOException {
+        actualizar();
+        String normalizado = LineaLogAlerta.normalizarTipo(tipo);
+        List<LineaLogAlerta> resultado = new ArrayList<>();
+        for (IndiceSellado s : sellados.values()) {
+            ListaOffsets numeros = s.porTipo.get(normalizado);
+            if (numeros != null) leerSellado(s, numeros.ordenados(), null, resultado);
+        }
+        ListaOffsets offsets = porTipo.get(normalizado);
+        if (offsets == null) return resultado;
+        for (int i = 0; i < offsets.n; i++) resultado.add(leerLinea(offsets.valores[i]));
+        return resultado;
+    }
+
+    /**
+     * @return Alertas con marca de tiempo en [desde, hasta], ambos inclusive.
+     */
+    public List<LineaLogAlerta> buscarPorRango(LocalDateTime desde, LocalDateTime hasta) throws IOException {
+        return buscar(desde, hasta, null);
+    }
+
+    /**
+     * Recorre solo los bloques del log que pueden contener el rango pedido.
+     * Se asume que las líneas se escriben en orden aproximadamente cronológico (como hace
+     * {@link AlertLogWriter}); los pequeños desórdenes dentro de un bloque se toleran.
+     * @param tipo Filtro opcional por tipo de emergencia (null para todos).
+     * @return Alertas con marca de tiempo en [desde, hasta] en orden de escritura.
+     */
+    public synchronized List<LineaLogAlerta> buscar(LocalDateTime desde, LocalDateTime hasta, String tipo)
+            throws IOException {
+        actualizar();
+        long inicio = segundo(desde);
+        long fin = segundo(hasta);
+        String tipoNormalizado = tipo == null ? null : LineaLogAlerta.normalizarTipo(tipo);
+        List<LineaLogAlerta> resultado = new ArrayList<>();
+
+        for (IndiceSellado s : sellados.values()) {
+            if (s.segundoMinimo > fin || s.segundoMaximo < inicio) continue;
+            leerSellado(s, null, linea -> {
+                long seg = segundo(linea.getTimestamp());
+                return seg >= inicio && seg <= fin && (tipoNormalizado == null
+                        || tipoNormalizado.equals(LineaLogAlerta.normalizarTipo(linea.getTipo())));
+            }, resultado);
+        }
+
+        // Primer bloque cuyo máximo acumulado alcanza el inicio del rango
+        int b = Arrays.binarySearch(bloqueMaximoAcumulado, 0, bloques, inicio);
+        if (b < 0) {
+            b = -b - 1;
+        } else {
+            while (b > 0 && bloqueMaximoAcumulado[b - 1] == inicio) b--;
+        }
+
+        for (; b < bloques && bloqueMinimo[b] <= fin; b++) {
+            long pos = bloqueOffset[b];
+            long limite = b + 1 < bloques ? bloqueOffset[b + 1] : indexadoHasta;
+            while (pos < limite) {
+                long finLinea = buscarSaltoLinea(pos, limite);
+                LineaLogAlerta linea = LineaLogAlerta.parsear(decodificar(pos, finLinea), pos);
+                pos = finLinea + 1;
+                if (linea == null) continue;
+                long s = segundo(linea.getTimestamp());
+                if (s < inicio || s > fin) continue;
+                if (tipoNormalizado != null && !tipoNormalizado.equals(LineaLogAlerta.normalizarTipo(linea.getTipo()))) {
+                    continue;
+                }
+                resultado.add(linea);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * @return Número de alertas indexadas en todos los segmentos (tras incorporar las líneas nuevas).
+     */
+    public synchronized int size() throws IOException {
+        actualizar();
+        int total = entradas;
+        for (IndiceSellado s : sellados.values()) total += s.entradas;
+        return total;
+    }
+
+    // --- MANTENIMIENTO DEL ÍNDICE ---
+
+    /**
+     * Incorpora al índice las líneas completas añadidas al log desde la última llamada
+     * y persiste los nuevos registros en el fichero {@code .idx}. Indexa además los segmentos
+     * sellados nuevos y olvida los que ya no existen (retención) o han cambiado de nombre (compresión).
+     */
+    public synchronized void actualizar() throws IOException {
+        actualizarSellados();
+        if (!indiceCargado) {
+            cargarIndice();
+            indiceCargado = true;
+        }
+        long tam = Files.exists(rutaLog) ? Files.size(rutaLog) : 0;
+        if (tam < indexadoHasta) {
+            System.out.println("⚠️ El log de alertas ha encogido. Reconstruyendo el índice...");
+            reiniciar();
+        }
+        if (tam == 0) {
+            mapa = null;
+            return;
+        }
+        if (tam > Integer.MAX_VALUE) {
+            throw new IOException("El log de alertas supera los 2 GB y no puede mapearse en una sola región.");
+        }
+        if (mapa == null || mapa.capacity() != tam) mapear(tam);
+
+        if (indexadoHasta > 0 && crcDePrefijo(longitudPrefijo) != crcPrefijo) {
+            System.out.println("⚠️ El log de alertas ha sido sustituido. Reconstruyendo el índice...");
+            reiniciar();
+        }
+        if (indexadoHasta == tam) return;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream registros = new DataOutputStream(bytes);
+        long pos = indexadoHasta;
+        while (pos < tam) {
+            long finLinea = buscarSaltoLinea(pos, tam);
+            if (finLinea == tam) break; // Línea aún incompleta: se indexará en la siguiente llamada
+            LineaLogAlerta linea = LineaLogAlerta.parsear(decodificar(pos, finLinea), pos);
+            if (linea != null) {
+                long s = segundo(linea.getTimestamp());
+                registrar(pos, s, linea.getIdEvento(), linea.getTipo());
+                registros.writeLong(pos);
+                registros.writeLong(s);
+                registros.writeUTF(linea.getIdEvento());
+                registros.writeUTF(linea.getTipo());
+            }
+            pos = finLinea + 1;
+        }
+        if (pos == indexadoHasta) return;
+        indexadoHasta = pos;
+        if (longitudPrefijo < TAM_PREFIJO) {
+            longitudPrefijo = (int) Math.min(TAM_PREFIJO, indexadoHasta);
+            crcPrefijo = crcDePrefijo(longitudPrefijo);
+        }
+        registros.flush();
+        persistir(bytes.toByteArray());
+    }
+
+    private void actualizarSellados() throws IOException {
+        Map<Path, IndiceSellado> vigentes = new LinkedHashMap<>();
+        for (Path segmento : SegmentosLog.sellados(rutaLog)) {
+            IndiceSellado indice = sellados.get(segmento);
+            vigentes.put(segmento, indice != null ? indice : indexarSellado(segmento));
+        }
+        sellados = vigentes;
+    }
+
+    private static IndiceSellado indexarSellado(Path segmento) {
+        IndiceSellado indice = new IndiceSellado(segmento);
+        long numero = 0;
+        try (Stream<String> lineas = SegmentosLog.lineasDeSegmento(segmento)) {
+            for (String texto : (Iterable<String>) lineas::iterator) {
+                LineaLogAlerta linea = LineaLogAlerta.parsear(texto, numero);
+                if (linea != null) indice.registrar(numero, segundo(linea.getTimestamp()), linea.getIdEvento(), linea.getTipo());
+                numero++;
+            }
+        }
+        return indice;
+    }
+
+    /**
+     * Recorre un segmento sellado y añade al resultado las líneas pedidas.
+     * @param numeros Números de línea buscados, ordenados (null para todas).
+     * @param filtro Condición adicional sobre cada línea (puede ser null).
+     */
+    private static void leerSellado(IndiceSellado s, long[] numeros, Predicate<LineaLogAlerta> filtro,
+                                    List<LineaLogAlerta> resultado) {
+        if (numeros != null && numeros.length == 0) return;
+        long numero = 0;
+        int pendientes = numeros == null ? Integer.MAX_VALUE : numeros.length;
+        try (Stream<String> lineas = SegmentosLog.lineasDeSegmento(s.ruta)) {
+            for (String texto : (Iterable<String>) lineas::iterator) {
+                long actual = numero++;
+                if (numeros != null && Arrays.binarySearch(numeros, actual) < 0) continue;
+                LineaLogAlerta linea = LineaLogAlerta.parsear(texto, actual);
+                if (linea != null && (filtro == null || filtro.test(linea))) resultado.add(linea);
+                if (--pendientes == 0) break;
+            }
+        }
+    }
+
+    /** @return Forma corta del ID o null si no es un UUID (IDs de logs muy antiguos). */
+    private static String formaCorta(String id) {
+        try {
+            return IdEvento.parsear(id).corto();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void registrar(long offset, long segundo, String id, String tipo) {
+        porId.put(id, offset);
+        String corto = id.length() >= LONGITUD_ID_CORTO ? id.substring(0, LONGITUD_ID_CORTO) : id;
+        porIdCorto.computeIfAbsent(corto, k -> new ListaOffsets()).agregar(offset);
+        String formaCorta = formaCorta(id);
+        if (formaCorta != null) porIdCorto.computeIfAbsent(formaCorta, k -> new ListaOffsets()).agregar(offset);
+        porTipo.computeIfAbsent(LineaLogAlerta.normalizarTipo(tipo), k -> new ListaOffsets()).agregar(offset);
+
+        if (bloques == 0 || lineasEnUltimoBloque == LINEAS_POR_BLOQUE) {
+            if (bloques == bloqueOffset.length) {
+                bloqueOffset = Arrays.copyOf(bloqueOffset, bloques * 2);
+                bloqueMinimo = Arrays.copyOf(bloqueMinimo, bloques * 2);
+                bloqueMaximoAcumulado = Arrays.copyOf(bloqueMaximoAcumulado, bloques * 2);
+            }
+            bloqueOffset[bloques] = offset;
+            bloqueMinimo[bloques] = segundo;
+            bloqueMaximoAcumulado[bloques] = bloques == 0 ? segundo : bloqueMaximoAcumulado[bloques - 1];
+            bloques++;
+            lineasEnUltimoBloque = 0;
+        }
+        int ultimo = bloques - 1;
+        bloqueMinimo[ultimo] = Math.min(bloqueMinimo[ultimo], segundo);
+        bloqueMaximoAcumulado[ultimo] = Math.max(bloqueMaximoAcumulado[ultimo], segundo);
+        lineasEnUltimoBloque++;
+        entradas++;
+    }
+
+    private void reiniciar() {
+        porId.clear();
+        porIdCorto.clear();
+        porTipo.clear();
+        bloques = 0;
+        lineasEnUltimoBloque = 0;
+        entradas = 0;
+        indexadoHasta = 0;
+        longitudPrefijo = 0;
+        crcPrefijo = 0;
+        tamIndice = 0;
+    }
+
+    private void cargarIndice() {
+        if (!Files.exists(rutaIndice)) return;
+        try {
+            byte[] contenido = Files.readAllBytes(rutaIndice);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(contenido));
+            if (contenido.length < TAM_CABECERA || in.readInt() != MAGIC || in.readShort() != VERSION) {
+                System.out.println("⚠️ Índice del log no reconocido. Se reconstruirá.");
+                return;
+            }
+            long hasta = in.readLong();
+            int prefijo = in.readInt();
+            long crc = in.readLong();
+            long validos = TAM_CABECERA;
+            try {
+                while (in.available() > 0) {
+                    long offset = in.readLong();
+                    long segundo = in.readLong();
+                    String id = in.readUTF();
+                    String tipo = in.readUTF();
+                    // Registros escritos tras la última cabecera confirmada (caída a mitad de persistencia)
+                    if (offset >= hasta) break;
+                    registrar(offset, segundo, id, tipo);
+                    validos = contenido.length - in.available();
+                }
+            } catch (EOFException e) {
+                // Registro final incompleto: se descarta
+            }
+            indexadoHasta = hasta;
+            longitudPrefijo = prefijo;
+            crcPrefijo = crc;
+            tamIndice = validos;
+        } catch (IOException e) {
+            System.out.println("⚠️ No se pudo leer el índice del log (" + e.getMessage() + "). Se reconstruirá.");
+            reiniciar();
+        }
+    }
+
+    private void persistir(byte[] registros) throws IOException {
+        try (FileChannel canal = FileChannel.open(rutaIndice, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (tamIndice < TAM_CABECERA) tamIndice = TAM_CABECERA;
+            canal.truncate(tamIndice);
+            canal.write(ByteBuffer.wrap(registros), tamIndice);
+            tamIndice += registros.length;
+            // La cabecera se reescribe al final: solo entonces los registros nuevos cuentan como válidos
+            ByteBuffer cabecera = ByteBuffer.allocate(TAM_CABECERA);
+            cabecera.putInt(MAGIC).putShort(VERSION).putLong(indexadoHasta).putInt(longitudPrefijo).putLong(crcPrefijo);
+            cabecera.flip();
+            canal.write(cabecera, 0);
+        }
+    }
+
+    // --- ACCESO AL LOG MAPEADO ---
+
+    private void mapear(long tam) throws IOException {
+        try (FileChannel canal = FileChannel.open(rutaLog, StandardOpenOption.READ)) {
+            mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, tam);
+        }
+    }
+
+    private long crcDePrefijo(int longitud) {
+        CRC32 crc = new CRC32();
+        ByteBuffer vista = mapa.duplicate();
+        vista.limit(Math.min(longitud, vista.capacity()));
+        crc.update(vista);
+        return crc.getValue();
+    }
+
+    private long buscarSaltoLinea(long desde, long limite) {
+        for (long i = desde; i < limite; i++) {
+            if (mapa.get((int) i) == '\n') return i;
+        }
+        return limite;
+    }
+
+    private String decodificar(long desde, long hasta) {
+        byte[] bytes = new byte[(int) (hasta - desde)];
+        ByteBuffer vista = mapa.duplicate();
+        vista.position((int) desde);
+        vista.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private LineaLogAlerta leerLinea(long offset) {
+        long fin = buscarSaltoLinea(offset, indexadoHasta);
+        return LineaLogAlerta.parsear(decodificar(offset, fin), offset);
+    }
+
+    private static long segundo(LocalDateTime instante) {
+        return instante.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    @Override
+    public synchronized void close() {
+        mapa = null;
+    }
+
+    /**
+     * Lista creciente de offsets sin boxing.
+     */
+    private static final class ListaOffsets {
+        long[] valores = new long[4];
+        int n;
+
+        void agregar(long valor) {
+            if (n == valores.length) valores = Arrays.copyOf(valores, n * 2);
+            valores[n++] = valor;
+        }
+
+        long[] ordenados() {
+            long[] copia = Arrays.copyOf(valores, n);
+            Arrays.sort(copia);
+            return copia;
+        }
+    }
+
+    /**
+     * Índice en memoria de un segmento sellado, por número de línea.
+     */
+    private static final class IndiceSellado {
+        final Path ruta;
+        final Map<String, Long> porId = new HashMap<>();
+        final Map<String, ListaOffsets> porIdCorto = new HashMap<>();
+        final Map<String, ListaOffsets> porTipo = new HashMap<>();
+        long segundoMinimo = Long.MAX_VALUE;
+        long segundoMaximo = Long.MIN_VALUE;
+        int entradas;
+
+        IndiceSellado(Path ruta) {
+            this.ruta = ruta;
+        }
+
+        void registrar(long numero, long segundo, String id, String tipo) {
+            porId.put(id, numero);
+            String corto = id.length() >= LONGITUD_ID_CORTO ? id.substring(0, LONGITUD_ID_CORTO) : id;
+            porIdCorto.computeIfAbsent(corto, k -> new ListaOffsets()).agregar(numero);
+            String formaCorta = formaCorta(id);
+            if (formaCorta != null) porIdCorto.computeIfAbsent(formaCorta, k -> new ListaOffsets()).agregar(numero);
+            porTipo.computeIfAbsent(LineaLogAlerta.normalizarTipo(tipo), k -> new ListaOffsets()).agregar(numero);
+            segundoMinimo = Math.min(segundoMinimo, segundo);
+            segundoMaximo = Math.max(segundoMaximo, segundo);
+            entradas++;
+        }
+    }
+
+    // --- CONSULTA DESDE CONSOLA ---
+
+    /**
+     * Consultas rápidas para auditoría:
+     * <pre>
+     *   AlertLogQuery id &lt;id o prefijo&gt;
+     *   AlertLogQuery tipo &lt;tipo&gt;
+     *   AlertLogQuery rango "yyyy-MM-dd HH:mm:ss" "yyyy-MM-dd HH:mm:ss" [tipo]
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Uso: AlertLogQuery id <id> | tipo <tipo> | rango <desde> <hasta> [tipo]");
+            return;
+        }
+        DateTimeFormatter formato = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        try (AlertLogQuery consulta = new AlertLogQuery(RUTA_LOG)) {
+            List<LineaLogAlerta> resultado;
+            switch (args[0]) {
+                case "id":
+                    resultado = consulta.buscarPorPrefijoId(args[1]);
+                    break;
+                case "tipo":
+                    resultado = consulta.buscarPorTipo(args[1]);
+                    break;
+                case "rango":
+                    resultado = consulta.buscar(LocalDateTime.parse(args[1], formato), LocalDateTime.parse(args[2], formato),
+                            args.length > 3 ? args[3] : null);
+                    break;
+                default:
+                    System.out.println("❌ Consulta desconocida: " + args[0]);
+                    return;
+            }
+            resultado.forEach(System.out::println);
+            System.out.printf("🔎 %d alerta(s) encontradas de %d indexadas.%n", resultado.size(), consulta.size());
+        }
+    }
+}
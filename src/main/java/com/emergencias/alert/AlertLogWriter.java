@@ -0,0 +1,374 @@
+package main.java.com.emergencias.alert;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Escritor de larga duración del log de alertas con confirmación en grupo.
+ * Es el único propietario de su {@link FileChannel}: los escritores concurrentes copian su
+ * línea en un búfer compartido y un hilo volcador escribe cada lote con una sola llamada
+ * {@code write}, seguida opcionalmente de un {@code force} según la {@link PoliticaDurabilidad}.
+ *
+ * {@link #escribir(String)} vuelve cuando la línea ya está en el fichero (y, con la política
+ * {@code CADA_ALERTA}, cuando ya está en disco). El fichero se crea con la primera línea.
+ *
+ * Con una {@link PoliticaRotacion} activa, el volcador sella el segmento vivo antes de un lote
+ * que le haría superar el tamaño máximo (o cuando ha superado su duración): lo fuerza a disco,
+ * lo renombra a {@code alertas_log.NNNNNN.txt} y abre uno nuevo. El instante en que se abrió el
+ * segmento vivo se guarda en {@code <log>.inicio}, porque la fecha de creación del fichero no es
+ * fiable en muchos sistemas de ficheros. La compresión y la retención se hacen en un hilo de baja
+ * prioridad, así que los escritores nunca esperan por ellas.
+ * Ver {@link SegmentosLog} para leer todos los segmentos en orden.
+ *
+ * Si un volcado falla, solo reciben el error los escritores de ese lote; el lote se conserva y
+ * se reintenta junto con las líneas siguientes, así que un fallo pasajero no pierde líneas ni
+ * hace fallar a los escritores posteriores. Al cerrar se reintenta un número acotado de veces.
+ */
+public class AlertLogWriter implements AutoCloseable {
+
+    private static final int CAPACIDAD_INICIAL = 64 * 1024;
+    private static final long REINTENTO_MINIMO_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long REINTENTO_MAXIMO_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final int INTENTOS_AL_CERRAR = 3;
+    private static final long ESPERA_CIERRE_MS = 30_000;
+
+    private final Path ruta;
+    private final Path rutaInicio;   // Instante de apertura del segmento vivo (epoch ms)
+    private final PoliticaDurabilidad politica;
+    private final PoliticaRotacion rotacion;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hayDatos = lock.newCondition();
+    private final Condition loteVolcado = lock.newCondition();
+
+    private ByteBuffer activo = ByteBuffer.allocate(CAPACIDAD_INICIAL);   // Recibe las líneas nuevas
+    private ByteBuffer enVolcado = ByteBuffer.allocate(CAPACIDAD_INICIAL); // Lo escribe el volcador; conserva un lote fallido
+    private long secuenciaAgregada;
+    private long secuenciaEscrita;
+    private long secuenciaForzada;
+    private long secuenciaFallida;      // Hasta dónde llegaba el último lote cuyo volcado falló
+    private IOException errorVolcado;   // Error de ese lote
+    private boolean cerrado;
+
+    private FileChannel canal;
+    private Thread volcador;
+    private long alertasSinForzar;
+    private long ultimoForzadoNanos = System.nanoTime();
+    private boolean reintentar;       // El último volcado falló (solo lo toca el volcador)
+    private long esperaReintentoNanos = REINTENTO_MINIMO_NANOS;
+    private int fallosTrasCierre;
+
+    // Estado del segmento vivo (solo lo toca el hilo volcador)
+    private long tamSegmento;
+    private long inicioSegmentoMs;
+    private int ultimoSegmento = -1;
+    private ExecutorService compresor;
+
+    /**
+     * @param ruta Fichero de log (se abre en modo append).
+     * @param politica Política de forzado a disco.
+     */
+    public AlertLogWriter(Path ruta, PoliticaDurabilidad politica) {
+        this(ruta, politica, PoliticaRotacion.sinRotacion());
+    }
+
+    /**
+     * @param ruta Segmento vivo del log (se abre en modo append).
+     * @param politica Política de forzado a disco.
+     * @param rotacion Cuándo sellar el segmento vivo y cuántos segmentos sellados conservar.
+     */
+    public AlertLogWriter(Path ruta, PoliticaDurabilidad politica, PoliticaRotacion rotacion) {
+        this.ruta = ruta;
+        this.rutaInicio = ruta.resolveSibling(ruta.getFileName() + ".inicio");
+        this.politica = politica;
+        this.rotacion = rotacion;
+    }
+
+    public Path getRuta() { return ruta; }
+    public PoliticaDurabilidad getPolitica() { return politica; }
+    public PoliticaRotacion getRotacion() { return rotacion; }
+
+    /**
+     * Añade una línea al log, agrupándola con las de otros escritores concurrentes.
+     * @param linea Línea completa (incluido el salto de línea final).
+     * @throws UncheckedIOException si falla el volcado del lote de esta línea (se reintentará con el siguiente).
+     */
+    public void escribir(String linea) {
+        escribir(ByteBuffer.wrap(linea.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Añade una línea ya codificada en UTF-8 (p. ej. de {@link CodificadorAlertas#lineaLog}).
+     * Sus bytes se copian antes de volver, así que el búfer puede reutilizarse después.
+     * @param linea Bytes restantes del búfer (incluido el salto de línea final).
+     * @throws UncheckedIOException si falla el volcado del lote de esta línea (se reintentará con el siguiente).
+     */
+    public void escribir(ByteBuffer linea) {
+        lock.lock();
+        try {
+            if (cerrado) throw new IllegalStateException("El log de alertas está cerrado.");
+            if (volcador == null) iniciarVolcador();
+            if (activo.remaining() < linea.remaining()) activo = ampliar(activo, linea.remaining());
+            activo.put(linea);
+            long secuencia = ++secuenciaAgregada;
+            hayDatos.signal();
+
+            boolean esperarForzado = politica.getModo() == PoliticaDurabilidad.Modo.CADA_ALERTA;
+            while ((esperarForzado ? secuenciaForzada : secuenciaEscrita) < secuencia && secuenciaFallida < secuencia) {
+                loteVolcado.awaitUninterruptibly();
+            }
+            if ((esperarForzado ? secuenciaForzada : secuenciaEscrita) < secuencia) {
+                throw new UncheckedIOException("Error al volcar el log de alertas", errorVolcado);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void iniciarVolcador() {
+        volcador = new Thread(this::bucleVolcado, "alertas-log-volcador");
+        volcador.setDaemon(true);
+        volcador.start();
+    }
+
+    private void bucleVolcado() {
+        while (true) {
+            long hasta;
+            int alertasLote;
+            lock.lock();
+            try {
+                while (activo.position() == 0 && !cerrado) {
+                    if (reintentar) {
+                        hayDatos.awaitNanos(esperaReintentoNanos);
+                        break;
+                    } else if (politica.getModo() == PoliticaDurabilidad.Modo.CADA_MILISEGUNDOS && alertasSinForzar > 0) {
+                        // Despierta a tiempo para forzar lo pendiente aunque no lleguen más alertas
+                        hayDatos.awaitNanos(TimeUnit.MILLISECONDS.toNanos(politica.getValor()));
+                        break;
+                    } else {
+                        hayDatos.awaitUninterruptibly();
+                    }
+                }
+                if (cerrado && reintentar) hayDatos.awaitNanos(REINTENTO_MINIMO_NANOS);
+                boolean pendiente = activo.position() > 0 || enVolcado.position() > 0 || alertasSinForzar > 0;
+                if (cerrado && (!pendiente || fallosTrasCierre >= INTENTOS_AL_CERRAR)) {
+                    if (pendiente) {
+                        // Se abandona lo pendiente: sus escritores reciben el último error
+                        secuenciaFallida = secuenciaAgregada;
+                        loteVolcado.signalAll();
+                        System.err.printf("❌ El log de alertas se cierra con %d alerta(s) sin volcar o sin forzar a disco.\n",
+                                secuenciaAgregada - secuenciaForzada);
+                    }
+                    return;
+                }
+                if (enVolcado.position() > 0) {
+                    // Lote fallido pendiente: las líneas nuevas se añaden detrás para reintentarlo todo junto
+                    activo.flip();
+                    if (enVolcado.remaining() < activo.remaining()) enVolcado = ampliar(enVolcado, activo.remaining());
+                    enVolcado.put(activo);
+                    activo.clear();
+                } else {
+                    ByteBuffer lleno = activo;
+                    activo = enVolcado;
+                    enVolcado = lleno;
+                }
+                hasta = secuenciaAgregada;
+                alertasLote = (int) (hasta - secuenciaEscrita);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            boolean escrito = false;
+            boolean forzado = false;
+            IOException error = null;
+            try {
+                enVolcado.flip();
+                if (enVolcado.hasRemaining()) {
+                    if (canal == null) abrirSegmento();
+                    if (debeRotar(enVolcado.remaining())) {
+                        sellarSegmento();
+                        abrirSegmento();
+                    }
+                    while (enVolcado.hasRemaining()) tamSegmento += canal.write(enVolcado);
+                }
+                escrito = true;
+                alertasSinForzar += alertasLote;
+                if (canal != null && alertasSinForzar > 0 && debeForzar()) {
+                    canal.force(false);
+                    alertasSinForzar = 0;
+                    ultimoForzadoNanos = System.nanoTime();
+                    forzado = true;
+                }
+            } catch (IOException e) {
+                error = e;
+            } finally {
+                // Lo que no llegó a escribirse se conserva al principio del búfer para el reintento
+                enVolcado.compact();
+            }
+
+            lock.lock();
+            try {
+                if (escrito) secuenciaEscrita = hasta;
+                if (forzado) secuenciaForzada = hasta;
+                reintentar = error != null;
+                esperaReintentoNanos = reintentar ? Math.min(esperaReintentoNanos * 2, REINTENTO_MAXIMO_NANOS)
+                        : REINTENTO_MINIMO_NANOS;
+                if (error != null) {
+                    errorVolcado = error;
+                    secuenciaFallida = hasta;
+                    if (cerrado) fallosTrasCierre++;
+                    if (canal != null && !canal.isOpen()) canal = null;
+                    System.err.println("❌ Error de I/O al escribir el log: " + error.getMessage());
+                }
+                loteVolcado.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void abrirSegmento() throws IOException {
+        canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        tamSegmento = canal.size();
+        inicioSegmentoMs = tamSegmento > 0 ? leerInicioSegmento() : System.currentTimeMillis();
+        if (rotacion.getDuracionMaximaMs() > 0 && tamSegmento == 0) {
+            Files.writeString(rutaInicio, Long.toString(inicioSegmentoMs), StandardCharsets.US_ASCII);
+        }
+        if (rotacion.rota() && ultimoSegmento < 0) {
+            // Primer arranque: continúa la numeración y recupera compresiones interrumpidas
+            ultimoSegmento = SegmentosLog.ultimoNumero(ruta);
+            for (Path pendiente : SegmentosLog.pendientesDeComprimir(ruta)) programarCompresion(pendiente);
+        }
+    }
+
+    /**
+     * @return Instante de apertura del segmento vivo ya existente. Si no se anotó (log anterior a
+     *         la rotación o anotación perdida), se toma como inicio el momento actual y se anota.
+     */
+    private long leerInicioSegmento() throws IOException {
+        if (rotacion.getDuracionMaximaMs() == 0) return System.currentTimeMillis();
+        try {
+            return Long.parseLong(Files.readString(rutaInicio, StandardCharsets.US_ASCII).trim());
+        } catch (NoSuchFileException | NumberFormatException e) {
+            long ahora = System.currentTimeMillis();
+            Files.writeString(rutaInicio, Long.toString(ahora), StandardCharsets.US_ASCII);
+            return ahora;
+        }
+    }
+
+    private boolean debeRotar(int bytesLote) {
+        if (!rotacion.rota() || tamSegmento == 0) return false;
+        if (rotacion.getBytesMaximos() > 0 && tamSegmento + bytesLote > rotacion.getBytesMaximos()) return true;
+        return rotacion.getDuracionMaximaMs() > 0
+                && System.currentTimeMillis() - inicioSegmentoMs >= rotacion.getDuracionMaximaMs();
+    }
+
+    /**
+     * Fuerza y cierra el segmento vivo y lo renombra al siguiente número de segmento sellado.
+     */
+    private void sellarSegmento() throws IOException {
+        canal.force(false);
+        canal.close();
+        canal = null;
+        Path sellado = SegmentosLog.rutaSellado(ruta, ultimoSegmento + 1);
+        Files.move(ruta, sellado, StandardCopyOption.ATOMIC_MOVE);
+        ultimoSegmento++;
+        programarCompresion(sellado);
+    }
+
+    private void programarCompresion(Path segmento) {
+        if (compresor == null) {
+            compresor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "alertas-log-compresor");
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            });
+        }
+        compresor.execute(() -> {
+            try {
+                SegmentosLog.comprimir(segmento);
+                int borrados = SegmentosLog.aplicarRetencion(ruta, rotacion);
+                if (borrados > 0) System.out.printf("🗑️ Retención del log: %d segmento(s) antiguos borrados.\n", borrados);
+            } catch (IOException e) {
+                System.err.println("⚠️ Error al comprimir el segmento " + segmento + ": " + e.getMessage());
+            }
+        });
+    }
+
+    private boolean debeForzar() {
+        if (cerrado) return true;
+        switch (politica.getModo()) {
+            case CADA_N_ALERTAS:
+                return alertasSinForzar >= politica.getValor();
+            case CADA_MILISEGUNDOS:
+                return System.nanoTime() - ultimoForzadoNanos >= TimeUnit.MILLISECONDS.toNanos(politica.getValor());
+            default:
+                return true;
+        }
+    }
+
+    private static ByteBuffer ampliar(ByteBuffer actual, int necesario) {
+        int capacidad = actual.capacity();
+        while (capacidad - actual.position() < necesario) capacidad *= 2;
+        ByteBuffer mayor = ByteBuffer.allocate(capacidad);
+        actual.flip();
+        mayor.put(actual);
+        return mayor;
+    }
+
+    /**
+     * Vuelca y fuerza lo pendiente, libera el fichero y espera a las compresiones en curso.
+     */
+    @Override
+    public void close() {
+        Thread hilo;
+        lock.lock();
+        try {
+            if (cerrado) return;
+            cerrado = true;
+            hayDatos.signal();
+            hilo = volcador;
+        } finally {
+            lock.unlock();
+        }
+        if (hilo != null) {
+            try {
+                hilo.join(ESPERA_CIERRE_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (hilo.isAlive()) System.err.println("⚠️ El volcado del log de alertas no terminó a tiempo al cerrar.");
+        }
+        if (canal != null) {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                System.err.println("⚠️ Error al cerrar el log de alertas: " + e.getMessage());
+            }
+        }
+        if (compresor != null) {
+            compresor.shutdown();
+            try {
+                compresor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -1,129 +1,334 @@
 package main.java.com.emergencias.alert;
 
+import main.java.com.emergencias.contactos.CanalLocalSimulado;
+import main.java.com.emergencias.contactos.EntregaContacto;
+import main.java.com.emergencias.contactos.NotificadorContactos;
+import main.java.com.emergencias.metricas.FaseAlerta;
+import main.java.com.emergencias.metricas.RegistroMetricas;
 import main.java.com.emergencias.model.EmergencyEvent;
+import main.java.com.emergencias.model.IdEvento;
 import main.java.com.emergencias.model.UserData;
+import main.java.com.emergencias.respaldo.BandejaSalida;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Clase encargada de empaquetar, persistir y simular el envío de alertas
  * a servicios de emergencia y servidores centralizados.
+ *
+ * El envío se organiza como una canalización por etapas, cada una con su cola acotada
+ * y sus trabajadores: primero el despacho crítico al destino (paquete, log local y bandeja
+ * del respaldo), cuyo acuse se devuelve en cuanto termina, y después, fuera de la ruta
+ * crítica, la notificación a contactos personales. La duración de cada etapa se anota en
+ * el {@link RegistroMetricas} global.
+ *
+ * El respaldo consiste en anotar la alerta en una {@link BandejaSalida} en disco antes del
+ * acuse, de modo que toda alerta confirmada está en la bandeja; desde allí la sube por lotes
+ * un {@link main.java.com.emergencias.respaldo.ClienteRespaldo}. Los contactos personales se
+ * avisan en paralelo con un {@link NotificadorContactos}.
  */
-public class AlertSender {
+public class AlertSender implements EmisorAlertas {
     private static final String ALERT_LOG_FILE = "alertas_log.txt";
     private final String destino;
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    private final ThreadPoolExecutor etapaDespacho;
+    private final ThreadPoolExecutor etapaContactos;
+    private final AlertLogWriter logWriter;
+    private final Path rutaLog;
+    private final BandejaSalida bandeja; // null: sin respaldo en la nube
+    private final NotificadorContactos notificador;
+    private final boolean trazas; // Mensajes de consola por alerta (desactivados en modo sin interfaz)
+    private final RegistroMetricas metricas = RegistroMetricas.global();
+
     /**
-     * Constructor.
+     * Constructor con la configuración de canalización por defecto.
      * @param destino El servicio de emergencia o contacto de destino (e.g., "112").
      */
     public AlertSender(String destino) {
+        this(destino, ConfiguracionPipeline.porDefecto());
+    }
+
+    /**
+     * Constructor con la configuración por defecto y respaldo en la nube.
+     * @param destino El servicio de emergencia o contacto de destino (e.g., "112").
+     * @param bandeja Bandeja de salida donde se anota cada alerta para subirla a la nube.
+     */
+    public AlertSender(String destino, BandejaSalida bandeja) {
+        this(destino, ConfiguracionPipeline.porDefecto(), Paths.get(ALERT_LOG_FILE), bandeja);
+    }
+
+    /**
+     * Constructor.
+     * @param destino El servicio de emergencia o contacto de destino (e.g., "112").
+     * @param config Colas, trabajadores y política de contrapresión de cada etapa.
+     */
+    public AlertSender(String destino, ConfiguracionPipeline config) {
+        this(destino, config, Paths.get(ALERT_LOG_FILE));
+    }
+
+    /**
+     * Constructor con un log de alertas distinto del habitual (pruebas, benchmarks).
+     * @param destino El servicio de emergencia o contacto de destino (e.g., "112").
+     * @param config Colas, trabajadores y política de contrapresión de cada etapa.
+     * @param rutaLog Fichero del log de alertas.
+     */
+    public AlertSender(String destino, ConfiguracionPipeline config, Path rutaLog) {
+        this(destino, config, rutaLog, null);
+    }
+
+    /**
+     * Constructor con los contactos avisados por el canal local simulado.
+     * @param destino El servicio de emergencia o contacto de destino (e.g., "112").
+     * @param config Colas, trabajadores y política de contrapresión de cada etapa.
+     * @param rutaLog Fichero del log de alertas.
+     * @param bandeja Bandeja de salida del respaldo en la nube, o null para no respaldar.
+     */
+    public AlertSender(String destino, ConfiguracionPipeline config, Path rutaLog, BandejaSalida bandeja) {
+        this(destino, config, rutaLog, bandeja,
+                new NotificadorContactos(new CanalLocalSimulado(config.hayTrazasConsola())));
+    }
+
+    /**
+     * Constructor completo.
+     * @param destino El servicio de emergencia o contacto de destino (e.g., "112").
+     * @param config Colas, trabajadores y política de contrapresión de cada etapa.
+     * @param rutaLog Fichero del log de alertas.
+     * @param bandeja Bandeja de salida del respaldo en la nube, o null para no respaldar.
+     * @param notificador Aviso a los contactos de emergencia del usuario.
+     */
+    public AlertSender(String destino, ConfiguracionPipeline config, Path rutaLog, BandejaSalida bandeja,
+                       NotificadorContactos notificador) {
         this.destino = destino;
+        this.etapaDespacho = config.crearEtapa("alertas-despacho");
+        this.etapaContactos = config.crearEtapa("alertas-contactos");
+        this.trazas = config.hayTrazasConsola();
+        this.rutaLog = rutaLog;
+        this.bandeja = bandeja;
+        this.notificador = notificador;
+        this.logWriter = new AlertLogWriter(rutaLog, config.getDurabilidad(), config.getRotacion());
     }
 
     /**
-     * Empaqueta la información del evento, simula el envío y lo persiste localmente y en la nube.
+     * Encola el evento en la canalización de envío.
+     * El futuro devuelto se completa en cuanto el destino ha recibido la alerta y esta
+     * consta en el log local y en la bandeja del respaldo; los contactos siguen en segundo plano.
      * @param event El evento de emergencia confirmado y grave.
+     * @return Futuro con el acuse del despacho (termina con error si el evento no es válido o se rechaza).
      */
-    public void sendAlert(EmergencyEvent event) {
+    @Override
+    public CompletableFuture<AcuseDespacho> sendAlert(EmergencyEvent event) {
         if (event == null || !event.esGrave()) {
             System.err.println("Alerta no enviada: El evento es nulo o no fue validado como grave.");
-            return;
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("El evento es nulo o no fue validado como grave."));
+        }
+
+        CompletableFuture<AcuseDespacho> acuse = new CompletableFuture<>();
+        try {
+            etapaDespacho.execute(() -> despachar(event, acuse));
+        } catch (RejectedExecutionException e) {
+            System.err.println("❌ Alerta rechazada por saturación del despacho: " + event.getIdEvento());
+            acuse.completeExceptionally(e);
         }
+        return acuse;
+    }
+
+    /**
+     * Etapa crítica: genera el paquete, lo envía al destino y lo persiste localmente.
+     */
+    private void despachar(EmergencyEvent event, CompletableFuture<AcuseDespacho> acuse) {
+        try {
+            // 1. Generar paquete de datos completo (incluyendo signos vitales) en el búfer del hilo
+            long inicio = System.nanoTime();
+            CodificadorAlertas codificador = CodificadorAlertas.delHilo();
+            StringBuilder paqueteDatos = codificador.paquete(destino, event);
+            metricas.registrarDesde(FaseAlerta.PAQUETE, inicio);
+            if (trazas) {
+                System.out.println("\n--- MÓDULO DE NOTIFICACIÓN DE EMERGENCIA ---");
+                System.out.println("Paquete de datos de alerta generado:");
+                System.out.println(paqueteDatos);
+                System.out.printf("🚀 Enviando alerta prioritaria a %s...\n", destino);
+            }
 
-        System.out.println("\n--- MÓDULO DE NOTIFICACIÓN DE EMERGENCIA ---");
+            // 2. Simular envío y persistencia local
+            inicio = System.nanoTime();
+            persistAlert(event);
+            metricas.registrarDesde(FaseAlerta.PERSISTENCIA, inicio);
 
-        // 1. Generar paquete de datos completo (incluyendo signos vitales)
-        String paqueteDatos = buildAlertPackage(event);
-        System.out.println("Paquete de datos de alerta generado:");
-        System.out.println(paqueteDatos);
+            // 3. Respaldo: se anota en la bandeja antes del acuse, nunca se descarta por contrapresión
+            if (bandeja != null) {
+                inicio = System.nanoTime();
+                respaldar(event);
+                metricas.registrarDesde(FaseAlerta.RESPALDO, inicio);
+            }
 
-        // 2. Simular envío y persistencia local
-        System.out.printf("🚀 Enviando alerta prioritaria a %s...\n", destino);
-        persistAlert(event);
+            LocalDateTime instante = LocalDateTime.now();
+            if (trazas) {
+                System.out.printf("✅ Alerta enviada con éxito a %s a las %s.\n", destino, instante.format(FORMATTER));
+            }
 
-        // 3. Simular respaldo en la nube (Viene de v2)
-        simulateCloudBackup(event);
+            // 4. Contactos personales, fuera de la ruta crítica
+            CompletableFuture<Void> contactos = new CompletableFuture<>();
+            acuse.complete(new AcuseDespacho(event.getIdEvento(), destino, instante, contactos));
 
-        // 4. Notificar a contactos personales
-        notifyContacts(event.getDatosUsuario());
+            encolar(etapaContactos, contactos, FaseAlerta.CONTACTOS, () -> notifyContacts(event));
+        } catch (RuntimeException e) {
+            acuse.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Encola la actualización de una alerta ya despachada con las alertas del mismo usuario y
+     * tipo que se han agrupado con ella (ver {@link AgrupadorAlertas}). Solo pasa por el despacho
+     * (destino y log local): el respaldo y los contactos ya se hicieron con la alerta original.
+     * @param original Alerta ya despachada.
+     * @param ultima Alerta agrupada más reciente (su ubicación y signos vitales son los que se envían).
+     * @param agrupadas Alertas agrupadas desde la última actualización.
+     * @return Futuro con el acuse de la actualización.
+     */
+    public CompletableFuture<AcuseDespacho> sendUpdate(IdEvento original, EmergencyEvent ultima, int agrupadas) {
+        CompletableFuture<AcuseDespacho> acuse = new CompletableFuture<>();
+        try {
+            etapaDespacho.execute(() -> despacharActualizacion(original, ultima, agrupadas, acuse));
+        } catch (RejectedExecutionException e) {
+            System.err.println("⚠️ Actualización descartada por saturación del despacho: " + original);
+            acuse.completeExceptionally(e);
+        }
+        return acuse;
+    }
 
-        System.out.printf("✅ Alerta enviada con éxito a %s a las %s.\n", destino, LocalDateTime.now().format(FORMATTER));
+    private void despacharActualizacion(IdEvento original, EmergencyEvent ultima, int agrupadas,
+                                        CompletableFuture<AcuseDespacho> acuse) {
+        try {
+            CodificadorAlertas codificador = CodificadorAlertas.delHilo();
+            StringBuilder paquete = codificador.paqueteActualizacion(destino, original, ultima, agrupadas);
+            if (trazas) {
+                System.out.printf("\n🔁 Actualizando la alerta en curso en %s (%d agrupada(s)):\n", destino, agrupadas);
+                System.out.println(paquete);
+            }
+            logWriter.escribir(codificador.lineaActualizacion(original, ultima, agrupadas, System.currentTimeMillis()));
+            acuse.complete(new AcuseDespacho(original.toString(), destino, LocalDateTime.now(),
+                    CompletableFuture.completedFuture(null)));
+        } catch (RuntimeException e) {
+            System.err.println("❌ Error al despachar la actualización de " + original + ": " + e.getMessage());
+            acuse.completeExceptionally(e);
+        }
+    }
+
+    private void encolar(ThreadPoolExecutor etapa, CompletableFuture<Void> resultado, FaseAlerta fase, Runnable tarea) {
+        try {
+            etapa.execute(() -> {
+                try {
+                    long inicio = System.nanoTime();
+                    tarea.run();
+                    metricas.registrarDesde(fase, inicio);
+                    resultado.complete(null);
+                } catch (RuntimeException e) {
+                    resultado.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            System.err.println("⚠️ Etapa secundaria saturada, tarea descartada: " + e.getMessage());
+            resultado.completeExceptionally(e);
+        }
     }
 
     /**
-     * Construye la cadena de datos clave para el envío, integrando información médica en tiempo real.
+     * Cierra la canalización esperando a que terminen las alertas ya aceptadas
+     * y vuelca a disco lo pendiente del log.
+     * @param timeoutSeconds Tiempo máximo de espera por etapa.
      */
-    private String buildAlertPackage(EmergencyEvent event) {
-        UserData user = event.getDatosUsuario();
-        String signosInfo = (event.getVitalSigns() != null) ? event.getVitalSigns().toString() : "No disponibles";
+    public void cerrar(long timeoutSeconds) {
+        // El despacho alimenta a las etapas secundarias: se vacía primero
+        for (ThreadPoolExecutor etapa : new ThreadPoolExecutor[]{etapaDespacho, etapaContactos}) {
+            etapa.shutdown();
+            try {
+                if (!etapa.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                    System.err.println("⚠️ La etapa no terminó a tiempo; tareas pendientes: " + etapa.getQueue().size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        logWriter.close();
+    }
 
-        return String.format(
-                "DESTINO: %s | TIPO: %s | ID Evento: %s\n" +
-                        "UBICACIÓN: %s\n" +
-                        "INFO PACIENTE: %s (Tel: %s)\n" +
-                        "INFO MÉDICA: %s\n" +
-                        "SIGNOS VITALES: %s\n",
-                destino, event.getTipoEmergencia(), event.getIdEvento().substring(0, 8),
-                event.getUbicacion(), user.getNombre(), user.getTelefono(), user.getInfoMedica(),
-                signosInfo
-        );
+    /**
+     * Construye la cadena de datos clave para el envío, integrando información médica en tiempo real.
+     * Visible en el paquete para medirla en los benchmarks.
+     */
+    String buildAlertPackage(EmergencyEvent event) {
+        return CodificadorAlertas.delHilo().paquete(destino, event).toString();
     }
 
     /**
      * Persiste la alerta en un archivo de log local.
      * Formato optimizado para trazabilidad y pruebas unitarias.
+     * @throws UncheckedIOException si la línea no llega al log con la durabilidad configurada;
+     *         el acuse del despacho termina entonces con ese error.
      */
-    private void persistAlert(EmergencyEvent event) {
-        try (FileWriter writer = new FileWriter(ALERT_LOG_FILE, true)) {
-            UserData user = event.getDatosUsuario();
-            String signosInfo = (event.getVitalSigns() != null) ? event.getVitalSigns().toString() : "N/A";
-
-            String logLine = String.format(
-                    "[%s] ALERTA GRAVE | Tipo: %s | ID: %s | Vitales: %s | Ubicacion: %s | Usuario: %s\n",
-                    LocalDateTime.now().format(FORMATTER),
-                    event.getTipoEmergencia(),
-                    event.getIdEvento(),
-                    signosInfo,
-                    event.getUbicacion(),
-                    user.getNombre()
-            );
-
-            writer.write(logLine);
-            System.out.printf("📝 Alerta guardada en el log: %s\n", ALERT_LOG_FILE);
-        } catch (IOException e) {
-            System.err.println("❌ Error de I/O al escribir el log: " + e.getMessage());
-        } catch (Exception e) {
-            System.err.println("❌ Error desconocido al guardar la alerta: " + e.getMessage());
+    void persistAlert(EmergencyEvent event) {
+        try {
+            // Se codifica en el búfer del hilo; el escritor agrupa las líneas de todos los
+            // despachos concurrentes en un solo write
+            logWriter.escribir(CodificadorAlertas.delHilo().lineaLog(event, System.currentTimeMillis()));
+            if (trazas) System.out.printf("📝 Alerta guardada en el log: %s\n", rutaLog);
+        } catch (UncheckedIOException e) {
+            System.err.println("❌ Error de I/O al escribir el log: " + e.getCause().getMessage());
+            throw e;
         }
     }
 
     /**
-     * Simula una conexión segura con un servidor central para respaldo de datos.
+     * Anota la alerta en la bandeja de salida del respaldo. Vuelve cuando está en disco;
+     * la subida a la nube se hace después, por lotes.
      */
-    private void simulateCloudBackup(EmergencyEvent event) {
-        System.out.println("☁️ Iniciando conexión segura con el servidor central...");
+    private void respaldar(EmergencyEvent event) {
+        if (bandeja == null) return;
         try {
-            System.out.print("   Subiendo datos encriptados: [");
-            for (int i = 0; i < 10; i++) {
-                System.out.print("=");
-                Thread.sleep(50);
-            }
-            System.out.println("] 100%");
-            System.out.println("☁️ Respaldo completado. ID: CLOUD-" + Math.abs(event.getIdEvento().hashCode()));
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            bandeja.anotar(event.getId(), CodificadorAlertas.delHilo().lineaLog(event, System.currentTimeMillis()));
+            if (trazas) System.out.println("☁️ Respaldo anotado en la bandeja de salida; se subirá en el próximo lote.");
+        } catch (IOException e) {
+            System.err.println("❌ Error de I/O al anotar el respaldo: " + e.getMessage());
+            throw new UncheckedIOException(e);
         }
     }
 
     /**
-     * Notifica a los contactos de emergencia registrados del usuario.
+     * Avisa en paralelo a los contactos de emergencia registrados del usuario.
+     * Vuelve cuando todos han recibido el aviso o se han agotado sus canales.
+     * @return Resultado por contacto (vacío si el usuario no tiene contactos).
      */
-    public void notifyContacts(UserData user) {
-        System.out.printf("📞 Notificando a contactos personales de %s (simulado vía SMS/llamada).\n", user.getNombre());
+    public List<EntregaContacto> notifyContacts(EmergencyEvent event) {
+        UserData user = event.getDatosUsuario();
+        if (user.getContactos().isEmpty()) {
+            if (trazas) System.out.printf("📞 %s no tiene contactos de emergencia registrados.\n", user.getNombre());
+            return List.of();
+        }
+        if (trazas) {
+            System.out.printf("📞 Notificando en paralelo a %d contacto(s) de %s...\n", user.getContactos().size(),
+                    user.getNombre());
+        }
+        String mensaje = String.format("EMERGENCIA: %s ha enviado una alerta (%s) desde %s. Ref. %s",
+                user.getNombre(), event.getTipoEmergencia(), event.getUbicacion(), event.getId().corto());
+        List<EntregaContacto> entregas = notificador.notificar(user, mensaje);
+        if (trazas) {
+            long avisados = entregas.stream().filter(EntregaContacto::isEntregada).count();
+            long maxMs = entregas.stream().mapToLong(EntregaContacto::getLatenciaNanos).max().orElse(0) / 1_000_000;
+            System.out.printf("📞 Contactos avisados: %d de %d en %d ms.\n", avisados, entregas.size(), maxMs);
+        }
+        return entregas;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,248 @@
+package main.java.com.emergencias.alert;
+
+import main.java.com.emergencias.model.EmergencyEvent;
+import main.java.com.emergencias.model.IdEvento;
+import main.java.com.emergencias.model.UserData;
+import main.java.com.emergencias.model.VitalSigns;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Codificador de alertas en sus dos formatos: el paquete que se envía al destino y la línea
+ * del log local ({@link LineaLogAlerta}). Cada hilo tiene el suyo ({@link #delHilo()}) con un
+ * {@link StringBuilder} y un {@link ByteBuffer} que se reutilizan de una alerta a otra.
+ *
+ * En régimen estable codificar no reserva memoria: el ID, los signos vitales y su evolución se
+ * escriben directamente en el búfer, la marca de tiempo se formatea una vez por segundo y lo que
+ * solo depende del usuario (nombre, teléfono, información médica) se precalcula la primera vez en
+ * una cabecera, con la cola de la línea de log ya en UTF-8. Las cabeceras se comparten entre hilos
+ * en una caché de tamaño fijo indexada por el id del usuario: dos usuarios que caen en la misma
+ * ranura se desplazan entre sí, así que la memoria no crece con el número de usuarios.
+ *
+ * Los búferes devueltos son del hilo y solo son válidos hasta su siguiente codificación.
+ */
+public final class CodificadorAlertas {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int CAPACIDAD_INICIAL = 1024;
+    private static final ThreadLocal<CodificadorAlertas> POR_HILO = ThreadLocal.withInitial(CodificadorAlertas::new);
+    private static final int RANURAS_CABECERAS = 1024; // Potencia de dos
+    private static final AtomicReferenceArray<CabeceraUsuario> CABECERAS = new AtomicReferenceArray<>(RANURAS_CABECERAS);
+
+    private final StringBuilder texto = new StringBuilder(CAPACIDAD_INICIAL);
+    private char[] caracteres = new char[CAPACIDAD_INICIAL];
+    private ByteBuffer bytes = ByteBuffer.allocate(CAPACIDAD_INICIAL);
+    private long segundoInstante = Long.MIN_VALUE;
+    private String textoInstante;
+
+    private CodificadorAlertas() {}
+
+    /** @return Codificador del hilo actual. */
+    public static CodificadorAlertas delHilo() {
+        return POR_HILO.get();
+    }
+
+    /**
+     * Escribe el paquete de datos de la alerta tal y como se envía al destino.
+     * @param destino Servicio de destino (e.g., "112").
+     * @return Texto del paquete, válido hasta la siguiente codificación del hilo.
+     */
+    public StringBuilder paquete(String destino, EmergencyEvent event) {
+        StringBuilder sb = texto;
+        sb.setLength(0);
+        sb.append("DESTINO: ").append(destino)
+                .append(" | TIPO: ").append(event.getTipoEmergencia())
+                .append(" | ID Evento: ");
+        event.getId().escribirCorto(sb);
+        return cuerpoPaquete(sb, event);
+    }
+
+    /**
+     * Escribe el paquete de una actualización: alertas del mismo usuario y tipo agrupadas con una
+     * alerta ya despachada, con la ubicación y los signos vitales de la más reciente.
+     * @param original Alerta ya despachada a la que se suman.
+     * @param ultima Alerta agrupada más reciente.
+     * @param agrupadas Alertas agrupadas desde la última actualización.
+     * @return Texto del paquete, válido hasta la siguiente codificación del hilo.
+     */
+    public StringBuilder paqueteActualizacion(String destino, IdEvento original, EmergencyEvent ultima, int agrupadas) {
+        StringBuilder sb = texto;
+        sb.setLength(0);
+        sb.append("ACTUALIZACIÓN | DESTINO: ").append(destino)
+                .append(" | TIPO: ").append(ultima.getTipoEmergencia())
+                .append(" | ID Evento: ");
+        original.escribirCorto(sb).append(" | Agrupadas: ").append(agrupadas);
+        return cuerpoPaquete(sb, ultima);
+    }
+
+    private StringBuilder cuerpoPaquete(StringBuilder sb, EmergencyEvent event) {
+        sb.append("\nUBICACIÓN: ").append(event.getUbicacion()).append('\n')
+                .append(cabecera(event.getDatosUsuario()).paquete)
+                .append("SIGNOS VITALES: ");
+        vitales(sb, event.getVitalSigns(), "No disponibles");
+        sb.append('\n');
+        if (event.getHistorialVitales() != null) {
+            event.getHistorialVitales().escribir(sb.append("EVOLUCIÓN: ")).append('\n');
+        }
+        return sb;
+    }
+
+    /**
+     * Codifica en UTF-8 el paquete de datos de la alerta.
+     * @return Búfer listo para leer, válido hasta la siguiente codificación del hilo.
+     */
+    public ByteBuffer paqueteUtf8(String destino, EmergencyEvent event) {
+        ByteBuffer b = utf8(paquete(destino, event), 0);
+        b.flip();
+        return b;
+    }
+
+    /**
+     * Codifica en UTF-8 la línea del log de alertas (con salto de línea final).
+     * @param epochMs Instante de la alerta.
+     * @return Búfer listo para leer, válido hasta la siguiente codificación del hilo.
+     */
+    public ByteBuffer lineaLog(EmergencyEvent event, long epochMs) {
+        StringBuilder sb = texto;
+        sb.setLength(0);
+        sb.append('[').append(instante(epochMs)).append("] ALERTA GRAVE | Tipo: ").append(event.getTipoEmergencia())
+                .append(" | ID: ");
+        event.getId().escribir(sb);
+        return finLineaLog(sb, event);
+    }
+
+    /**
+     * Codifica en UTF-8 la línea del log de una actualización (ver {@link #paqueteActualizacion}).
+     * No tiene el formato de {@link LineaLogAlerta}, así que las consultas del log no la cuentan
+     * como una alerta más.
+     * @return Búfer listo para leer, válido hasta la siguiente codificación del hilo.
+     */
+    public ByteBuffer lineaActualizacion(IdEvento original, EmergencyEvent ultima, int agrupadas, long epochMs) {
+        StringBuilder sb = texto;
+        sb.setLength(0);
+        sb.append('[').append(instante(epochMs)).append("] ACTUALIZACION | Tipo: ").append(ultima.getTipoEmergencia())
+                .append(" | ID: ");
+        original.escribir(sb).append(" | Agrupadas: ").append(agrupadas);
+        return finLineaLog(sb, ultima);
+    }
+
+    private ByteBuffer finLineaLog(StringBuilder sb, EmergencyEvent event) {
+        CabeceraUsuario usuario = cabecera(event.getDatosUsuario());
+        sb.append(" | Vitales: ");
+        vitales(sb, event.getVitalSigns(), "N/A");
+        sb.append(" | Ubicacion: ").append(event.getUbicacion());
+
+        ByteBuffer b = utf8(sb, usuario.colaLog.length);
+        b.put(usuario.colaLog);
+        b.flip();
+        return b;
+    }
+
+    private static void vitales(StringBuilder sb, VitalSigns signos, String sinDatos) {
+        if (signos != null) signos.escribir(sb);
+        else sb.append(sinDatos);
+    }
+
+    /**
+     * Fecha y hora local de la alerta; se formatea de nuevo solo al cambiar de segundo.
+     */
+    private String instante(long epochMs) {
+        long segundo = Math.floorDiv(epochMs, 1000);
+        if (segundo != segundoInstante) {
+            textoInstante = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneId.systemDefault()).format(FORMATTER);
+            segundoInstante = segundo;
+        }
+        return textoInstante;
+    }
+
+    /**
+     * Codifica el texto en UTF-8 al principio del búfer del hilo, dejando sitio para {@code extra} bytes.
+     * Los caracteres se copian en bloque a un array y se codifican sobre el array del búfer.
+     */
+    private ByteBuffer utf8(StringBuilder sb, int extra) {
+        int n = sb.length();
+        if (caracteres.length < n) caracteres = new char[Integer.highestOneBit(n) << 1];
+        int maximo = n * 3 + extra;
+        if (bytes.capacity() < maximo) bytes = ByteBuffer.allocate(Integer.highestOneBit(maximo) << 1);
+        char[] cs = caracteres;
+        byte[] out = bytes.array();
+        sb.getChars(0, n, cs, 0);
+
+        int p = 0;
+        for (int i = 0; i < n; i++) {
+            char c = cs[i];
+            if (c < 0x80) {
+                out[p++] = (byte) c;
+            } else if (c < 0x800) {
+                out[p++] = (byte) (0xC0 | c >> 6);
+                out[p++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(cs[i + 1])) {
+                int cp = Character.toCodePoint(c, cs[++i]);
+                out[p++] = (byte) (0xF0 | cp >> 18);
+                out[p++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                out[p++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                out[p++] = (byte) (0x80 | cp & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                out[p++] = '?'; // Sustituto aislado: igual que String.getBytes
+            } else {
+                out[p++] = (byte) (0xE0 | c >> 12);
+                out[p++] = (byte) (0x80 | c >> 6 & 0x3F);
+                out[p++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        ByteBuffer b = bytes;
+        b.clear();
+        b.position(p);
+        return b;
+    }
+
+    /**
+     * Devuelve la cabecera precalculada del usuario, recalculándola si el perfil ha cambiado
+     * o si su ranura la ocupa otro usuario.
+     */
+    private static CabeceraUsuario cabecera(UserData usuario) {
+        String id = usuario.getId();
+        if (id == null) return new CabeceraUsuario(usuario);
+        int h = id.hashCode();
+        int ranura = (h ^ h >>> 16) & (RANURAS_CABECERAS - 1);
+        CabeceraUsuario cabecera = CABECERAS.get(ranura);
+        if (cabecera == null || !cabecera.vigentePara(usuario)) {
+            cabecera = new CabeceraUsuario(usuario);
+            CABECERAS.set(ranura, cabecera);
+        }
+        return cabecera;
+    }
+
+    /**
+     * Partes de las alertas que solo dependen del perfil del usuario.
+     */
+    private static final class CabeceraUsuario {
+        private final UserData usuario;
+        private final String nombre;
+        private final String telefono;
+        private final String infoMedica;
+        private final String paquete;
+        private final byte[] colaLog;
+
+        CabeceraUsuario(UserData usuario) {
+            this.usuario = usuario;
+            this.nombre = usuario.getNombre();
+            this.telefono = usuario.getTelefono();
+            this.infoMedica = usuario.getInfoMedica();
+            this.paquete = "INFO PACIENTE: " + nombre + " (Tel: " + telefono + ")\nINFO MÉDICA: " + infoMedica + "\n";
+            this.colaLog = (" | Usuario: " + nombre + "\n").getBytes(StandardCharsets.UTF_8);
+        }
+
+        /** Mismo perfil y sin cambios en los campos usados (los perfiles se actualizan por copia). */
+        boolean vigentePara(UserData otro) {
+            return usuario == otro && nombre == otro.getNombre() && telefono == otro.getTelefono()
+                    && infoMedica == otro.getInfoMedica();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package main.java.com.emergencias.alert;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parámetros de la canalización asíncrona de alertas de {@link AlertSender}:
+ * tamaño de la cola acotada de cada etapa, número de trabajadores y política
+ * de contrapresión cuando una cola se llena, además de la durabilidad y la segmentación
+ * del log local.
+ */
+public class ConfiguracionPipeline {
+
+    /**
+     * Comportamiento cuando la cola de una etapa está llena.
+     */
+    public enum Contrapresion {
+        /** El llamante espera hasta que haya hueco en la cola. */
+        BLOQUEAR,
+        /** La alerta se rechaza y el futuro devuelto termina con error. */
+        RECHAZAR,
+        /** El propio hilo llamante ejecuta la etapa (frena al productor de forma natural). */
+        EJECUTAR_EN_LLAMANTE
+    }
+
+    private static final long INACTIVIDAD_TRABAJADORES_SEG = 2; // Los hilos ociosos se liberan solos
+
+    private final int capacidadCola;
+    private final int trabajadoresPorEtapa;
+    private final Contrapresion contrapresion;
+    private final PoliticaDurabilidad durabilidad;
+    private final PoliticaRotacion rotacion;
+    private final boolean trazasConsola;
+
+    /**
+     * @param capacidadCola Tamaño máximo de la cola de cada etapa.
+     * @param trabajadoresPorEtapa Hilos que atienden cada etapa.
+     * @param contrapresion Política al llenarse una cola.
+     */
+    public ConfiguracionPipeline(int capacidadCola, int trabajadoresPorEtapa, Contrapresion contrapresion) {
+        this(capacidadCola, trabajadoresPorEtapa, contrapresion, PoliticaDurabilidad.cadaAlerta());
+    }
+
+    /**
+     * @param capacidadCola Tamaño máximo de la cola de cada etapa.
+     * @param trabajadoresPorEtapa Hilos que atienden cada etapa.
+     * @param contrapresion Política al llenarse una cola.
+     * @param durabilidad Cuándo se fuerza a disco el log local de alertas.
+     */
+    public ConfiguracionPipeline(int capacidadCola, int trabajadoresPorEtapa, Contrapresion contrapresion,
+                                 PoliticaDurabilidad durabilidad) {
+        this(capacidadCola, trabajadoresPorEtapa, contrapresion, durabilidad, PoliticaRotacion.porDefecto());
+    }
+
+    /**
+     * @param capacidadCola Tamaño máximo de la cola de cada etapa.
+     * @param trabajadoresPorEtapa Hilos que atienden cada etapa.
+     * @param contrapresion Política al llenarse una cola.
+     * @param durabilidad Cuándo se fuerza a disco el log local de alertas.
+     * @param rotacion Segmentación y retención del log local de alertas.
+     */
+    public ConfiguracionPipeline(int capacidadCola, int trabajadoresPorEtapa, Contrapresion contrapresion,
+                                 PoliticaDurabilidad durabilidad, PoliticaRotacion rotacion) {
+        this(capacidadCola, trabajadoresPorEtapa, contrapresion, durabilidad, rotacion, true);
+    }
+
+    private ConfiguracionPipeline(int capacidadCola, int trabajadoresPorEtapa, Contrapresion contrapresion,
+                                  PoliticaDurabilidad durabilidad, PoliticaRotacion rotacion, boolean trazasConsola) {
+        if (capacidadCola <= 0 || trabajadoresPorEtapa <= 0 || contrapresion == null || durabilidad == null
+                || rotacion == null) {
+            throw new IllegalArgumentException("Capacidad y trabajadores deben ser positivos y las políticas no nulas.");
+        }
+        this.capacidadCola = capacidadCola;
+        this.trabajadoresPorEtapa = trabajadoresPorEtapa;
+        this.contrapresion = contrapresion;
+        this.durabilidad = durabilidad;
+        this.rotacion = rotacion;
+        this.trazasConsola = trazasConsola;
+    }
+
+    /**
+     * @return Configuración por defecto: 1024 huecos por etapa, 4 trabajadores, bloqueo del llamante
+     * cada alerta en disco antes del acuse y segmentos del log de 64 MB o un día.
+     */
+    public static ConfiguracionPipeline porDefecto() {
+        return new ConfiguracionPipeline(1024, 4, Contrapresion.BLOQUEAR);
+    }
+
+    /**
+     * @return Copia de esta configuración sin las trazas de consola de cada alerta (ni la animación
+     * del respaldo), para motores sin interfaz que procesan miles de eventos por segundo.
+     */
+    public ConfiguracionPipeline sinTrazasConsola() {
+        return new ConfiguracionPipeline(capacidadCola, trabajadoresPorEtapa, contrapresion, durabilidad, rotacion, false);
+    }
+
+    /**
+     * Crea el ejecutor de una etapa con esta configuración: cola acotada, trabajadores fijos
+     * (que se liberan tras {@value #INACTIVIDAD_TRABAJADORES_SEG} s ociosos) y la política de contrapresión.
+     *
+     * Con {@link Contrapresion#BLOQUEAR} el llamante espera un hueco antes de entrar en
+     * {@code execute}, en lugar de escribir directamente en la cola del ejecutor: así el propio
+     * ejecutor arranca un trabajador si todos se habían liberado por inactividad y rechaza la
+     * tarea si la etapa se ha cerrado mientras esperaba.
+     * @param nombre Prefijo de los hilos de la etapa.
+     */
+    public ThreadPoolExecutor crearEtapa(String nombre) {
+        AtomicInteger contador = new AtomicInteger();
+        ThreadFactory fabrica = r -> new Thread(r, nombre + "-" + contador.incrementAndGet());
+        ThreadPoolExecutor etapa;
+        if (contrapresion == Contrapresion.BLOQUEAR) {
+            etapa = new EtapaBloqueante(nombre, trabajadoresPorEtapa, capacidadCola, fabrica);
+        } else {
+            RejectedExecutionHandler politica = contrapresion == Contrapresion.RECHAZAR
+                    ? new ThreadPoolExecutor.AbortPolicy() : new ThreadPoolExecutor.CallerRunsPolicy();
+            etapa = new ThreadPoolExecutor(trabajadoresPorEtapa, trabajadoresPorEtapa,
+                    INACTIVIDAD_TRABAJADORES_SEG, TimeUnit.SECONDS, new ArrayBlockingQueue<>(capacidadCola),
+                    fabrica, politica);
+        }
+        etapa.allowCoreThreadTimeOut(true);
+        return etapa;
+    }
+
+    /**
+     * Etapa que bloquea al llamante cuando está llena. Un semáforo con tantos huecos como
+     * posiciones tiene la cola limita las tareas admitidas que aún no ha tomado un trabajador,
+     * de modo que toda tarea que pasa el semáforo cabe en el ejecutor.
+     */
+    private static final class EtapaBloqueante extends ThreadPoolExecutor {
+
+        private final String nombre;
+        private final Semaphore huecos;
+
+        EtapaBloqueante(String nombre, int trabajadores, int capacidadCola, ThreadFactory fabrica) {
+            super(trabajadores, trabajadores, INACTIVIDAD_TRABAJADORES_SEG, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(capacidadCola), fabrica, new ThreadPoolExecutor.AbortPolicy());
+            this.nombre = nombre;
+            this.huecos = new Semaphore(capacidadCola);
+        }
+
+        @Override
+        public void execute(Runnable tarea) {
+            if (isShutdown()) throw new RejectedExecutionException("Canalización cerrada.");
+            try {
+                huecos.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrumpido esperando hueco en " + nombre, e);
+            }
+            try {
+                super.execute(tarea);
+            } catch (RejectedExecutionException e) {
+                huecos.release();
+                throw e;
+            }
+        }
+
+        @Override
+        protected void beforeExecute(Thread hilo, Runnable tarea) {
+            huecos.release(); // Un trabajador la ha tomado: su posición en la cola queda libre
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            List<Runnable> pendientes = super.shutdownNow();
+            huecos.release(pendientes.size()); // Las tareas retiradas de la cola ya no ocupan hueco
+            return pendientes;
+        }
+    }
+
+    public int getCapacidadCola() { return capacidadCola; }
+    public int getTrabajadoresPorEtapa() { return trabajadoresPorEtapa; }
+    public Contrapresion getContrapresion() { return contrapresion; }
+    public PoliticaDurabilidad getDurabilidad() { return durabilidad; }
+    public PoliticaRotacion getRotacion() { return rotacion; }
+    public boolean hayTrazasConsola() { return trazasConsola; }
+}
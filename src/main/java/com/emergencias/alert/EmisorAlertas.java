@@ -0,0 +1,18 @@
+package main.java.com.emergencias.alert;
+
+import main.java.com.emergencias.model.EmergencyEvent;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Punto de entrada del envío de alertas: el {@link AlertSender} o una etapa delante de él,
+ * como el {@link AgrupadorAlertas}.
+ */
+public interface EmisorAlertas {
+
+    /**
+     * @param event El evento de emergencia confirmado y grave.
+     * @return Futuro con el acuse del despacho (termina con error si el evento no es válido o se rechaza).
+     */
+    CompletableFuture<AcuseDespacho> sendAlert(EmergencyEvent event);
+}
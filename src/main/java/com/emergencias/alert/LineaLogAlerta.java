@@ -0,0 +1,82 @@
+package main.java.com.emergencias.alert;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Línea del log de alertas ya analizada, tal y como la escribe {@code AlertSender.persistAlert}.
+ * Acepta también las variantes que se encuentran en logs antiguos: sin {@code Vitales}
+ * o sin {@code Ubicacion}.
+ */
+public class LineaLogAlerta {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Pattern FORMATO = Pattern.compile(
+            "^\\[(\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2})] ALERTA GRAVE \\| Tipo: (.*?) \\| ID: (\\S+)"
+                    + "(?: \\| Vitales: (\\[[^\\]]*]|N/A))?(?: \\| Ubicacion: (.*))? \\| Usuario: (.*)$");
+
+    private final LocalDateTime timestamp;
+    private final String tipo;
+    private final String idEvento;
+    private final String vitales;
+    private final String ubicacion;
+    private final String usuario;
+    private final long offset;
+
+    private LineaLogAlerta(LocalDateTime timestamp, String tipo, String idEvento, String vitales,
+                           String ubicacion, String usuario, long offset) {
+        this.timestamp = timestamp;
+        this.tipo = tipo;
+        this.idEvento = idEvento;
+        this.vitales = vitales;
+        this.ubicacion = ubicacion;
+        this.usuario = usuario;
+        this.offset = offset;
+    }
+
+    /**
+     * Analiza una línea del log.
+     * @param linea Texto de la línea (sin salto de línea final).
+     * @param offset Posición de la línea dentro del fichero.
+     * @return La línea analizada o null si no tiene el formato esperado.
+     */
+    public static LineaLogAlerta parsear(String linea, long offset) {
+        Matcher m = FORMATO.matcher(linea.trim());
+        if (!m.matches()) return null;
+        try {
+            return new LineaLogAlerta(LocalDateTime.parse(m.group(1), FORMATTER), m.group(2), m.group(3),
+                    m.group(4), m.group(5), m.group(6), offset);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Normaliza un tipo de emergencia para comparar sin mayúsculas ni tildes ("Tráfico" = "trafico").
+     */
+    public static String normalizarTipo(String tipo) {
+        String sinTildes = Normalizer.normalize(tipo.trim(), Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return sinTildes.toLowerCase(Locale.ROOT);
+    }
+
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public String getTipo() { return tipo; }
+    public String getIdEvento() { return idEvento; }
+    /** @return Texto de los signos vitales o null en líneas que no los registran. */
+    public String getVitales() { return vitales; }
+    /** @return Texto de la ubicación o null en líneas que no la registran. */
+    public String getUbicacion() { return ubicacion; }
+    public String getUsuario() { return usuario; }
+    public long getOffset() { return offset; }
+
+    @Override
+    public String toString() {
+        return String.format("[%s] %s | ID: %s | %s | %s", timestamp.format(FORMATTER), tipo, idEvento,
+                ubicacion == null ? "-" : ubicacion, usuario);
+    }
+}
@@ -0,0 +1,56 @@
+package main.java.com.emergencias.alert;
+
+/**
+ * Política de durabilidad del log de alertas: cuándo se fuerza a disco
+ * ({@code FileChannel.force}) lo ya escrito por el confirmador en grupo.
+ */
+public class PoliticaDurabilidad {
+
+    /**
+     * Modos de forzado a disco soportados.
+     */
+    public enum Modo {
+        /** Cada escritor espera a que su alerta esté en disco (un force por lote). */
+        CADA_ALERTA,
+        /** Se fuerza como mucho cada N milisegundos. */
+        CADA_MILISEGUNDOS,
+        /** Se fuerza cuando se acumulan N alertas sin forzar. */
+        CADA_N_ALERTAS
+    }
+
+    private final Modo modo;
+    private final long valor;
+
+    private PoliticaDurabilidad(Modo modo, long valor) {
+        if (valor <= 0) throw new IllegalArgumentException("El intervalo de durabilidad debe ser positivo.");
+        this.modo = modo;
+        this.valor = valor;
+    }
+
+    /** @return Política más segura: ninguna alerta se confirma antes de estar en disco. */
+    public static PoliticaDurabilidad cadaAlerta() {
+        return new PoliticaDurabilidad(Modo.CADA_ALERTA, 1);
+    }
+
+    /** @return Política que fuerza a disco como mucho cada {@code ms} milisegundos. */
+    public static PoliticaDurabilidad cadaMilisegundos(long ms) {
+        return new PoliticaDurabilidad(Modo.CADA_MILISEGUNDOS, ms);
+    }
+
+    /** @return Política que fuerza a disco cada {@code n} alertas. */
+    public static PoliticaDurabilidad cadaAlertas(long n) {
+        return new PoliticaDurabilidad(Modo.CADA_N_ALERTAS, n);
+    }
+
+    public Modo getModo() { return modo; }
+    public long getValor() { return valor; }
+
+    @Override
+    public String toString() {
+        switch (modo) {
+            case CADA_MILISEGUNDOS: return "cada " + valor + " ms";
+            case CADA_N_ALERTAS: return "cada " + valor + " alertas";
+            default: return "cada alerta";
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package main.java.com.emergencias.alert;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Política de segmentación del log de alertas: cuándo se sella el segmento vivo
+ * ({@code alertas_log.txt}) y cuántos segmentos sellados y comprimidos se conservan.
+ * Un valor 0 en cualquiera de los límites significa "sin límite". La retención es opcional:
+ * el log es el registro de auditoría de las emergencias y por defecto no se borra nunca.
+ */
+public class PoliticaRotacion {
+
+    private static final long MB = 1024L * 1024L;
+
+    private final long bytesMaximos;
+    private final long duracionMaximaMs;
+    private final int segmentosRetenidos;
+    private final long edadMaximaMs;
+
+    private PoliticaRotacion(long bytesMaximos, long duracionMaximaMs, int segmentosRetenidos, long edadMaximaMs) {
+        if (bytesMaximos < 0 || duracionMaximaMs < 0 || segmentosRetenidos < 0 || edadMaximaMs < 0) {
+            throw new IllegalArgumentException("Los límites de rotación y retención no pueden ser negativos.");
+        }
+        this.bytesMaximos = bytesMaximos;
+        this.duracionMaximaMs = duracionMaximaMs;
+        this.segmentosRetenidos = segmentosRetenidos;
+        this.edadMaximaMs = edadMaximaMs;
+    }
+
+    /** @return Un único fichero que crece sin límite (comportamiento histórico). */
+    public static PoliticaRotacion sinRotacion() {
+        return new PoliticaRotacion(0, 0, 0, 0);
+    }
+
+    /** @return Sella el segmento vivo al alcanzar {@code bytes} bytes. */
+    public static PoliticaRotacion porTamano(long bytes) {
+        return new PoliticaRotacion(bytes, 0, 0, 0);
+    }
+
+    /** @return Sella el segmento vivo cuando lleva abierto {@code ms} milisegundos. */
+    public static PoliticaRotacion porTiempo(long ms) {
+        return new PoliticaRotacion(0, ms, 0, 0);
+    }
+
+    /**
+     * @return Política por defecto: segmentos de 64 MB o de un día, conservados todos.
+     */
+    public static PoliticaRotacion porDefecto() {
+        return new PoliticaRotacion(64 * MB, TimeUnit.DAYS.toMillis(1), 0, 0);
+    }
+
+    /** @return Copia de esta política que además sella por tiempo. */
+    public PoliticaRotacion yPorTiempo(long ms) {
+        return new PoliticaRotacion(bytesMaximos, ms, segmentosRetenidos, edadMaximaMs);
+    }
+
+    /** @return Copia de esta política que conserva como mucho {@code n} segmentos sellados. */
+    public PoliticaRotacion reteniendoSegmentos(int n) {
+        return new PoliticaRotacion(bytesMaximos, duracionMaximaMs, n, edadMaximaMs);
+    }
+
+    /** @return Copia de esta política que borra los segmentos sellados más antiguos que {@code ms}. */
+    public PoliticaRotacion reteniendoDurante(long ms) {
+        return new PoliticaRotacion(bytesMaximos, duracionMaximaMs, segmentosRetenidos, ms);
+    }
+
+    public boolean rota() { return bytesMaximos > 0 || duracionMaximaMs > 0; }
+    public long getBytesMaximos() { return bytesMaximos; }
+    public long getDuracionMaximaMs() { return duracionMaximaMs; }
+    public int getSegmentosRetenidos() { return segmentosRetenidos; }
+    public long getEdadMaximaMs() { return edadMaximaMs; }
+
+    @Override
+    public String toString() {
+        if (!rota()) return "sin rotación";
+        return String.format("rotación a %d bytes / %d ms, retención %d segmentos / %d ms",
+                bytesMaximos, duracionMaximaMs, segmentosRetenidos, edadMaximaMs);
+    }
+}
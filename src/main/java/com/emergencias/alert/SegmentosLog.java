@@ -0,0 +1,221 @@
+package main.java.com.emergencias.alert;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Segmentos del log de alertas en disco y su lectura ordenada.
+ * Para un log vivo {@code alertas_log.txt}, los segmentos sellados se llaman
+ * {@code alertas_log.000001.txt} y, una vez comprimidos, {@code alertas_log.000001.txt.gz}.
+ * El número de segmento crece con el tiempo, así que el orden por número es el orden de escritura.
+ */
+public final class SegmentosLog {
+
+    private static final String EXTENSION_GZIP = ".gz";
+
+    private SegmentosLog() {}
+
+    /**
+     * @return Ruta del segmento sellado número {@code n} (sin comprimir) del log vivo indicado.
+     */
+    public static Path rutaSellado(Path logVivo, int n) {
+        String[] partes = partirNombre(logVivo);
+        return logVivo.resolveSibling(String.format("%s.%06d%s", partes[0], n, partes[1]));
+    }
+
+    /**
+     * Segmentos sellados ordenados del más antiguo al más reciente. Si un segmento existe
+     * a la vez comprimido y sin comprimir (compresión en curso), se devuelve la versión comprimida.
+     */
+    public static List<Path> sellados(Path logVivo) throws IOException {
+        return new ArrayList<>(selladosPorNumero(logVivo).values());
+    }
+
+    /**
+     * @return Número del segmento sellado más reciente, o 0 si no hay ninguno.
+     */
+    public static int ultimoNumero(Path logVivo) throws IOException {
+        TreeMap<Integer, Path> porNumero = selladosPorNumero(logVivo);
+        return porNumero.isEmpty() ? 0 : porNumero.lastKey();
+    }
+
+    private static TreeMap<Integer, Path> selladosPorNumero(Path logVivo) throws IOException {
+        String[] partes = partirNombre(logVivo);
+        Pattern patron = Pattern.compile(Pattern.quote(partes[0]) + "\\.(\\d{6,})" + Pattern.quote(partes[1])
+                + "(" + Pattern.quote(EXTENSION_GZIP) + ")?");
+        TreeMap<Integer, Path> porNumero = new TreeMap<>();
+        Path directorio = directorio(logVivo);
+        if (!Files.isDirectory(directorio)) return porNumero;
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            for (Path p : (Iterable<Path>) ficheros::iterator) {
+                Matcher m = patron.matcher(p.getFileName().toString());
+                if (!m.matches()) continue;
+                int n = Integer.parseInt(m.group(1));
+                boolean comprimido = m.group(2) != null;
+                if (comprimido || !porNumero.containsKey(n)) porNumero.put(n, p);
+            }
+        }
+        return porNumero;
+    }
+
+    /**
+     * @return Segmentos sellados que aún no se han comprimido (p. ej. tras una caída).
+     */
+    public static List<Path> pendientesDeComprimir(Path logVivo) throws IOException {
+        List<Path> pendientes = new ArrayList<>();
+        for (Path p : sellados(logVivo)) {
+            if (!esComprimido(p)) pendientes.add(p);
+        }
+        return pendientes;
+    }
+
+    public static boolean esComprimido(Path segmento) {
+        return segmento.getFileName().toString().endsWith(EXTENSION_GZIP);
+    }
+
+    /**
+     * Comprime un segmento sellado a {@code <segmento>.gz} (vía fichero temporal y renombrado
+     * atómico) y borra el original. Conserva la fecha de modificación para la retención por edad.
+     * Si el segmento ya no existe (otra compresión o la retención se adelantaron) no hay nada que hacer.
+     * @return Ruta del segmento comprimido.
+     */
+    public static Path comprimir(Path segmento) throws IOException {
+        Path destino = segmento.resolveSibling(segmento.getFileName() + EXTENSION_GZIP);
+        Path temporal = segmento.resolveSibling(segmento.getFileName() + EXTENSION_GZIP + ".tmp");
+        try {
+            FileTime modificado = Files.getLastModifiedTime(segmento);
+            try (InputStream in = Files.newInputStream(segmento);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporal), 64 * 1024)) {
+                byte[] buffer = new byte[64 * 1024];
+                int leidos;
+                while ((leidos = in.read(buffer)) > 0) out.write(buffer, 0, leidos);
+            }
+            Files.setLastModifiedTime(temporal, modificado);
+        } catch (NoSuchFileException e) {
+            Files.deleteIfExists(temporal);
+            if (!Files.exists(segmento)) return destino;
+            throw e;
+        }
+        Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        Files.deleteIfExists(segmento);
+        return destino;
+    }
+
+    /**
+     * Borra los segmentos sellados que exceden la política de retención (los más antiguos primero).
+     * Solo se cuentan y se borran los ya comprimidos: los que esperan su compresión no se tocan.
+     * El segmento vivo nunca se borra.
+     * @return Número de segmentos borrados.
+     */
+    public static int aplicarRetencion(Path logVivo, PoliticaRotacion politica) throws IOException {
+        if (politica.getSegmentosRetenidos() == 0 && politica.getEdadMaximaMs() == 0) return 0;
+        List<Path> sellados = sellados(logVivo);
+        sellados.removeIf(p -> !esComprimido(p));
+        int borrados = 0;
+        long limiteEdad = System.currentTimeMillis() - politica.getEdadMaximaMs();
+        for (int i = 0; i < sellados.size(); i++) {
+            Path p = sellados.get(i);
+            boolean sobraPorNumero = politica.getSegmentosRetenidos() > 0
+                    && sellados.size() - i > politica.getSegmentosRetenidos();
+            boolean sobraPorEdad = politica.getEdadMaximaMs() > 0
+                    && Files.getLastModifiedTime(p).toMillis() < limiteEdad;
+            if (sobraPorNumero || sobraPorEdad) {
+                if (Files.deleteIfExists(p)) borrados++;
+            }
+        }
+        return borrados;
+    }
+
+    // --- LECTURA ---
+
+    /**
+     * Líneas de todos los segmentos (sellados, comprimidos o no, y después el vivo) en orden de escritura.
+     * Los segmentos se abren de uno en uno a medida que se consume el flujo, que debe cerrarse.
+     */
+    public static Stream<String> lineas(Path logVivo) throws IOException {
+        List<Path> segmentos = sellados(logVivo);
+        segmentos.add(logVivo);
+        return segmentos.stream().flatMap(SegmentosLog::lineasDeSegmento);
+    }
+
+    /**
+     * Alertas de todos los segmentos en orden de escritura; las líneas no reconocidas se omiten.
+     * El offset de cada {@link LineaLogAlerta} es el número de línea global (empezando en 0).
+     */
+    public static Stream<LineaLogAlerta> eventos(Path logVivo) throws IOException {
+        long[] numero = {0};
+        return lineas(logVivo)
+                .map(linea -> LineaLogAlerta.parsear(linea, numero[0]++))
+                .filter(l -> l != null);
+    }
+
+    /**
+     * Líneas de un único segmento, comprimido o no; vacío si ha desaparecido. El flujo debe cerrarse.
+     */
+    static Stream<String> lineasDeSegmento(Path segmento) {
+        try {
+            BufferedReader lector = abrir(segmento);
+            if (lector == null) return Stream.empty();
+            return lector.lines().onClose(() -> {
+                try {
+                    lector.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el segmento " + segmento, e);
+        }
+    }
+
+    private static BufferedReader abrir(Path segmento) throws IOException {
+        try {
+            return nuevoLector(segmento);
+        } catch (NoSuchFileException e) {
+            // Se comprimió entre el listado y la apertura: se lee la versión comprimida
+            if (!esComprimido(segmento)) {
+                Path comprimido = segmento.resolveSibling(segmento.getFileName() + EXTENSION_GZIP);
+                if (Files.exists(comprimido)) return nuevoLector(comprimido);
+            }
+            return null;
+        }
+    }
+
+    private static BufferedReader nuevoLector(Path segmento) throws IOException {
+        InputStream in = Files.newInputStream(segmento);
+        if (esComprimido(segmento)) in = new GZIPInputStream(in, 64 * 1024);
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    private static Path directorio(Path logVivo) {
+        Path padre = logVivo.toAbsolutePath().getParent();
+        return padre == null ? logVivo.toAbsolutePath() : padre;
+    }
+
+    /** @return {nombre base, extensión} del log vivo ("alertas_log", ".txt"). */
+    private static String[] partirNombre(Path logVivo) {
+        String nombre = logVivo.getFileName().toString();
+        int punto = nombre.lastIndexOf('.');
+        return punto > 0
+                ? new String[]{nombre.substring(0, punto), nombre.substring(punto)}
+                : new String[]{nombre, ""};
+    }
+}
@@ -0,0 +1,54 @@
+package main.java.com.emergencias.contactos;
+
+import main.java.com.emergencias.model.CanalContacto;
+import main.java.com.emergencias.model.ContactoEmergencia;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Canal de notificación local que simula los proveedores: espera la latencia típica de cada
+ * canal, confirma la entrega y, con trazas, muestra el aviso en la consola.
+ */
+public class CanalLocalSimulado implements CanalNotificacion {
+
+    private final Map<CanalContacto, Long> latenciasMs;
+    private final boolean trazas;
+
+    /**
+     * Canal con latencias típicas: 40 ms un SMS, 150 ms descolgar una llamada y 15 ms un push.
+     * @param trazas Si se muestra cada aviso en la consola.
+     */
+    public CanalLocalSimulado(boolean trazas) {
+        this(latenciasPorDefecto(), trazas);
+    }
+
+    /**
+     * @param latenciasMs Latencia simulada de cada canal (los que falten, sin espera).
+     * @param trazas Si se muestra cada aviso en la consola.
+     */
+    public CanalLocalSimulado(Map<CanalContacto, Long> latenciasMs, boolean trazas) {
+        this.latenciasMs = new EnumMap<>(latenciasMs);
+        this.trazas = trazas;
+    }
+
+    /** @return Latencia típica de cada canal en milisegundos. */
+    public static Map<CanalContacto, Long> latenciasPorDefecto() {
+        Map<CanalContacto, Long> latencias = new EnumMap<>(CanalContacto.class);
+        latencias.put(CanalContacto.SMS, 40L);
+        latencias.put(CanalContacto.LLAMADA, 150L);
+        latencias.put(CanalContacto.PUSH, 15L);
+        return latencias;
+    }
+
+    @Override
+    public boolean enviar(ContactoEmergencia contacto, CanalContacto canal, String mensaje) throws InterruptedException {
+        long latencia = latenciasMs.getOrDefault(canal, 0L);
+        if (latencia > 0) Thread.sleep(latencia);
+        if (trazas) {
+            System.out.printf("   %s %s a %s (%s): %s\n", canal.getIcono(), canal, contacto.getNombre(),
+                    contacto.getTelefono(), mensaje);
+        }
+        return true;
+    }
+}
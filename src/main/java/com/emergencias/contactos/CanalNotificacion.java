@@ -0,0 +1,21 @@
+package main.java.com.emergencias.contactos;
+
+import main.java.com.emergencias.model.CanalContacto;
+import main.java.com.emergencias.model.ContactoEmergencia;
+
+/**
+ * Proveedor que entrega los avisos a los contactos (pasarela SMS, centralita, servicio push).
+ * {@link NotificadorContactos} llama a cada intento en un hilo virtual propio, así que la
+ * implementación puede bloquearse; debe atender la interrupción, que llega al vencer el plazo
+ * del intento.
+ */
+@FunctionalInterface
+public interface CanalNotificacion {
+
+    /**
+     * Envía el mensaje al contacto por el canal indicado.
+     * @return true si el proveedor confirma la entrega; false si la rechaza.
+     * @throws Exception si el envío falla (se prueba el siguiente canal del contacto).
+     */
+    boolean enviar(ContactoEmergencia contacto, CanalContacto canal, String mensaje) throws Exception;
+}
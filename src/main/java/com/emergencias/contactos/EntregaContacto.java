@@ -0,0 +1,50 @@
+package main.java.com.emergencias.contactos;
+
+import main.java.com.emergencias.model.CanalContacto;
+import main.java.com.emergencias.model.ContactoEmergencia;
+
+/**
+ * Resultado del aviso a un contacto: canal por el que se entregó (o el último error) y
+ * cuánto tardó, contando todos los intentos.
+ */
+public class EntregaContacto {
+    private final ContactoEmergencia contacto;
+    private final CanalContacto canal; // null si no se pudo entregar
+    private final int intentos;
+    private final long latenciaNanos;
+    private final String error;
+
+    private EntregaContacto(ContactoEmergencia contacto, CanalContacto canal, int intentos, long latenciaNanos,
+                            String error) {
+        this.contacto = contacto;
+        this.canal = canal;
+        this.intentos = intentos;
+        this.latenciaNanos = latenciaNanos;
+        this.error = error;
+    }
+
+    static EntregaContacto entregada(ContactoEmergencia contacto, CanalContacto canal, int intentos, long latenciaNanos) {
+        return new EntregaContacto(contacto, canal, intentos, latenciaNanos, null);
+    }
+
+    static EntregaContacto fallida(ContactoEmergencia contacto, int intentos, long latenciaNanos, String error) {
+        return new EntregaContacto(contacto, null, intentos, latenciaNanos, error);
+    }
+
+    public ContactoEmergencia getContacto() { return contacto; }
+    public boolean isEntregada() { return canal != null; }
+    /** @return Canal por el que se entregó el aviso, o null si no se pudo entregar. */
+    public CanalContacto getCanal() { return canal; }
+    public int getIntentos() { return intentos; }
+    public long getLatenciaNanos() { return latenciaNanos; }
+    /** @return Motivo del último intento fallido, o null si se entregó. */
+    public String getError() { return error; }
+
+    @Override
+    public String toString() {
+        return isEntregada()
+                ? String.format("%s: entregado por %s (%d intento(s), %d ms)", contacto.getNombre(), canal, intentos,
+                        latenciaNanos / 1_000_000)
+                : String.format("%s: sin entregar tras %d intento(s) (%s)", contacto.getNombre(), intentos, error);
+    }
+}
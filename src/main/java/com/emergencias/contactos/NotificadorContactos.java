@@ -0,0 +1,188 @@
+package main.java.com.emergencias.contactos;
+
+import main.java.com.emergencias.model.CanalContacto;
+import main.java.com.emergencias.model.ContactoEmergencia;
+import main.java.com.emergencias.model.UserData;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aviso en paralelo a los contactos de emergencia de un usuario.
+ *
+ * Cada contacto se atiende en su propio hilo virtual, de modo que la latencia total es la del
+ * contacto más lento y no la suma de todos. Para cada contacto se prueban sus canales en orden
+ * de preferencia hasta que uno confirma la entrega; cada intento corre en otro hilo virtual con
+ * un plazo máximo y, si vence, se interrumpe y se pasa al siguiente canal.
+ *
+ * Los intentos simultáneos de cada canal están limitados por un semáforo (p. ej. pocas líneas
+ * de voz para las llamadas). El permiso se espera como mucho hasta el plazo del intento (si no
+ * llega, el intento cuenta como vencido) y se devuelve una sola vez: cuando el proveedor responde
+ * o cuando vence el plazo, lo que ocurra antes.
+ *
+ * Devolverlo al vencer es deliberado: un proveedor colgado que no atiende la interrupción no
+ * bloquea el canal para los avisos siguientes. A cambio, mientras esas llamadas colgadas sigan
+ * vivas, el número real de peticiones en curso contra el proveedor puede superar el límite del canal.
+ */
+public class NotificadorContactos {
+
+    public static final long TIMEOUT_INTENTO_POR_DEFECTO_MS = 5_000;
+
+    private final CanalNotificacion canal;
+    private final Map<CanalContacto, Semaphore> limites = new EnumMap<>(CanalContacto.class);
+    private final long timeoutIntentoMs;
+    private final ThreadFactory hilos = Thread.ofVirtual().name("notificacion-", 0).factory();
+    private final LongAdder entregadas = new LongAdder();
+    private final LongAdder fallidas = new LongAdder();
+    private final LongAdder intentosVencidos = new LongAdder();
+
+    /**
+     * Notificador con los límites por canal y el plazo por intento por defecto.
+     * @param canal Proveedor que entrega los avisos.
+     */
+    public NotificadorContactos(CanalNotificacion canal) {
+        this(canal, limitesPorDefecto(), TIMEOUT_INTENTO_POR_DEFECTO_MS);
+    }
+
+    /**
+     * @param canal Proveedor que entrega los avisos.
+     * @param limites Intentos simultáneos máximos por canal (todos los canales deben estar).
+     * @param timeoutIntentoMs Plazo de cada intento de entrega.
+     */
+    public NotificadorContactos(CanalNotificacion canal, Map<CanalContacto, Integer> limites, long timeoutIntentoMs) {
+        if (timeoutIntentoMs <= 0) throw new IllegalArgumentException("El plazo por intento debe ser positivo.");
+        for (CanalContacto c : CanalContacto.values()) {
+            Integer limite = limites.get(c);
+            if (limite == null || limite <= 0) {
+                throw new IllegalArgumentException("Falta un límite positivo para el canal " + c + ".");
+            }
+            this.limites.put(c, new Semaphore(limite));
+        }
+        this.canal = canal;
+        this.timeoutIntentoMs = timeoutIntentoMs;
+    }
+
+    /**
+     * @return Límites por defecto: 32 SMS, 4 llamadas y 128 push simultáneos.
+     */
+    public static Map<CanalContacto, Integer> limitesPorDefecto() {
+        Map<CanalContacto, Integer> limites = new EnumMap<>(CanalContacto.class);
+        limites.put(CanalContacto.SMS, 32);
+        limites.put(CanalContacto.LLAMADA, 4);
+        limites.put(CanalContacto.PUSH, 128);
+        return limites;
+    }
+
+    /**
+     * Avisa a todos los contactos del usuario en paralelo y espera a que terminen.
+     * @param mensaje Texto del aviso.
+     * @return Resultado por contacto, en el orden del perfil.
+     */
+    public List<EntregaContacto> notificar(UserData usuario, String mensaje) {
+        List<ContactoEmergencia> contactos = usuario.getContactos();
+        List<CompletableFuture<EntregaContacto>> pendientes = new ArrayList<>(contactos.size());
+        for (ContactoEmergencia contacto : contactos) {
+            CompletableFuture<EntregaContacto> entrega = new CompletableFuture<>();
+            hilos.newThread(() -> entrega.complete(notificarContacto(contacto, mensaje))).start();
+            pendientes.add(entrega);
+        }
+        List<EntregaContacto> resultados = new ArrayList<>(pendientes.size());
+        for (CompletableFuture<EntregaContacto> entrega : pendientes) resultados.add(entrega.join());
+        return resultados;
+    }
+
+    private EntregaContacto notificarContacto(ContactoEmergencia contacto, String mensaje) {
+        long inicio = System.nanoTime();
+        int intentos = 0;
+        String error = "sin canales";
+        for (CanalContacto c : contacto.getCanales()) {
+            intentos++;
+            try {
+                if (intentar(contacto, c, mensaje)) {
+                    entregadas.increment();
+                    return EntregaContacto.entregada(contacto, c, intentos, System.nanoTime() - inicio);
+                }
+                error = c + ": entrega rechazada";
+            } catch (TimeoutException e) {
+                intentosVencidos.increment();
+                error = c + ": sin respuesta en " + timeoutIntentoMs + " ms";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = c + ": interrumpido";
+                break;
+            } catch (ExecutionException e) {
+                Throwable causa = e.getCause();
+                error = c + ": " + (causa.getMessage() != null ? causa.getMessage() : causa.getClass().getSimpleName());
+            } catch (RuntimeException e) {
+                error = c + ": " + e.getMessage(); // No se pudo lanzar el intento
+            }
+        }
+        fallidas.increment();
+        System.err.printf("⚠️ No se pudo avisar a %s: %s.\n", contacto.getNombre(), error);
+        return EntregaContacto.fallida(contacto, intentos, System.nanoTime() - inicio, error);
+    }
+
+    /**
+     * Un intento de entrega por un canal, con su plazo. El plazo incluye la espera por un hueco
+     * del canal, y al vencer el hueco se libera aunque el proveedor no haya respondido: un
+     * proveedor colgado no puede bloquear los avisos siguientes.
+     * @return Respuesta del proveedor.
+     * @throws TimeoutException si vence el plazo (el intento se interrumpe).
+     * @throws ExecutionException si el proveedor falla.
+     */
+    private boolean intentar(ContactoEmergencia contacto, CanalContacto c, String mensaje)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        long limiteNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutIntentoMs);
+        Semaphore limite = limites.get(c);
+        if (!limite.tryAcquire(timeoutIntentoMs, TimeUnit.MILLISECONDS)) {
+            throw new TimeoutException("Sin hueco libre en el canal " + c);
+        }
+        AtomicBoolean liberado = new AtomicBoolean();
+        Runnable liberar = () -> {
+            if (liberado.compareAndSet(false, true)) limite.release();
+        };
+        CompletableFuture<Boolean> resultado = new CompletableFuture<>();
+        Thread intento;
+        try {
+            intento = hilos.newThread(() -> {
+                try {
+                    resultado.complete(canal.enviar(contacto, c, mensaje));
+                } catch (Throwable t) {
+                    resultado.completeExceptionally(t);
+                } finally {
+                    liberar.run();
+                }
+            });
+            intento.start();
+        } catch (RuntimeException e) {
+            liberar.run(); // El intento no llegó a arrancar
+            throw e;
+        }
+        try {
+            return resultado.get(Math.max(0, limiteNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            intento.interrupt();
+            liberar.run();
+            throw e;
+        }
+    }
+
+    /** @return Contactos avisados desde la creación. */
+    public long getEntregadas() { return entregadas.sum(); }
+
+    /** @return Contactos a los que no se pudo avisar por ningún canal. */
+    public long getFallidas() { return fallidas.sum(); }
+
+    /** @return Intentos cuyo plazo venció. */
+    public long getIntentosVencidos() { return intentosVencidos.sum(); }
+}
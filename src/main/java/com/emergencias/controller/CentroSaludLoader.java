@@ -1,38 +1,240 @@
 package main.java.com.emergencias.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import main.java.com.emergencias.model.CatalogoCentros;
 import main.java.com.emergencias.model.CentroSalud;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Clase encargada de la persistencia y carga de datos JSON[cite: 3, 39].
+ * La lectura se hace en streaming con {@link JsonParser}: cada centro se emite en cuanto
+ * se termina de leer, de modo que el consumo de memoria no depende del tamaño del fichero
+ * y el catálogo puede empezar a construirse antes de terminar el análisis.
  */
 public class CentroSaludLoader {
 
+    public static final Path RUTA_POR_DEFECTO = Paths.get("src/main/resources/centros.json");
+
+    // La factoría es inmutable y segura entre hilos: se comparte entre todas las cargas
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final Set<String> CAMPOS_CONOCIDOS = Set.of(
+            "Código", "Nombre", "Dirección", "Municipio", "Teléfono", "Latitud", "Longitud");
+
+    /**
+     * Registro del JSON que no ha podido convertirse en centro de salud.
+     */
+    public static class RegistroInvalido {
+        private final long posicion;
+        private final long linea;
+        private final String motivo;
+
+        public RegistroInvalido(long posicion, long linea, String motivo) {
+            this.posicion = posicion;
+            this.linea = linea;
+            this.motivo = motivo;
+        }
+
+        public long getPosicion() { return posicion; }
+        public long getLinea() { return linea; }
+        public String getMotivo() { return motivo; }
+
+        @Override
+        public String toString() {
+            return String.format("Registro #%d (línea %d): %s", posicion, linea, motivo);
+        }
+    }
+
+    /**
+     * Resumen de una carga en streaming.
+     */
+    public static class ResumenCarga {
+        private long emitidos;
+        private long invalidos;
+        private boolean completa = true;
+
+        public long getEmitidos() { return emitidos; }
+        public long getInvalidos() { return invalidos; }
+        /** @return false si un error de sintaxis obligó a detener la lectura antes del final. */
+        public boolean isCompleta() { return completa; }
+    }
+
     /**
      * Carga los centros de salud desde un fichero JSON a una lista dinámica[cite: 22, 39].
      * @return List de centros de salud.
      */
     public List<CentroSalud> cargarCentros() {
-        ObjectMapper mapper = new ObjectMapper();
+        return cargarCentros(RUTA_POR_DEFECTO);
+    }
+
+    /**
+     * Carga en una lista los centros del fichero indicado.
+     * @param ruta Ruta del JSON de centros.
+     * @return List de centros de salud (vacía si el fichero no se puede abrir).
+     */
+    public List<CentroSalud> cargarCentros(Path ruta) {
         List<CentroSalud> listaCentros = new ArrayList<>(); // Estructura dinámica [cite: 2]
+        cargar(ruta, listaCentros::add, CentroSaludLoader::informarRegistroInvalido);
+        return listaCentros;
+    }
+
+    /**
+     * Carga los centros y los convierte en un catálogo columnar de solo lectura.
+     * Las coordenadas se validan y convierten a radianes una sola vez en este punto.
+     * @return Catálogo de centros válidos.
+     */
+    public CatalogoCentros cargarCatalogo() {
+        return cargarCatalogo(RUTA_POR_DEFECTO);
+    }
 
-        try {
-            // Se lee el fichero en bloque y se traslada directamente al objeto [cite: 39]
-            File archivo = new File("src/main/resources/centros.json");
+    /**
+     * Construye el catálogo directamente desde el streaming, sin lista intermedia.
+     * @param ruta Ruta del JSON de centros.
+     * @return Catálogo de centros válidos.
+     */
+    public CatalogoCentros cargarCatalogo(Path ruta) {
+        CatalogoCentros.Builder builder = new CatalogoCentros.Builder();
+        cargarAceptando(ruta, builder::agregar, CentroSaludLoader::informarRegistroInvalido);
+        return builder.construir();
+    }
 
-            // Usamos el operador Diamond para establecer el tipo de elementos [cite: 25]
-            listaCentros = mapper.readValue(archivo, new TypeReference<ArrayList<CentroSalud>>() {});
+    /**
+     * Lee el fichero indicado emitiendo cada centro al consumidor.
+     * @param ruta Ruta del JSON de centros.
+     * @param destino Receptor de cada centro leído.
+     * @param errores Receptor de los registros descartados.
+     * @return Resumen de la carga.
+     */
+    public ResumenCarga cargar(Path ruta, Consumer<CentroSalud> destino, Consumer<RegistroInvalido> errores) {
+        return cargarAceptando(ruta, aceptarTodos(destino), errores);
+    }
 
+    /**
+     * Lee el fichero indicado entregando cada centro a un destino que puede rechazarlo.
+     * @param ruta Ruta del JSON de centros.
+     * @param destino Recibe cada centro leído; devuelve false si lo rechaza (p. ej.
+     *                {@link CatalogoCentros.Builder#agregar(CentroSalud)} por coordenadas inválidas).
+     * @param errores Receptor de los registros descartados, también los rechazados por el destino.
+     * @return Resumen de la carga.
+     */
+    public ResumenCarga cargarAceptando(Path ruta, Predicate<CentroSalud> destino, Consumer<RegistroInvalido> errores) {
+        try (InputStream in = Files.newInputStream(ruta)) {
+            return cargarAceptando(in, destino, errores);
         } catch (IOException e) {
             System.err.println("Error al cargar los datos externos: " + e.getMessage());
+            ResumenCarga resumen = new ResumenCarga();
+            resumen.completa = false;
+            return resumen;
         }
+    }
 
-        return listaCentros;
+    /**
+     * Lee un array JSON de centros desde cualquier flujo, emitiendo cada centro al consumidor.
+     * Los registros mal formados se notifican y se saltan sin abortar la carga; solo un
+     * error de sintaxis JSON (del que el parser no puede recuperarse) detiene la lectura.
+     * El flujo no se cierra: es responsabilidad del llamante.
+     * @param in Flujo con el array JSON.
+     * @param destino Receptor de cada centro leído.
+     * @param errores Receptor de los registros descartados.
+     * @return Resumen de la carga.
+     */
+    public ResumenCarga cargar(InputStream in, Consumer<CentroSalud> destino, Consumer<RegistroInvalido> errores) {
+        return cargarAceptando(in, aceptarTodos(destino), errores);
+    }
+
+    /**
+     * Como {@link #cargar(InputStream, Consumer, Consumer)}, con un destino que puede rechazar
+     * centros: los rechazados se notifican y cuentan como inválidos igual que los mal formados.
+     */
+    public ResumenCarga cargarAceptando(InputStream in, Predicate<CentroSalud> destino, Consumer<RegistroInvalido> errores) {
+        ResumenCarga resumen = new ResumenCarga();
+        long posicion = 0;
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Se esperaba un array JSON de centros.");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                long linea = parser.currentLocation().getLineNr();
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    resumen.invalidos++;
+                    errores.accept(new RegistroInvalido(posicion++, linea, "El registro no es un objeto JSON."));
+                    continue;
+                }
+                String motivo = null;
+                String codigo = null, nombre = null, direccion = null, municipio = null,
+                        telefono = null, latitud = null, longitud = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String campo = parser.currentName();
+                    JsonToken valor = parser.nextToken();
+                    if (valor.isStructStart()) {
+                        parser.skipChildren();
+                        if (motivo == null && CAMPOS_CONOCIDOS.contains(campo)) {
+                            motivo = "Valor no escalar en el campo '" + campo + "'.";
+                        }
+                        continue;
+                    }
+                    String texto = valor == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                    switch (campo) {
+                        case "Código": codigo = texto; break;
+                        case "Nombre": nombre = texto; break;
+                        case "Dirección": direccion = texto; break;
+                        case "Municipio": municipio = texto; break;
+                        case "Teléfono": telefono = texto; break;
+                        case "Latitud": latitud = texto; break;
+                        case "Longitud": longitud = texto; break;
+                        default: break; // Campos que no necesitamos
+                    }
+                }
+                if (motivo == null && nombre == null) motivo = "Falta el campo 'Nombre'.";
+                if (motivo != null) {
+                    resumen.invalidos++;
+                    errores.accept(new RegistroInvalido(posicion++, linea, motivo));
+                    continue;
+                }
+                if (!destino.test(new CentroSalud(codigo, nombre, direccion, municipio, telefono, latitud, longitud))) {
+                    resumen.invalidos++;
+                    errores.accept(new RegistroInvalido(posicion++, linea, "Coordenadas inválidas o fuera de rango ("
+                            + latitud + ", " + longitud + ")."));
+                    continue;
+                }
+                resumen.emitidos++;
+                posicion++;
+            }
+        } catch (JsonProcessingException e) {
+            resumen.completa = false;
+            errores.accept(new RegistroInvalido(posicion, e.getLocation() != null ? e.getLocation().getLineNr() : -1,
+                    "JSON mal formado, lectura detenida: " + e.getOriginalMessage()));
+        } catch (IOException e) {
+            resumen.completa = false;
+            System.err.println("Error al cargar los datos externos: " + e.getMessage());
+        }
+        return resumen;
+    }
+
+    private static Predicate<CentroSalud> aceptarTodos(Consumer<CentroSalud> destino) {
+        return centro -> {
+            destino.accept(centro);
+            return true;
+        };
+    }
+
+    private static void informarRegistroInvalido(RegistroInvalido registro) {
+        System.err.println("⚠️ Centro ignorado en la carga. " + registro);
     }
-}
\ No newline at end of file
+}
@@ -1,87 +1,238 @@
 package main.java.com.emergencias.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.type.TypeReference;
+import main.java.com.emergencias.alert.AgrupadorAlertas;
 import main.java.com.emergencias.alert.AlertSender;
+import main.java.com.emergencias.detector.CanalConsola;
 import main.java.com.emergencias.detector.EmergencyDetector;
+import main.java.com.emergencias.metricas.FaseAlerta;
+import main.java.com.emergencias.metricas.RegistroMetricas;
 import main.java.com.emergencias.model.EmergencyEvent;
 import main.java.com.emergencias.model.UserData;
-import main.java.com.emergencias.model.CentroSalud;
+import main.java.com.emergencias.model.CatalogoCentros;
+import main.java.com.emergencias.respaldo.BandejaSalida;
+import main.java.com.emergencias.respaldo.ClienteRespaldo;
+import main.java.com.emergencias.respaldo.ConfiguracionRespaldo;
+import main.java.com.emergencias.respaldo.ServidorRespaldoLocal;
+import main.java.com.emergencias.vitales.DetectorAnomalias;
+import main.java.com.emergencias.vitales.DetectorCaidas;
+import main.java.com.emergencias.vitales.MonitorVitales;
+import main.java.com.emergencias.vitales.ReglaAnomalia;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Paths;
 import java.util.List;
 
 /**
  * Controlador principal que orquestra el sistema de emergencias.
- * Gestiona la carga de datos de usuario, la inicialización de módulos
- * y el flujo desde la detección hasta el envío de la alerta.
+ * Gestiona la carga de los perfiles de usuario, la inicialización de módulos
+ * y el flujo desde la detección hasta el envío de la alerta. Un mismo manager
+ * atiende a cualquier usuario del {@link RegistroUsuarios}.
  */
-public class EmergencyManager {
+public final class EmergencyManager {
     private final EmergencyDetector detector;
     private final AlertSender sender;
-    private UserData userData;
-    private List<CentroSalud> listaCentros;
+    private final AgrupadorAlertas agrupador; // Delante del emisor: absorbe ráfagas por usuario y tipo
+    private final BandejaSalida bandeja;      // Respaldo en la nube: null si no se pudo abrir
+    private final ClienteRespaldo respaldo;
+    private ServidorRespaldoLocal servidorRespaldo; // Solo sin URL de respaldo configurada
+    private final RegistroCentros registroCentros;
+    private final RegistroUsuarios usuarios = new RegistroUsuarios();
+    private final CanalConsola consola = new CanalConsola();
+    private final RegistroMetricas metricas = RegistroMetricas.global();
+    // Las anomalías del flujo continuo entran como disparos automáticos en el motor
+    private final MonitorVitales vitales = new MonitorVitales(MonitorVitales.CAPACIDAD_POR_DEFECTO,
+            new DetectorAnomalias(DetectorAnomalias.CAPACIDAD_POR_DEFECTO, ReglaAnomalia.porDefecto(),
+                    disparo -> getMotor().procesar(disparo)));
+    private final DetectorCaidas caidas = new DetectorCaidas(DetectorCaidas.CAPACIDAD_POR_DEFECTO,
+            disparo -> getMotor().procesar(disparo));
+    private MotorEmergencias motor;
+    private String idUsuarioPorDefecto; // Titular del dispositivo: primer perfil de users.json
+    private String origenUsuarios = "JSON";
 
     /**
      * Constructor del Manager.
-     * Carga dinámicamente el perfil del usuario y la red de centros de salud.
+     * Carga dinámicamente los perfiles de usuario y la red de centros de salud.
+     * Si existe un snapshot binario al día se usa en lugar del JSON. La red de centros
+     * es la del registro compartido del proceso, que se recarga en caliente si cambia el JSON.
      */
     public EmergencyManager() {
-        // 1. CARGA DE DATOS (Modernizada a JSON - v1)
-        this.userData = loadUserDataFromJson();
+        // 1. CARGA DE DATOS (Snapshot binario con respaldo en JSON)
+        loadUserData();
 
-        CentroSaludLoader loader = new CentroSaludLoader();
-        this.listaCentros = loader.cargarCentros();
+        this.registroCentros = RegistroCentros.global();
+        registroCentros.iniciarVigilancia();
 
         // 2. INICIALIZACIÓN DE MÓDULOS
-        // El detector ahora recibe tanto al usuario como la red de centros (v1)
-        this.detector = new EmergencyDetector(userData, listaCentros);
-        this.sender = new AlertSender("112");
+        // El detector consulta en cada búsqueda la versión vigente del índice, sin bloquearse
+        this.detector = new EmergencyDetector(registroCentros::indice, consola);
+        this.bandeja = abrirBandeja();
+        this.respaldo = iniciarRespaldo();
+        this.sender = new AlertSender("112", bandeja);
+        this.agrupador = new AgrupadorAlertas(sender);
+
+        // 3. MÉTRICAS: instantánea periódica para el recolector local
+        metricas.iniciarVolcado(RegistroMetricas.FICHERO_TEXTO, RegistroMetricas.FICHERO_JSON,
+                RegistroMetricas.PERIODO_VOLCADO_MS);
+    }
+
+    private BandejaSalida abrirBandeja() {
+        try {
+            return new BandejaSalida(Paths.get(BandejaSalida.DIRECTORIO_POR_DEFECTO));
+        } catch (IOException e) {
+            System.err.println("⚠️ Respaldo en la nube desactivado: no se pudo abrir la bandeja de salida: "
+                    + e.getMessage());
+            return null;
+        }
     }
 
     /**
-     * Carga el perfil del usuario desde un archivo JSON en recursos.
-     * @return El primer objeto UserData encontrado o un usuario de fallback en caso de error.
+     * Arranca la subida por lotes de la bandeja al servidor de {@link ConfiguracionRespaldo#PROPIEDAD_URL}
+     * o, si no se ha configurado, al servidor de respaldo local.
      */
-    private UserData loadUserDataFromJson() {
-        ObjectMapper mapper = new ObjectMapper();
+    private ClienteRespaldo iniciarRespaldo() {
+        if (bandeja == null) return null;
         try {
-            List<UserData> usuarios = mapper.readValue(
-                    getClass().getClassLoader().getResourceAsStream("users.json"),
-                    new TypeReference<List<UserData>>() {}
-            );
-
-            if (usuarios != null && !usuarios.isEmpty()) {
-                return usuarios.get(0);
+            String url = System.getProperty(ConfiguracionRespaldo.PROPIEDAD_URL);
+            if (url == null) {
+                servidorRespaldo = new ServidorRespaldoLocal(0,
+                        bandeja.getDirectorio().resolve("servidor_local.txt")).iniciar();
+                url = servidorRespaldo.getUrl().toString();
             }
-            throw new Exception("El archivo JSON está vacío.");
+            ClienteRespaldo cliente = new ClienteRespaldo(bandeja, ConfiguracionRespaldo.porDefecto(URI.create(url)));
+            cliente.iniciar();
+            return cliente;
+        } catch (IOException e) {
+            System.err.println("⚠️ Servidor de respaldo local no disponible; las alertas quedan en la bandeja: "
+                    + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Carga los perfiles de usuario, primero desde el snapshot binario y si no es válido desde el JSON.
+     * Si no se carga ninguno se registra un usuario de fallback.
+     */
+    private void loadUserData() {
+        List<UserData> desdeSnapshot = SnapshotBinario.leerUsuarios(SnapshotBinario.SNAPSHOT_USUARIOS,
+                SnapshotBinario.RUTA_USUARIOS);
+        if (desdeSnapshot != null && !desdeSnapshot.isEmpty()) {
+            origenUsuarios = "snapshot";
+            for (UserData u : desdeSnapshot) usuarios.registrar(u);
+            idUsuarioPorDefecto = desdeSnapshot.get(0).getId();
+            return;
+        }
+        loadUserDataFromJson();
+    }
+
+    /**
+     * Carga en bloque los perfiles desde el archivo JSON de recursos.
+     */
+    private void loadUserDataFromJson() {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("users.json")) {
+            if (in == null) throw new Exception("No se encuentra users.json.");
+            usuarios.cargarJson(in, u -> {
+                if (idUsuarioPorDefecto == null) idUsuarioPorDefecto = u.getId();
+            });
+            if (idUsuarioPorDefecto == null) throw new Exception("El archivo JSON está vacío.");
 
         } catch (Exception e) {
             System.err.println("❌ ERROR DE CARGA DE USUARIO: " + e.getMessage());
             // Fallback reconocible para evitar que el sistema se detenga
-            return new UserData("Usuario de Emergencia", "000", "Sin datos médicos", null, null);
+            idUsuarioPorDefecto = usuarios.registrar(
+                    new UserData("Usuario de Emergencia", "000", "Sin datos médicos", null, null)).getId();
         }
     }
 
+    /** @return Consola del proceso; toda lectura de {@code System.in} debe pasar por ella. */
+    public CanalConsola getConsola() {
+        return consola;
+    }
+
     /**
-     * Inicia el ciclo de vida del sistema de gestión de emergencias.
+     * Motor sin interfaz para disparos de dispositivo de cualquier usuario registrado.
+     * Comparte el detector, el emisor de alertas y los perfiles con el flujo de consola.
+     */
+    public synchronized MotorEmergencias getMotor() {
+        if (motor == null) {
+            motor = new MotorEmergencias(usuarios, detector, agrupador, vitales, MotorEmergencias.configuracionPorDefecto());
+        }
+        return motor;
+    }
+
+    /** @return Flujo continuo de signos vitales de los usuarios monitorizados. */
+    public MonitorVitales getVitales() {
+        return vitales;
+    }
+
+    /** @return Detección de caídas sobre los lotes del acelerómetro de los dispositivos. */
+    public DetectorCaidas getCaidas() {
+        return caidas;
+    }
+
+    /** @return Etapa de agrupación de ráfagas delante del emisor de alertas. */
+    public AgrupadorAlertas getAgrupador() {
+        return agrupador;
+    }
+
+    /** @return Almacén de perfiles de usuario del sistema. */
+    public RegistroUsuarios getUsuarios() {
+        return usuarios;
+    }
+
+    /** @return Catálogo de centros vigente en el registro compartido. */
+    public CatalogoCentros getCatalogoCentros() {
+        return registroCentros.actual().getCatalogo();
+    }
+
+    /** @return Descripción del origen de los datos cargados ("snapshot" o "JSON"). */
+    public String getOrigenDatos() {
+        return String.format("centros: %s, usuarios: %s (%d)", registroCentros.actual().getOrigen(), origenUsuarios,
+                usuarios.size());
+    }
+
+    /**
+     * Inicia el ciclo de vida del sistema para el titular del dispositivo.
      * @param isAutomatic Determina si el disparador es manual o por sensores.
      */
     public void startSystem(boolean isAutomatic) {
+        startSystem(idUsuarioPorDefecto, isAutomatic);
+    }
+
+    /**
+     * Inicia el ciclo de vida del sistema de gestión de emergencias para un usuario concreto.
+     * @param idOTelefono Identificador o teléfono del usuario que origina el evento.
+     * @param isAutomatic Determina si el disparador es manual o por sensores.
+     */
+    public void startSystem(String idOTelefono, boolean isAutomatic) {
+        UserData usuario = usuarios.porId(idOTelefono);
+        if (usuario == null) usuario = usuarios.porTelefono(idOTelefono);
+        if (usuario == null) {
+            System.err.println("❌ Usuario no registrado: " + idOTelefono);
+            return;
+        }
+
         System.out.println("\n=======================================================");
         System.out.println("          SISTEMA DE GESTIÓN DE EMERGENCIAS            ");
         System.out.println("=======================================================");
 
+        long inicio = System.nanoTime();
         try {
             // 1. Fase de detección y validación
-            EmergencyEvent event = detector.detectEvent(isAutomatic);
+            EmergencyEvent event = detector.detectEvent(usuario, isAutomatic);
 
             if (event != null) {
                 // 2. Fase de captura de datos médicos (Integrado de v2)
                 System.out.println("▶️ Solicitando lectura de constantes vitales del usuario...");
-                event.leerSignosVitales();
+                long inicioVitales = System.nanoTime();
+                event.leerSignosVitales(vitales.ventana(usuario.getId(), MonitorVitales.VENTANA_ALERTA_MS));
+                metricas.registrarDesde(FaseAlerta.SIGNOS_VITALES, inicioVitales);
 
-                // 3. Fase de comunicación
-                sender.sendAlert(event);
+                // 3. Fase de comunicación: se espera el acuse del despacho crítico;
+                // respaldo y contactos terminan en segundo plano
+                agrupador.sendAlert(event).join();
+                metricas.registrarDesde(FaseAlerta.DISPARO_A_DESPACHO, inicio);
             } else {
                 System.out.println("\n▶️ Sistema finalizado. No se generó alerta (Posible cancelación o falso positivo).");
             }
@@ -94,4 +245,20 @@ public class EmergencyManager {
             System.out.println("=======================================================");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Libera los recursos del sistema esperando a que terminen las tareas de alerta pendientes.
+     */
+    public void cerrar() {
+        synchronized (this) {
+            if (motor != null) motor.close();
+        }
+        agrupador.vaciar();
+        sender.cerrar(30);
+        // Lo que no llegue a subirse queda en la bandeja para el próximo arranque
+        if (respaldo != null) respaldo.cerrar(10_000);
+        if (bandeja != null) bandeja.close();
+        if (servidorRespaldo != null) servidorRespaldo.close();
+        metricas.detenerVolcado(RegistroMetricas.FICHERO_TEXTO, RegistroMetricas.FICHERO_JSON);
+    }
+}
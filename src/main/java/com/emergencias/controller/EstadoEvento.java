@@ -0,0 +1,39 @@
+package main.java.com.emergencias.controller;
+
+/**
+ * Estados por los que pasa un evento de dispositivo dentro de {@link MotorEmergencias}.
+ * <pre>
+ *   RECIBIDO → DETECCION → SIGNOS_VITALES → ENVIO → ALERTA_ENVIADA
+ *      │           │             │           │
+ *      └───────────┴─→ DESCARTADO└───────────┴─→ ERROR
+ * </pre>
+ * DESCARTADO se alcanza desde RECIBIDO (usuario desconocido) o DETECCION (cancelado o
+ * falso positivo); ERROR desde cualquier estado no final.
+ */
+public enum EstadoEvento {
+    RECIBIDO,
+    DETECCION,
+    SIGNOS_VITALES,
+    ENVIO,
+    ALERTA_ENVIADA,
+    DESCARTADO,
+    ERROR;
+
+    /** @return true si el evento ya no avanzará más. */
+    public boolean esFinal() {
+        return this == ALERTA_ENVIADA || this == DESCARTADO || this == ERROR;
+    }
+
+    /** @return true si la transición a {@code siguiente} es válida. */
+    public boolean puedePasarA(EstadoEvento siguiente) {
+        if (esFinal()) return false;
+        if (siguiente == ERROR) return true;
+        switch (this) {
+            case RECIBIDO: return siguiente == DETECCION || siguiente == DESCARTADO;
+            case DETECCION: return siguiente == SIGNOS_VITALES || siguiente == DESCARTADO;
+            case SIGNOS_VITALES: return siguiente == ENVIO;
+            case ENVIO: return siguiente == ALERTA_ENVIADA;
+            default: return false;
+        }
+    }
+}
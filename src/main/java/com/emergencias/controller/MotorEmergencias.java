@@ -0,0 +1,308 @@
+package main.java.com.emergencias.controller;
+
+import main.java.com.emergencias.alert.AcuseDespacho;
+import main.java.com.emergencias.alert.AlertSender;
+import main.java.com.emergencias.alert.EmisorAlertas;
+import main.java.com.emergencias.alert.ConfiguracionPipeline;
+import main.java.com.emergencias.detector.CanalUsuario;
+import main.java.com.emergencias.detector.EmergencyDetector;
+import main.java.com.emergencias.metricas.FaseAlerta;
+import main.java.com.emergencias.metricas.RegistroMetricas;
+import main.java.com.emergencias.model.EmergencyEvent;
+import main.java.com.emergencias.model.EventoDispositivo;
+import main.java.com.emergencias.model.UserData;
+import main.java.com.emergencias.vitales.MonitorVitales;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Motor sin interfaz que procesa disparos de dispositivo de muchos usuarios a la vez.
+ * Cada {@link EventoDispositivo} recorre una máquina de estados propia ({@link EstadoEvento}):
+ * detección con el {@link EmergencyDetector} compartido, lectura de signos vitales y envío
+ * por el {@link AlertSender}. La detección y los signos vitales se ejecutan en un conjunto
+ * de trabajadores con cola acotada; el envío continúa en la canalización del emisor y el
+ * futuro del evento termina con el acuse del despacho.
+ *
+ * Un disparo automático que llega sin confirmación de gravedad queda a la espera de que el
+ * usuario responda desde su dispositivo ({@link #confirmar(String, String)}) sin ocupar ningún
+ * trabajador: la cuenta atrás la lleva el temporizador del detector y, si vence, la alerta se
+ * escala como grave.
+ */
+public class MotorEmergencias implements AutoCloseable {
+
+    private final RegistroUsuarios usuarios;
+    private final EmergencyDetector detector;
+    private final EmisorAlertas sender;
+    private final MonitorVitales vitales;
+    private final ThreadPoolExecutor trabajadores;
+    private final Executor continuacion;
+    private final ConcurrentHashMap<String, CompletableFuture<String>> confirmaciones = new ConcurrentHashMap<>();
+    private final Map<EstadoEvento, LongAdder> finales = new EnumMap<>(EstadoEvento.class);
+    private final RegistroMetricas metricas = RegistroMetricas.global();
+
+    /**
+     * @param usuarios Almacén de perfiles donde se resuelve el usuario de cada disparo.
+     * @param detector Detector compartido (sin estado).
+     * @param sender Emisor de alertas compartido; el motor no lo cierra.
+     * @param config Cola, número de trabajadores y contrapresión del motor.
+     */
+    public MotorEmergencias(RegistroUsuarios usuarios, EmergencyDetector detector, EmisorAlertas sender,
+                            ConfiguracionPipeline config) {
+        this(usuarios, detector, sender, new MonitorVitales(), config);
+    }
+
+    /**
+     * @param usuarios Almacén de perfiles donde se resuelve el usuario de cada disparo.
+     * @param detector Detector compartido (sin estado).
+     * @param sender Emisor de alertas compartido (el {@link AlertSender} o un agrupador delante); el motor no lo cierra.
+     * @param vitales Flujo continuo de signos vitales; su último minuto se adjunta a cada alerta.
+     * @param config Cola, número de trabajadores y contrapresión del motor.
+     */
+    public MotorEmergencias(RegistroUsuarios usuarios, EmergencyDetector detector, EmisorAlertas sender,
+                            MonitorVitales vitales, ConfiguracionPipeline config) {
+        this.usuarios = usuarios;
+        this.detector = detector;
+        this.sender = sender;
+        this.vitales = vitales;
+        this.trabajadores = config.crearEtapa("motor-emergencias");
+        // Las detecciones que terminan fuera (respuesta remota o vencimiento) vuelven a los
+        // trabajadores; si el motor ya está cerrado, las termina el propio hilo que las completa
+        this.continuacion = tarea -> {
+            try {
+                trabajadores.execute(tarea);
+            } catch (RejectedExecutionException e) {
+                tarea.run();
+            }
+        };
+        for (EstadoEvento estado : EstadoEvento.values()) {
+            if (estado.esFinal()) finales.put(estado, new LongAdder());
+        }
+    }
+
+    /**
+     * @return Configuración por defecto del motor: un trabajador por núcleo y 4096 eventos en cola.
+     */
+    public static ConfiguracionPipeline configuracionPorDefecto() {
+        return new ConfiguracionPipeline(4096, Runtime.getRuntime().availableProcessors(),
+                ConfiguracionPipeline.Contrapresion.BLOQUEAR);
+    }
+
+    /**
+     * Acepta un disparo de dispositivo para su procesamiento asíncrono.
+     * @return Futuro con el resultado final del evento (nunca termina con excepción).
+     */
+    public CompletableFuture<ResultadoEvento> procesar(EventoDispositivo disparo) {
+        ProcesoEvento proceso = new ProcesoEvento(disparo);
+        try {
+            trabajadores.execute(() -> ejecutar(proceso));
+        } catch (RejectedExecutionException e) {
+            proceso.fallar(e);
+        }
+        return proceso.futuro;
+    }
+
+    private void ejecutar(ProcesoEvento proceso) {
+        try {
+            EventoDispositivo disparo = proceso.disparo;
+            UserData usuario = resolverUsuario(disparo.getIdUsuario());
+            if (usuario == null) {
+                proceso.descartar("Usuario no registrado: " + disparo.getIdUsuario());
+                return;
+            }
+
+            proceso.avanzar(EstadoEvento.DETECCION);
+            detector.detectEventAsync(usuario, disparo.isAutomatico(), new CanalDispositivo(disparo, usuario.getId()))
+                    .whenCompleteAsync((evento, error) -> {
+                        if (error != null) proceso.fallar(error);
+                        else enviar(proceso, evento);
+                    }, continuacion);
+        } catch (RuntimeException e) {
+            proceso.fallar(e);
+        }
+    }
+
+    private void enviar(ProcesoEvento proceso, EmergencyEvent evento) {
+        try {
+            if (evento == null) {
+                proceso.descartar("Cancelado por el usuario o falso positivo");
+                return;
+            }
+            proceso.evento = evento;
+
+            proceso.avanzar(EstadoEvento.SIGNOS_VITALES);
+            long inicio = System.nanoTime();
+            evento.leerSignosVitales(vitales.ventana(evento.getDatosUsuario().getId(), MonitorVitales.VENTANA_ALERTA_MS));
+            metricas.registrarDesde(FaseAlerta.SIGNOS_VITALES, inicio);
+
+            proceso.avanzar(EstadoEvento.ENVIO);
+            sender.sendAlert(evento).whenComplete((acuse, error) -> {
+                if (error != null) {
+                    proceso.fallar(error);
+                } else {
+                    proceso.acuse = acuse;
+                    metricas.registrarDesde(FaseAlerta.DISPARO_A_DESPACHO, proceso.disparo.getRecibidoNanos());
+                    proceso.terminar(EstadoEvento.ALERTA_ENVIADA, null, null);
+                }
+            });
+        } catch (RuntimeException e) {
+            proceso.fallar(e);
+        }
+    }
+
+    private UserData resolverUsuario(String idOTelefono) {
+        UserData usuario = usuarios.porId(idOTelefono);
+        return usuario != null ? usuario : usuarios.porTelefono(idOTelefono);
+    }
+
+    /**
+     * Entrega la respuesta de gravedad que el usuario da desde su dispositivo a los disparos
+     * automáticos suyos que siguen esperándola.
+     * @param idUsuario ID o teléfono del usuario.
+     * @param respuesta "S" confirma la gravedad, "N" la descarta.
+     * @return true si había alguna confirmación pendiente (y no había vencido).
+     */
+    public boolean confirmar(String idUsuario, String respuesta) {
+        UserData usuario = resolverUsuario(idUsuario);
+        if (usuario == null) return false;
+        CompletableFuture<String> pendiente = confirmaciones.get(usuario.getId());
+        return pendiente != null && pendiente.complete(respuesta == null ? "" : respuesta);
+    }
+
+    /** @return Usuarios con disparos automáticos esperando su confirmación de gravedad. */
+    public int getEsperandoConfirmacion() {
+        return confirmaciones.size();
+    }
+
+    /**
+     * @return Número de eventos que han terminado en el estado final indicado.
+     */
+    public long getTerminados(EstadoEvento estadoFinal) {
+        LongAdder contador = finales.get(estadoFinal);
+        return contador == null ? 0 : contador.sum();
+    }
+
+    /** @return Eventos aceptados que aún esperan trabajador. */
+    public int getPendientes() {
+        return trabajadores.getQueue().size();
+    }
+
+    /**
+     * Deja de aceptar disparos y espera a que terminen la detección de los ya aceptados.
+     * El emisor de alertas se cierra aparte, por su propietario.
+     */
+    @Override
+    public void close() {
+        trabajadores.shutdown();
+        try {
+            if (!trabajadores.awaitTermination(30, TimeUnit.SECONDS)) {
+                System.err.println("⚠️ El motor no terminó a tiempo; eventos pendientes: " + trabajadores.getQueue().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Estado de un evento en curso. Solo lo modifica el hilo que lo procesa en cada momento.
+     */
+    private final class ProcesoEvento {
+        private final EventoDispositivo disparo;
+        private final CompletableFuture<ResultadoEvento> futuro = new CompletableFuture<>();
+        private volatile EstadoEvento estado = EstadoEvento.RECIBIDO;
+        private volatile EmergencyEvent evento;
+        private volatile AcuseDespacho acuse;
+
+        ProcesoEvento(EventoDispositivo disparo) {
+            this.disparo = disparo;
+        }
+
+        void avanzar(EstadoEvento siguiente) {
+            if (!estado.puedePasarA(siguiente)) {
+                throw new IllegalStateException("Transición no válida: " + estado + " → " + siguiente);
+            }
+            estado = siguiente;
+        }
+
+        void descartar(String motivo) {
+            terminar(EstadoEvento.DESCARTADO, motivo, null);
+        }
+
+        void fallar(Throwable error) {
+            Throwable causa = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            terminar(EstadoEvento.ERROR, causa.getMessage(), causa);
+        }
+
+        void terminar(EstadoEvento estadoFinal, String motivo, Throwable error) {
+            avanzar(estadoFinal);
+            finales.get(estadoFinal).increment();
+            futuro.complete(new ResultadoEvento(disparo, estadoFinal, evento, acuse, motivo, error,
+                    System.nanoTime() - disparo.getRecibidoNanos()));
+        }
+    }
+
+    /**
+     * Canal de usuario de un disparo de dispositivo: las respuestas vienen en el propio
+     * disparo y los mensajes informativos no se muestran a nadie. Si un disparo automático
+     * no trae la confirmación de gravedad, se espera a {@link #confirmar(String, String)};
+     * varios disparos simultáneos del mismo usuario comparten esa respuesta.
+     */
+    private final class CanalDispositivo implements CanalUsuario {
+        private final EventoDispositivo disparo;
+        private final String idUsuario;
+
+        CanalDispositivo(EventoDispositivo disparo, String idUsuario) {
+            this.disparo = disparo;
+            this.idUsuario = idUsuario;
+        }
+
+        @Override
+        public CompletableFuture<String> preguntar(Pregunta pregunta, String prompt) {
+            switch (pregunta) {
+                case ACTIVACION:
+                    return CompletableFuture.completedFuture("E"); // El disparo manual ya es la pulsación del botón
+                case TIPO:
+                    return CompletableFuture.completedFuture(disparo.getTipo() != null ? disparo.getTipo() : "");
+                default:
+                    if (disparo.getConfirmacionGravedad() != null) {
+                        return CompletableFuture.completedFuture(disparo.getConfirmacionGravedad());
+                    }
+                    if (!disparo.isAutomatico()) return CompletableFuture.completedFuture("");
+                    return esperarConfirmacion();
+            }
+        }
+
+        private CompletableFuture<String> esperarConfirmacion() {
+            CompletableFuture<String> nueva = new CompletableFuture<>();
+            CompletableFuture<String> pendiente = confirmaciones.putIfAbsent(idUsuario, nueva);
+            if (pendiente != null) return pendiente;
+            // Al responder o vencer deja de estar pendiente
+            nueva.whenComplete((r, e) -> confirmaciones.remove(idUsuario, nueva));
+            return nueva;
+        }
+
+        @Override
+        public int leerSensor() {
+            return disparo.getLecturaSensor();
+        }
+
+        @Override
+        public String anomaliaDetectada() {
+            return disparo.getAnomalia();
+        }
+
+        @Override
+        public void informar(String mensaje) {
+            // Sin interfaz: el resultado del evento recoge lo relevante
+        }
+    }
+}
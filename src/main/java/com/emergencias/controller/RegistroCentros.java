@@ -0,0 +1,194 @@
+package main.java.com.emergencias.controller;
+
+import main.java.com.emergencias.geo.CentroSaludIndex;
+import main.java.com.emergencias.model.CatalogoCentros;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Registro único por proceso del catálogo de centros y su índice espacial.
+ * Publica versiones inmutables mediante una única referencia atómica: los lectores
+ * de la ruta de detección obtienen siempre una versión completa sin bloquearse.
+ * Opcionalmente vigila el JSON de origen con {@link WatchService} y reconstruye el
+ * catálogo en segundo plano cuando cambia, intercambiándolo de forma atómica.
+ */
+public class RegistroCentros {
+
+    private static final long ESPERA_ESTABILIZACION_MS = 250; // Agrupa ráfagas de eventos del sistema de ficheros
+
+    private final Path rutaJson;
+    private final AtomicReference<VersionCatalogo> actual = new AtomicReference<>();
+    private final ExecutorService reconstructor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "registro-centros-recarga");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile WatchService vigilante;
+
+    /**
+     * Versión inmutable del catálogo publicada en el registro.
+     */
+    public static final class VersionCatalogo {
+        private final long numero;
+        private final CatalogoCentros catalogo;
+        private final CentroSaludIndex indice;
+        private final String origen;
+
+        VersionCatalogo(long numero, CatalogoCentros catalogo, CentroSaludIndex indice, String origen) {
+            this.numero = numero;
+            this.catalogo = catalogo;
+            this.indice = indice;
+            this.origen = origen;
+        }
+
+        public long getNumero() { return numero; }
+        public CatalogoCentros getCatalogo() { return catalogo; }
+        public CentroSaludIndex getIndice() { return indice; }
+        /** @return "snapshot" o "JSON" según de dónde se cargó esta versión. */
+        public String getOrigen() { return origen; }
+    }
+
+    private static final class Holder {
+        private static final RegistroCentros GLOBAL =
+                new RegistroCentros(CentroSaludLoader.RUTA_POR_DEFECTO, SnapshotBinario.SNAPSHOT_CENTROS);
+    }
+
+    /**
+     * @return El registro compartido por todo el proceso (se carga la primera vez que se pide).
+     */
+    public static RegistroCentros global() {
+        return Holder.GLOBAL;
+    }
+
+    /**
+     * Crea un registro y realiza la carga inicial (snapshot si está al día, si no JSON).
+     * @param rutaJson JSON de origen de los centros.
+     * @param rutaSnapshot Snapshot binario asociado (puede no existir).
+     */
+    public RegistroCentros(Path rutaJson, Path rutaSnapshot) {
+        this.rutaJson = rutaJson;
+        CatalogoCentros catalogo = SnapshotBinario.leerCatalogo(rutaSnapshot, rutaJson);
+        String origen = "snapshot";
+        if (catalogo == null) {
+            catalogo = new CentroSaludLoader().cargarCatalogo(rutaJson);
+            origen = "JSON";
+        }
+        actual.set(new VersionCatalogo(1, catalogo, CentroSaludIndex.construir(catalogo), origen));
+    }
+
+    /**
+     * Lectura sin bloqueo de la versión vigente.
+     * @return Versión completa publicada más recientemente.
+     */
+    public VersionCatalogo actual() {
+        return actual.get();
+    }
+
+    /** @return Índice espacial de la versión vigente. */
+    public CentroSaludIndex indice() {
+        return actual.get().getIndice();
+    }
+
+    /**
+     * Reconstruye el catálogo desde el JSON en el hilo de recarga y lo publica si es válido.
+     * Un fichero vacío o a medio escribir no sustituye a la versión vigente.
+     * Tras {@link #detener()} la petición se ignora.
+     */
+    public void recargar() {
+        try {
+            reconstructor.execute(this::reconstruir);
+        } catch (RejectedExecutionException e) {
+            // El registro se ha cerrado entre la detección del cambio y la petición: no hay nada que recargar
+        }
+    }
+
+    private void reconstruir() {
+        CatalogoCentros.Builder builder = new CatalogoCentros.Builder();
+        CentroSaludLoader.ResumenCarga resumen = new CentroSaludLoader().cargarAceptando(rutaJson, builder::agregar,
+                r -> System.err.println("⚠️ Recarga de centros: " + r));
+        CatalogoCentros catalogo = builder.construir();
+        if (!resumen.isCompleta() || catalogo.size() == 0) {
+            System.err.println("⚠️ Recarga de centros descartada: se mantiene la versión " + actual.get().getNumero());
+            return;
+        }
+        // Solo escribe este hilo, así que leer y publicar no compite con otras recargas
+        CentroSaludIndex indice = CentroSaludIndex.construir(catalogo);
+        VersionCatalogo anterior = actual.get();
+        actual.set(new VersionCatalogo(anterior.getNumero() + 1, catalogo, indice, "JSON"));
+        System.out.printf("🔄 Catálogo de centros recargado: versión %d (%d centros).\n",
+                anterior.getNumero() + 1, catalogo.size());
+    }
+
+    /**
+     * Empieza a vigilar el JSON de origen; cada modificación dispara una recarga en segundo plano.
+     * Llamadas repetidas no crean vigilantes adicionales.
+     */
+    public synchronized void iniciarVigilancia() {
+        if (vigilante != null) return;
+        Path directorio = rutaJson.toAbsolutePath().getParent();
+        try {
+            WatchService ws = FileSystems.getDefault().newWatchService();
+            directorio.register(ws, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+            vigilante = ws;
+        } catch (IOException e) {
+            System.err.println("⚠️ No se puede vigilar " + rutaJson + ": " + e.getMessage());
+            return;
+        }
+        Thread hilo = new Thread(this::bucleVigilancia, "registro-centros-vigilante");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    private void bucleVigilancia() {
+        Path nombre = rutaJson.getFileName();
+        WatchService ws = vigilante;
+        try {
+            while (true) {
+                WatchKey clave = ws.take();
+                boolean afectado = false;
+                for (WatchEvent<?> evento : clave.pollEvents()) {
+                    if (nombre.equals(evento.context())) afectado = true;
+                }
+                clave.reset();
+                if (!afectado) continue;
+
+                // Espera a que cese la ráfaga de escrituras y descarta los eventos acumulados
+                WatchKey siguiente;
+                while ((siguiente = ws.poll(ESPERA_ESTABILIZACION_MS, TimeUnit.MILLISECONDS)) != null) {
+                    siguiente.pollEvents();
+                    siguiente.reset();
+                }
+                recargar();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Vigilancia detenida
+        }
+    }
+
+    /**
+     * Detiene la vigilancia del fichero y el hilo de recarga.
+     */
+    public synchronized void detener() {
+        if (vigilante != null) {
+            try {
+                vigilante.close();
+            } catch (IOException e) { /* Cierre best-effort */ }
+            vigilante = null;
+        }
+        reconstructor.shutdownNow();
+    }
+}
@@ -0,0 +1,260 @@
+package main.java.com.emergencias.controller;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import main.java.com.emergencias.model.UserData;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Almacén de perfiles de usuario indexado por identificador y por teléfono, pensado para que
+ * un único proceso atienda a muchos usuarios monitorizados.
+ *
+ * Las lecturas ({@link #porId(String)}, {@link #porTelefono(String)}) son búsquedas O(1) sin
+ * bloqueo sobre {@link ConcurrentHashMap}. Las escrituras siguen el patrón copia-en-escritura:
+ * nunca se modifica un perfil ya publicado, se publica una copia nueva que lo sustituye. Por eso
+ * los perfiles devueltos deben tratarse como de solo lectura; para cambiarlos se usa
+ * {@link #actualizar(String, Consumer)}.
+ *
+ * Los perfiles se cargan en bloque desde JSON (en streaming, sin materializar la lista completa)
+ * o de forma perezosa, la primera vez que se piden, mediante un cargador opcional.
+ */
+public class RegistroUsuarios {
+
+    private static final Pattern ID_SEGURO = Pattern.compile("[A-Za-z0-9_+.-]+");
+
+    private final ConcurrentHashMap<String, UserData> porId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, String> idPorTelefono = new ConcurrentHashMap<>();
+    private final Object escritura = new Object(); // Mantiene coherentes ambos índices al publicar
+    private final Function<String, UserData> cargadorPerezoso;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Crea un almacén vacío sin carga perezosa.
+     */
+    public RegistroUsuarios() {
+        this(null);
+    }
+
+    /**
+     * @param cargadorPerezoso Función que obtiene un perfil por ID cuando no está en memoria
+     *                         (devuelve null si no existe). Puede ser null.
+     */
+    public RegistroUsuarios(Function<String, UserData> cargadorPerezoso) {
+        this.cargadorPerezoso = cargadorPerezoso;
+    }
+
+    /**
+     * Cargador perezoso que lee cada perfil de {@code <directorio>/<id>.json}.
+     * Solo resuelve búsquedas por ID; por teléfono se encuentran los perfiles ya cargados.
+     */
+    public static Function<String, UserData> desdeDirectorio(Path directorio) {
+        ObjectMapper lector = new ObjectMapper();
+        return id -> {
+            if (!ID_SEGURO.matcher(id).matches()) return null;
+            Path fichero = directorio.resolve(id + ".json");
+            if (!Files.isRegularFile(fichero)) return null;
+            try {
+                UserData perfil = lector.readValue(fichero.toFile(), UserData.class);
+                perfil.setId(id); // El nombre del fichero manda sobre el contenido
+                return perfil;
+            } catch (IOException e) {
+                System.err.println("⚠️ No se pudo cargar el perfil " + id + ": " + e.getMessage());
+                return null;
+            }
+        };
+    }
+
+    // --- LECTURAS ---
+
+    /**
+     * @return Perfil publicado con ese ID (cargándolo si hay cargador perezoso) o null si no existe.
+     */
+    public UserData porId(String id) {
+        if (id == null) return null;
+        UserData perfil = porId.get(id);
+        if (perfil == null && cargadorPerezoso != null) {
+            UserData cargado = cargadorPerezoso.apply(id);
+            if (cargado != null) perfil = registrarSiAusente(cargado);
+        }
+        return perfil;
+    }
+
+    /**
+     * @return Perfil publicado con ese teléfono (se ignoran espacios, guiones y el prefijo +34) o null.
+     */
+    public UserData porTelefono(String telefono) {
+        if (telefono == null) return null;
+        String id = idPorTelefono.get(normalizarTelefono(telefono));
+        return id == null ? null : porId.get(id);
+    }
+
+    /** @return Número de perfiles en memoria. */
+    public int size() {
+        return porId.size();
+    }
+
+    /** @return Vista de solo lectura de los perfiles publicados. */
+    public Collection<UserData> perfiles() {
+        return Collections.unmodifiableCollection(porId.values());
+    }
+
+    // --- ESCRITURAS (copia-en-escritura) ---
+
+    /**
+     * Publica una copia del perfil, sustituyendo la versión anterior con el mismo ID.
+     * @return La copia publicada.
+     * @throws IllegalArgumentException si faltan datos obligatorios o el teléfono es de otro perfil.
+     */
+    public UserData registrar(UserData perfil) {
+        validar(perfil);
+        UserData publicado = perfil.copia();
+        synchronized (escritura) {
+            publicar(publicado);
+        }
+        return publicado;
+    }
+
+    /**
+     * Aplica cambios sobre una copia del perfil y la publica de forma atómica:
+     * los lectores ven la versión anterior o la nueva, nunca una a medias.
+     * @return La nueva versión publicada o null si el perfil no existe.
+     */
+    public UserData actualizar(String id, Consumer<UserData> cambios) {
+        synchronized (escritura) {
+            UserData actual = porId.get(id);
+            if (actual == null) return null;
+            UserData nuevo = actual.copia();
+            cambios.accept(nuevo);
+            validar(nuevo);
+            if (!nuevo.getId().equals(id)) {
+                throw new IllegalArgumentException("No se puede cambiar el identificador de un perfil: " + id);
+            }
+            publicar(nuevo);
+            return nuevo;
+        }
+    }
+
+    /**
+     * @return true si el perfil existía y se ha retirado.
+     */
+    public boolean eliminar(String id) {
+        synchronized (escritura) {
+            UserData anterior = porId.remove(id);
+            if (anterior == null) return false;
+            idPorTelefono.remove(normalizarTelefono(anterior.getTelefono()), id);
+            return true;
+        }
+    }
+
+    private UserData registrarSiAusente(UserData perfil) {
+        validar(perfil);
+        synchronized (escritura) {
+            UserData existente = porId.get(perfil.getId());
+            if (existente != null) return existente;
+            UserData publicado = perfil.copia();
+            publicar(publicado);
+            return publicado;
+        }
+    }
+
+    private void publicar(UserData nuevo) {
+        // Un perfil sin ID explícito se identifica por su teléfono: se fija al publicarlo para
+        // que cambiar después el teléfono no cambie también el ID
+        String id = nuevo.getId();
+        String telefono = normalizarTelefono(nuevo.getTelefono());
+        String propietario = idPorTelefono.get(telefono);
+        if (propietario != null && !propietario.equals(id) && porId.containsKey(propietario)) {
+            throw new IllegalArgumentException("El teléfono " + nuevo.getTelefono() + " ya es del perfil " + propietario + ".");
+        }
+        nuevo.setId(id);
+        UserData anterior = porId.put(id, nuevo);
+        if (anterior != null) {
+            idPorTelefono.remove(normalizarTelefono(anterior.getTelefono()), id);
+        }
+        idPorTelefono.put(telefono, id);
+    }
+
+    private static void validar(UserData perfil) {
+        if (perfil == null || esVacio(perfil.getNombre()) || esVacio(perfil.getTelefono())) {
+            throw new IllegalArgumentException("El nombre y el teléfono son campos obligatorios.");
+        }
+    }
+
+    private static boolean esVacio(String s) {
+        return s == null || s.trim().isEmpty();
+    }
+
+    /**
+     * Normaliza un teléfono para indexarlo: solo dígitos y sin el prefijo internacional de España.
+     */
+    public static String normalizarTelefono(String telefono) {
+        String digitos = telefono.replaceAll("[^0-9]", "");
+        if (digitos.length() == 11 && digitos.startsWith("34")) return digitos.substring(2);
+        if (digitos.length() == 13 && digitos.startsWith("0034")) return digitos.substring(4);
+        return digitos;
+    }
+
+    // --- CARGA EN BLOQUE ---
+
+    /**
+     * Carga en bloque un array JSON de usuarios ({@code users.json}).
+     * @return Número de perfiles publicados.
+     */
+    public int cargarJson(Path fichero) throws IOException {
+        try (InputStream in = Files.newInputStream(fichero)) {
+            return cargarJson(in, null);
+        }
+    }
+
+    /**
+     * Carga en bloque un array JSON de usuarios leyéndolo en streaming: cada objeto se
+     * enlaza y publica por separado, de modo que la memoria no depende del tamaño del fichero.
+     * Los registros sin nombre o teléfono, con un teléfono ya registrado o que no son objetos
+     * se descartan con un aviso y la carga sigue con el siguiente.
+     * @param alPublicar Se invoca con cada perfil publicado, en orden del fichero (puede ser null).
+     * @return Número de perfiles publicados.
+     */
+    public int cargarJson(InputStream in, Consumer<UserData> alPublicar) throws IOException {
+        int publicados = 0;
+        int posicion = 0;
+        try (JsonParser parser = mapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Se esperaba un array JSON de usuarios.");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) throw new IOException("Array JSON de usuarios sin cerrar.");
+                posicion++;
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    System.err.printf("⚠️ Usuario #%d descartado: se esperaba un objeto y hay %s\n", posicion, token);
+                    continue;
+                }
+                // Se lee el objeto completo antes de enlazarlo: un registro mal formado no desalinea el parser
+                JsonNode nodo = mapper.readTree(parser);
+                try {
+                    UserData perfil = mapper.treeToValue(nodo, UserData.class);
+                    UserData publicado = registrar(perfil);
+                    publicados++;
+                    if (alPublicar != null) alPublicar.accept(publicado);
+                } catch (IllegalArgumentException | JsonProcessingException e) {
+                    System.err.printf("⚠️ Usuario #%d descartado: %s\n", posicion, e.getMessage());
+                }
+            }
+        }
+        return publicados;
+    }
+}
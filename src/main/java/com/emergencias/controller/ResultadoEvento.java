@@ -0,0 +1,43 @@
+package main.java.com.emergencias.controller;
+
+import main.java.com.emergencias.alert.AcuseDespacho;
+import main.java.com.emergencias.model.EmergencyEvent;
+import main.java.com.emergencias.model.EventoDispositivo;
+
+/**
+ * Resultado final del procesamiento de un {@link EventoDispositivo} en {@link MotorEmergencias}.
+ */
+public class ResultadoEvento {
+    private final EventoDispositivo origen;
+    private final EstadoEvento estado;
+    private final EmergencyEvent evento;
+    private final AcuseDespacho acuse;
+    private final String motivo;
+    private final Throwable error;
+    private final long latenciaNanos;
+
+    ResultadoEvento(EventoDispositivo origen, EstadoEvento estado, EmergencyEvent evento, AcuseDespacho acuse,
+                    String motivo, Throwable error, long latenciaNanos) {
+        this.origen = origen;
+        this.estado = estado;
+        this.evento = evento;
+        this.acuse = acuse;
+        this.motivo = motivo;
+        this.error = error;
+        this.latenciaNanos = latenciaNanos;
+    }
+
+    public EventoDispositivo getOrigen() { return origen; }
+    /** @return Estado final: ALERTA_ENVIADA, DESCARTADO o ERROR. */
+    public EstadoEvento getEstado() { return estado; }
+    /** @return Evento de emergencia generado, o null si se descartó antes de crearlo. */
+    public EmergencyEvent getEvento() { return evento; }
+    /** @return Acuse del despacho si la alerta se envió. */
+    public AcuseDespacho getAcuse() { return acuse; }
+    /** @return Motivo del descarte, o null. */
+    public String getMotivo() { return motivo; }
+    /** @return Causa del error, o null. */
+    public Throwable getError() { return error; }
+    /** @return Tiempo desde la recepción del disparo hasta el estado final. */
+    public long getLatenciaNanos() { return latenciaNanos; }
+}
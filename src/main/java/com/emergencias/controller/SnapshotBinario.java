@@ -0,0 +1,313 @@
+package main.java.com.emergencias.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import main.java.com.emergencias.model.CanalContacto;
+import main.java.com.emergencias.model.CatalogoCentros;
+import main.java.com.emergencias.model.ContactoEmergencia;
+import main.java.com.emergencias.model.UserData;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshot binario precompilado del catálogo de centros y del fichero de usuarios.
+ * Se genera offline a partir de los JSON (ver {@link #main(String[])}) y se abre en el
+ * arranque mediante un {@link FileChannel} mapeado en memoria, evitando el análisis JSON
+ * y el binding por reflexión de Jackson.
+ *
+ * Formato (big-endian):
+ * <pre>
+ *   int    magic          ('CSNP' centros / 'USNP' usuarios)
+ *   short  versión
+ *   long   tamaño del JSON de origen
+ *   long   fecha de modificación del JSON de origen (ms)
+ *   long   CRC32 del JSON de origen
+ *   ...    carga útil (columnas del catálogo o registros de usuario)
+ *   long   CRC32 de la carga útil
+ * </pre>
+ * Si el JSON de origen ha cambiado (tamaño/fecha distintos y CRC distinto), el snapshot
+ * se considera obsoleto y el llamante debe volver al JSON.
+ */
+public final class SnapshotBinario {
+
+    public static final Path SNAPSHOT_CENTROS = Paths.get("src/main/resources/centros.snap");
+    public static final Path SNAPSHOT_USUARIOS = Paths.get("src/main/resources/users.snap");
+    public static final Path RUTA_USUARIOS = Paths.get("src/main/resources/users.json");
+
+    private static final int MAGIC_CENTROS = 0x43534E50; // 'CSNP'
+    private static final int MAGIC_USUARIOS = 0x55534E50; // 'USNP'
+    private static final short VERSION_CATALOGO = 1;
+    private static final short VERSION_USUARIOS = 3; // v2: identificador del perfil; v3: contactos de emergencia
+    private static final int TAM_CABECERA = 4 + 2 + 8 + 8 + 8;
+
+    private SnapshotBinario() {}
+
+    // --- CATÁLOGO DE CENTROS ---
+
+    /**
+     * Escribe el snapshot del catálogo asociado al JSON de origen indicado.
+     */
+    public static void escribirCatalogo(CatalogoCentros catalogo, Path fuente, Path destino) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        int n = catalogo.size();
+        String[] diccionario = catalogo.diccionarioMunicipios();
+
+        out.writeInt(n);
+        out.writeInt(diccionario.length);
+        for (String municipio : diccionario) escribirTexto(out, municipio);
+        for (double v : catalogo.columnaLatitudRad()) out.writeDouble(v);
+        for (double v : catalogo.columnaLongitudRad()) out.writeDouble(v);
+        for (int v : catalogo.columnaMunicipio()) out.writeInt(v);
+        for (int i = 0; i < n; i++) escribirTexto(out, catalogo.getCodigo(i));
+        for (int i = 0; i < n; i++) escribirTexto(out, catalogo.getNombre(i));
+        for (int i = 0; i < n; i++) escribirTexto(out, catalogo.getDireccion(i));
+        for (int i = 0; i < n; i++) escribirTexto(out, catalogo.getTelefono(i));
+        out.flush();
+
+        escribirFichero(MAGIC_CENTROS, VERSION_CATALOGO, fuente, bytes.toByteArray(), destino);
+    }
+
+    /**
+     * Abre el snapshot del catálogo si existe y está al día respecto al JSON de origen.
+     * @return El catálogo o null si no hay snapshot válido (el llamante debe usar el JSON).
+     */
+    public static CatalogoCentros leerCatalogo(Path snapshot, Path fuente) {
+        ByteBuffer buf = abrirValidado(snapshot, fuente, MAGIC_CENTROS, VERSION_CATALOGO);
+        if (buf == null) return null;
+        try {
+            int n = buf.getInt();
+            String[] diccionario = new String[buf.getInt()];
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < diccionario.length; i++) diccionario[i] = leerTexto(buf, scratch);
+
+            double[] latRad = new double[n];
+            double[] lonRad = new double[n];
+            int[] municipio = new int[n];
+            buf.asDoubleBuffer().get(latRad);
+            buf.position(buf.position() + n * Double.BYTES);
+            buf.asDoubleBuffer().get(lonRad);
+            buf.position(buf.position() + n * Double.BYTES);
+            buf.asIntBuffer().get(municipio);
+            buf.position(buf.position() + n * Integer.BYTES);
+
+            String[] codigos = new String[n], nombres = new String[n], direcciones = new String[n], telefonos = new String[n];
+            for (int i = 0; i < n; i++) codigos[i] = leerTexto(buf, scratch);
+            for (int i = 0; i < n; i++) nombres[i] = leerTexto(buf, scratch);
+            for (int i = 0; i < n; i++) direcciones[i] = leerTexto(buf, scratch);
+            for (int i = 0; i < n; i++) telefonos[i] = leerTexto(buf, scratch);
+
+            return CatalogoCentros.desdeColumnas(codigos, nombres, direcciones, telefonos,
+                    latRad, lonRad, municipio, diccionario);
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Snapshot de centros corrupto, se usará el JSON: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // --- USUARIOS ---
+
+    /**
+     * Escribe el snapshot de usuarios asociado al JSON de origen indicado.
+     */
+    public static void escribirUsuarios(List<UserData> usuarios, Path fuente, Path destino) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(usuarios.size());
+        for (UserData u : usuarios) {
+            escribirTexto(out, u.getId());
+            escribirTexto(out, u.getNombre());
+            escribirTexto(out, u.getTelefono());
+            escribirTexto(out, u.getInfoMedica());
+            boolean conPosicion = u.getLatitudSimulada() != null && u.getLongitudSimulada() != null;
+            out.writeBoolean(conPosicion);
+            if (conPosicion) {
+                out.writeDouble(u.getLatitudSimulada());
+                out.writeDouble(u.getLongitudSimulada());
+            }
+            out.writeInt(u.getContactos().size());
+            for (ContactoEmergencia c : u.getContactos()) {
+                escribirTexto(out, c.getNombre());
+                escribirTexto(out, c.getTelefono());
+                escribirTexto(out, c.getRelacion());
+                out.writeByte(c.getCanales().size());
+                for (CanalContacto canal : c.getCanales()) out.writeByte(canal.ordinal());
+            }
+        }
+        out.flush();
+        escribirFichero(MAGIC_USUARIOS, VERSION_USUARIOS, fuente, bytes.toByteArray(), destino);
+    }
+
+    /**
+     * Abre el snapshot de usuarios si existe y está al día respecto al JSON de origen.
+     * @return Lista de usuarios o null si no hay snapshot válido.
+     */
+    public static List<UserData> leerUsuarios(Path snapshot, Path fuente) {
+        ByteBuffer buf = abrirValidado(snapshot, fuente, MAGIC_USUARIOS, VERSION_USUARIOS);
+        if (buf == null) return null;
+        try {
+            int n = buf.getInt();
+            List<UserData> usuarios = new ArrayList<>(n);
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < n; i++) {
+                String id = leerTexto(buf, scratch);
+                String nombre = leerTexto(buf, scratch);
+                String telefono = leerTexto(buf, scratch);
+                String infoMedica = leerTexto(buf, scratch);
+                Double lat = null, lon = null;
+                if (buf.get() != 0) {
+                    lat = buf.getDouble();
+                    lon = buf.getDouble();
+                }
+                UserData usuario = new UserData(id, nombre, telefono, infoMedica, lat, lon);
+                int numContactos = buf.getInt();
+                if (numContactos > 0) {
+                    CanalContacto[] todos = CanalContacto.values();
+                    List<ContactoEmergencia> contactos = new ArrayList<>(numContactos);
+                    for (int c = 0; c < numContactos; c++) {
+                        String nombreContacto = leerTexto(buf, scratch);
+                        String telefonoContacto = leerTexto(buf, scratch);
+                        String relacion = leerTexto(buf, scratch);
+                        CanalContacto[] canales = new CanalContacto[buf.get()];
+                        for (int k = 0; k < canales.length; k++) canales[k] = todos[buf.get()];
+                        contactos.add(new ContactoEmergencia(nombreContacto, telefonoContacto, relacion, List.of(canales)));
+                    }
+                    usuario.setContactos(contactos);
+                }
+                usuarios.add(usuario);
+            }
+            return usuarios;
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Snapshot de usuarios corrupto, se usará el JSON: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // --- FORMATO COMÚN ---
+
+    private static void escribirFichero(int magic, short version, Path fuente, byte[] carga, Path destino)
+            throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(TAM_CABECERA + carga.length + Long.BYTES);
+        buf.putInt(magic);
+        buf.putShort(version);
+        buf.putLong(Files.size(fuente));
+        buf.putLong(Files.getLastModifiedTime(fuente).toMillis());
+        buf.putLong(crcFichero(fuente));
+        buf.put(carga);
+        CRC32 crc = new CRC32();
+        crc.update(carga);
+        buf.putLong(crc.getValue());
+        buf.flip();
+
+        // Se escribe en un temporal y se renombra para no dejar nunca un snapshot a medias
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buf.hasRemaining()) canal.write(buf);
+            canal.force(true);
+        }
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Mapea el snapshot en memoria y valida cabecera, vigencia e integridad.
+     * @return Buffer posicionado al inicio de la carga útil, o null si no es utilizable.
+     */
+    private static ByteBuffer abrirValidado(Path snapshot, Path fuente, int magicEsperado, short versionEsperada) {
+        if (!Files.isRegularFile(snapshot) || !Files.isRegularFile(fuente)) return null;
+        try (FileChannel canal = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            long tam = canal.size();
+            if (tam < TAM_CABECERA + Long.BYTES) return null;
+            MappedByteBuffer buf = canal.map(FileChannel.MapMode.READ_ONLY, 0, tam);
+
+            if (buf.getInt() != magicEsperado || buf.getShort() != versionEsperada) return null;
+            long tamFuente = buf.getLong();
+            long fechaFuente = buf.getLong();
+            long crcFuente = buf.getLong();
+            boolean mismoFichero = tamFuente == Files.size(fuente)
+                    && fechaFuente == Files.getLastModifiedTime(fuente).toMillis();
+            // Si cambió la fecha (p. ej. tras un checkout) se confirma por contenido antes de descartarlo
+            if (!mismoFichero && crcFuente != crcFichero(fuente)) {
+                System.out.println("ℹ️ Snapshot obsoleto (" + snapshot.getFileName() + "), se usará el JSON.");
+                return null;
+            }
+
+            ByteBuffer carga = buf.duplicate();
+            carga.position(TAM_CABECERA).limit((int) tam - Long.BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(carga.duplicate());
+            if (crc.getValue() != buf.getLong((int) tam - Long.BYTES)) {
+                System.err.println("⚠️ Snapshot con checksum inválido: " + snapshot.getFileName());
+                return null;
+            }
+            return carga.slice();
+        } catch (IOException e) {
+            System.err.println("⚠️ No se pudo abrir el snapshot " + snapshot + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static long crcFichero(Path fichero) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] bloque = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(fichero)) {
+            int leidos;
+            while ((leidos = in.read(bloque)) > 0) crc.update(bloque, 0, leidos);
+        }
+        return crc.getValue();
+    }
+
+    private static void escribirTexto(DataOutputStream out, String texto) throws IOException {
+        if (texto == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = texto.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String leerTexto(ByteBuffer buf, byte[] scratch) {
+        int len = buf.getInt();
+        if (len < 0) return null;
+        byte[] destino = len <= scratch.length ? scratch : new byte[len];
+        buf.get(destino, 0, len);
+        return new String(destino, 0, len, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Herramienta offline: genera los snapshots a partir de los JSON de recursos.
+     * Uso: {@code java ... SnapshotBinario [centros.json] [users.json]}
+     */
+    public static void main(String[] args) throws IOException {
+        Path centrosJson = args.length > 0 ? Paths.get(args[0]) : CentroSaludLoader.RUTA_POR_DEFECTO;
+        Path usuariosJson = args.length > 1 ? Paths.get(args[1]) : RUTA_USUARIOS;
+
+        CatalogoCentros catalogo = new CentroSaludLoader().cargarCatalogo(centrosJson);
+        Path destinoCentros = centrosJson.resolveSibling("centros.snap");
+        escribirCatalogo(catalogo, centrosJson, destinoCentros);
+        System.out.printf("✅ Snapshot de centros generado: %s (%d centros, %d bytes)\n",
+                destinoCentros, catalogo.size(), Files.size(destinoCentros));
+
+        List<UserData> usuarios = new ObjectMapper().readValue(usuariosJson.toFile(), new TypeReference<List<UserData>>() {});
+        Path destinoUsuarios = usuariosJson.resolveSibling("users.snap");
+        escribirUsuarios(usuarios, usuariosJson, destinoUsuarios);
+        System.out.printf("✅ Snapshot de usuarios generado: %s (%d usuarios, %d bytes)\n",
+                destinoUsuarios, usuarios.size(), Files.size(destinoUsuarios));
+    }
+}
@@ -0,0 +1,114 @@
+package main.java.com.emergencias.detector;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntSupplier;
+
+/**
+ * Canal de usuario sobre la consola del proceso ({@code System.in}/{@code System.out}).
+ * Un único hilo lector, arrancado en la primera lectura, consume la entrada estándar línea
+ * a línea: cada línea responde a la pregunta pendiente o, si no la hay (o ya venció), queda
+ * en cola para la siguiente lectura. Todas las lecturas del proceso (menú de {@code Main}
+ * incluido) deben pasar por la misma instancia para no repartirse el búfer de entrada.
+ */
+public class CanalConsola implements CanalUsuario {
+
+    private final IntSupplier sensor;
+    private final ArrayDeque<String> lineas = new ArrayDeque<>();
+    private CompletableFuture<String> pendiente;
+    private Thread lector;
+    private boolean finDeEntrada;
+
+    /**
+     * Canal de consola con el sensor de impacto simulado (valor aleatorio 0-99).
+     */
+    public CanalConsola() {
+        this(() -> ThreadLocalRandom.current().nextInt(100));
+    }
+
+    /**
+     * @param sensor Origen de las lecturas del sensor de impacto.
+     */
+    public CanalConsola(IntSupplier sensor) {
+        this.sensor = sensor;
+    }
+
+    /**
+     * Lee una línea completa de la consola, esperando lo necesario.
+     * @return La línea leída o cadena vacía si la entrada se ha cerrado.
+     */
+    public String leerLinea() {
+        return siguienteLinea().join();
+    }
+
+    @Override
+    public CompletableFuture<String> preguntar(Pregunta pregunta, String prompt) {
+        System.out.println(prompt);
+        return siguienteLinea();
+    }
+
+    private synchronized CompletableFuture<String> siguienteLinea() {
+        if (lector == null) arrancarLector();
+        if (!lineas.isEmpty()) return CompletableFuture.completedFuture(lineas.poll());
+        if (finDeEntrada) return CompletableFuture.completedFuture("");
+        // Una pregunta anterior sin responder queda sustituida por la nueva
+        if (pendiente != null) pendiente.complete("");
+        pendiente = new CompletableFuture<>();
+        return pendiente;
+    }
+
+    private void arrancarLector() {
+        InputStream entrada = System.in;
+        lector = new Thread(() -> leer(entrada), "consola-lector");
+        lector.setDaemon(true);
+        lector.start();
+    }
+
+    private void leer(InputStream entrada) {
+        try {
+            BufferedReader in = new BufferedReader(new InputStreamReader(entrada));
+            String linea;
+            while ((linea = in.readLine()) != null) entregar(linea);
+        } catch (IOException e) {
+            System.err.println("⚠️ Error leyendo la consola: " + e.getMessage());
+        }
+        entregar(null);
+    }
+
+    /**
+     * Entrega una línea (o el fin de la entrada si es null) a la pregunta pendiente.
+     * El futuro se completa fuera del cerrojo: sus dependientes pueden volver a preguntar.
+     */
+    private void entregar(String linea) {
+        while (true) {
+            CompletableFuture<String> destino;
+            synchronized (this) {
+                destino = pendiente;
+                pendiente = null;
+                if (linea == null) finDeEntrada = true;
+                if (destino == null || destino.isDone()) {
+                    // Nadie espera (o la pregunta venció): la línea queda para la siguiente lectura
+                    if (linea != null) lineas.add(linea);
+                    return;
+                }
+            }
+            // Si venció justo ahora, se reintenta con la pregunta que haya entonces
+            if (destino.complete(linea == null ? "" : linea) || linea == null) return;
+        }
+    }
+
+    @Override
+    public int leerSensor() {
+        return sensor.getAsInt();
+    }
+
+    @Override
+    public void informar(String mensaje) {
+        System.out.println(mensaje);
+    }
+}
@@ -0,0 +1,53 @@
+package main.java.com.emergencias.detector;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Canal de interacción con el usuario durante una detección: por él llegan las respuestas
+ * a las preguntas del detector y la lectura del sensor, y por él salen los mensajes.
+ * Cada detección recibe su canal, lo que permite que un único {@link EmergencyDetector}
+ * atienda a la vez la consola y miles de dispositivos.
+ */
+public interface CanalUsuario {
+
+    /**
+     * Preguntas que el detector puede hacer al usuario.
+     */
+    enum Pregunta {
+        /** Confirmación de la activación manual ('E'). */
+        ACTIVACION,
+        /** Tipo de emergencia (Sanitaria/Tráfico/General). */
+        TIPO,
+        /** Confirmación de la gravedad (S/N). */
+        GRAVEDAD
+    }
+
+    /**
+     * Hace una pregunta al usuario sin bloquear al que pregunta.
+     * El plazo de respuesta no es cosa del canal: lo vigila el detector con el
+     * {@link TemporizadorConfirmaciones}, que completa el futuro con cadena vacía al vencer.
+     * Por eso el canal debe tolerar que el futuro devuelto se complete desde fuera.
+     * @param pregunta Qué se pregunta.
+     * @param prompt Texto mostrado al usuario.
+     * @return Futuro con la respuesta; cadena vacía significa "sin respuesta".
+     */
+    CompletableFuture<String> preguntar(Pregunta pregunta, String prompt);
+
+    /**
+     * @return Lectura actual del sensor de impacto (0-99).
+     */
+    int leerSensor();
+
+    /**
+     * @return Anomalía que ya ha decidido la activación automática (detección en streaming),
+     *         o null si la activación depende de la lectura del sensor.
+     */
+    default String anomaliaDetectada() {
+        return null;
+    }
+
+    /**
+     * Muestra un mensaje informativo al usuario.
+     */
+    void informar(String mensaje);
+}
@@ -3,165 +3,239 @@ package main.java.com.emergencias.detector;
 import main.java.com.emergencias.model.EmergencyEvent;
 import main.java.com.emergencias.model.UserData;
 import main.java.com.emergencias.model.CentroSalud;
+import main.java.com.emergencias.geo.CentroSaludIndex;
+import main.java.com.emergencias.geo.ResultadoCercania;
+import main.java.com.emergencias.metricas.ContadorEvento;
+import main.java.com.emergencias.metricas.FaseAlerta;
+import main.java.com.emergencias.metricas.RegistroMetricas;
+import main.java.com.emergencias.vitales.ReglaAnomalia;
 
 import java.util.List;
-import java.util.Random;
-import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Clase avanzada encargada de la detección de emergencias.
  * Combina el cálculo de proximidad geográfica con un sistema de confirmación
- * basado en temporizadores (Dead Man Switch) para mayor seguridad.
+ * basado en temporizadores (Dead Man Switch) para mayor seguridad. Las cuentas atrás
+ * las lleva el {@link TemporizadorConfirmaciones} compartido: ninguna pregunta ocupa un
+ * hilo mientras espera respuesta.
+ * No guarda estado entre detecciones: el perfil del usuario y el {@link CanalUsuario}
+ * (consola o dispositivo) llegan con cada llamada, de modo que una misma instancia
+ * puede compartirse entre hilos y atender a todos los usuarios del {@code RegistroUsuarios}.
+ * La duración de cada pregunta y el resultado de cada detección se anotan en el
+ * {@link RegistroMetricas} global.
  */
 public class EmergencyDetector {
 
     private static final int TIMEOUT_SECONDS = 10;
-    private final Scanner scanner;
-    private final UserData currentUser;
-    private final List<CentroSalud> centrosSalud;
+    private static final int UMBRAL_SENSOR = ReglaAnomalia.UMBRAL_IMPACTO;
+    private final CanalUsuario canalPorDefecto;
+    private final Supplier<CentroSaludIndex> indiceCentros;
+    private final TemporizadorConfirmaciones temporizador;
+    private final long plazoConfirmacionMs;
+    private final RegistroMetricas metricas = RegistroMetricas.global();
 
     /**
      * Constructor del detector.
-     * @param currentUser Datos del usuario actual para geolocalización.
      * @param centrosSalud Lista de centros cargados desde el JSON.
      */
-    public EmergencyDetector(UserData currentUser, List<CentroSalud> centrosSalud) {
-        this.currentUser = currentUser;
-        this.centrosSalud = centrosSalud;
-        this.scanner = new Scanner(System.in);
+    public EmergencyDetector(List<CentroSalud> centrosSalud) {
+        this(CentroSaludIndex.construir(centrosSalud));
     }
 
     /**
-     * Punto de entrada principal para detectar un evento.
+     * Constructor del detector con un índice espacial ya construido.
+     * @param indiceCentros Índice de centros construido una vez en la carga.
+     */
+    public EmergencyDetector(CentroSaludIndex indiceCentros) {
+        this(() -> indiceCentros);
+    }
+
+    /**
+     * Constructor del detector que consulta el índice vigente en cada búsqueda,
+     * p. ej. {@code RegistroCentros.global()::indice}, para ver las recargas en caliente.
+     * @param indiceCentros Proveedor del índice vigente (lectura sin bloqueo).
+     */
+    public EmergencyDetector(Supplier<CentroSaludIndex> indiceCentros) {
+        this(indiceCentros, new CanalConsola());
+    }
+
+    /**
+     * @param indiceCentros Proveedor del índice vigente (lectura sin bloqueo).
+     * @param canalPorDefecto Canal usado por {@link #detectEvent(UserData, boolean)} (normalmente la consola).
+     */
+    public EmergencyDetector(Supplier<CentroSaludIndex> indiceCentros, CanalUsuario canalPorDefecto) {
+        this(indiceCentros, canalPorDefecto, TemporizadorConfirmaciones.global(), TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+    }
+
+    /**
+     * @param indiceCentros Proveedor del índice vigente (lectura sin bloqueo).
+     * @param canalPorDefecto Canal usado por {@link #detectEvent(UserData, boolean)} (normalmente la consola).
+     * @param temporizador Rueda donde se arman las cuentas atrás de confirmación.
+     * @param plazoConfirmacionMs Plazo para responder en modo automático antes de escalar.
+     */
+    public EmergencyDetector(Supplier<CentroSaludIndex> indiceCentros, CanalUsuario canalPorDefecto,
+                             TemporizadorConfirmaciones temporizador, long plazoConfirmacionMs) {
+        this.indiceCentros = indiceCentros;
+        this.canalPorDefecto = canalPorDefecto;
+        this.temporizador = temporizador;
+        this.plazoConfirmacionMs = plazoConfirmacionMs;
+    }
+
+    /**
+     * Detecta un evento interactuando por el canal por defecto del detector.
+     * @param usuario Perfil del usuario que origina el evento (geolocalización y datos médicos).
+     * @param isAutomatic Indica si la activación es por sensores o manual.
+     * @return EmergencyEvent validado o null si se cancela o falla.
+     */
+    public EmergencyEvent detectEvent(UserData usuario, boolean isAutomatic) {
+        return detectEvent(usuario, isAutomatic, canalPorDefecto);
+    }
+
+    /**
+     * Detecta un evento esperando a que termine. Seguro para hilos.
+     * @param usuario Perfil del usuario que origina el evento (geolocalización y datos médicos).
      * @param isAutomatic Indica si la activación es por sensores o manual.
+     * @param canal Canal por el que se pregunta e informa al usuario en esta detección.
      * @return EmergencyEvent validado o null si se cancela o falla.
      */
-    public EmergencyEvent detectEvent(boolean isAutomatic) {
-        System.out.println("\n--- MÓDULO DE DETECCIÓN DE EMERGENCIA ---");
+    public EmergencyEvent detectEvent(UserData usuario, boolean isAutomatic, CanalUsuario canal) {
+        return detectEventAsync(usuario, isAutomatic, canal).join();
+    }
+
+    /**
+     * Punto de entrada principal para detectar un evento sin bloquear mientras el usuario responde.
+     * En modo automático cada pregunta arma una cuenta atrás; si vence, se sigue como si el
+     * usuario no hubiera respondido (y la gravedad se escala). Seguro para hilos.
+     * @param usuario Perfil del usuario que origina el evento (geolocalización y datos médicos).
+     * @param isAutomatic Indica si la activación es por sensores o manual.
+     * @param canal Canal por el que se pregunta e informa al usuario en esta detección.
+     * @return Futuro con el EmergencyEvent validado, o con null si se cancela o falla.
+     */
+    public CompletableFuture<EmergencyEvent> detectEventAsync(UserData usuario, boolean isAutomatic, CanalUsuario canal) {
+        canal.informar("\n--- MÓDULO DE DETECCIÓN DE EMERGENCIA ---");
 
         // 1. Confirmación de activación inicial
-        if (!confirmarActivacion(isAutomatic)) return null;
-
-        // 2. Determinación del tipo de emergencia con Timeout
-        String tipoPrompt = isAutomatic
-                ? String.format("\n⚠️ MODO AUTO: Introduzca tipo (Sanitaria/Tráfico/General) en %d seg:", TIMEOUT_SECONDS)
-                : "Introduce tipo de emergencia (Sanitaria/Tráfico/General):";
-
-        String tipoInput = readTimedInput(TIMEOUT_SECONDS, isAutomatic, tipoPrompt);
-        String tipo = tipoInput.trim().isEmpty() ? "General" : tipoInput.trim();
-
-        // 3. Gestión de Ubicación (Viene de v1)
-        String locStr = (currentUser.getLatitudSimulada() == null || currentUser.getLongitudSimulada() == null)
-                ? "Ubicación desconocida (No disponible en JSON)"
-                : String.format("%.4f, %.4f", currentUser.getLatitudSimulada(), currentUser.getLongitudSimulada());
-
-        EmergencyEvent newEvent = new EmergencyEvent(tipo, locStr, currentUser);
-
-        // 4. Validación de gravedad con lógica de "Interruptor de Hombre Muerto" (Viene de v2)
-        if (validateSeverity(newEvent, isAutomatic)) {
-            System.out.println("✅ Validación exitosa. Evento confirmado.");
-            return newEvent;
-        } else {
-            System.out.println("❌ Alerta cancelada (posible falso positivo).");
-            // Si es sanitaria y se cancela, sugerimos el centro más cercano (Viene de v1)
-            if (tipo.equalsIgnoreCase("sanitaria")) recomendarCentroCercano();
-            return null;
-        }
+        long inicioActivacion = System.nanoTime();
+        return confirmarActivacion(isAutomatic, canal).thenCompose(activada -> {
+            metricas.registrarDesde(FaseAlerta.ACTIVACION, inicioActivacion);
+            if (!activada) {
+                metricas.incrementar(ContadorEvento.NO_ACTIVADOS);
+                return CompletableFuture.completedFuture(null);
+            }
+
+            // 2. Determinación del tipo de emergencia con Timeout
+            String tipoPrompt = isAutomatic
+                    ? String.format("\n⚠️ MODO AUTO: Introduzca tipo (Sanitaria/Tráfico/General) en %d seg:", plazoSegundos())
+                    : "Introduce tipo de emergencia (Sanitaria/Tráfico/General):";
+
+            long inicioTipo = System.nanoTime();
+            return preguntar(canal, CanalUsuario.Pregunta.TIPO, tipoPrompt, isAutomatic).thenCompose(tipoInput -> {
+                metricas.registrarDesde(FaseAlerta.TIPO, inicioTipo);
+                String tipo = tipoInput.trim().isEmpty() ? "General" : tipoInput.trim();
+
+                // 3. Gestión de Ubicación (Viene de v1)
+                String locStr = (usuario.getLatitudSimulada() == null || usuario.getLongitudSimulada() == null)
+                        ? "Ubicación desconocida (No disponible en JSON)"
+                        : String.format("%.4f, %.4f", usuario.getLatitudSimulada(), usuario.getLongitudSimulada());
+
+                EmergencyEvent newEvent = new EmergencyEvent(tipo, locStr, usuario);
+
+                // 4. Validación de gravedad con lógica de "Interruptor de Hombre Muerto" (Viene de v2)
+                return validateSeverity(newEvent, isAutomatic, canal).thenApply(confirmado -> {
+                    metricas.incrementar(confirmado ? ContadorEvento.CONFIRMADOS : ContadorEvento.CANCELADOS);
+                    if (confirmado) {
+                        canal.informar("✅ Validación exitosa. Evento confirmado.");
+                        return newEvent;
+                    }
+                    canal.informar("❌ Alerta cancelada (posible falso positivo).");
+                    // Si es sanitaria y se cancela, sugerimos el centro más cercano (Viene de v1)
+                    if (tipo.equalsIgnoreCase("sanitaria")) recomendarCentroCercano(usuario, canal);
+                    return null;
+                });
+            });
+        });
     }
 
-    private boolean validateSeverity(EmergencyEvent event, boolean isAutomatic) {
-        System.out.println("\n--- VALIDACIÓN DE GRAVEDAD ---");
+    private CompletableFuture<Boolean> validateSeverity(EmergencyEvent event, boolean isAutomatic, CanalUsuario canal) {
+        canal.informar("\n--- VALIDACIÓN DE GRAVEDAD ---");
         String prompt = isAutomatic
-                ? String.format("⚠️ MODO AUTO: ¿Confirma gravedad (S/N)? Sin respuesta se activará en %d seg.", TIMEOUT_SECONDS)
+                ? String.format("⚠️ MODO AUTO: ¿Confirma gravedad (S/N)? Sin respuesta se activará en %d seg.", plazoSegundos())
                 : "¿Confirma la gravedad (S/N)?:";
 
-        String confirmation = readTimedInput(TIMEOUT_SECONDS, isAutomatic, prompt);
+        long inicio = System.nanoTime();
+        return preguntar(canal, CanalUsuario.Pregunta.GRAVEDAD, prompt, isAutomatic).thenApply(respuesta -> {
+            metricas.registrarDesde(FaseAlerta.GRAVEDAD, inicio);
+            String confirmation = respuesta.trim();
+
+            // Lógica de Timeout: Si no responde en automático, asumimos que está inconsciente y es GRAVE
+            if (isAutomatic && confirmation.isEmpty()) {
+                canal.informar("\n🚨 TIMEOUT: El usuario no responde. Activando protocolo de EMERGENCIA GRAVE.");
+                metricas.incrementar(ContadorEvento.ESCALADOS_TIMEOUT);
+                event.setEsGrave(true);
+                return true;
+            }
+
+            if (confirmation.equalsIgnoreCase("S")) {
+                event.setEsGrave(true);
+                return true;
+            }
+            return false;
+        });
+    }
 
-        // Lógica de Timeout: Si no responde en automático, asumimos que está inconsciente y es GRAVE
-        if (isAutomatic && confirmation.isEmpty()) {
-            System.out.println("\n🚨 TIMEOUT: El usuario no responde. Activando protocolo de EMERGENCIA GRAVE.");
-            event.setEsGrave(true);
-            return true;
-        }
+    /**
+     * Hace una pregunta por el canal. En modo automático arma la cuenta atrás en la rueda:
+     * si vence antes de la respuesta, la pregunta se da por no respondida (cadena vacía);
+     * si la respuesta llega antes, la cuenta se cancela.
+     */
+    private CompletableFuture<String> preguntar(CanalUsuario canal, CanalUsuario.Pregunta pregunta,
+                                                String prompt, boolean conPlazo) {
+        CompletableFuture<String> respuesta = canal.preguntar(pregunta, prompt);
+        if (!conPlazo || respuesta.isDone()) return respuesta;
+        TemporizadorConfirmaciones.Cuenta cuenta = temporizador.armar(plazoConfirmacionMs, () -> respuesta.complete(""));
+        respuesta.whenComplete((r, e) -> cuenta.cancelar());
+        return respuesta;
+    }
 
-        if (confirmation.equalsIgnoreCase("S")) {
-            event.setEsGrave(true);
-            return true;
-        }
-        return false;
+    private long plazoSegundos() {
+        return TimeUnit.MILLISECONDS.toSeconds(plazoConfirmacionMs);
     }
 
     // --- LÓGICA GEOGRÁFICA (Integrada de v1) ---
 
-    private void recomendarCentroCercano() {
-        if (currentUser.getLatitudSimulada() == null || currentUser.getLongitudSimulada() == null) {
-            System.out.println("\n⚠️ No se puede recomendar centro: Sin coordenadas del usuario.");
+    private void recomendarCentroCercano(UserData usuario, CanalUsuario canal) {
+        if (usuario.getLatitudSimulada() == null || usuario.getLongitudSimulada() == null) {
+            canal.informar("\n⚠️ No se puede recomendar centro: Sin coordenadas del usuario.");
             return;
         }
 
-        double miLat = currentUser.getLatitudSimulada();
-        double miLon = currentUser.getLongitudSimulada();
-        CentroSalud masCercano = null;
-        double menorDistancia = Double.MAX_VALUE;
-
-        System.out.println("\n--- 📍 BUSCANDO AYUDA CERCANA ---");
-        for (CentroSalud centro : centrosSalud) {
-            try {
-                double cLat = Double.parseDouble(centro.getLatitud().replace(",", "."));
-                double cLon = Double.parseDouble(centro.getLongitud().replace(",", "."));
-                double dist = calcularHaversine(miLat, miLon, cLat, cLon);
-
-                if (dist < menorDistancia) {
-                    menorDistancia = dist;
-                    masCercano = centro;
-                }
-            } catch (Exception e) { /* Error en formato de coordenadas del JSON */ }
-        }
-
-        if (masCercano != null) {
-            System.out.println("Sugerencia: " + masCercano.getNombre() + " (" + masCercano.getMunicipio() + ")");
-            System.out.printf("Distancia estimada: %.2f km\n", menorDistancia);
-        }
-    }
-
-    private double calcularHaversine(double lat1, double lon1, double lat2, double lon2) {
-        double R = 6371; // Radio de la Tierra en km
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
-        return 2 * R * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-    }
-
-    // --- LÓGICA DE INPUT CON TIEMPO (Integrada de v2) ---
-
-    private String readTimedInput(int timeoutSeconds, boolean isAutomatic, String prompt) {
-        System.out.println(prompt);
-        if (!isAutomatic) return scanner.hasNextLine() ? scanner.nextLine() : "";
-
-        final String[] result = {""};
-        Thread inputThread = new Thread(() -> {
-            try { if (scanner.hasNextLine()) result[0] = scanner.nextLine(); } catch (Exception e) {}
-        });
+        double miLat = usuario.getLatitudSimulada();
+        double miLon = usuario.getLongitudSimulada();
 
-        inputThread.start();
-        try { inputThread.join((long) timeoutSeconds * 1000); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        canal.informar("\n--- 📍 BUSCANDO AYUDA CERCANA ---");
+        ResultadoCercania masCercano = indiceCentros.get().masCercano(miLat, miLon);
 
-        if (inputThread.isAlive()) {
-            inputThread.interrupt();
-            return "";
+        if (masCercano != null) {
+            canal.informar("Sugerencia: " + masCercano.getNombre() + " (" + masCercano.getMunicipio() + ")");
+            canal.informar(String.format("Distancia estimada: %.2f km", masCercano.getDistanciaKm()));
         }
-        return result[0];
     }
 
-    private boolean confirmarActivacion(boolean isAuto) {
+    private CompletableFuture<Boolean> confirmarActivacion(boolean isAuto, CanalUsuario canal) {
         if (!isAuto) {
-            System.out.println("Activación manual: Pulse 'E' para simular emergencia:");
-            return scanner.nextLine().equalsIgnoreCase("E");
+            return canal.preguntar(CanalUsuario.Pregunta.ACTIVACION, "Activación manual: Pulse 'E' para simular emergencia:")
+                    .thenApply(respuesta -> respuesta.trim().equalsIgnoreCase("E"));
+        }
+        String anomalia = canal.anomaliaDetectada();
+        if (anomalia != null) {
+            canal.informar("Anomalía detectada: " + anomalia);
+            return CompletableFuture.completedFuture(true);
         }
-        int fuerza = new Random().nextInt(100);
-        System.out.printf("Sensor detectado: %d (Umbral: 50)\n", fuerza);
-        return fuerza >= 50;
+        int fuerza = canal.leerSensor();
+        canal.informar(String.format("Sensor detectado: %d (Umbral: %d)", fuerza, UMBRAL_SENSOR));
+        return CompletableFuture.completedFuture(fuerza >= UMBRAL_SENSOR);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,251 @@
+package main.java.com.emergencias.detector;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Servicio central de cuentas atrás "confirma o se escala" (Dead Man Switch).
+ *
+ * Es una rueda de temporización (hashed timer wheel): un único hilo avanza una ranura por
+ * tick y cada cuenta armada cuelga de la ranura de su vencimiento, con el número de vueltas
+ * completas que le faltan. Armar y cancelar son O(1) y no bloquean: el alta y la baja se
+ * encolan y las aplica el hilo de la rueda en el siguiente tick. Así se pueden mantener
+ * millones de confirmaciones pendientes con un solo hilo, en lugar de un hilo por pregunta.
+ *
+ * La precisión es de un tick: una cuenta vence entre su plazo y su plazo más un tick.
+ * Las acciones de vencimiento se ejecutan en el ejecutor indicado, nunca en el hilo de la rueda.
+ */
+public final class TemporizadorConfirmaciones implements AutoCloseable {
+
+    private static final int ARMADA = 0;
+    private static final int CANCELADA = 1;
+    private static final int VENCIDA = 2;
+    private static final int ALTAS_POR_TICK = 100_000;
+
+    private static volatile TemporizadorConfirmaciones global;
+
+    private final long tickNanos;
+    private final Ranura[] ranuras;
+    private final int mascara;
+    private final Executor alVencer;
+    private final Queue<Cuenta> altas = new ConcurrentLinkedQueue<>();
+    private final Queue<Cuenta> bajas = new ConcurrentLinkedQueue<>();
+    private final LongAdder pendientes = new LongAdder();
+    private final long inicio = System.nanoTime();
+    private final Thread rueda;
+    private volatile boolean cerrado;
+    private long tick; // Solo lo toca el hilo de la rueda
+
+    /**
+     * @param tickMs Resolución de la rueda en milisegundos.
+     * @param ranuras Número de ranuras (se redondea a potencia de 2).
+     * @param alVencer Ejecutor de las acciones de vencimiento.
+     */
+    public TemporizadorConfirmaciones(long tickMs, int ranuras, Executor alVencer) {
+        if (tickMs <= 0 || ranuras <= 0) {
+            throw new IllegalArgumentException("El tick y el número de ranuras deben ser positivos.");
+        }
+        int n = Integer.highestOneBit(Math.max(1, ranuras - 1)) << 1;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.ranuras = new Ranura[n];
+        for (int i = 0; i < n; i++) this.ranuras[i] = new Ranura();
+        this.mascara = n - 1;
+        this.alVencer = alVencer;
+        this.rueda = new Thread(this::girar, "temporizador-confirmaciones");
+        this.rueda.setDaemon(true);
+        this.rueda.start();
+    }
+
+    /**
+     * @return Temporizador compartido del proceso (tick de 50 ms, 512 ranuras), creado en el primer uso.
+     */
+    public static TemporizadorConfirmaciones global() {
+        TemporizadorConfirmaciones t = global;
+        if (t == null) {
+            synchronized (TemporizadorConfirmaciones.class) {
+                t = global;
+                if (t == null) {
+                    AtomicInteger n = new AtomicInteger();
+                    ExecutorService escalado = Executors.newFixedThreadPool(
+                            Math.max(2, Runtime.getRuntime().availableProcessors() / 2), r -> {
+                                Thread hilo = new Thread(r, "escalado-" + n.incrementAndGet());
+                                hilo.setDaemon(true);
+                                return hilo;
+                            });
+                    global = t = new TemporizadorConfirmaciones(50, 512, escalado);
+                }
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Arma una cuenta atrás. Seguro para hilos.
+     * @param plazoMs Milisegundos hasta el vencimiento.
+     * @param accion Se ejecuta una sola vez si la cuenta vence sin haber sido cancelada.
+     * @return La cuenta, para cancelarla si llega la respuesta a tiempo.
+     */
+    public Cuenta armar(long plazoMs, Runnable accion) {
+        if (cerrado) throw new IllegalStateException("El temporizador de confirmaciones está cerrado.");
+        long vencimiento = System.nanoTime() - inicio + TimeUnit.MILLISECONDS.toNanos(Math.max(0, plazoMs));
+        Cuenta cuenta = new Cuenta(vencimiento, accion);
+        pendientes.increment();
+        altas.add(cuenta);
+        return cuenta;
+    }
+
+    /** @return Cuentas armadas que aún no han vencido ni se han cancelado. */
+    public long getPendientes() {
+        return pendientes.sum();
+    }
+
+    /**
+     * Detiene la rueda. Las cuentas pendientes ya no vencerán.
+     */
+    @Override
+    public void close() {
+        cerrado = true;
+        rueda.interrupt();
+        try {
+            rueda.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- HILO DE LA RUEDA ---
+
+    private void girar() {
+        while (!cerrado) {
+            long espera = (tick + 1) * tickNanos - (System.nanoTime() - inicio);
+            if (espera > 0) {
+                LockSupport.parkNanos(this, espera);
+                if (Thread.interrupted() && cerrado) return;
+                continue;
+            }
+            aplicarBajas();
+            aplicarAltas();
+            vencer(ranuras[(int) (tick & mascara)]);
+            tick++;
+        }
+    }
+
+    private void aplicarBajas() {
+        Cuenta cuenta;
+        while ((cuenta = bajas.poll()) != null) {
+            if (cuenta.ranura != null) cuenta.ranura.quitar(cuenta);
+        }
+    }
+
+    private void aplicarAltas() {
+        for (int i = 0; i < ALTAS_POR_TICK; i++) {
+            Cuenta cuenta = altas.poll();
+            if (cuenta == null) return;
+            if (cuenta.estado.get() != ARMADA) continue;
+            // Una cuenta ya vencida (o que vence en este tick) va a la ranura actual
+            long tickVencimiento = Math.max(cuenta.vencimientoNanos / tickNanos, tick);
+            cuenta.vueltas = (tickVencimiento - tick) / ranuras.length;
+            ranuras[(int) (tickVencimiento & mascara)].poner(cuenta);
+        }
+    }
+
+    private void vencer(Ranura ranura) {
+        Cuenta cuenta = ranura.primera;
+        while (cuenta != null) {
+            Cuenta siguiente = cuenta.siguiente;
+            if (cuenta.estado.get() != ARMADA) {
+                ranura.quitar(cuenta);
+            } else if (cuenta.vueltas <= 0) {
+                ranura.quitar(cuenta);
+                if (cuenta.estado.compareAndSet(ARMADA, VENCIDA)) {
+                    pendientes.decrement();
+                    ejecutar(cuenta.accion);
+                }
+            } else {
+                cuenta.vueltas--;
+            }
+            cuenta = siguiente;
+        }
+    }
+
+    private void ejecutar(Runnable accion) {
+        Runnable protegida = () -> {
+            try {
+                accion.run();
+            } catch (RuntimeException e) {
+                System.err.println("⚠️ Error al escalar una confirmación vencida: " + e.getMessage());
+            }
+        };
+        try {
+            alVencer.execute(protegida);
+        } catch (RejectedExecutionException e) {
+            protegida.run();
+        }
+    }
+
+    /**
+     * Cuenta atrás armada en la rueda.
+     */
+    public final class Cuenta {
+        private final long vencimientoNanos;
+        private final Runnable accion;
+        private final AtomicInteger estado = new AtomicInteger(ARMADA);
+        // Enlaces de la ranura: solo los toca el hilo de la rueda
+        private long vueltas;
+        private Ranura ranura;
+        private Cuenta anterior;
+        private Cuenta siguiente;
+
+        private Cuenta(long vencimientoNanos, Runnable accion) {
+            this.vencimientoNanos = vencimientoNanos;
+            this.accion = accion;
+        }
+
+        /**
+         * Cancela la cuenta si aún no ha vencido. O(1); la ranura la suelta en el siguiente tick.
+         * @return true si se ha cancelado, false si ya había vencido o estaba cancelada.
+         */
+        public boolean cancelar() {
+            if (!estado.compareAndSet(ARMADA, CANCELADA)) return false;
+            pendientes.decrement();
+            bajas.add(this);
+            return true;
+        }
+
+        public boolean isVencida() { return estado.get() == VENCIDA; }
+        public boolean isCancelada() { return estado.get() == CANCELADA; }
+    }
+
+    /**
+     * Lista doblemente enlazada de las cuentas que vencen en una ranura.
+     */
+    private static final class Ranura {
+        private Cuenta primera;
+
+        void poner(Cuenta cuenta) {
+            cuenta.ranura = this;
+            cuenta.anterior = null;
+            cuenta.siguiente = primera;
+            if (primera != null) primera.anterior = cuenta;
+            primera = cuenta;
+        }
+
+        void quitar(Cuenta cuenta) {
+            if (cuenta.ranura != this) return;
+            if (cuenta.anterior != null) cuenta.anterior.siguiente = cuenta.siguiente;
+            else primera = cuenta.siguiente;
+            if (cuenta.siguiente != null) cuenta.siguiente.anterior = cuenta.anterior;
+            cuenta.ranura = null;
+            cuenta.anterior = null;
+            cuenta.siguiente = null;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package main.java.com.emergencias.geo;
+
+import main.java.com.emergencias.controller.CentroSaludLoader;
+import main.java.com.emergencias.model.CatalogoCentros;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Análisis de cobertura en bloque: distancia de cada celda de una {@link MallaCobertura} a su
+ * centro de salud más cercano, para planificar dónde faltan recursos.
+ *
+ * El rasterizado reparte las celdas entre los hilos de un {@link ForkJoinPool} dividiendo el
+ * rango por la mitad hasta tramos de {@value #CELDAS_POR_TAREA} celdas; cada tramo escribe su
+ * parte de los resultados sin coordinación. Las celdas consecutivas son vecinas, así que cada
+ * búsqueda en el índice parte del centro de la anterior como cota y apenas recorre el árbol.
+ *
+ * Para el resumen, las distancias se agrupan por municipio con una ordenación por recuento
+ * (dos pasadas lineales) y cada grupo se ordena en su propia tarea del pool; los percentiles
+ * globales se obtienen de los grupos ya ordenados sin volver a ordenar todas las celdas.
+ */
+public class AnalisisCobertura {
+
+    static final int CELDAS_POR_TAREA = 8_192;
+    public static final double RESOLUCION_POR_DEFECTO_KM = 0.25;
+    public static final double UMBRAL_POR_DEFECTO_KM = 15;
+    public static final double MARGEN_POR_DEFECTO_KM = 5;
+
+    private final CentroSaludIndex indice;
+    private final ForkJoinPool pool;
+
+    /** Análisis sobre el pool común. */
+    public AnalisisCobertura(CentroSaludIndex indice) {
+        this(indice, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param indice Índice de los centros de salud.
+     * @param pool Pool en el que se rasteriza la malla.
+     */
+    public AnalisisCobertura(CentroSaludIndex indice, ForkJoinPool pool) {
+        this.indice = indice;
+        this.pool = pool;
+    }
+
+    /**
+     * Calcula el centro más cercano de cada celda y resume la cobertura.
+     * @param umbralKm Distancia a partir de la cual una celda se considera desatendida.
+     */
+    public InformeCobertura analizar(MallaCobertura malla, double umbralKm) {
+        if (indice.size() == 0) throw new IllegalStateException("No hay centros sobre los que analizar la cobertura.");
+        if (!(umbralKm >= 0)) throw new IllegalArgumentException("El umbral debe ser positivo.");
+
+        int n = malla.celdas();
+        float[] distancias = new float[n];
+        int[] centros = new int[n];
+        double[] cosLon = new double[malla.getColumnas()];
+        double[] sinLon = new double[malla.getColumnas()];
+        for (int c = 0; c < cosLon.length; c++) {
+            double lon = Math.toRadians(malla.longitudCelda(c));
+            cosLon[c] = Math.cos(lon);
+            sinLon[c] = Math.sin(lon);
+        }
+
+        long inicio = System.nanoTime();
+        pool.invoke(new Rasterizado(malla, cosLon, sinLon, distancias, centros, 0, n));
+        long finRasterizado = System.nanoTime();
+
+        // Ordenación por recuento: tramo de cada municipio en 'agrupadas'
+        CatalogoCentros catalogo = indice.getCatalogo();
+        int[] municipioCentro = catalogo.columnaMunicipio();
+        String[] nombres = catalogo.diccionarioMunicipios();
+        int[] inicios = new int[nombres.length + 1];
+        for (int centro : centros) inicios[municipioCentro[centro] + 1]++;
+        for (int m = 0; m < nombres.length; m++) inicios[m + 1] += inicios[m];
+        int[] siguiente = Arrays.copyOf(inicios, nombres.length);
+        float[] agrupadas = new float[n];
+        double suma = 0;
+        for (int i = 0; i < n; i++) {
+            agrupadas[siguiente[municipioCentro[centros[i]]]++] = distancias[i];
+            suma += distancias[i];
+        }
+        pool.invoke(new OrdenacionGrupos(agrupadas, inicios, 0, nombres.length));
+
+        List<InformeCobertura.Municipio> municipios = new ArrayList<>();
+        int desatendidas = 0;
+        for (int m = 0; m < nombres.length; m++) {
+            int desde = inicios[m], hasta = inicios[m + 1];
+            if (desde == hasta) continue; // Ninguna celda tiene aquí su centro más cercano
+            int lejanas = hasta - InformeCobertura.primeraPorEncima(agrupadas, desde, hasta, umbralKm);
+            desatendidas += lejanas;
+            municipios.add(new InformeCobertura.Municipio(nombres[m].isEmpty() ? "(sin municipio)" : nombres[m],
+                    hasta - desde, lejanas, InformeCobertura.percentil(agrupadas, desde, hasta, 50),
+                    InformeCobertura.percentil(agrupadas, desde, hasta, 90), agrupadas[hasta - 1]));
+        }
+        municipios.sort(Comparator.comparingInt(InformeCobertura.Municipio::getDesatendidas).reversed()
+                .thenComparing(InformeCobertura.Municipio::getNombre));
+
+        return new InformeCobertura(malla, umbralKm, distancias, centros, agrupadas, inicios, suma / n, desatendidas,
+                municipios, finRasterizado - inicio, System.nanoTime() - finRasterizado);
+    }
+
+    /**
+     * Tramo de celdas {@code [desde, hasta)}, en el orden de la malla.
+     */
+    private final class Rasterizado extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient MallaCobertura malla;
+        private final double[] cosLon;
+        private final double[] sinLon;
+        private final float[] distancias;
+        private final int[] centros;
+        private final int desde;
+        private final int hasta;
+
+        Rasterizado(MallaCobertura malla, double[] cosLon, double[] sinLon, float[] distancias, int[] centros,
+                    int desde, int hasta) {
+            this.malla = malla;
+            this.cosLon = cosLon;
+            this.sinLon = sinLon;
+            this.distancias = distancias;
+            this.centros = centros;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde > CELDAS_POR_TAREA) {
+                int mitad = (desde + hasta) >>> 1;
+                invokeAll(new Rasterizado(malla, cosLon, sinLon, distancias, centros, desde, mitad),
+                        new Rasterizado(malla, cosLon, sinLon, distancias, centros, mitad, hasta));
+                return;
+            }
+            int columnas = malla.getColumnas();
+            CentroSaludIndex.Consulta consulta = new CentroSaludIndex.Consulta();
+            int fila = -1;
+            double cosLat = 0, sinLat = 0;
+            for (int i = desde; i < hasta; i++) {
+                int f = i / columnas;
+                if (f != fila) {
+                    fila = f;
+                    double lat = Math.toRadians(malla.latitudCelda(f));
+                    cosLat = Math.cos(lat);
+                    sinLat = Math.sin(lat);
+                }
+                int c = i - f * columnas;
+                consulta.situar(cosLat, sinLat, cosLon[c], sinLon[c]);
+                indice.masCercano(consulta);
+                distancias[i] = (float) consulta.distanciaKm();
+                centros[i] = consulta.fila;
+            }
+        }
+    }
+
+    /**
+     * Ordena los tramos de los municipios {@code [desde, hasta)}, uno por tarea.
+     */
+    private static final class OrdenacionGrupos extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final float[] agrupadas;
+        private final int[] inicios;
+        private final int desde;
+        private final int hasta;
+
+        OrdenacionGrupos(float[] agrupadas, int[] inicios, int desde, int hasta) {
+            this.agrupadas = agrupadas;
+            this.inicios = inicios;
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde > 1) {
+                int mitad = (desde + hasta) >>> 1;
+                invokeAll(new OrdenacionGrupos(agrupadas, inicios, desde, mitad),
+                        new OrdenacionGrupos(agrupadas, inicios, mitad, hasta));
+            } else if (hasta > desde) {
+                Arrays.sort(agrupadas, inicios[desde], inicios[desde + 1]);
+            }
+        }
+    }
+
+    // --- ANÁLISIS DESDE CONSOLA ---
+
+    /**
+     * Informe de cobertura sobre la caja de los centros del catálogo:
+     * <pre>
+     *   AnalisisCobertura [resolución km] [umbral km] [margen km] [centros.json]
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        double resolucionKm = args.length > 0 ? Double.parseDouble(args[0]) : RESOLUCION_POR_DEFECTO_KM;
+        double umbralKm = args.length > 1 ? Double.parseDouble(args[1]) : UMBRAL_POR_DEFECTO_KM;
+        double margenKm = args.length > 2 ? Double.parseDouble(args[2]) : MARGEN_POR_DEFECTO_KM;
+        Path ruta = args.length > 3 ? Paths.get(args[3]) : CentroSaludLoader.RUTA_POR_DEFECTO;
+
+        CatalogoCentros catalogo = new CentroSaludLoader().cargarCatalogo(ruta);
+        if (catalogo.size() == 0) {
+            System.out.println("❌ No hay centros en " + ruta);
+            return;
+        }
+        MallaCobertura malla = MallaCobertura.alrededorDe(catalogo, resolucionKm, margenKm);
+        AnalisisCobertura analisis = new AnalisisCobertura(CentroSaludIndex.construir(catalogo));
+        InformeCobertura informe = analisis.analizar(malla, umbralKm);
+
+        System.out.printf("🗺️ Malla de %s (%.2f km por celda), %d centros.%n", malla, resolucionKm, catalogo.size());
+        System.out.printf("⏱️ %d celdas rasterizadas en %.1f ms con %d hilo(s); agregado en %.1f ms.%n",
+                informe.getCeldas(), informe.getNanosRasterizado() / 1e6,
+                ForkJoinPool.commonPool().getParallelism(), informe.getNanosAgregado() / 1e6);
+        System.out.printf("📊 Distancia al centro más cercano: media %.2f km, p50 %.2f, p90 %.2f, p95 %.2f, p99 %.2f, máx %.2f km.%n",
+                informe.getMediaKm(), informe.percentilKm(50), informe.percentilKm(90), informe.percentilKm(95),
+                informe.percentilKm(99), informe.getMaximoKm());
+        System.out.printf("⚠️ Celdas a más de %.1f km: %d (%.1f %%).%n", umbralKm, informe.getDesatendidas(),
+                100.0 * informe.getDesatendidas() / informe.getCeldas());
+
+        System.out.printf("%n%-32s %10s %13s %8s %8s %8s%n", "Municipio", "Celdas", "Desatendidas", "p50 km",
+                "p90 km", "Máx km");
+        for (InformeCobertura.Municipio m : informe.getMunicipios()) {
+            System.out.printf("%-32s %10d %7d %4.0f %% %8.2f %8.2f %8.2f%n", m.getNombre(), m.getCeldas(),
+                    m.getDesatendidas(), m.getPorcentajeDesatendidas(), m.getP50Km(), m.getP90Km(), m.getMaximoKm());
+        }
+    }
+}
@@ -0,0 +1,498 @@
+package main.java.com.emergencias.geo;
+
+import main.java.com.emergencias.model.CatalogoCentros;
+import main.java.com.emergencias.model.CentroSalud;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Índice espacial inmutable (árbol k-d) sobre el catálogo columnar de centros de salud.
+ * Se construye una única vez al cargar los datos y responde consultas de
+ * centro más cercano, k más cercanos y centros dentro de un radio en tiempo sublineal,
+ * tanto punto a punto como para lotes de puntos simultáneos.
+ *
+ * Cada centro se proyecta a coordenadas cartesianas sobre la esfera unitaria; la
+ * distancia de cuerda en 3D es monótona con la distancia de Haversine, por lo que
+ * el árbol ordena exactamente igual que el recorrido lineal sin distorsiones por longitud.
+ */
+public class CentroSaludIndex {
+
+    /** Hasta este tamaño de catálogo, las consultas en lote barren todas las columnas en vez del árbol. */
+    static final int MAX_CENTROS_BARRIDO = 128;
+
+    private final CatalogoCentros catalogo;
+    private final double[] latRad;      // Columnas del catálogo (radianes)
+    private final double[] lonRad;
+    private final double[][] xyz;       // xyz[eje][fila]
+    private final int[] arbol;          // Permutación de filas; cada nodo es el punto medio de su rango
+    private final byte[] eje;           // Eje de corte de cada nodo
+
+    private CentroSaludIndex(CatalogoCentros catalogo) {
+        int n = catalogo.size();
+        this.catalogo = catalogo;
+        this.latRad = catalogo.columnaLatitudRad();
+        this.lonRad = catalogo.columnaLongitudRad();
+        this.xyz = new double[3][n];
+        for (int i = 0; i < n; i++) {
+            xyz[0][i] = Math.cos(latRad[i]) * Math.cos(lonRad[i]);
+            xyz[1][i] = Math.cos(latRad[i]) * Math.sin(lonRad[i]);
+            xyz[2][i] = Math.sin(latRad[i]);
+        }
+        this.arbol = new int[n];
+        for (int i = 0; i < n; i++) arbol[i] = i;
+        this.eje = new byte[n];
+        construirRango(0, n);
+    }
+
+    /**
+     * Construye el índice sobre un catálogo columnar ya validado.
+     * @param catalogo Catálogo de centros.
+     * @return Índice listo para consultas.
+     */
+    public static CentroSaludIndex construir(CatalogoCentros catalogo) {
+        return new CentroSaludIndex(catalogo);
+    }
+
+    /**
+     * Construye el catálogo y el índice a partir de la lista cargada del JSON.
+     * Los centros con coordenadas ilegibles se descartan aquí, una sola vez.
+     * @param listaCentros Centros de salud cargados.
+     * @return Índice listo para consultas.
+     */
+    public static CentroSaludIndex construir(List<CentroSalud> listaCentros) {
+        return new CentroSaludIndex(CatalogoCentros.desde(listaCentros));
+    }
+
+    /** @return Catálogo sobre el que se ha construido el índice. */
+    public CatalogoCentros getCatalogo() {
+        return catalogo;
+    }
+
+    /** @return Número de centros indexados. */
+    public int size() {
+        return catalogo.size();
+    }
+
+    /**
+     * Busca el centro más cercano a un punto.
+     * @return El resultado más cercano o null si el índice está vacío.
+     */
+    public ResultadoCercania masCercano(double latitud, double longitud) {
+        List<ResultadoCercania> res = kMasCercanos(latitud, longitud, 1);
+        return res.isEmpty() ? null : res.get(0);
+    }
+
+    /**
+     * Busca los k centros más cercanos a un punto.
+     * @return Lista ordenada de menor a mayor distancia (como máximo k elementos).
+     */
+    public List<ResultadoCercania> kMasCercanos(double latitud, double longitud, int k) {
+        if (k <= 0 || catalogo.size() == 0) return new ArrayList<>();
+        double[] q = aCartesianas(latitud, longitud);
+        Candidatos cand = new Candidatos(Math.min(k, catalogo.size()));
+        buscarK(0, catalogo.size(), q, cand);
+        return resultados(cand.filasOrdenadas(), latitud, longitud);
+    }
+
+    /**
+     * Devuelve todos los centros situados a una distancia menor o igual que el radio indicado.
+     * @return Lista ordenada de menor a mayor distancia.
+     */
+    public List<ResultadoCercania> dentroDeRadio(double latitud, double longitud, double radioKm) {
+        List<ResultadoCercania> res = new ArrayList<>();
+        if (radioKm < 0 || catalogo.size() == 0) return res;
+        double[] q = aCartesianas(latitud, longitud);
+        double cuerda = GeoUtils.kmACuerda(radioKm);
+        List<Integer> filas = new ArrayList<>();
+        buscarRadio(0, catalogo.size(), q, cuerda * cuerda, filas);
+        for (int fila : filas) {
+            ResultadoCercania r = resultado(fila, latitud, longitud);
+            if (r.getDistanciaKm() <= radioKm) res.add(r);
+        }
+        res.sort((a, b) -> Double.compare(a.getDistanciaKm(), b.getDistanciaKm()));
+        return res;
+    }
+
+    // --- CONSULTAS EN LOTE ---
+
+    /**
+     * Centro más cercano a cada punto de un lote (p. ej. una ráfaga de avisos simultáneos en un
+     * incidente con múltiples víctimas). Equivale a llamar a {@link #masCercano} por cada punto,
+     * pero resuelve el lote de una vez (ver {@link #kMasCercanos(double[], double[], int)}).
+     * @param latitudes Latitudes de los puntos, en grados.
+     * @param longitudes Longitudes de los puntos, en grados (mismo tamaño).
+     * @return Resultado por punto en el mismo orden, o todos null si el índice está vacío.
+     */
+    public ResultadoCercania[] masCercanos(double[] latitudes, double[] longitudes) {
+        int n = comprobarLote(latitudes, longitudes);
+        ResultadoCercania[] res = new ResultadoCercania[n];
+        if (n == 0 || catalogo.size() == 0) return res;
+
+        Consulta consulta = new Consulta();
+        if (catalogo.size() <= MAX_CENTROS_BARRIDO) {
+            double[] dist2 = new double[catalogo.size()];
+            for (int i = 0; i < n; i++) {
+                situar(consulta, latitudes[i], longitudes[i]);
+                barrer(consulta.q, dist2);
+                int mejor = 0;
+                for (int fila = 1; fila < dist2.length; fila++) {
+                    if (dist2[fila] < dist2[mejor]) mejor = fila;
+                }
+                res[i] = resultado(mejor, latitudes[i], longitudes[i]);
+            }
+        } else {
+            // Puntos cercanos entre sí seguidos: cada búsqueda parte del centro de la anterior
+            for (int i : ordenEspacial(latitudes, longitudes)) {
+                situar(consulta, latitudes[i], longitudes[i]);
+                masCercano(consulta);
+                res[i] = resultado(consulta.fila, latitudes[i], longitudes[i]);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Los k centros más cercanos a cada punto de un lote.
+     *
+     * Con catálogos pequeños (hasta {@value #MAX_CENTROS_BARRIDO} centros) se barren las columnas
+     * cartesianas del catálogo en un bucle sin ramas que el compilador JIT vectoriza; con más
+     * centros se recorre el árbol. En ambos casos las distancias se comparan como cuerdas, que
+     * ordenan igual que Haversine, y Haversine solo se calcula para los centros devueltos.
+     * @return Por cada punto, en el mismo orden, sus centros de menor a mayor distancia.
+     */
+    public List<List<ResultadoCercania>> kMasCercanos(double[] latitudes, double[] longitudes, int k) {
+        int n = comprobarLote(latitudes, longitudes);
+        if (k <= 0 || catalogo.size() == 0) {
+            List<List<ResultadoCercania>> vacias = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) vacias.add(new ArrayList<>());
+            return vacias;
+        }
+        Consulta consulta = new Consulta();
+        int kReal = Math.min(k, catalogo.size());
+        List<List<ResultadoCercania>> porPunto = new ArrayList<>(Collections.nCopies(n, null));
+        if (catalogo.size() <= MAX_CENTROS_BARRIDO) {
+            double[] dist2 = new double[catalogo.size()];
+            for (int i = 0; i < n; i++) {
+                situar(consulta, latitudes[i], longitudes[i]);
+                barrer(consulta.q, dist2);
+                Candidatos cand = new Candidatos(kReal);
+                for (int fila = 0; fila < dist2.length; fila++) cand.ofrecer(fila, dist2[fila]);
+                porPunto.set(i, resultados(cand.filasOrdenadas(), latitudes[i], longitudes[i]));
+            }
+        } else {
+            // Los k centros del punto anterior (cercano en el orden espacial) acotan la búsqueda
+            int[] previas = null;
+            for (int i : ordenEspacial(latitudes, longitudes)) {
+                situar(consulta, latitudes[i], longitudes[i]);
+                Candidatos cand = new Candidatos(kReal);
+                if (previas != null) for (int fila : previas) cand.ofrecer(fila, distancia2(fila, consulta.q));
+                buscarK(0, catalogo.size(), consulta.q, cand);
+                previas = cand.filasOrdenadas();
+                porPunto.set(i, resultados(previas, latitudes[i], longitudes[i]));
+            }
+        }
+        return porPunto;
+    }
+
+    private List<ResultadoCercania> resultados(int[] filas, double latitud, double longitud) {
+        List<ResultadoCercania> res = new ArrayList<>(filas.length);
+        for (int fila : filas) res.add(resultado(fila, latitud, longitud));
+        return res;
+    }
+
+    /** Distancia de cuerda al cuadrado del punto a cada centro, en el orden del catálogo. */
+    private void barrer(double[] q, double[] dist2) {
+        double[] xs = xyz[0], ys = xyz[1], zs = xyz[2];
+        double qx = q[0], qy = q[1], qz = q[2];
+        for (int fila = 0; fila < dist2.length; fila++) {
+            double dx = xs[fila] - qx;
+            double dy = ys[fila] - qy;
+            double dz = zs[fila] - qz;
+            dist2[fila] = dx * dx + dy * dy + dz * dz;
+        }
+    }
+
+    /**
+     * Orden de recorrido del lote según la curva Z (Morton) de sus coordenadas dentro de la
+     * caja del propio lote, de modo que los puntos consecutivos quedan cerca.
+     */
+    private static int[] ordenEspacial(double[] latitudes, double[] longitudes) {
+        int n = latitudes.length;
+        double latMin = Double.MAX_VALUE, latMax = -Double.MAX_VALUE;
+        double lonMin = Double.MAX_VALUE, lonMax = -Double.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            latMin = Math.min(latMin, latitudes[i]);
+            latMax = Math.max(latMax, latitudes[i]);
+            lonMin = Math.min(lonMin, longitudes[i]);
+            lonMax = Math.max(lonMax, longitudes[i]);
+        }
+        double escalaLat = 0xFFFF / Math.max(latMax - latMin, 1e-9);
+        double escalaLon = 0xFFFF / Math.max(lonMax - lonMin, 1e-9);
+        long[] claves = new long[n];
+        for (int i = 0; i < n; i++) {
+            long morton = intercalar((int) ((latitudes[i] - latMin) * escalaLat)) << 1
+                    | intercalar((int) ((longitudes[i] - lonMin) * escalaLon));
+            claves[i] = morton << 32 | i;
+        }
+        Arrays.sort(claves);
+        int[] orden = new int[n];
+        for (int i = 0; i < n; i++) orden[i] = (int) claves[i];
+        return orden;
+    }
+
+    /** Separa los 16 bits bajos con un cero entre cada dos (bits de una coordenada en la curva Z). */
+    private static long intercalar(int v) {
+        long x = v & 0xFFFF;
+        x = (x | (x << 8)) & 0x00FF00FFL;
+        x = (x | (x << 4)) & 0x0F0F0F0FL;
+        x = (x | (x << 2)) & 0x33333333L;
+        x = (x | (x << 1)) & 0x55555555L;
+        return x;
+    }
+
+    private static int comprobarLote(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Latitudes y longitudes deben tener el mismo tamaño.");
+        }
+        return latitudes.length;
+    }
+
+    private static void situar(Consulta consulta, double latitud, double longitud) {
+        double la = Math.toRadians(latitud);
+        double lo = Math.toRadians(longitud);
+        consulta.situar(Math.cos(la), Math.sin(la), Math.cos(lo), Math.sin(lo));
+    }
+
+    // --- CONSTRUCCIÓN DEL ÁRBOL ---
+
+    private void construirRango(int lo, int hi) {
+        if (hi - lo <= 1) return;
+        int e = ejeDeMayorDispersion(lo, hi);
+        int mid = (lo + hi) >>> 1;
+        seleccionar(lo, hi - 1, mid, xyz[e]);
+        eje[mid] = (byte) e;
+        construirRango(lo, mid);
+        construirRango(mid + 1, hi);
+    }
+
+    private int ejeDeMayorDispersion(int lo, int hi) {
+        int mejor = 0;
+        double mayor = -1;
+        for (int e = 0; e < 3; e++) {
+            double min = Double.MAX_VALUE, max = -Double.MAX_VALUE;
+            for (int i = lo; i < hi; i++) {
+                double v = xyz[e][arbol[i]];
+                if (v < min) min = v;
+                if (v > max) max = v;
+            }
+            if (max - min > mayor) {
+                mayor = max - min;
+                mejor = e;
+            }
+        }
+        return mejor;
+    }
+
+    /** Quickselect: deja en la posición k la mediana del rango y particiona a su alrededor. */
+    private void seleccionar(int lo, int hi, int k, double[] coord) {
+        while (lo < hi) {
+            double pivote = coord[arbol[(lo + hi) >>> 1]];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (coord[arbol[i]] < pivote) i++;
+                while (coord[arbol[j]] > pivote) j--;
+                if (i <= j) {
+                    int tmp = arbol[i];
+                    arbol[i] = arbol[j];
+                    arbol[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) hi = j;
+            else if (k >= i) lo = i;
+            else return;
+        }
+    }
+
+    // --- BÚSQUEDAS ---
+
+    private void buscarK(int lo, int hi, double[] q, Candidatos cand) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+        int fila = arbol[mid];
+        cand.ofrecer(fila, distancia2(fila, q));
+
+        int e = eje[mid];
+        double diff = q[e] - xyz[e][fila];
+        if (diff < 0) {
+            buscarK(lo, mid, q, cand);
+            if (diff * diff <= cand.peor()) buscarK(mid + 1, hi, q, cand);
+        } else {
+            buscarK(mid + 1, hi, q, cand);
+            if (diff * diff <= cand.peor()) buscarK(lo, mid, q, cand);
+        }
+    }
+
+    private void buscarRadio(int lo, int hi, double[] q, double cuerda2, List<Integer> salida) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+        int fila = arbol[mid];
+        if (distancia2(fila, q) <= cuerda2) salida.add(fila);
+
+        int e = eje[mid];
+        double diff = q[e] - xyz[e][fila];
+        if (diff <= 0 || diff * diff <= cuerda2) buscarRadio(lo, mid, q, cuerda2, salida);
+        if (diff >= 0 || diff * diff <= cuerda2) buscarRadio(mid + 1, hi, q, cuerda2, salida);
+    }
+
+    // --- RECORRIDOS MASIVOS ---
+
+    /**
+     * Busca el centro más cercano sin reservar memoria, para recorridos de millones de puntos
+     * (ver {@link AnalisisCobertura}). La fila que ya tenga la consulta se usa como cota
+     * inicial: en puntos vecinos suele seguir siendo la más cercana y poda casi todo el árbol.
+     */
+    void masCercano(Consulta consulta) {
+        int semilla = consulta.fila;
+        consulta.dist2 = semilla >= 0 ? distancia2(semilla, consulta.q) : Double.MAX_VALUE;
+        buscarUno(0, catalogo.size(), consulta);
+    }
+
+    private void buscarUno(int lo, int hi, Consulta consulta) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+        int fila = arbol[mid];
+        double d2 = distancia2(fila, consulta.q);
+        if (d2 < consulta.dist2) {
+            consulta.dist2 = d2;
+            consulta.fila = fila;
+        }
+
+        int e = eje[mid];
+        double diff = consulta.q[e] - xyz[e][fila];
+        if (diff < 0) {
+            buscarUno(lo, mid, consulta);
+            if (diff * diff < consulta.dist2) buscarUno(mid + 1, hi, consulta);
+        } else {
+            buscarUno(mid + 1, hi, consulta);
+            if (diff * diff < consulta.dist2) buscarUno(lo, mid, consulta);
+        }
+    }
+
+    /**
+     * Consulta reutilizable de {@link #masCercano(Consulta)}. Cada hilo debe usar la suya.
+     */
+    static final class Consulta {
+        final double[] q = new double[3]; // Punto en cartesianas sobre la esfera unitaria
+        int fila = -1;                     // Resultado (y semilla de la siguiente búsqueda)
+        double dist2;
+
+        /** Sitúa el punto a partir de los senos y cosenos de su latitud y longitud. */
+        void situar(double cosLat, double sinLat, double cosLon, double sinLon) {
+            q[0] = cosLat * cosLon;
+            q[1] = cosLat * sinLon;
+            q[2] = sinLat;
+        }
+
+        /** @return Distancia en km al centro encontrado. */
+        double distanciaKm() {
+            return GeoUtils.cuerdaAKm(Math.sqrt(dist2));
+        }
+    }
+
+    private double distancia2(int fila, double[] q) {
+        double dx = xyz[0][fila] - q[0];
+        double dy = xyz[1][fila] - q[1];
+        double dz = xyz[2][fila] - q[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private ResultadoCercania resultado(int fila, double latitud, double longitud) {
+        return new ResultadoCercania(catalogo, fila, GeoUtils.haversineRad(
+                Math.toRadians(latitud), Math.toRadians(longitud), latRad[fila], lonRad[fila]));
+    }
+
+    private static double[] aCartesianas(double latitud, double longitud) {
+        double la = Math.toRadians(latitud);
+        double lo = Math.toRadians(longitud);
+        return new double[]{Math.cos(la) * Math.cos(lo), Math.cos(la) * Math.sin(lo), Math.sin(la)};
+    }
+
+    /**
+     * Montículo de máximos de tamaño fijo con los k mejores candidatos encontrados.
+     */
+    private static final class Candidatos {
+        private final int[] filas;
+        private final double[] dist2;
+        private int tam;
+
+        Candidatos(int k) {
+            this.filas = new int[k];
+            this.dist2 = new double[k];
+        }
+
+        double peor() {
+            return tam < filas.length ? Double.MAX_VALUE : dist2[0];
+        }
+
+        void ofrecer(int fila, double d2) {
+            if (tam < filas.length) {
+                int i = tam++;
+                filas[i] = fila;
+                dist2[i] = d2;
+                subir(i);
+            } else if (d2 < dist2[0] && !contiene(fila)) { // Una fila puede llegar como semilla y en la búsqueda
+                filas[0] = fila;
+                dist2[0] = d2;
+                bajar(0);
+            }
+        }
+
+        private boolean contiene(int fila) {
+            for (int i = 0; i < tam; i++) if (filas[i] == fila) return true;
+            return false;
+        }
+
+        int[] filasOrdenadas() {
+            Integer[] orden = new Integer[tam];
+            for (int i = 0; i < tam; i++) orden[i] = i;
+            Arrays.sort(orden, (a, b) -> Double.compare(dist2[a], dist2[b]));
+            int[] res = new int[tam];
+            for (int i = 0; i < tam; i++) res[i] = filas[orden[i]];
+            return res;
+        }
+
+        private void subir(int i) {
+            while (i > 0) {
+                int padre = (i - 1) / 2;
+                if (dist2[i] <= dist2[padre]) return;
+                intercambiar(i, padre);
+                i = padre;
+            }
+        }
+
+        private void bajar(int i) {
+            while (true) {
+                int izq = 2 * i + 1, der = izq + 1, mayor = i;
+                if (izq < tam && dist2[izq] > dist2[mayor]) mayor = izq;
+                if (der < tam && dist2[der] > dist2[mayor]) mayor = der;
+                if (mayor == i) return;
+                intercambiar(i, mayor);
+                i = mayor;
+            }
+        }
+
+        private void intercambiar(int a, int b) {
+            int f = filas[a];
+            filas[a] = filas[b];
+            filas[b] = f;
+            double d = dist2[a];
+            dist2[a] = dist2[b];
+            dist2[b] = d;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package main.java.com.emergencias.geo;
+
+/**
+ * Utilidades geográficas compartidas por el detector y los índices espaciales.
+ * Centraliza el cálculo de Haversine y las conversiones entre distancia de arco
+ * (km sobre la superficie) y distancia de cuerda sobre la esfera unitaria.
+ */
+public final class GeoUtils {
+
+    public static final double RADIO_TIERRA_KM = 6371; // Radio medio de la Tierra en km
+
+    private GeoUtils() {}
+
+    /**
+     * Distancia de gran círculo entre dos puntos expresados en grados.
+     * @return Distancia en kilómetros.
+     */
+    public static double calcularHaversine(double lat1, double lon1, double lat2, double lon2) {
+        return haversineRad(Math.toRadians(lat1), Math.toRadians(lon1), Math.toRadians(lat2), Math.toRadians(lon2));
+    }
+
+    /**
+     * Variante de Haversine sobre coordenadas ya convertidas a radianes,
+     * pensada para recorrer directamente las columnas del catálogo.
+     * @return Distancia en kilómetros.
+     */
+    public static double haversineRad(double lat1, double lon1, double lat2, double lon2) {
+        double sinDLat = Math.sin((lat2 - lat1) / 2);
+        double sinDLon = Math.sin((lon2 - lon1) / 2);
+        double a = sinDLat * sinDLat + Math.cos(lat1) * Math.cos(lat2) * sinDLon * sinDLon;
+        return 2 * RADIO_TIERRA_KM * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    /**
+     * Convierte un radio en km a la distancia de cuerda equivalente sobre la esfera unitaria.
+     * La cuerda crece de forma monótona con el arco, por lo que sirve para comparar distancias.
+     */
+    public static double kmACuerda(double km) {
+        double angulo = km / RADIO_TIERRA_KM;
+        if (angulo >= Math.PI) return 2; // Cubre todo el globo
+        return 2 * Math.sin(angulo / 2);
+    }
+
+    /**
+     * Inversa de {@link #kmACuerda(double)}: distancia sobre la superficie equivalente a una
+     * cuerda de la esfera unitaria. Evita recalcular Haversine cuando ya se tiene la cuerda.
+     * @return Distancia en kilómetros.
+     */
+    public static double cuerdaAKm(double cuerda) {
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.min(1, cuerda / 2));
+    }
+}
@@ -0,0 +1,150 @@
+package main.java.com.emergencias.geo;
+
+import java.util.List;
+
+/**
+ * Resultado de un {@link AnalisisCobertura}: para cada celda de la malla, el centro más cercano
+ * y su distancia, y el resumen de la distribución de distancias (global y por municipio).
+ *
+ * Cada celda se asigna al municipio de su centro más cercano, es decir, a su zona de influencia;
+ * una celda está desatendida si ese centro queda a más del umbral indicado.
+ */
+public class InformeCobertura {
+
+    private final MallaCobertura malla;
+    private final double umbralKm;
+    private final float[] distanciasKm;  // Por celda (ver MallaCobertura)
+    private final int[] centros;         // Fila del catálogo del centro más cercano, por celda
+    private final float[] agrupadas;     // Distancias agrupadas por municipio y ordenadas en cada grupo
+    private final int[] inicios;         // Tramo [inicios[m], inicios[m + 1]) del municipio m
+    private final double mediaKm;
+    private final int desatendidas;
+    private final List<Municipio> municipios;
+    private final long nanosRasterizado;
+    private final long nanosAgregado;
+
+    InformeCobertura(MallaCobertura malla, double umbralKm, float[] distanciasKm, int[] centros, float[] agrupadas,
+                     int[] inicios, double mediaKm, int desatendidas, List<Municipio> municipios, long nanosRasterizado,
+                     long nanosAgregado) {
+        this.malla = malla;
+        this.umbralKm = umbralKm;
+        this.distanciasKm = distanciasKm;
+        this.centros = centros;
+        this.agrupadas = agrupadas;
+        this.inicios = inicios;
+        this.mediaKm = mediaKm;
+        this.desatendidas = desatendidas;
+        this.municipios = List.copyOf(municipios);
+        this.nanosRasterizado = nanosRasterizado;
+        this.nanosAgregado = nanosAgregado;
+    }
+
+    /** @return Distancia en km de la celda a su centro más cercano. */
+    public double distanciaKm(int fila, int columna) {
+        return distanciasKm[fila * malla.getColumnas() + columna];
+    }
+
+    /** @return Fila en el catálogo del centro más cercano a la celda. */
+    public int centroMasCercano(int fila, int columna) {
+        return centros[fila * malla.getColumnas() + columna];
+    }
+
+    /**
+     * Percentil exacto (rango más cercano) de todas las celdas. Se busca sobre los bits de la
+     * distancia, que para valores positivos ordenan igual que los {@code float}: en cada paso se
+     * cuentan las celdas por debajo con una búsqueda binaria en cada grupo ya ordenado.
+     * @param percentil Entre 0 y 100.
+     * @return Distancia en km por debajo de la cual queda ese porcentaje de las celdas.
+     */
+    public double percentilKm(double percentil) {
+        if (percentil < 0 || percentil > 100) throw new IllegalArgumentException("Percentil entre 0 y 100.");
+        long objetivo = Math.max(1, (long) Math.ceil(getCeldas() * percentil / 100.0));
+        int lo = 0;
+        int hi = Float.floatToRawIntBits((float) getMaximoKm());
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (contarHasta(Float.intBitsToFloat(mid)) >= objetivo) hi = mid;
+            else lo = mid + 1;
+        }
+        return Float.intBitsToFloat(lo);
+    }
+
+    private long contarHasta(float distancia) {
+        long total = 0;
+        for (int m = 0; m + 1 < inicios.length; m++) {
+            total += primeraPorEncima(agrupadas, inicios[m], inicios[m + 1], distancia) - inicios[m];
+        }
+        return total;
+    }
+
+    /** Percentil (rango más cercano) de un tramo ordenado no vacío. */
+    static float percentil(float[] ordenadas, int desde, int hasta, double percentil) {
+        return ordenadas[desde + Math.max(1, (int) Math.ceil((hasta - desde) * percentil / 100.0)) - 1];
+    }
+
+    /** @return Índice de la primera distancia del tramo ordenado mayor que el umbral ({@code hasta} si no hay). */
+    static int primeraPorEncima(float[] ordenadas, int desde, int hasta, double umbralKm) {
+        int lo = desde, hi = hasta;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ordenadas[mid] > umbralKm) hi = mid;
+            else lo = mid + 1;
+        }
+        return lo;
+    }
+
+    public MallaCobertura getMalla() { return malla; }
+    public double getUmbralKm() { return umbralKm; }
+    public int getCeldas() { return agrupadas.length; }
+    public double getMediaKm() { return mediaKm; }
+    public double getMaximoKm() {
+        double maximo = 0;
+        for (Municipio m : municipios) maximo = Math.max(maximo, m.getMaximoKm());
+        return maximo;
+    }
+    /** @return Celdas cuyo centro más cercano está a más del umbral. */
+    public int getDesatendidas() { return desatendidas; }
+    /** @return Resumen por municipio, de más a menos celdas desatendidas. */
+    public List<Municipio> getMunicipios() { return municipios; }
+    public long getNanosRasterizado() { return nanosRasterizado; }
+    public long getNanosAgregado() { return nanosAgregado; }
+
+    /**
+     * Cobertura de la zona de influencia de los centros de un municipio.
+     */
+    public static final class Municipio {
+        private final String nombre;
+        private final int celdas;
+        private final int desatendidas;
+        private final double p50Km;
+        private final double p90Km;
+        private final double maximoKm;
+
+        Municipio(String nombre, int celdas, int desatendidas, double p50Km, double p90Km, double maximoKm) {
+            this.nombre = nombre;
+            this.celdas = celdas;
+            this.desatendidas = desatendidas;
+            this.p50Km = p50Km;
+            this.p90Km = p90Km;
+            this.maximoKm = maximoKm;
+        }
+
+        public String getNombre() { return nombre; }
+        /** @return Celdas cuyo centro más cercano es de este municipio. */
+        public int getCeldas() { return celdas; }
+        public int getDesatendidas() { return desatendidas; }
+        public double getP50Km() { return p50Km; }
+        public double getP90Km() { return p90Km; }
+        public double getMaximoKm() { return maximoKm; }
+
+        public double getPorcentajeDesatendidas() {
+            return 100.0 * desatendidas / celdas;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d celdas, %d desatendidas, p50 %.2f km, p90 %.2f km, máx %.2f km",
+                    nombre, celdas, desatendidas, p50Km, p90Km, maximoKm);
+        }
+    }
+}
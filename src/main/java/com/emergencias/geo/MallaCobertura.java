@@ -0,0 +1,110 @@
+package main.java.com.emergencias.geo;
+
+import main.java.com.emergencias.model.CatalogoCentros;
+
+/**
+ * Rejilla regular de latitud/longitud sobre una caja geográfica, usada por
+ * {@link AnalisisCobertura}. Cada celda se representa por su punto central; las filas van de
+ * sur a norte y las columnas de oeste a este, y la celda (fila, columna) ocupa la posición
+ * {@code fila * columnas + columna} en los resultados.
+ */
+public final class MallaCobertura {
+
+    /** Kilómetros por grado de latitud (y de longitud en el ecuador). */
+    static final double KM_POR_GRADO = Math.PI * GeoUtils.RADIO_TIERRA_KM / 180;
+    static final int MAX_CELDAS = Integer.MAX_VALUE - 8; // Los resultados van en arrays
+
+    private final double latMin;
+    private final double latMax;
+    private final double lonMin;
+    private final double lonMax;
+    private final int filas;
+    private final int columnas;
+
+    /**
+     * @param latMin Latitud sur de la caja, en grados.
+     * @param latMax Latitud norte de la caja, en grados.
+     * @param lonMin Longitud oeste de la caja, en grados.
+     * @param lonMax Longitud este de la caja, en grados.
+     * @param filas Número de celdas de sur a norte.
+     * @param columnas Número de celdas de oeste a este.
+     */
+    public MallaCobertura(double latMin, double latMax, double lonMin, double lonMax, int filas, int columnas) {
+        if (!(latMin < latMax) || latMin < -90 || latMax > 90 || !(lonMin < lonMax) || lonMin < -180 || lonMax > 180) {
+            throw new IllegalArgumentException("Caja geográfica no válida.");
+        }
+        if (filas <= 0 || columnas <= 0 || (long) filas * columnas > MAX_CELDAS) {
+            throw new IllegalArgumentException("La malla debe tener entre 1 y " + MAX_CELDAS + " celdas.");
+        }
+        this.latMin = latMin;
+        this.latMax = latMax;
+        this.lonMin = lonMin;
+        this.lonMax = lonMax;
+        this.filas = filas;
+        this.columnas = columnas;
+    }
+
+    /**
+     * Malla con celdas de aproximadamente {@code resolucionKm} de lado (el ancho en longitud se
+     * calcula en la latitud media de la caja).
+     */
+    public static MallaCobertura porResolucionKm(double latMin, double latMax, double lonMin, double lonMax,
+                                                 double resolucionKm) {
+        if (!(resolucionKm > 0)) throw new IllegalArgumentException("La resolución debe ser positiva.");
+        double kmPorGradoLon = KM_POR_GRADO * Math.cos(Math.toRadians((latMin + latMax) / 2));
+        long filas = Math.max(1, (long) Math.ceil((latMax - latMin) * KM_POR_GRADO / resolucionKm));
+        long columnas = Math.max(1, (long) Math.ceil((lonMax - lonMin) * kmPorGradoLon / resolucionKm));
+        if (filas * columnas > MAX_CELDAS) {
+            throw new IllegalArgumentException("Resolución demasiado fina: " + filas + " x " + columnas + " celdas.");
+        }
+        return new MallaCobertura(latMin, latMax, lonMin, lonMax, (int) filas, (int) columnas);
+    }
+
+    /**
+     * Malla que cubre todos los centros del catálogo más un margen alrededor.
+     * @param margenKm Distancia añadida a cada lado de la caja de los centros.
+     */
+    public static MallaCobertura alrededorDe(CatalogoCentros catalogo, double resolucionKm, double margenKm) {
+        if (catalogo.size() == 0) throw new IllegalArgumentException("El catálogo no tiene centros.");
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+        double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+        for (int i = 0; i < catalogo.size(); i++) {
+            double lat = catalogo.getLatitudGrados(i);
+            double lon = catalogo.getLongitudGrados(i);
+            minLat = Math.min(minLat, lat);
+            maxLat = Math.max(maxLat, lat);
+            minLon = Math.min(minLon, lon);
+            maxLon = Math.max(maxLon, lon);
+        }
+        double margenLat = margenKm / KM_POR_GRADO;
+        double margenLon = margenKm / (KM_POR_GRADO * Math.cos(Math.toRadians((minLat + maxLat) / 2)));
+        return porResolucionKm(Math.max(-90, minLat - margenLat), Math.min(90, maxLat + margenLat),
+                Math.max(-180, minLon - margenLon), Math.min(180, maxLon + margenLon), resolucionKm);
+    }
+
+    /** @return Latitud del centro de las celdas de la fila, en grados. */
+    public double latitudCelda(int fila) {
+        return latMin + (fila + 0.5) * (latMax - latMin) / filas;
+    }
+
+    /** @return Longitud del centro de las celdas de la columna, en grados. */
+    public double longitudCelda(int columna) {
+        return lonMin + (columna + 0.5) * (lonMax - lonMin) / columnas;
+    }
+
+    /** @return Número total de celdas. */
+    public int celdas() { return filas * columnas; }
+
+    public int getFilas() { return filas; }
+    public int getColumnas() { return columnas; }
+    public double getLatMin() { return latMin; }
+    public double getLatMax() { return latMax; }
+    public double getLonMin() { return lonMin; }
+    public double getLonMax() { return lonMax; }
+
+    @Override
+    public String toString() {
+        return String.format("%d x %d celdas sobre lat [%.4f, %.4f], lon [%.4f, %.4f]",
+                filas, columnas, latMin, latMax, lonMin, lonMax);
+    }
+}
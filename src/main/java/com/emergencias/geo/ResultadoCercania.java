@@ -0,0 +1,32 @@
+package main.java.com.emergencias.geo;
+
+import main.java.com.emergencias.model.CatalogoCentros;
+import main.java.com.emergencias.model.CentroSalud;
+
+/**
+ * Resultado de una consulta espacial: una fila del catálogo de centros y su distancia al punto consultado.
+ */
+public class ResultadoCercania {
+    private final CatalogoCentros catalogo;
+    private final int fila;
+    private final double distanciaKm;
+
+    public ResultadoCercania(CatalogoCentros catalogo, int fila, double distanciaKm) {
+        this.catalogo = catalogo;
+        this.fila = fila;
+        this.distanciaKm = distanciaKm;
+    }
+
+    public int getFila() { return fila; }
+    public double getDistanciaKm() { return distanciaKm; }
+    public String getNombre() { return catalogo.getNombre(fila); }
+    public String getMunicipio() { return catalogo.getMunicipio(fila); }
+
+    /** Materializa el centro completo (solo para presentación). */
+    public CentroSalud getCentro() { return catalogo.centro(fila); }
+
+    @Override
+    public String toString() {
+        return String.format("🏥 %s (%s) a %.2f km", getNombre(), getMunicipio(), distanciaKm);
+    }
+}
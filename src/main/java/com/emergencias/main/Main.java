@@ -1,11 +1,9 @@
 package main.java.com.emergencias.main;
 
 import main.java.com.emergencias.controller.EmergencyManager;
-import main.java.com.emergencias.controller.CentroSaludLoader;
-import main.java.com.emergencias.model.CentroSalud;
+import main.java.com.emergencias.model.CatalogoCentros;
 
-import java.util.List;
-import java.util.Scanner;
+import java.lang.management.ManagementFactory;
 
 /**
  * Punto de entrada principal del módulo de emergencias.
@@ -14,20 +12,26 @@ import java.util.Scanner;
  */
 public class Main {
     public static void main(String[] args) {
-        Scanner scanner = new Scanner(System.in);
-        EmergencyManager manager = new EmergencyManager();
+        long inicioMain = System.nanoTime();
 
         // 1. CARGA DE DATOS DINÁMICOS (Unidades 8 y 10)
-        // Se carga al inicio para asegurar que la información esté lista antes de cualquier alerta.
-        CentroSaludLoader loader = new CentroSaludLoader();
-        List<CentroSalud> centrosDisponibles = loader.cargarCentros();
+        // Se carga una única vez al inicio (snapshot binario o JSON) para asegurar que
+        // la información esté lista antes de cualquier alerta.
+        EmergencyManager manager = new EmergencyManager();
+        CatalogoCentros centrosDisponibles = manager.getCatalogoCentros();
 
-        if (!centrosDisponibles.isEmpty()) {
+        if (centrosDisponibles.size() > 0) {
             System.out.println("✅ Datos de salud cargados correctamente (" + centrosDisponibles.size() + " centros).");
         } else {
             System.out.println("⚠️ No se han podido cargar datos externos. Verifique centros.json.");
         }
 
+        // Tiempo de arranque en frío hasta que el sistema puede emitir la primera alerta
+        System.out.printf("⏱️ Sistema listo para alertar en %.1f ms desde main (%d ms desde el arranque de la JVM) [%s]\n",
+                (System.nanoTime() - inicioMain) / 1_000_000.0,
+                ManagementFactory.getRuntimeMXBean().getUptime(),
+                manager.getOrigenDatos());
+
         System.out.println("\n--- SIMULADOR DE EMERGENCIAS ---");
         System.out.println("Seleccione el modo de activación:");
         System.out.println("1. Manual (Simula la pulsación de un botón)");
@@ -40,7 +44,7 @@ public class Main {
         // Asegura que el usuario solo pueda introducir '1' o '2', repitiendo la petición en caso de error.
         while (!opcionValida) {
             System.out.print("Opción [1/2]: ");
-            String choice = scanner.nextLine().trim();
+            String choice = manager.getConsola().leerLinea().trim();
 
             if ("2".equals(choice)) {
                 isAutomatic = true;
@@ -58,7 +62,6 @@ public class Main {
 
         // 3. INICIO DEL SISTEMA PRINCIPAL
         manager.startSystem(isAutomatic);
-
-        scanner.close();
+        manager.cerrar();
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package main.java.com.emergencias.metricas;
+
+/**
+ * Resultados de detección que se cuentan en {@link RegistroMetricas}.
+ */
+public enum ContadorEvento {
+    NO_ACTIVADOS("no_activado"),       // Sin pulsación o sensor bajo el umbral
+    CONFIRMADOS("confirmado"),         // Gravedad confirmada (incluye los escalados por vencimiento)
+    CANCELADOS("cancelado"),           // El usuario descarta la gravedad
+    ESCALADOS_TIMEOUT("escalado_timeout"); // Sin respuesta en modo automático: se escala como grave
+
+    private final String clave;
+
+    ContadorEvento(String clave) {
+        this.clave = clave;
+    }
+
+    /** @return Nombre del resultado en las instantáneas (texto y JSON). */
+    public String getClave() {
+        return clave;
+    }
+}
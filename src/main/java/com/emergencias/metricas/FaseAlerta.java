@@ -0,0 +1,28 @@
+package main.java.com.emergencias.metricas;
+
+/**
+ * Fases del ciclo de vida de una alerta cuya latencia se mide en {@link RegistroMetricas}.
+ */
+public enum FaseAlerta {
+    ACTIVACION("activacion"),              // Pulsación o lectura del sensor/anomalía
+    TIPO("tipo"),                          // Pregunta del tipo de emergencia
+    GRAVEDAD("gravedad"),                  // Validación de gravedad (respuesta o vencimiento)
+    SIGNOS_VITALES("signos_vitales"),      // Lectura de constantes vitales
+    PAQUETE("paquete"),                    // Construcción del paquete de alerta
+    PERSISTENCIA("persistencia"),          // Escritura en el log local
+    RESPALDO("respaldo"),                  // Anotación en la bandeja de salida del respaldo
+    SUBIDA_RESPALDO("subida_respaldo"),    // Subida de un lote del respaldo a la nube
+    CONTACTOS("contactos"),                // Notificación a contactos personales
+    DISPARO_A_DESPACHO("disparo_a_despacho"); // De extremo a extremo: disparo → acuse del 112
+
+    private final String clave;
+
+    FaseAlerta(String clave) {
+        this.clave = clave;
+    }
+
+    /** @return Nombre de la fase en las instantáneas (texto y JSON). */
+    public String getClave() {
+        return clave;
+    }
+}
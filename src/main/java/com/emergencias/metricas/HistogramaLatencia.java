@@ -0,0 +1,105 @@
+package main.java.com.emergencias.metricas;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias en nanosegundos, sin cerrojos y sin reservar memoria al registrar.
+ *
+ * Las cubetas son log-lineales: cada potencia de dos se divide en {@value #SUBCUBETAS} cubetas
+ * iguales, de modo que el error relativo de cualquier percentil es menor del 6,25 % en todo el
+ * rango (de 1 ns a horas) con un array fijo de contadores atómicos. Registrar es calcular el
+ * índice con dos operaciones de bits y un incremento atómico.
+ */
+public class HistogramaLatencia {
+
+    private static final int BITS_SUBCUBETA = 4;
+    static final int SUBCUBETAS = 1 << BITS_SUBCUBETA;
+    private static final int CUBETAS = (64 - BITS_SUBCUBETA + 1) * SUBCUBETAS;
+
+    private final AtomicLongArray cubetas = new AtomicLongArray(CUBETAS);
+    private final LongAdder suma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    /**
+     * Registra una latencia. Seguro para hilos; los valores negativos cuentan como 0.
+     * @param nanos Duración en nanosegundos.
+     */
+    public void registrar(long nanos) {
+        long v = Math.max(0, nanos);
+        cubetas.incrementAndGet(indice(v));
+        suma.add(v);
+        long max = maximo.get();
+        while (v > max && !maximo.compareAndSet(max, v)) max = maximo.get();
+    }
+
+    static int indice(long v) {
+        if (v < SUBCUBETAS) return (int) v;
+        int exponente = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exponente - BITS_SUBCUBETA)) & (SUBCUBETAS - 1);
+        return (exponente - BITS_SUBCUBETA + 1) * SUBCUBETAS + sub;
+    }
+
+    /** @return Mayor valor que cae en la cubeta indicada. */
+    static long limiteSuperior(int indice) {
+        if (indice < SUBCUBETAS) return indice;
+        int exponente = indice / SUBCUBETAS + BITS_SUBCUBETA - 1;
+        long base = (long) (SUBCUBETAS + indice % SUBCUBETAS) << (exponente - BITS_SUBCUBETA);
+        return base + (1L << (exponente - BITS_SUBCUBETA)) - 1;
+    }
+
+    /**
+     * Copia el estado actual. Con registros concurrentes la copia no es atómica en conjunto,
+     * pero cada contador es coherente.
+     */
+    public Instantanea instantanea() {
+        long[] copia = new long[CUBETAS];
+        long total = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            copia[i] = cubetas.get(i);
+            total += copia[i];
+        }
+        return new Instantanea(copia, total, suma.sum(), maximo.get());
+    }
+
+    /**
+     * Copia inmutable de un histograma.
+     */
+    public static final class Instantanea {
+        private final long[] cubetas;
+        private final long total;
+        private final long sumaNanos;
+        private final long maximoNanos;
+
+        private Instantanea(long[] cubetas, long total, long sumaNanos, long maximoNanos) {
+            this.cubetas = cubetas;
+            this.total = total;
+            this.sumaNanos = sumaNanos;
+            this.maximoNanos = maximoNanos;
+        }
+
+        public long getTotal() { return total; }
+        public long getSumaNanos() { return sumaNanos; }
+        public long getMaximoNanos() { return maximoNanos; }
+
+        public double getMediaNanos() {
+            return total == 0 ? 0 : (double) sumaNanos / total;
+        }
+
+        /**
+         * @param percentil Entre 0 y 100.
+         * @return Cota superior de la latencia del percentil (nunca mayor que el máximo), o 0 si está vacío.
+         */
+        public long percentil(double percentil) {
+            if (total == 0) return 0;
+            long objetivo = Math.max(1, (long) Math.ceil(total * percentil / 100.0));
+            long acumulado = 0;
+            for (int i = 0; i < cubetas.length; i++) {
+                acumulado += cubetas[i];
+                if (acumulado >= objetivo) return Math.min(limiteSuperior(i), maximoNanos);
+            }
+            return maximoNanos;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package main.java.com.emergencias.metricas;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro de métricas del ciclo de vida de las alertas: un {@link HistogramaLatencia} por
+ * {@link FaseAlerta} y un contador por {@link ContadorEvento}.
+ *
+ * Registrar es sin cerrojos y sin reservar memoria (arrays indexados por el ordinal de la fase),
+ * así que se puede llamar desde la ruta crítica de cualquier hilo. Las instantáneas se exportan
+ * en texto con el formato de exposición de Prometheus y en JSON; {@link #iniciarVolcado} las
+ * escribe periódicamente en disco, reemplazando el fichero de forma atómica para que un
+ * recolector local nunca lea un fichero a medias.
+ */
+public class RegistroMetricas {
+
+    /** Ficheros del volcado periódico del proceso (directorio de trabajo). */
+    public static final Path FICHERO_TEXTO = Path.of("metricas.prom");
+    public static final Path FICHERO_JSON = Path.of("metricas.json");
+    public static final long PERIODO_VOLCADO_MS = 10_000;
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final RegistroMetricas GLOBAL = new RegistroMetricas();
+
+    private final HistogramaLatencia[] fases = new HistogramaLatencia[FaseAlerta.values().length];
+    private final LongAdder[] contadores = new LongAdder[ContadorEvento.values().length];
+    private final long creado = System.currentTimeMillis();
+    private ScheduledExecutorService volcado;
+
+    public RegistroMetricas() {
+        for (int i = 0; i < fases.length; i++) fases[i] = new HistogramaLatencia();
+        for (int i = 0; i < contadores.length; i++) contadores[i] = new LongAdder();
+    }
+
+    /** @return Registro compartido del proceso. */
+    public static RegistroMetricas global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Registra la duración de una fase.
+     * @param nanos Duración en nanosegundos.
+     */
+    public void registrar(FaseAlerta fase, long nanos) {
+        fases[fase.ordinal()].registrar(nanos);
+    }
+
+    /**
+     * Registra la duración de una fase que empezó en {@code inicioNanos} ({@link System#nanoTime()}).
+     */
+    public void registrarDesde(FaseAlerta fase, long inicioNanos) {
+        registrar(fase, System.nanoTime() - inicioNanos);
+    }
+
+    public void incrementar(ContadorEvento contador) {
+        contadores[contador.ordinal()].increment();
+    }
+
+    /** @return Copia del histograma de la fase. */
+    public HistogramaLatencia.Instantanea getFase(FaseAlerta fase) {
+        return fases[fase.ordinal()].instantanea();
+    }
+
+    public long getContador(ContadorEvento contador) {
+        return contadores[contador.ordinal()].sum();
+    }
+
+    // --- EXPORTACIÓN ---
+
+    /**
+     * @return Instantánea en el formato de texto de Prometheus (latencias en segundos).
+     */
+    public String exportarTexto() {
+        StringBuilder sb = new StringBuilder(4096);
+        sb.append("# HELP emergencias_fase_latencia_segundos Latencia de cada fase del ciclo de vida de la alerta.\n");
+        sb.append("# TYPE emergencias_fase_latencia_segundos summary\n");
+        for (FaseAlerta fase : FaseAlerta.values()) {
+            HistogramaLatencia.Instantanea h = getFase(fase);
+            String etiqueta = "fase=\"" + fase.getClave() + "\"";
+            for (double p : PERCENTILES) {
+                sb.append("emergencias_fase_latencia_segundos{").append(etiqueta)
+                        .append(",quantile=\"").append(formatear(p / 100)).append("\"} ")
+                        .append(segundos(h.percentil(p))).append('\n');
+            }
+            sb.append("emergencias_fase_latencia_segundos_sum{").append(etiqueta).append("} ")
+                    .append(segundos(h.getSumaNanos())).append('\n');
+            sb.append("emergencias_fase_latencia_segundos_count{").append(etiqueta).append("} ")
+                    .append(h.getTotal()).append('\n');
+        }
+        sb.append("# HELP emergencias_eventos_total Eventos detectados por resultado.\n");
+        sb.append("# TYPE emergencias_eventos_total counter\n");
+        for (ContadorEvento contador : ContadorEvento.values()) {
+            sb.append("emergencias_eventos_total{resultado=\"").append(contador.getClave()).append("\"} ")
+                    .append(getContador(contador)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return Instantánea en JSON (latencias en milisegundos).
+     */
+    public String exportarJson() {
+        Map<String, Object> raiz = new LinkedHashMap<>();
+        raiz.put("instante", Instant.now().toString());
+        raiz.put("desde", Instant.ofEpochMilli(creado).toString());
+
+        Map<String, Object> porFase = new LinkedHashMap<>();
+        for (FaseAlerta fase : FaseAlerta.values()) {
+            HistogramaLatencia.Instantanea h = getFase(fase);
+            Map<String, Object> datos = new LinkedHashMap<>();
+            datos.put("total", h.getTotal());
+            datos.put("media_ms", milis((long) h.getMediaNanos()));
+            for (double p : PERCENTILES) {
+                datos.put("p" + formatear(p).replace(".", "_") + "_ms", milis(h.percentil(p)));
+            }
+            datos.put("max_ms", milis(h.getMaximoNanos()));
+            porFase.put(fase.getClave(), datos);
+        }
+        raiz.put("fases", porFase);
+
+        Map<String, Object> eventos = new LinkedHashMap<>();
+        for (ContadorEvento contador : ContadorEvento.values()) {
+            eventos.put(contador.getClave(), getContador(contador));
+        }
+        raiz.put("eventos", eventos);
+        try {
+            return new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(raiz);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo serializar la instantánea de métricas.", e);
+        }
+    }
+
+    /**
+     * Escribe ambas instantáneas, cada una en un temporal que luego reemplaza al fichero.
+     */
+    public void volcar(Path texto, Path json) throws IOException {
+        escribirAtomico(texto, exportarTexto());
+        escribirAtomico(json, exportarJson());
+    }
+
+    /**
+     * Arranca (una sola vez) el volcado periódico en un hilo de fondo.
+     * @param periodoMs Milisegundos entre volcados.
+     */
+    public synchronized void iniciarVolcado(Path texto, Path json, long periodoMs) {
+        if (volcado != null) return;
+        volcado = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "metricas-volcado");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        volcado.scheduleAtFixedRate(() -> {
+            try {
+                volcar(texto, json);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("⚠️ No se pudieron volcar las métricas: " + e.getMessage());
+            }
+        }, periodoMs, periodoMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Detiene el volcado periódico y hace un último volcado con lo registrado hasta ahora.
+     */
+    public synchronized void detenerVolcado(Path texto, Path json) {
+        if (volcado == null) return;
+        volcado.shutdownNow();
+        volcado = null;
+        try {
+            volcar(texto, json);
+        } catch (IOException e) {
+            System.err.println("⚠️ No se pudieron volcar las métricas: " + e.getMessage());
+        }
+    }
+
+    private static void escribirAtomico(Path destino, String contenido) throws IOException {
+        Path dir = destino.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, destino.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(tmp, contenido, StandardCharsets.UTF_8);
+            try {
+                Files.move(tmp, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, destino, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static String segundos(long nanos) {
+        return formatear(nanos / 1e9);
+    }
+
+    private static double milis(long nanos) {
+        return Math.round(nanos / 1e3) / 1e3;
+    }
+
+    private static String formatear(double v) {
+        String s = String.format(Locale.ROOT, "%.9f", v);
+        s = s.replaceAll("0+$", "");
+        return s.endsWith(".") ? s.substring(0, s.length() - 1) : s;
+    }
+}
@@ -0,0 +1,33 @@
+package main.java.com.emergencias.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+/**
+ * Canales por los que se puede avisar a un contacto de emergencia.
+ */
+public enum CanalContacto {
+    SMS("💬"),
+    LLAMADA("📞"),
+    PUSH("🔔"); // Notificación en la app del contacto
+
+    private final String icono;
+
+    CanalContacto(String icono) {
+        this.icono = icono;
+    }
+
+    public String getIcono() {
+        return icono;
+    }
+
+    /**
+     * Lee el canal desde el JSON sin distinguir mayúsculas; admite también {@code "call"}.
+     * @throws IllegalArgumentException si no es un canal conocido.
+     */
+    @JsonCreator
+    public static CanalContacto desde(String texto) {
+        String normalizado = texto.trim().toUpperCase();
+        if (normalizado.equals("CALL")) return LLAMADA;
+        return valueOf(normalizado);
+    }
+}
@@ -0,0 +1,192 @@
+package main.java.com.emergencias.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catálogo de centros de salud de solo lectura con almacenamiento en columnas.
+ * Cada centro es una fila identificada por un entero; las coordenadas se guardan
+ * en arrays primitivos paralelos ya convertidos a radianes y el municipio se
+ * codifica por diccionario. Las coordenadas inválidas se rechazan al construir.
+ */
+public class CatalogoCentros {
+
+    private final int[] ids;
+    private final String[] codigos;
+    private final String[] nombres;
+    private final String[] direcciones;
+    private final String[] telefonos;
+    private final double[] latRad;
+    private final double[] lonRad;
+    private final int[] municipioCodigo;
+    private final String[] diccionarioMunicipios;
+
+    private CatalogoCentros(String[] codigos, String[] nombres, String[] direcciones, String[] telefonos,
+                            double[] latRad, double[] lonRad, int[] municipioCodigo, String[] diccionario) {
+        int n = latRad.length;
+        this.ids = new int[n];
+        for (int i = 0; i < n; i++) ids[i] = i;
+        this.codigos = codigos;
+        this.nombres = nombres;
+        this.direcciones = direcciones;
+        this.telefonos = telefonos;
+        this.latRad = latRad;
+        this.lonRad = lonRad;
+        this.municipioCodigo = municipioCodigo;
+        this.diccionarioMunicipios = diccionario;
+    }
+
+    /**
+     * Reconstruye un catálogo directamente a partir de sus columnas (p. ej. desde un snapshot binario).
+     * Las columnas pasan a ser propiedad del catálogo y deben tener todas la misma longitud.
+     */
+    public static CatalogoCentros desdeColumnas(String[] codigos, String[] nombres, String[] direcciones,
+                                                String[] telefonos, double[] latRad, double[] lonRad,
+                                                int[] municipioCodigo, String[] diccionario) {
+        int n = latRad.length;
+        if (lonRad.length != n || municipioCodigo.length != n || codigos.length != n
+                || nombres.length != n || direcciones.length != n || telefonos.length != n) {
+            throw new IllegalArgumentException("Todas las columnas del catálogo deben tener la misma longitud.");
+        }
+        for (int cod : municipioCodigo) {
+            if (cod < 0 || cod >= diccionario.length) {
+                throw new IllegalArgumentException("Código de municipio fuera del diccionario: " + cod);
+            }
+        }
+        return new CatalogoCentros(codigos, nombres, direcciones, telefonos, latRad, lonRad, municipioCodigo, diccionario);
+    }
+
+    /**
+     * Construye el catálogo a partir de la lista cargada por {@code CentroSaludLoader}.
+     * @param centros Centros deserializados del JSON.
+     * @return Catálogo con las filas válidas.
+     */
+    public static CatalogoCentros desde(List<CentroSalud> centros) {
+        Builder builder = new Builder();
+        for (CentroSalud centro : centros) {
+            if (!builder.agregar(centro)) {
+                System.err.println("⚠️ Centro descartado por coordenadas inválidas: " + centro.getNombre());
+            }
+        }
+        return builder.construir();
+    }
+
+    /** @return Número de filas (centros válidos). */
+    public int size() { return ids.length; }
+
+    public int getId(int fila) { return ids[fila]; }
+    public String getCodigo(int fila) { return codigos[fila]; }
+    public String getNombre(int fila) { return nombres[fila]; }
+    public String getDireccion(int fila) { return direcciones[fila]; }
+    public String getTelefono(int fila) { return telefonos[fila]; }
+    public String getMunicipio(int fila) { return diccionarioMunicipios[municipioCodigo[fila]]; }
+    public int getCodigoMunicipio(int fila) { return municipioCodigo[fila]; }
+    public double getLatitudGrados(int fila) { return Math.toDegrees(latRad[fila]); }
+    public double getLongitudGrados(int fila) { return Math.toDegrees(lonRad[fila]); }
+
+    // --- ACCESO COLUMNAR (sin copia, solo lectura por contrato) ---
+
+    /** Columna de latitudes en radianes. No debe modificarse. */
+    public double[] columnaLatitudRad() { return latRad; }
+
+    /** Columna de longitudes en radianes. No debe modificarse. */
+    public double[] columnaLongitudRad() { return lonRad; }
+
+    /** Columna de códigos de municipio (índices en el diccionario). No debe modificarse. */
+    public int[] columnaMunicipio() { return municipioCodigo; }
+
+    /** @return Copia del diccionario de municipios, indexado por código. */
+    public String[] diccionarioMunicipios() { return diccionarioMunicipios.clone(); }
+
+    /**
+     * Materializa una fila como objeto {@link CentroSalud} (para presentación, no para el camino crítico).
+     */
+    public CentroSalud centro(int fila) {
+        return new CentroSalud(codigos[fila], nombres[fila], direcciones[fila], getMunicipio(fila), telefonos[fila],
+                String.valueOf(getLatitudGrados(fila)), String.valueOf(getLongitudGrados(fila)));
+    }
+
+    /**
+     * Acumula centros fila a fila validando sus coordenadas una única vez.
+     */
+    public static class Builder {
+        private final List<String> codigos = new ArrayList<>();
+        private final List<String> nombres = new ArrayList<>();
+        private final List<String> direcciones = new ArrayList<>();
+        private final List<String> telefonos = new ArrayList<>();
+        private final List<String> diccionario = new ArrayList<>();
+        private final Map<String, Integer> codigoPorMunicipio = new HashMap<>();
+        private double[] latRad = new double[64];
+        private double[] lonRad = new double[64];
+        private int[] municipioCodigo = new int[64];
+        private int tam;
+        private int rechazados;
+
+        /**
+         * Añade un centro al catálogo si sus coordenadas son válidas. El rechazo no se notifica
+         * aquí: lo hace quien llama, con el resto de errores de su carga.
+         * @return true si se ha añadido; false si se rechazó por coordenadas inválidas o fuera de rango.
+         */
+        public boolean agregar(CentroSalud centro) {
+            double lat = parsearCoordenada(centro.getLatitud(), 90);
+            double lon = parsearCoordenada(centro.getLongitud(), 180);
+            if (Double.isNaN(lat) || Double.isNaN(lon)) {
+                rechazados++;
+                return false;
+            }
+            return agregar(centro.getCodigo(), centro.getNombre(), centro.getDirección(), centro.getMunicipio(),
+                    centro.getTelefono(), Math.toRadians(lat), Math.toRadians(lon));
+        }
+
+        /**
+         * Añade una fila con coordenadas ya validadas y expresadas en radianes.
+         */
+        public boolean agregar(String codigo, String nombre, String direccion, String municipio,
+                               String telefono, double latRadianes, double lonRadianes) {
+            if (tam == latRad.length) {
+                latRad = Arrays.copyOf(latRad, tam * 2);
+                lonRad = Arrays.copyOf(lonRad, tam * 2);
+                municipioCodigo = Arrays.copyOf(municipioCodigo, tam * 2);
+            }
+            String clave = municipio != null ? municipio : "";
+            Integer cod = codigoPorMunicipio.get(clave);
+            if (cod == null) {
+                cod = diccionario.size();
+                diccionario.add(clave);
+                codigoPorMunicipio.put(clave, cod);
+            }
+            codigos.add(codigo);
+            nombres.add(nombre);
+            direcciones.add(direccion);
+            telefonos.add(telefono);
+            latRad[tam] = latRadianes;
+            lonRad[tam] = lonRadianes;
+            municipioCodigo[tam] = cod;
+            tam++;
+            return true;
+        }
+
+        /** @return Número de centros rechazados hasta el momento. */
+        public int getRechazados() { return rechazados; }
+
+        public CatalogoCentros construir() {
+            return new CatalogoCentros(codigos.toArray(new String[0]), nombres.toArray(new String[0]),
+                    direcciones.toArray(new String[0]), telefonos.toArray(new String[0]),
+                    Arrays.copyOf(latRad, tam), Arrays.copyOf(lonRad, tam),
+                    Arrays.copyOf(municipioCodigo, tam), diccionario.toArray(new String[0]));
+        }
+
+        private static double parsearCoordenada(String valor, double limite) {
+            if (valor == null) return Double.NaN;
+            try {
+                double v = Double.parseDouble(valor.trim().replace(",", "."));
+                return (Double.isFinite(v) && Math.abs(v) <= limite) ? v : Double.NaN;
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+    }
+}
@@ -10,6 +10,9 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 @JsonIgnoreProperties(ignoreUnknown = true) // Ignora campos del JSON que no necesitemos
 public class CentroSalud {
 
+    @JsonProperty("Código")
+    private String codigo;
+
     @JsonProperty("Nombre")
     private String nombre;
 
@@ -28,23 +31,33 @@ public class CentroSalud {
     @JsonProperty("Longitud")
     private String longitud;
 
-    // Métodos auxiliares para obtener el valor numérico
-    public double getLatNumeric() {
-        try {
-            return Double.parseDouble(latitud);
-        } catch (Exception e) { return 0; }
-    }
+    // Constructor vacío obligatorio para la librería Jackson
+    public CentroSalud() {}
 
-    public double getLonNumeric() {
-        try {
-            return Double.parseDouble(longitud);
-        } catch (Exception e) { return 0; }
+    /**
+     * Constructor completo para crear centros fuera de la deserialización JSON.
+     */
+    public CentroSalud(String nombre, String direccion, String municipio, String telefono,
+                       String latitud, String longitud) {
+        this(null, nombre, direccion, municipio, telefono, latitud, longitud);
     }
 
-    // Constructor vacío obligatorio para la librería Jackson
-    public CentroSalud() {}
+    /**
+     * Constructor completo incluyendo el código oficial del centro.
+     */
+    public CentroSalud(String codigo, String nombre, String direccion, String municipio, String telefono,
+                       String latitud, String longitud) {
+        this.codigo = codigo;
+        this.nombre = nombre;
+        this.direccion = direccion;
+        this.municipio = municipio;
+        this.telefono = telefono;
+        this.latitud = latitud;
+        this.longitud = longitud;
+    }
 
     // Getters para acceder a la información desde la aplicación
+    public String getCodigo() { return codigo; }
     public String getNombre() { return nombre; }
     public String getMunicipio() { return municipio; }
     public String getDirección() { return direccion; }
@@ -0,0 +1,76 @@
+package main.java.com.emergencias.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Contacto personal al que se avisa cuando el usuario envía una alerta.
+ * Los canales van en orden de preferencia: si el primero falla o no responde a tiempo,
+ * se prueba el siguiente.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ContactoEmergencia {
+    private static final List<CanalContacto> CANALES_POR_DEFECTO = List.of(CanalContacto.SMS);
+
+    private String nombre;
+    private String telefono;
+    private String relacion; // E.g., "Madre", "Vecino"
+    private List<CanalContacto> canales = CANALES_POR_DEFECTO;
+
+    /**
+     * Constructor vacío requerido por Jackson.
+     */
+    public ContactoEmergencia() {}
+
+    /**
+     * @param nombre Nombre del contacto (obligatorio).
+     * @param telefono Teléfono del contacto (obligatorio).
+     * @param relacion Relación con el usuario.
+     * @param canales Canales en orden de preferencia (si está vacío, SMS).
+     */
+    public ContactoEmergencia(String nombre, String telefono, String relacion, List<CanalContacto> canales) {
+        if (nombre == null || nombre.trim().isEmpty() || telefono == null || telefono.trim().isEmpty()) {
+            throw new IllegalArgumentException("El nombre y el teléfono del contacto son obligatorios.");
+        }
+        this.nombre = nombre;
+        this.telefono = telefono;
+        this.relacion = relacion;
+        this.canales = normalizarCanales(canales);
+    }
+
+    /** Copia independiente del contacto (ver {@link UserData#copia()}). */
+    public ContactoEmergencia copia() {
+        ContactoEmergencia copia = new ContactoEmergencia();
+        copia.nombre = nombre;
+        copia.telefono = telefono;
+        copia.relacion = relacion;
+        copia.canales = canales;
+        return copia;
+    }
+
+    public String getNombre() { return nombre; }
+    public String getTelefono() { return telefono; }
+    public String getRelacion() { return relacion; }
+    /** @return Canales en orden de preferencia (lista inmutable, nunca vacía). */
+    public List<CanalContacto> getCanales() { return canales; }
+
+    public void setNombre(String nombre) { this.nombre = nombre; }
+    public void setTelefono(String telefono) { this.telefono = telefono; }
+    public void setRelacion(String relacion) { this.relacion = relacion; }
+    public void setCanales(List<CanalContacto> canales) {
+        this.canales = normalizarCanales(canales);
+    }
+
+    /** @return Copia inmutable de los canales, o SMS si no se indica ninguno. */
+    private static List<CanalContacto> normalizarCanales(List<CanalContacto> canales) {
+        return canales == null || canales.isEmpty() ? CANALES_POR_DEFECTO : List.copyOf(canales);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%s, Tel: %s) vía %s", nombre, relacion != null ? relacion : "contacto", telefono,
+                canales.stream().map(Enum::name).collect(Collectors.joining(" → ")));
+    }
+}
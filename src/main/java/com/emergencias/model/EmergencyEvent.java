@@ -2,15 +2,19 @@ package main.java.com.emergencias.model;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.UUID;
 
 /**
  * Clase que representa un evento de emergencia detectado.
  * Contiene el tipo, la ubicación, el momento de activación, los datos del usuario
- * y el registro de signos vitales en el momento de la alerta.
+ * y el registro de signos vitales en el momento de la alerta, junto con su evolución
+ * reciente si el usuario tiene monitorización continua.
  */
 public class EmergencyEvent {
-    private final String idEvento;
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static volatile GeneradorIds generadorIds = GeneradorIds.uuidV7();
+
+    private final IdEvento id;
+    private String idEvento; // Forma canónica, calculada en el primer uso
     private final String tipoEmergencia;
     private final String ubicacion; // Simulado con String (e.g., "Lat: 40.4, Lon: -3.7")
     private final LocalDateTime timestamp;
@@ -19,6 +23,7 @@ public class EmergencyEvent {
 
     // Variable que almacena los signos vitales del usuario (Integrado de v2)
     private VitalSigns signosVitales;
+    private VentanaVitales historialVitales;
 
     /**
      * Constructor del evento de emergencia.
@@ -27,10 +32,21 @@ public class EmergencyEvent {
      * @param datosUsuario Información personal asociada al evento.
      */
     public EmergencyEvent(String tipoEmergencia, String ubicacion, UserData datosUsuario) {
+        this(generadorIds.siguiente(), tipoEmergencia, ubicacion, datosUsuario);
+    }
+
+    /**
+     * Constructor con un identificador ya asignado (p. ej. al reconstruir un evento registrado).
+     * @param id Identificador del evento.
+     * @param tipoEmergencia Clasificación del evento (e.g., Sanitaria, Tráfico, General).
+     * @param ubicacion Ubicación simulada del evento.
+     * @param datosUsuario Información personal asociada al evento.
+     */
+    public EmergencyEvent(IdEvento id, String tipoEmergencia, String ubicacion, UserData datosUsuario) {
         if (tipoEmergencia == null || tipoEmergencia.trim().isEmpty()) {
             throw new IllegalArgumentException("El tipo de emergencia no puede ser nulo o vacío.");
         }
-        this.idEvento = UUID.randomUUID().toString();
+        this.id = id;
         this.tipoEmergencia = tipoEmergencia;
         this.ubicacion = ubicacion != null ? ubicacion : "Ubicación desconocida";
         this.timestamp = LocalDateTime.now();
@@ -47,10 +63,40 @@ public class EmergencyEvent {
         this.signosVitales = new VitalSigns();
     }
 
+    /**
+     * Adjunta las últimas lecturas del flujo continuo del usuario y toma la más reciente
+     * como signos vitales del evento. Sin historial, se leen los sensores como en
+     * {@link #leerSignosVitales()}.
+     * @param historial Lecturas recientes del usuario (puede ser null).
+     */
+    public void leerSignosVitales(VentanaVitales historial) {
+        if (historial == null || historial.isEmpty()) {
+            leerSignosVitales();
+            return;
+        }
+        this.historialVitales = historial;
+        this.signosVitales = historial.ultima();
+    }
+
+    /**
+     * Cambia la fuente de identificadores de los eventos que se creen a partir de ahora.
+     * Por defecto, {@link GeneradorIds#uuidV7()}.
+     */
+    public static void setGeneradorIds(GeneradorIds generador) {
+        generadorIds = generador;
+    }
+
     // --- GETTERS Y SETTERS ---
 
+    public IdEvento getId() {
+        return id;
+    }
+
+    /** @return Identificador en forma canónica (36 caracteres). */
     public String getIdEvento() {
-        return idEvento;
+        String texto = idEvento;
+        if (texto == null) idEvento = texto = id.toString();
+        return texto;
     }
 
     public String getTipoEmergencia() {
@@ -85,14 +131,21 @@ public class EmergencyEvent {
         return signosVitales;
     }
 
+    /**
+     * @return Lecturas recientes del usuario adjuntas al evento, o null si no tiene monitorización continua.
+     */
+    public VentanaVitales getHistorialVitales() {
+        return historialVitales;
+    }
+
     /**
      * Genera una cadena formateada del evento para el log de alertas,
      * incluyendo la información médica si está disponible.
      */
     @Override
     public String toString() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
         String infoVitals = (signosVitales != null) ? signosVitales.toString() : "No registrados";
+        String infoHistorial = (historialVitales != null) ? historialVitales.toString() : "No disponible";
 
         return String.format("--- ALERTA GENERADA ---\n" +
                         "ID: %s\n" +
@@ -101,14 +154,16 @@ public class EmergencyEvent {
                         "Ubicación: %s\n" +
                         "Gravedad Confirmada: %s\n" +
                         "Signos Vitales: %s\n" +
+                        "Evolución Vitales: %s\n" +
                         "Datos Usuario: %s\n" +
                         "-----------------------\n",
-                idEvento,
-                timestamp.format(formatter),
+                getIdEvento(),
+                timestamp.format(FORMATTER),
                 tipoEmergencia,
                 ubicacion,
                 esGrave ? "SÍ" : "NO",
                 infoVitals,
+                infoHistorial,
                 datosUsuario.toString());
     }
 }
\ No newline at end of file
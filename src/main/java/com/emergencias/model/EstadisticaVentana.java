@@ -0,0 +1,113 @@
+package main.java.com.emergencias.model;
+
+import java.util.Locale;
+
+/**
+ * Resumen de una constante vital en una ventana de tiempo: mínimo, máximo, media
+ * y tendencia (pendiente de mínimos cuadrados, en unidades por minuto).
+ */
+public class EstadisticaVentana {
+    private final SignoVital signo;
+    private final int muestras;
+    private final int minimo;
+    private final int maximo;
+    private final double media;
+    private final double tendenciaPorMinuto;
+
+    private EstadisticaVentana(SignoVital signo, int muestras, int minimo, int maximo, double media,
+                               double tendenciaPorMinuto) {
+        this.signo = signo;
+        this.muestras = muestras;
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.media = media;
+        this.tendenciaPorMinuto = tendenciaPorMinuto;
+    }
+
+    /**
+     * Calcula el resumen sobre {@code n} muestras consecutivas de un búfer circular
+     * (o de un array lineal si {@code inicio + n} no da la vuelta), sin reservar memoria intermedia.
+     * @param instantesMs Instantes de las muestras (epoch ms), en orden de llegada.
+     * @param valores Valores de la constante, alineados con los instantes.
+     * @param inicio Posición de la muestra más antigua de la ventana.
+     * @param n Número de muestras de la ventana.
+     * @return El resumen, o null si la ventana está vacía.
+     */
+    public static EstadisticaVentana calcular(SignoVital signo, long[] instantesMs, int[] valores, int inicio, int n) {
+        if (n <= 0) return null;
+        int capacidad = valores.length;
+        int minimo = Integer.MAX_VALUE;
+        int maximo = Integer.MIN_VALUE;
+        double suma = 0;
+        for (int i = 0, p = inicio; i < n; i++, p = p + 1 == capacidad ? 0 : p + 1) {
+            int v = valores[p];
+            if (v < minimo) minimo = v;
+            if (v > maximo) maximo = v;
+            suma += v;
+        }
+        return new EstadisticaVentana(signo, n, minimo, maximo, suma / n, pendiente(instantesMs, valores, inicio, n));
+    }
+
+    /**
+     * Escribe en {@code sb} el mismo resumen que {@link #toString()} de {@link #calcular} sin crear
+     * el objeto ni textos intermedios, para codificar alertas sin reservar memoria.
+     * @return {@code sb}, sin cambios si la ventana está vacía.
+     */
+    public static StringBuilder escribir(StringBuilder sb, SignoVital signo, long[] instantesMs, int[] valores,
+                                         int inicio, int n) {
+        if (n <= 0) return sb;
+        int capacidad = valores.length;
+        int minimo = Integer.MAX_VALUE;
+        int maximo = Integer.MIN_VALUE;
+        double suma = 0;
+        for (int i = 0, p = inicio; i < n; i++, p = p + 1 == capacidad ? 0 : p + 1) {
+            int v = valores[p];
+            if (v < minimo) minimo = v;
+            if (v > maximo) maximo = v;
+            suma += v;
+        }
+        sb.append(signo.getAbreviatura()).append(' ').append(minimo).append('-').append(maximo).append(" (media ");
+        unDecimal(sb, suma / n, false);
+        sb.append(", ");
+        unDecimal(sb, pendiente(instantesMs, valores, inicio, n), true);
+        return sb.append("/min)");
+    }
+
+    /** Pendiente de mínimos cuadrados, en unidades por minuto desde la primera muestra. */
+    private static double pendiente(long[] instantesMs, int[] valores, int inicio, int n) {
+        int capacidad = valores.length;
+        long t0 = instantesMs[inicio];
+        double sumaV = 0, sumaT = 0, sumaTT = 0, sumaTV = 0;
+        for (int i = 0, p = inicio; i < n; i++, p = p + 1 == capacidad ? 0 : p + 1) {
+            int v = valores[p];
+            double t = (instantesMs[p] - t0) / 60_000.0;
+            sumaV += v;
+            sumaT += t;
+            sumaTT += t * t;
+            sumaTV += t * v;
+        }
+        double denominador = n * sumaTT - sumaT * sumaT;
+        return denominador > 1e-12 ? (n * sumaTV - sumaT * sumaV) / denominador : 0.0;
+    }
+
+    /** Igual que {@code %.1f} (o {@code %+.1f} con {@code conSigno}): un decimal, la mitad hacia arriba. */
+    private static void unDecimal(StringBuilder sb, double x, boolean conSigno) {
+        long decimas = Math.round(Math.abs(x) * 10);
+        if (x < 0 || 1 / x < 0) sb.append('-');
+        else if (conSigno) sb.append('+');
+        sb.append(decimas / 10).append('.').append((char) ('0' + decimas % 10));
+    }
+
+    public SignoVital getSigno() { return signo; }
+    public int getMuestras() { return muestras; }
+    public int getMinimo() { return minimo; }
+    public int getMaximo() { return maximo; }
+    public double getMedia() { return media; }
+    public double getTendenciaPorMinuto() { return tendenciaPorMinuto; }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s %d-%d (media %.1f, %+.1f/min)",
+                signo.getAbreviatura(), minimo, maximo, media, tendenciaPorMinuto);
+    }
+}
@@ -0,0 +1,73 @@
+package main.java.com.emergencias.model;
+
+/**
+ * Disparo de emergencia originado por el dispositivo de un usuario (botón o sensor),
+ * tal y como lo recibe el motor sin interfaz. Incluye las respuestas que el usuario
+ * haya dado en el propio dispositivo; una respuesta nula equivale a "sin respuesta" (salvo la
+ * confirmación de gravedad de un disparo automático, que puede llegar después).
+ */
+public class EventoDispositivo {
+    private final String idUsuario;
+    private final boolean automatico;
+    private final int lecturaSensor;
+    private final String tipo;
+    private final String confirmacionGravedad;
+    private final String anomalia;
+    private final long recibidoNanos;
+
+    /**
+     * @param idUsuario ID o teléfono del usuario.
+     * @param automatico true si lo dispara el sensor, false si es una pulsación manual.
+     * @param lecturaSensor Lectura del sensor de impacto (0-99), solo relevante en modo automático.
+     * @param tipo Tipo de emergencia elegido en el dispositivo (null si no se eligió).
+     * @param confirmacionGravedad "S"/"N" según confirme el usuario, o null si aún no ha respondido
+     *                             (en modo automático se espera su respuesta hasta que venza el plazo).
+     */
+    public EventoDispositivo(String idUsuario, boolean automatico, int lecturaSensor, String tipo,
+                             String confirmacionGravedad) {
+        this(idUsuario, automatico, lecturaSensor, tipo, confirmacionGravedad, null);
+    }
+
+    private EventoDispositivo(String idUsuario, boolean automatico, int lecturaSensor, String tipo,
+                              String confirmacionGravedad, String anomalia) {
+        if (idUsuario == null || idUsuario.trim().isEmpty()) {
+            throw new IllegalArgumentException("El evento de dispositivo debe identificar al usuario.");
+        }
+        this.idUsuario = idUsuario;
+        this.automatico = automatico;
+        this.lecturaSensor = lecturaSensor;
+        this.tipo = tipo;
+        this.confirmacionGravedad = confirmacionGravedad;
+        this.anomalia = anomalia;
+        this.recibidoNanos = System.nanoTime();
+    }
+
+    /** @return Pulsación manual del botón de emergencia. */
+    public static EventoDispositivo manual(String idUsuario, String tipo, String confirmacionGravedad) {
+        return new EventoDispositivo(idUsuario, false, 0, tipo, confirmacionGravedad);
+    }
+
+    /** @return Activación automática por el sensor de impacto. */
+    public static EventoDispositivo sensor(String idUsuario, int lectura, String tipo, String confirmacionGravedad) {
+        return new EventoDispositivo(idUsuario, true, lectura, tipo, confirmacionGravedad);
+    }
+
+    /**
+     * @return Activación automática decidida por la detección en streaming; el usuario aún
+     *         puede confirmarla o descartarla antes de que venza el plazo.
+     * @param descripcion Regla y valor que la han provocado.
+     */
+    public static EventoDispositivo anomalia(String idUsuario, String tipo, String descripcion) {
+        return new EventoDispositivo(idUsuario, true, 0, tipo, null, descripcion);
+    }
+
+    public String getIdUsuario() { return idUsuario; }
+    public boolean isAutomatico() { return automatico; }
+    public int getLecturaSensor() { return lecturaSensor; }
+    public String getTipo() { return tipo; }
+    public String getConfirmacionGravedad() { return confirmacionGravedad; }
+    /** @return Descripción de la anomalía que originó el disparo, o null si no viene de la detección en streaming. */
+    public String getAnomalia() { return anomalia; }
+    /** @return Instante de recepción ({@link System#nanoTime()}), para medir latencias. */
+    public long getRecibidoNanos() { return recibidoNanos; }
+}
@@ -0,0 +1,21 @@
+package main.java.com.emergencias.model;
+
+import java.util.UUID;
+
+/**
+ * Fuente de identificadores de los {@link EmergencyEvent} (ver {@link EmergencyEvent#setGeneradorIds}).
+ * Las implementaciones deben ser seguras para hilos.
+ */
+@FunctionalInterface
+public interface GeneradorIds {
+
+    /** UUID aleatorios (versión 4) con {@code SecureRandom}: el comportamiento original. */
+    GeneradorIds ALEATORIO = () -> IdEvento.desdeUuid(UUID.randomUUID());
+
+    IdEvento siguiente();
+
+    /** @return Generador de UUIDv7 ordenados por tiempo, sin cerrojos (el de por defecto). */
+    static GeneradorIds uuidV7() {
+        return GeneradorUuidV7.INSTANCIA;
+    }
+}
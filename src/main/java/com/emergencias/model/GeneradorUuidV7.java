@@ -0,0 +1,49 @@
+package main.java.com.emergencias.model;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generador de UUIDv7 (RFC 9562, método 1: contador dedicado de 12 bits) sin cerrojos.
+ *
+ * Cada hilo lleva su propio último milisegundo y contador: dentro del mismo milisegundo el
+ * contador avanza, y si se agota (más de ~2000 IDs por milisegundo y hilo) o el reloj va hacia
+ * atrás, se sigue con el milisegundo siguiente al último usado. Así los IDs de un hilo son
+ * estrictamente crecientes. Los 62 bits finales son aleatorios ({@link ThreadLocalRandom}),
+ * lo que hace despreciable la colisión entre hilos sin coordinarlos.
+ */
+final class GeneradorUuidV7 implements GeneradorIds {
+
+    static final GeneradorUuidV7 INSTANCIA = new GeneradorUuidV7();
+
+    private static final int MAX_CONTADOR = 0xFFF;
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANTE = 0x8000_0000_0000_0000L;
+    private static final long MASCARA_ALEATORIA = 0x3FFF_FFFF_FFFF_FFFFL;
+
+    private static final ThreadLocal<Estado> ESTADO = ThreadLocal.withInitial(Estado::new);
+
+    private GeneradorUuidV7() {}
+
+    @Override
+    public IdEvento siguiente() {
+        Estado estado = ESTADO.get();
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long ahora = System.currentTimeMillis();
+        if (ahora > estado.ultimoMs) {
+            estado.ultimoMs = ahora;
+            // Arranque aleatorio en la mitad baja: deja margen al contador y no revela el ritmo
+            estado.contador = rnd.nextInt(MAX_CONTADOR / 2);
+        } else if (++estado.contador > MAX_CONTADOR) {
+            estado.ultimoMs++;
+            estado.contador = 0;
+        }
+        long alto = estado.ultimoMs << 16 | VERSION | estado.contador;
+        long bajo = VARIANTE | rnd.nextLong() & MASCARA_ALEATORIA;
+        return new IdEvento(alto, bajo);
+    }
+
+    private static final class Estado {
+        long ultimoMs = Long.MIN_VALUE;
+        int contador;
+    }
+}
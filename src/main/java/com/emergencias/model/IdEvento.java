@@ -0,0 +1,151 @@
+package main.java.com.emergencias.model;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Identificador de 128 bits de un evento de emergencia, con el formato de un UUID.
+ * Los que genera {@link GeneradorIds#uuidV7()} son UUIDv7 (RFC 9562): empiezan por el instante
+ * de creación en milisegundos, así que ordenados por bits quedan en orden cronológico.
+ *
+ * Tiene tres representaciones:
+ * <ul>
+ *     <li>canónica: 36 caracteres hexadecimales con guiones, la del log de alertas;</li>
+ *     <li>binaria: {@value #BYTES} bytes big-endian;</li>
+ *     <li>corta: {@value #LONGITUD_CORTA} caracteres en Base32 de Crockford (sin I, L, O ni U) con los
+ *     50 bits aleatorios finales, para mostrar en pantalla o dictar por teléfono.</li>
+ * </ul>
+ */
+public final class IdEvento implements Comparable<IdEvento> {
+
+    public static final int BYTES = 16;
+    public static final int LONGITUD_CORTA = 10;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final long MASCARA_CORTA = (1L << (5 * LONGITUD_CORTA)) - 1;
+
+    private final long alto;
+    private final long bajo;
+
+    public IdEvento(long alto, long bajo) {
+        this.alto = alto;
+        this.bajo = bajo;
+    }
+
+    public static IdEvento desdeUuid(UUID uuid) {
+        return new IdEvento(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * @param canonico ID en forma canónica (p. ej. el de una línea del log).
+     * @throws IllegalArgumentException si no es un UUID válido.
+     */
+    public static IdEvento parsear(String canonico) {
+        if (canonico.length() != 36) throw new IllegalArgumentException("ID de evento no válido: " + canonico);
+        return desdeUuid(UUID.fromString(canonico));
+    }
+
+    /** Lee la forma binaria desde la posición actual del búfer. */
+    public static IdEvento leer(ByteBuffer origen) {
+        return new IdEvento(origen.getLong(), origen.getLong());
+    }
+
+    public long getAlto() { return alto; }
+    public long getBajo() { return bajo; }
+
+    /** @return Versión del UUID (7 para los ordenados por tiempo, 4 para los aleatorios). */
+    public int getVersion() {
+        return (int) (alto >>> 12) & 0xF;
+    }
+
+    /** @return Instante de creación (epoch ms) de un UUIDv7, o -1 en otras versiones. */
+    public long getInstanteMs() {
+        return getVersion() == 7 ? alto >>> 16 : -1;
+    }
+
+    /** Escribe la forma binaria en la posición actual del búfer. */
+    public ByteBuffer escribir(ByteBuffer destino) {
+        return destino.putLong(alto).putLong(bajo);
+    }
+
+    public byte[] toBytes() {
+        byte[] bytes = new byte[BYTES];
+        escribir(ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /** Escribe la forma canónica sin crear cadenas intermedias. */
+    public StringBuilder escribir(StringBuilder sb) {
+        hex(sb, alto >>> 32, 8).append('-');
+        hex(sb, alto >>> 16, 4).append('-');
+        hex(sb, alto, 4).append('-');
+        hex(sb, bajo >>> 48, 4).append('-');
+        return hex(sb, bajo, 12);
+    }
+
+    /** Escribe la forma corta sin crear cadenas intermedias. */
+    public StringBuilder escribirCorto(StringBuilder sb) {
+        long v = bajo & MASCARA_CORTA;
+        for (int desplazamiento = 5 * (LONGITUD_CORTA - 1); desplazamiento >= 0; desplazamiento -= 5) {
+            sb.append(CROCKFORD[(int) (v >>> desplazamiento) & 31]);
+        }
+        return sb;
+    }
+
+    /** @return Forma corta del ID, p. ej. {@code "7ZK3M9Q2TB"}. */
+    public String corto() {
+        return escribirCorto(new StringBuilder(LONGITUD_CORTA)).toString();
+    }
+
+    /**
+     * Normaliza una forma corta tecleada por una persona: mayúsculas, sin guiones ni espacios,
+     * y los caracteres ambiguos de Crockford (I y L → 1, O → 0).
+     * @return La forma corta normalizada o null si no lo es.
+     */
+    public static String normalizarCorto(String texto) {
+        StringBuilder sb = new StringBuilder(LONGITUD_CORTA);
+        for (int i = 0; i < texto.length(); i++) {
+            char c = Character.toUpperCase(texto.charAt(i));
+            if (c == '-' || c == ' ') continue;
+            if (c == 'I' || c == 'L') c = '1';
+            else if (c == 'O') c = '0';
+            if (c > 'Z' || c == 'U' || !(Character.isDigit(c) || Character.isLetter(c))) return null;
+            sb.append(c);
+        }
+        return sb.length() == LONGITUD_CORTA ? sb.toString() : null;
+    }
+
+    private static StringBuilder hex(StringBuilder sb, long v, int digitos) {
+        for (int desplazamiento = 4 * (digitos - 1); desplazamiento >= 0; desplazamiento -= 4) {
+            sb.append(HEX[(int) (v >>> desplazamiento) & 0xF]);
+        }
+        return sb;
+    }
+
+    /** Orden de los bits sin signo: cronológico entre UUIDv7. */
+    @Override
+    public int compareTo(IdEvento otro) {
+        int c = Long.compareUnsigned(alto, otro.alto);
+        return c != 0 ? c : Long.compareUnsigned(bajo, otro.bajo);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IdEvento)) return false;
+        IdEvento otro = (IdEvento) o;
+        return alto == otro.alto && bajo == otro.bajo;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(alto * 31 + bajo);
+    }
+
+    /** @return Forma canónica, p. ej. {@code "0192f3c4-8a1e-7b3c-9d2e-4f5a6b7c8d9e"}. */
+    @Override
+    public String toString() {
+        return escribir(new StringBuilder(36)).toString();
+    }
+}
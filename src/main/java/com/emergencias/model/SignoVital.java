@@ -0,0 +1,22 @@
+package main.java.com.emergencias.model;
+
+/**
+ * Constantes vitales que miden los sensores biométricos del usuario.
+ */
+public enum SignoVital {
+    RITMO_CARDIACO("HR", "bpm"),
+    SPO2("SpO2", "%"),
+    SISTOLICA("PAS", "mmHg"),
+    DIASTOLICA("PAD", "mmHg");
+
+    private final String abreviatura;
+    private final String unidad;
+
+    SignoVital(String abreviatura, String unidad) {
+        this.abreviatura = abreviatura;
+        this.unidad = unidad;
+    }
+
+    public String getAbreviatura() { return abreviatura; }
+    public String getUnidad() { return unidad; }
+}
@@ -2,6 +2,10 @@ package main.java.com.emergencias.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Clase que representa los datos personales y de ubicación del usuario.
  * Adaptada para soportar persistencia en JSON y empaquetar información
@@ -9,6 +13,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
  */
 @JsonIgnoreProperties(ignoreUnknown = true) // Ignora campos desconocidos al leer JSON
 public class UserData {
+    private String id; // Identificador del perfil; si no se indica, se usa el teléfono
     private String nombre;
     private String telefono;
     private String infoMedica; // E.g., Alergias, tipo de sangre
@@ -17,6 +22,8 @@ public class UserData {
     private Double latitudSimulada;
     private Double longitudSimulada;
 
+    private List<ContactoEmergencia> contactos = new ArrayList<>(); // Avisados en cada alerta
+
     /**
      * Constructor vacío requerido por la librería Jackson para la
      * deserialización de datos.
@@ -32,9 +39,23 @@ public class UserData {
      * @param lon Longitud simulada.
      */
     public UserData(String nombre, String telefono, String infoMedica, Double lat, Double lon) {
+        this(null, nombre, telefono, infoMedica, lat, lon);
+    }
+
+    /**
+     * Constructor completo con identificador explícito del perfil.
+     * @param id Identificador del usuario (si es nulo o vacío se usa el teléfono).
+     * @param nombre Nombre completo (obligatorio).
+     * @param telefono Número de contacto (obligatorio).
+     * @param infoMedica Información médica relevante.
+     * @param lat Latitud simulada.
+     * @param lon Longitud simulada.
+     */
+    public UserData(String id, String nombre, String telefono, String infoMedica, Double lat, Double lon) {
         if (nombre == null || nombre.trim().isEmpty() || telefono == null || telefono.trim().isEmpty()) {
             throw new IllegalArgumentException("El nombre y el teléfono son campos obligatorios.");
         }
+        this.id = id;
         this.nombre = nombre;
         this.telefono = telefono;
         this.infoMedica = infoMedica != null ? infoMedica : "No especificada";
@@ -42,19 +63,42 @@ public class UserData {
         this.longitudSimulada = lon;
     }
 
+    /**
+     * Copia independiente del perfil, usada para actualizarlo sin tocar la versión publicada.
+     */
+    public UserData copia() {
+        UserData copia = new UserData();
+        copia.id = id;
+        copia.nombre = nombre;
+        copia.telefono = telefono;
+        copia.infoMedica = infoMedica;
+        copia.latitudSimulada = latitudSimulada;
+        copia.longitudSimulada = longitudSimulada;
+        for (ContactoEmergencia c : contactos) copia.contactos.add(c.copia());
+        return copia;
+    }
+
     // --- GETTERS ---
+    /** @return Identificador del perfil, o el teléfono si no tiene uno propio. */
+    public String getId() { return (id == null || id.trim().isEmpty()) ? telefono : id; }
     public String getNombre() { return nombre; }
     public String getTelefono() { return telefono; }
     public String getInfoMedica() { return infoMedica; }
     public Double getLatitudSimulada() { return latitudSimulada; }
     public Double getLongitudSimulada() { return longitudSimulada; }
+    /** @return Contactos de emergencia del usuario (vista de solo lectura). */
+    public List<ContactoEmergencia> getContactos() { return Collections.unmodifiableList(contactos); }
 
     // --- SETTERS ---
+    public void setId(String id) { this.id = id; }
     public void setNombre(String nombre) { this.nombre = nombre; }
     public void setTelefono(String telefono) { this.telefono = telefono; }
     public void setInfoMedica(String infoMedica) { this.infoMedica = infoMedica; }
     public void setLatitudSimulada(Double latitudSimulada) { this.latitudSimulada = latitudSimulada; }
     public void setLongitudSimulada(Double longitudSimulada) { this.longitudSimulada = longitudSimulada; }
+    public void setContactos(List<ContactoEmergencia> contactos) {
+        this.contactos = contactos != null ? new ArrayList<>(contactos) : new ArrayList<>();
+    }
 
     /**
      * Devuelve una representación formateada de los datos del usuario,
@@ -0,0 +1,83 @@
+package main.java.com.emergencias.model;
+
+/**
+ * Copia inmutable de las últimas lecturas de signos vitales de un usuario, adjunta al
+ * {@link EmergencyEvent} para que el despacho vea la evolución y no solo una foto.
+ * Las muestras se guardan por columnas (un array primitivo por constante) en orden cronológico.
+ */
+public class VentanaVitales {
+    private static final SignoVital[] SIGNOS = SignoVital.values();
+
+    private final long duracionMs;
+    private final long[] instantesMs;
+    private final int[][] valores; // [SignoVital.ordinal()][muestra]
+    private String resumen; // toString() memorizado: la ventana es inmutable
+
+    /**
+     * @param duracionMs Duración de la ventana solicitada.
+     * @param instantesMs Instantes de las muestras (epoch ms), del más antiguo al más reciente.
+     * @param valores Un array por {@link SignoVital} (en orden de {@code ordinal()}), alineados con los instantes.
+     */
+    public VentanaVitales(long duracionMs, long[] instantesMs, int[][] valores) {
+        if (valores.length != SignoVital.values().length) {
+            throw new IllegalArgumentException("Se necesita un array de valores por cada signo vital.");
+        }
+        for (int[] columna : valores) {
+            if (columna.length != instantesMs.length) {
+                throw new IllegalArgumentException("Los valores deben estar alineados con los instantes.");
+            }
+        }
+        this.duracionMs = duracionMs;
+        this.instantesMs = instantesMs;
+        this.valores = valores;
+    }
+
+    public long getDuracionMs() { return duracionMs; }
+
+    /** @return Número de lecturas de la ventana. */
+    public int size() { return instantesMs.length; }
+
+    public boolean isEmpty() { return instantesMs.length == 0; }
+
+    /** @return Instante (epoch ms) de la lectura {@code i} (0 = la más antigua). */
+    public long getInstanteMs(int i) { return instantesMs[i]; }
+
+    /** @return Valor de la constante en la lectura {@code i} (0 = la más antigua). */
+    public int getValor(SignoVital signo, int i) { return valores[signo.ordinal()][i]; }
+
+    /**
+     * @return Resumen de la constante en la ventana, o null si está vacía.
+     */
+    public EstadisticaVentana estadistica(SignoVital signo) {
+        return EstadisticaVentana.calcular(signo, instantesMs, valores[signo.ordinal()], 0, instantesMs.length);
+    }
+
+    /**
+     * @return La lectura más reciente, o null si la ventana está vacía.
+     */
+    public VitalSigns ultima() {
+        if (isEmpty()) return null;
+        int i = instantesMs.length - 1;
+        return new VitalSigns(valores[SignoVital.RITMO_CARDIACO.ordinal()][i], valores[SignoVital.SPO2.ordinal()][i],
+                valores[SignoVital.SISTOLICA.ordinal()][i], valores[SignoVital.DIASTOLICA.ordinal()][i]);
+    }
+
+    /**
+     * Escribe el resumen de la ventana ({@link #toString()}) en {@code sb} sin reservar memoria.
+     * @return {@code sb}.
+     */
+    public StringBuilder escribir(StringBuilder sb) {
+        if (isEmpty()) return sb.append("Sin lecturas");
+        sb.append(size()).append(" lecturas en ").append(duracionMs / 1000).append(" s");
+        for (SignoVital signo : SIGNOS) {
+            EstadisticaVentana.escribir(sb.append(" | "), signo, instantesMs, valores[signo.ordinal()], 0, size());
+        }
+        return sb;
+    }
+
+    @Override
+    public String toString() {
+        if (resumen == null) resumen = escribir(new StringBuilder(160)).toString();
+        return resumen;
+    }
+}
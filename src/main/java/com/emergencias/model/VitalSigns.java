@@ -26,9 +26,43 @@ public class VitalSigns {
         System.out.println("💗 [HARDWARE] Sensores biométricos leídos correctamente.");
     }
 
+    /**
+     * Lectura con valores conocidos, p. ej. la última muestra del flujo continuo de un usuario.
+     */
+    public VitalSigns(int ritmoCardiaco, int nivelOxigeno, int presionSistolica, int presionDiastolica) {
+        this.ritmoCardiaco = ritmoCardiaco;
+        this.nivelOxigeno = nivelOxigeno;
+        this.presionSistolica = presionSistolica;
+        this.presionDiastolica = presionDiastolica;
+    }
+
+    public int getRitmoCardiaco() { return ritmoCardiaco; }
+    public int getNivelOxigeno() { return nivelOxigeno; }
+    public int getPresionSistolica() { return presionSistolica; }
+    public int getPresionDiastolica() { return presionDiastolica; }
+
+    /**
+     * @return Valor de la constante indicada en esta lectura.
+     */
+    public int valor(SignoVital signo) {
+        switch (signo) {
+            case RITMO_CARDIACO: return ritmoCardiaco;
+            case SPO2: return nivelOxigeno;
+            case SISTOLICA: return presionSistolica;
+            default: return presionDiastolica;
+        }
+    }
+
+    /**
+     * Escribe la lectura en el búfer con el formato de {@link #toString()}, sin crear cadenas intermedias.
+     */
+    public StringBuilder escribir(StringBuilder sb) {
+        return sb.append("[HR: ").append(ritmoCardiaco).append(" bpm | SpO2: ").append(nivelOxigeno)
+                .append("% | PA: ").append(presionSistolica).append('/').append(presionDiastolica).append(']');
+    }
+
     @Override
     public String toString() {
-        return String.format("[HR: %d bpm | SpO2: %d%% | PA: %d/%d]",
-                ritmoCardiaco, nivelOxigeno, presionSistolica, presionDiastolica);
+        return escribir(new StringBuilder(48)).toString();
     }
 }
\ No newline at end of file
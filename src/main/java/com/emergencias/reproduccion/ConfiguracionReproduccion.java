@@ -0,0 +1,95 @@
+package main.java.com.emergencias.reproduccion;
+
+import java.util.Locale;
+
+/**
+ * Parámetros de una reproducción del log de alertas con {@link ReproductorLog}: velocidad del
+ * reloj simulado, número de pasadas por el log y hueco máximo entre dos alertas consecutivas.
+ *
+ * Los logs reales tienen huecos de días entre rachas de alertas; con el hueco máximo se
+ * comprimen para que una reproducción a velocidad original no se quede horas parada.
+ */
+public class ConfiguracionReproduccion {
+
+    /** Plazo de confirmación del detector en producción, antes de escalar un disparo automático. */
+    public static final long PLAZO_CONFIRMACION_MS = 10_000;
+    public static final long HUECO_MAXIMO_POR_DEFECTO_MS = 60_000;
+    /** Hueco simulado entre el final de una pasada por el log y el principio de la siguiente. */
+    public static final long HUECO_ENTRE_PASADAS_MS = 1_000;
+
+    private final double velocidad;
+    private final int repeticiones;
+    private final long huecoMaximoMs;
+
+    private ConfiguracionReproduccion(double velocidad, int repeticiones, long huecoMaximoMs) {
+        if (!(velocidad > 0) || repeticiones <= 0 || huecoMaximoMs < 0) {
+            throw new IllegalArgumentException("Velocidad y repeticiones deben ser positivas y el hueco máximo no negativo.");
+        }
+        this.velocidad = velocidad;
+        this.repeticiones = repeticiones;
+        this.huecoMaximoMs = huecoMaximoMs;
+    }
+
+    /** @return Reproducción al ritmo del log (con los huecos largos comprimidos). */
+    public static ConfiguracionReproduccion original() {
+        return escalada(1);
+    }
+
+    /**
+     * @param factor Tiempo del log que pasa por cada unidad de tiempo real (60 = un minuto por segundo).
+     */
+    public static ConfiguracionReproduccion escalada(double factor) {
+        return new ConfiguracionReproduccion(factor, 1, HUECO_MAXIMO_POR_DEFECTO_MS);
+    }
+
+    /** @return Reproducción sin esperas: cada evento se entrega en cuanto el motor lo acepta. */
+    public static ConfiguracionReproduccion maxima() {
+        return escalada(Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Interpreta la velocidad tal y como se escribe en la consola: "original", "max" o un
+     * factor como "x60" o "60".
+     */
+    public static ConfiguracionReproduccion parsear(String velocidad) {
+        String v = velocidad.trim().toLowerCase(Locale.ROOT);
+        if (v.equals("original")) return original();
+        if (v.equals("max") || v.equals("maxima")) return maxima();
+        try {
+            return escalada(Double.parseDouble(v.startsWith("x") ? v.substring(1) : v));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Velocidad no válida: " + velocidad + " (original, max o xN).");
+        }
+    }
+
+    /** @return Copia de esta configuración que recorre el log varias veces seguidas. */
+    public ConfiguracionReproduccion conRepeticiones(int repeticiones) {
+        return new ConfiguracionReproduccion(velocidad, repeticiones, huecoMaximoMs);
+    }
+
+    /** @return Copia de esta configuración con otro hueco máximo (tiempo del log) entre alertas. */
+    public ConfiguracionReproduccion conHuecoMaximoMs(long huecoMaximoMs) {
+        return new ConfiguracionReproduccion(velocidad, repeticiones, huecoMaximoMs);
+    }
+
+    public double getVelocidad() { return velocidad; }
+    public boolean esVelocidadMaxima() { return velocidad == Double.POSITIVE_INFINITY; }
+    public int getRepeticiones() { return repeticiones; }
+    public long getHuecoMaximoMs() { return huecoMaximoMs; }
+
+    /**
+     * @return Plazo real de confirmación del detector: el de producción a la velocidad de la
+     *         reproducción, para que los disparos sin respuesta venzan en su instante simulado.
+     */
+    public long getPlazoConfirmacionMs() {
+        return Math.max(1, (long) (PLAZO_CONFIRMACION_MS / velocidad));
+    }
+
+    @Override
+    public String toString() {
+        String ritmo = esVelocidadMaxima() ? "velocidad máxima" : velocidad == 1 ? "velocidad original"
+                : String.format(Locale.ROOT, "x%s", velocidad == Math.rint(velocidad)
+                        ? String.valueOf((long) velocidad) : String.valueOf(velocidad));
+        return ritmo + ", " + repeticiones + " pasada(s)";
+    }
+}
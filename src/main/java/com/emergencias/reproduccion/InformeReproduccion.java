@@ -0,0 +1,73 @@
+package main.java.com.emergencias.reproduccion;
+
+import main.java.com.emergencias.controller.EstadoEvento;
+import main.java.com.emergencias.metricas.HistogramaLatencia;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Resultado de una reproducción del log: cuántos eventos terminaron en cada estado final,
+ * rendimiento y distribución de latencias.
+ *
+ * Se guardan dos latencias por evento. La de servicio va desde que el motor recibe el disparo
+ * hasta el acuse del despacho. La programada se mide desde el instante en que el evento debía
+ * entrar según el reloj simulado: si el motor frena al reproductor con su contrapresión, el
+ * tiempo que los eventos esperan para entrar aparece aquí y no se pierde (omisión coordinada).
+ */
+public class InformeReproduccion {
+
+    private final int eventos;
+    private final Map<EstadoEvento, Long> terminados;
+    private final long nanosReales;
+    private final long nanosSimulados;
+    private final long retrasoMaximoNanos;
+    private final HistogramaLatencia.Instantanea latenciaServicio;
+    private final HistogramaLatencia.Instantanea latenciaProgramada;
+
+    InformeReproduccion(int eventos, Map<EstadoEvento, Long> terminados, long nanosReales, long nanosSimulados,
+                        long retrasoMaximoNanos, HistogramaLatencia.Instantanea latenciaServicio,
+                        HistogramaLatencia.Instantanea latenciaProgramada) {
+        this.eventos = eventos;
+        this.terminados = new EnumMap<>(terminados);
+        this.nanosReales = nanosReales;
+        this.nanosSimulados = nanosSimulados;
+        this.retrasoMaximoNanos = retrasoMaximoNanos;
+        this.latenciaServicio = latenciaServicio;
+        this.latenciaProgramada = latenciaProgramada;
+    }
+
+    /** @return Eventos entregados al motor (líneas del log por el número de pasadas). */
+    public int getEventos() { return eventos; }
+
+    /** @return Eventos que terminaron en el estado final indicado. */
+    public long getTerminados(EstadoEvento estadoFinal) {
+        return terminados.getOrDefault(estadoFinal, 0L);
+    }
+
+    /** @return Duración real desde el primer evento programado hasta el último acuse. */
+    public long getNanosReales() { return nanosReales; }
+
+    /** @return Tiempo del log reproducido, con los huecos ya comprimidos. */
+    public long getNanosSimulados() { return nanosSimulados; }
+
+    /** @return Mayor retraso con el que se entregó un evento respecto a su instante programado. */
+    public long getRetrasoMaximoNanos() { return retrasoMaximoNanos; }
+
+    public double getEventosPorSegundo() {
+        return nanosReales == 0 ? 0 : eventos * 1e9 / nanosReales;
+    }
+
+    /** @return Latencia de servicio: del disparo recibido por el motor al acuse del despacho. */
+    public HistogramaLatencia.Instantanea getLatenciaServicio() { return latenciaServicio; }
+
+    /** @return Latencia desde el instante programado del evento hasta su acuse. */
+    public HistogramaLatencia.Instantanea getLatenciaProgramada() { return latenciaProgramada; }
+
+    @Override
+    public String toString() {
+        return String.format("%d eventos en %.1f ms (%.1f eventos/s), p50 %.2f ms, p99 %.2f ms",
+                eventos, nanosReales / 1e6, getEventosPorSegundo(), latenciaProgramada.percentil(50) / 1e6,
+                latenciaProgramada.percentil(99) / 1e6);
+    }
+}
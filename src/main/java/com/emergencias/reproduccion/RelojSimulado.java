@@ -0,0 +1,64 @@
+package main.java.com.emergencias.reproduccion;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reloj de una reproducción: traduce instantes simulados (nanosegundos desde la primera alerta
+ * del log) a instantes reales de {@link System#nanoTime()} según la velocidad.
+ *
+ * Con velocidad 1 el log se reproduce a su ritmo original; con velocidad 60, un minuto del log
+ * pasa en un segundo. A velocidad máxima no se espera nunca: el tiempo simulado salta al
+ * instante de cada evento en cuanto se le pide.
+ *
+ * Lo usa solo el hilo que programa los eventos.
+ */
+public class RelojSimulado {
+
+    private static final long ESPERA_ACTIVA_NANOS = 200_000; // Último tramo sin dormir: parkNanos se pasa de largo
+
+    private final double velocidad;
+    private final long origenNanos;
+    private long alcanzadoNanos;
+
+    /**
+     * Arranca el reloj en el instante simulado 0.
+     * @param velocidad Tiempo simulado por unidad de tiempo real; {@link Double#POSITIVE_INFINITY} para no esperar.
+     */
+    public RelojSimulado(double velocidad) {
+        if (!(velocidad > 0)) throw new IllegalArgumentException("La velocidad debe ser positiva.");
+        this.velocidad = velocidad;
+        this.origenNanos = System.nanoTime();
+    }
+
+    public boolean esVelocidadMaxima() {
+        return velocidad == Double.POSITIVE_INFINITY;
+    }
+
+    public double getVelocidad() { return velocidad; }
+
+    /** @return Instante simulado actual. */
+    public long ahoraNanos() {
+        if (esVelocidadMaxima()) return alcanzadoNanos;
+        return (long) ((System.nanoTime() - origenNanos) * velocidad);
+    }
+
+    /**
+     * Espera hasta el instante simulado indicado (no espera si ya ha pasado).
+     * @return Instante real ({@link System#nanoTime()}) en el que estaba programado, aunque se
+     *         llegue tarde; a velocidad máxima, el momento en que se alcanza.
+     */
+    public long esperarHasta(long simuladoNanos) throws InterruptedException {
+        if (esVelocidadMaxima()) {
+            alcanzadoNanos = Math.max(alcanzadoNanos, simuladoNanos);
+            return System.nanoTime();
+        }
+        long programado = origenNanos + (long) (simuladoNanos / velocidad);
+        long restante;
+        while ((restante = programado - System.nanoTime()) > 0) {
+            if (Thread.interrupted()) throw new InterruptedException();
+            if (restante > ESPERA_ACTIVA_NANOS) LockSupport.parkNanos(restante - ESPERA_ACTIVA_NANOS);
+            else Thread.onSpinWait();
+        }
+        return programado;
+    }
+}
@@ -0,0 +1,315 @@
+package main.java.com.emergencias.reproduccion;
+
+import main.java.com.emergencias.alert.AlertLogQuery;
+import main.java.com.emergencias.alert.AlertSender;
+import main.java.com.emergencias.alert.ConfiguracionPipeline;
+import main.java.com.emergencias.alert.LineaLogAlerta;
+import main.java.com.emergencias.contactos.CanalLocalSimulado;
+import main.java.com.emergencias.contactos.NotificadorContactos;
+import main.java.com.emergencias.controller.CentroSaludLoader;
+import main.java.com.emergencias.controller.EstadoEvento;
+import main.java.com.emergencias.controller.MotorEmergencias;
+import main.java.com.emergencias.controller.RegistroUsuarios;
+import main.java.com.emergencias.controller.SnapshotBinario;
+import main.java.com.emergencias.detector.CanalConsola;
+import main.java.com.emergencias.detector.EmergencyDetector;
+import main.java.com.emergencias.detector.TemporizadorConfirmaciones;
+import main.java.com.emergencias.geo.CentroSaludIndex;
+import main.java.com.emergencias.metricas.FaseAlerta;
+import main.java.com.emergencias.metricas.HistogramaLatencia;
+import main.java.com.emergencias.metricas.RegistroMetricas;
+import main.java.com.emergencias.model.CanalContacto;
+import main.java.com.emergencias.model.EventoDispositivo;
+import main.java.com.emergencias.model.UserData;
+import main.java.com.emergencias.model.VitalSigns;
+import main.java.com.emergencias.vitales.MonitorVitales;
+import main.java.com.emergencias.vitales.ReglaAnomalia;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reproduce un log de alertas existente ({@code alertas_log.txt}) contra la ruta completa de
+ * producción: cada línea vuelve a ser un disparo de dispositivo que el {@link MotorEmergencias}
+ * lleva por detección, signos vitales y envío con el {@link AlertSender}. Es una prueba de carga
+ * repetible con datos reales, sin pasar por el menú interactivo.
+ *
+ * Cada alerta entra en su instante del log según un {@link RelojSimulado}: a velocidad original,
+ * escalada o máxima. Las líneas marcadas "(TIMEOUT)" se reproducen como activaciones del sensor
+ * sin respuesta, así que vuelven a vencer en el detector, con el plazo escalado a la misma
+ * velocidad; las demás, como pulsaciones manuales confirmadas. Los signos vitales de la línea,
+ * si los tiene, se publican en el monitor justo antes del disparo.
+ *
+ * Los usuarios se buscan por nombre (sin tildes ni mayúsculas) en el registro; los que no
+ * existen se dan de alta con un perfil sintético en la ubicación que indique la línea. Las
+ * alertas se escriben en un log aparte, nunca en el de producción.
+ */
+public class ReproductorLog implements AutoCloseable {
+
+    public static final Path RUTA_SALIDA_POR_DEFECTO = Paths.get("reproduccion", "alertas_reproduccion.txt");
+
+    private static final String MARCA_VENCIDA = "(TIMEOUT)";
+    private static final String TIPO_INDEFINIDO = "Indefinido";
+    private static final String PREFIJO_SINTETICO = "reproduccion-";
+    private static final Pattern VITALES = Pattern.compile(
+            "HR: (\\d+) bpm \\| SpO2: (\\d+)% \\| PA: (\\d+)/(\\d+)");
+    private static final Pattern UBICACION_DECIMAL = Pattern.compile(
+            "^(-?\\d+(?:[.,]\\d+)?),\\s*(-?\\d+(?:[.,]\\d+)?)");
+    private static final Pattern UBICACION_SEXAGESIMAL = Pattern.compile(
+            "(\\d+)°(\\d+)'([\\d.]+)\"([NS])\\s+(\\d+)°(\\d+)'([\\d.]+)\"([EW])");
+
+    private final RegistroUsuarios usuarios;
+    private final ConfiguracionReproduccion config;
+    private final MonitorVitales vitales = new MonitorVitales();
+    private final AlertSender sender;
+    private final MotorEmergencias motor;
+    private final Map<String, String> idPorNombre = new HashMap<>();
+    private int sinteticos;
+
+    /**
+     * @param usuarios Registro donde se resuelven los usuarios del log (se le añaden los sintéticos).
+     * @param indice Índice de los centros de salud para la detección.
+     * @param rutaSalida Log donde se escriben las alertas reproducidas.
+     * @param config Velocidad, pasadas y compresión de huecos.
+     */
+    public ReproductorLog(RegistroUsuarios usuarios, CentroSaludIndex indice, Path rutaSalida,
+                          ConfiguracionReproduccion config) {
+        this.usuarios = usuarios;
+        this.config = config;
+        for (UserData perfil : usuarios.perfiles()) idPorNombre.putIfAbsent(normalizarNombre(perfil.getNombre()), perfil.getId());
+
+        EmergencyDetector detector = new EmergencyDetector(() -> indice, new CanalConsola(),
+                TemporizadorConfirmaciones.global(), config.getPlazoConfirmacionMs());
+        // Los contactos también esperan su latencia típica a la velocidad del reloj simulado
+        Map<CanalContacto, Long> latencias = new EnumMap<>(CanalContacto.class);
+        CanalLocalSimulado.latenciasPorDefecto().forEach((canal, ms) -> latencias.put(canal, (long) (ms / config.getVelocidad())));
+        this.sender = new AlertSender("112", ConfiguracionPipeline.porDefecto().sinTrazasConsola(), rutaSalida, null,
+                new NotificadorContactos(new CanalLocalSimulado(latencias, false)));
+        this.motor = new MotorEmergencias(usuarios, detector, sender, vitales, MotorEmergencias.configuracionPorDefecto());
+    }
+
+    /**
+     * Lee las alertas de un log en orden cronológico. Las líneas que no tienen el formato del
+     * log se saltan.
+     */
+    public static List<LineaLogAlerta> leer(Path log) throws IOException {
+        List<LineaLogAlerta> lineas = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(log, StandardCharsets.UTF_8)) {
+            String linea;
+            long numero = 0;
+            while ((linea = in.readLine()) != null) {
+                LineaLogAlerta analizada = LineaLogAlerta.parsear(linea, numero++);
+                if (analizada != null) lineas.add(analizada);
+            }
+        }
+        lineas.sort(Comparator.comparing(LineaLogAlerta::getTimestamp)); // Estable: a igual segundo, orden del fichero
+        return lineas;
+    }
+
+    /**
+     * Disparo que reproduce una línea del log.
+     * @param idUsuario ID del usuario ya resuelto.
+     */
+    public static EventoDispositivo disparo(LineaLogAlerta linea, String idUsuario) {
+        String tipo = linea.getTipo().trim();
+        if (!tipo.endsWith(MARCA_VENCIDA)) return EventoDispositivo.manual(idUsuario, tipo, "S");
+        String base = tipo.substring(0, tipo.length() - MARCA_VENCIDA.length()).trim();
+        // El detector anota "Indefinido" cuando no llegó a saber el tipo: se vuelve a dejar sin él
+        return EventoDispositivo.sensor(idUsuario, ReglaAnomalia.UMBRAL_IMPACTO,
+                base.isEmpty() || base.equalsIgnoreCase(TIPO_INDEFINIDO) ? null : base, null);
+    }
+
+    /**
+     * @return Signos vitales anotados en la línea o null si no los tiene.
+     */
+    public static VitalSigns vitales(LineaLogAlerta linea) {
+        if (linea.getVitales() == null) return null;
+        Matcher m = VITALES.matcher(linea.getVitales());
+        if (!m.find()) return null;
+        return new VitalSigns(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)),
+                Integer.parseInt(m.group(3)), Integer.parseInt(m.group(4)));
+    }
+
+    /**
+     * Busca el usuario de la línea por nombre y, si no existe, registra uno sintético.
+     * @return ID del usuario en el registro.
+     */
+    public String resolverUsuario(LineaLogAlerta linea) {
+        return idPorNombre.computeIfAbsent(normalizarNombre(linea.getUsuario()), clave -> {
+            double[] posicion = ubicacion(linea.getUbicacion());
+            String telefono;
+            do {
+                telefono = String.format("9%08d", ++sinteticos);
+            } while (usuarios.porTelefono(telefono) != null);
+            UserData perfil = usuarios.registrar(new UserData(PREFIJO_SINTETICO + sinteticos, linea.getUsuario().trim(),
+                    telefono, "Perfil sintético de la reproducción", posicion == null ? null : posicion[0],
+                    posicion == null ? null : posicion[1]));
+            return perfil.getId();
+        });
+    }
+
+    /**
+     * Interpreta la ubicación de una línea: decimal ("38,2265, -1,6188") o sexagesimal
+     * ({@code 38°16'47.1"N 0°42'57.0"W}).
+     * @return Latitud y longitud o null si no se reconoce.
+     */
+    static double[] ubicacion(String texto) {
+        if (texto == null) return null;
+        Matcher m = UBICACION_DECIMAL.matcher(texto.trim());
+        if (m.find()) {
+            return new double[]{Double.parseDouble(m.group(1).replace(',', '.')), Double.parseDouble(m.group(2).replace(',', '.'))};
+        }
+        m = UBICACION_SEXAGESIMAL.matcher(texto);
+        if (!m.find()) return null;
+        double lat = Integer.parseInt(m.group(1)) + Integer.parseInt(m.group(2)) / 60.0 + Double.parseDouble(m.group(3)) / 3600;
+        double lon = Integer.parseInt(m.group(5)) + Integer.parseInt(m.group(6)) / 60.0 + Double.parseDouble(m.group(7)) / 3600;
+        return new double[]{m.group(4).equals("S") ? -lat : lat, m.group(8).equals("W") ? -lon : lon};
+    }
+
+    private static String normalizarNombre(String nombre) {
+        String sinTildes = Normalizer.normalize(nombre.trim(), Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return sinTildes.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Reproduce las alertas y espera a que todas terminen.
+     * @param lineas Alertas en orden cronológico (ver {@link #leer(Path)}).
+     */
+    public InformeReproduccion reproducir(List<LineaLogAlerta> lineas) throws InterruptedException {
+        int n = lineas.size();
+        String[] ids = new String[n];
+        VitalSigns[] lecturas = new VitalSigns[n];
+        long[] instantes = new long[n]; // Tiempo simulado de cada línea desde la primera, con los huecos comprimidos
+        long huecoMaximo = Duration.ofMillis(config.getHuecoMaximoMs()).toNanos();
+        for (int i = 0; i < n; i++) {
+            ids[i] = resolverUsuario(lineas.get(i));
+            lecturas[i] = vitales(lineas.get(i));
+            if (i > 0) {
+                long hueco = Duration.between(lineas.get(i - 1).getTimestamp(), lineas.get(i).getTimestamp()).toNanos();
+                instantes[i] = instantes[i - 1] + Math.min(hueco, huecoMaximo);
+            }
+        }
+        long pasada = n == 0 ? 0 : instantes[n - 1]
+                + Math.min(Duration.ofMillis(ConfiguracionReproduccion.HUECO_ENTRE_PASADAS_MS).toNanos(), huecoMaximo);
+
+        int total = n * config.getRepeticiones();
+        HistogramaLatencia servicio = new HistogramaLatencia();
+        HistogramaLatencia programada = new HistogramaLatencia();
+        Map<EstadoEvento, LongAdder> finales = new EnumMap<>(EstadoEvento.class);
+        for (EstadoEvento estado : EstadoEvento.values()) {
+            if (estado.esFinal()) finales.put(estado, new LongAdder());
+        }
+        CountDownLatch pendientes = new CountDownLatch(total);
+        LongAccumulator ultimoAcuse = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        long retrasoMaximo = 0;
+
+        RelojSimulado reloj = new RelojSimulado(config.getVelocidad());
+        long inicio = System.nanoTime();
+        for (int r = 0; r < config.getRepeticiones(); r++) {
+            for (int i = 0; i < n; i++) {
+                long programado = reloj.esperarHasta(r * pasada + instantes[i]);
+                retrasoMaximo = Math.max(retrasoMaximo, System.nanoTime() - programado);
+                if (lecturas[i] != null) vitales.registrar(ids[i], System.currentTimeMillis(), lecturas[i]);
+                motor.procesar(disparo(lineas.get(i), ids[i])).thenAccept(resultado -> {
+                    long fin = System.nanoTime();
+                    servicio.registrar(resultado.getLatenciaNanos());
+                    programada.registrar(fin - programado);
+                    finales.get(resultado.getEstado()).increment();
+                    ultimoAcuse.accumulate(fin);
+                    pendientes.countDown();
+                });
+            }
+        }
+        pendientes.await();
+
+        Map<EstadoEvento, Long> terminados = new EnumMap<>(EstadoEvento.class);
+        finales.forEach((estado, contador) -> terminados.put(estado, contador.sum()));
+        long simulados = n == 0 ? 0 : (config.getRepeticiones() - 1) * pasada + instantes[n - 1];
+        return new InformeReproduccion(total, terminados, total == 0 ? 0 : ultimoAcuse.get() - inicio, simulados,
+                retrasoMaximo, servicio.instantanea(), programada.instantanea());
+    }
+
+    /**
+     * Espera a que terminen los eventos aceptados y cierra el emisor de alertas.
+     */
+    @Override
+    public void close() {
+        motor.close();
+        sender.cerrar(10);
+    }
+
+    // --- REPRODUCCIÓN DESDE CONSOLA ---
+
+    /**
+     * Reproduce el log y muestra el rendimiento y los percentiles de latencia:
+     * <pre>
+     *   ReproductorLog [original|max|xN] [repeticiones] [alertas_log.txt]
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        ConfiguracionReproduccion config = ConfiguracionReproduccion.parsear(args.length > 0 ? args[0] : "max")
+                .conRepeticiones(args.length > 1 ? Integer.parseInt(args[1]) : 1);
+        Path log = args.length > 2 ? Paths.get(args[2]) : AlertLogQuery.RUTA_LOG;
+
+        List<LineaLogAlerta> lineas = leer(log);
+        if (lineas.isEmpty()) {
+            System.out.println("❌ No hay alertas que reproducir en " + log);
+            return;
+        }
+        RegistroUsuarios usuarios = new RegistroUsuarios();
+        usuarios.cargarJson(SnapshotBinario.RUTA_USUARIOS);
+        CentroSaludIndex indice = CentroSaludIndex.construir(new CentroSaludLoader().cargarCatalogo());
+        Files.createDirectories(RUTA_SALIDA_POR_DEFECTO.getParent());
+        Files.deleteIfExists(RUTA_SALIDA_POR_DEFECTO);
+
+        System.out.printf("▶️ Reproduciendo %d alertas de %s (%s)...%n", lineas.size(), log, config);
+        InformeReproduccion informe;
+        try (ReproductorLog reproductor = new ReproductorLog(usuarios, indice, RUTA_SALIDA_POR_DEFECTO, config)) {
+            informe = reproductor.reproducir(lineas);
+        }
+
+        System.out.printf("⏱️ %d eventos en %.1f ms reales (%.1f s del log): %.1f eventos/s.%n", informe.getEventos(),
+                informe.getNanosReales() / 1e6, informe.getNanosSimulados() / 1e9, informe.getEventosPorSegundo());
+        for (EstadoEvento estado : EstadoEvento.values()) {
+            if (informe.getTerminados(estado) > 0) System.out.printf("   %-16s %d%n", estado, informe.getTerminados(estado));
+        }
+        if (!config.esVelocidadMaxima()) {
+            System.out.printf("⚠️ Mayor retraso respecto al reloj simulado: %.2f ms.%n", informe.getRetrasoMaximoNanos() / 1e6);
+        }
+        imprimirLatencia("Desde el instante programado", informe.getLatenciaProgramada());
+        imprimirLatencia("Servicio (disparo → acuse)", informe.getLatenciaServicio());
+
+        System.out.printf("%n%-20s %8s %10s %10s %10s%n", "Fase", "Total", "p50 ms", "p99 ms", "Máx ms");
+        for (FaseAlerta fase : FaseAlerta.values()) {
+            HistogramaLatencia.Instantanea h = RegistroMetricas.global().getFase(fase);
+            if (h.getTotal() == 0) continue;
+            System.out.printf("%-20s %8d %10.2f %10.2f %10.2f%n", fase.getClave(), h.getTotal(),
+                    h.percentil(50) / 1e6, h.percentil(99) / 1e6, h.getMaximoNanos() / 1e6);
+        }
+        System.out.println("📄 Alertas reproducidas en " + RUTA_SALIDA_POR_DEFECTO);
+    }
+
+    private static void imprimirLatencia(String titulo, HistogramaLatencia.Instantanea h) {
+        System.out.printf("📊 %s: p50 %.2f ms, p90 %.2f, p99 %.2f, p99,9 %.2f, máx %.2f ms.%n", titulo,
+                h.percentil(50) / 1e6, h.percentil(90) / 1e6, h.percentil(99) / 1e6, h.percentil(99.9) / 1e6,
+                h.getMaximoNanos() / 1e6);
+    }
+}
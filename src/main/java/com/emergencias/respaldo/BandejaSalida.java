@@ -0,0 +1,473 @@
+package main.java.com.emergencias.respaldo;
+
+import main.java.com.emergencias.model.IdEvento;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Bandeja de salida del respaldo en la nube: registro de escritura anticipada (WAL) en disco
+ * donde cada alerta queda anotada antes de intentar subirla. Si el proceso cae a mitad de una
+ * subida, al volver a abrir la bandeja se reenvía todo lo que no llegó a confirmarse.
+ *
+ * Los registros se añaden a segmentos {@code bandeja.NNNNNN.wal} con el formato
+ * {@code [longitud][crc32c][id 16 B][datos]}. {@link #anotar} vuelve cuando el registro está en
+ * disco; los escritores concurrentes comparten el {@code force} (confirmación en grupo). El lector
+ * ({@link ClienteRespaldo}) recorre los registros ya forzados con {@link #leer} y, cuando el
+ * servidor acepta un lote, guarda la posición alcanzada con {@link #confirmar}: los segmentos
+ * anteriores se borran. La posición se guarda después del acuse, así que tras una caída un lote
+ * puede reenviarse: el servidor descarta los duplicados por ID de evento.
+ *
+ * Al abrirla se valida el segmento vivo y se trunca la cola de un registro a medio escribir.
+ * Admite un único lector.
+ */
+public class BandejaSalida implements AutoCloseable {
+
+    /** Directorio de la bandeja del proceso. */
+    public static final String DIRECTORIO_POR_DEFECTO = "respaldo";
+    public static final long BYTES_SEGMENTO_POR_DEFECTO = 8L * 1024 * 1024;
+
+    static final int CABECERA = 24; // longitud (4) + crc32c (4) + id (16)
+    private static final String FICHERO_CONFIRMADA = "bandeja.confirmada";
+    private static final Pattern PATRON_SEGMENTO = Pattern.compile("bandeja\\.(\\d{6,})\\.wal");
+    private static final ThreadLocal<ByteBuffer> TRAMAS = ThreadLocal.withInitial(() -> ByteBuffer.allocate(4096));
+    private static final ThreadLocal<CRC32C> CRC = ThreadLocal.withInitial(CRC32C::new);
+
+    /**
+     * Posición de un registro en la bandeja: segmento y desplazamiento dentro de él.
+     */
+    public static final class Posicion implements Comparable<Posicion> {
+        private final int segmento;
+        private final long desplazamiento;
+
+        Posicion(int segmento, long desplazamiento) {
+            this.segmento = segmento;
+            this.desplazamiento = desplazamiento;
+        }
+
+        public int getSegmento() { return segmento; }
+        public long getDesplazamiento() { return desplazamiento; }
+
+        @Override
+        public int compareTo(Posicion otra) {
+            int c = Integer.compare(segmento, otra.segmento);
+            return c != 0 ? c : Long.compare(desplazamiento, otra.desplazamiento);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Posicion && compareTo((Posicion) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * segmento + Long.hashCode(desplazamiento);
+        }
+
+        @Override
+        public String toString() {
+            return segmento + ":" + desplazamiento;
+        }
+    }
+
+    /**
+     * Recibe cada registro leído. Los datos solo son válidos durante la llamada.
+     */
+    @FunctionalInterface
+    public interface LectorRegistros {
+        void registro(IdEvento id, ByteBuffer datos) throws IOException;
+    }
+
+    private final Path directorio;
+    private final long bytesSegmento;
+    private final LongAdder anotadas = new LongAdder();
+
+    // Escritura (bajo lock)
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileChannel canal;
+    private int segmentoVivo;
+    private long finEscrito;
+    private long secuenciaEscrita;
+    private volatile boolean cerrada;
+
+    // Forzado a disco y espera del lector (bajo cerrojoForzado; se toma antes que lock)
+    private final Object cerrojoForzado = new Object();
+    private long secuenciaForzada;
+    private Posicion durable;
+    private volatile Posicion confirmada;
+
+    // Estado del único lector
+    private FileChannel canalLectura;
+    private int segmentoLectura = -1;
+    private ByteBuffer bufferLectura = ByteBuffer.allocate(64 * 1024);
+
+    /**
+     * Bandeja con segmentos del tamaño por defecto.
+     * @param directorio Directorio de la bandeja (se crea si no existe).
+     */
+    public BandejaSalida(Path directorio) throws IOException {
+        this(directorio, BYTES_SEGMENTO_POR_DEFECTO);
+    }
+
+    /**
+     * Abre (o crea) la bandeja y recupera su estado tras una parada o una caída.
+     * @param directorio Directorio de la bandeja (se crea si no existe).
+     * @param bytesSegmento Tamaño a partir del cual se empieza un segmento nuevo.
+     */
+    public BandejaSalida(Path directorio, long bytesSegmento) throws IOException {
+        if (bytesSegmento <= CABECERA) throw new IllegalArgumentException("El tamaño de segmento es demasiado pequeño.");
+        this.directorio = directorio;
+        this.bytesSegmento = bytesSegmento;
+        Files.createDirectories(directorio);
+
+        TreeMap<Integer, Path> segmentos = segmentos();
+        Posicion guardada = leerConfirmada();
+        int primero = segmentos.isEmpty() ? 1 : segmentos.firstKey();
+        confirmada = guardada != null && guardada.segmento >= primero ? guardada : new Posicion(primero, 0);
+
+        // Segmentos ya confirmados cuyo borrado no llegó a hacerse
+        for (Integer n : segmentos.headMap(confirmada.segmento).keySet()) Files.deleteIfExists(rutaSegmento(n));
+        segmentoVivo = segmentos.isEmpty() ? confirmada.segmento : Math.max(segmentos.lastKey(), confirmada.segmento);
+
+        canal = FileChannel.open(rutaSegmento(segmentoVivo), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        finEscrito = finValido(canal);
+        if (finEscrito < canal.size()) {
+            System.err.printf("⚠️ Bandeja de salida: descartados %d bytes de un registro incompleto.\n",
+                    canal.size() - finEscrito);
+            canal.truncate(finEscrito);
+            canal.force(false);
+        }
+        canal.position(finEscrito);
+        durable = new Posicion(segmentoVivo, finEscrito);
+        if (confirmada.segmento == segmentoVivo && confirmada.desplazamiento > finEscrito) {
+            confirmada = durable;
+        }
+    }
+
+    /**
+     * Anota un registro y espera a que esté en disco.
+     * @param id Evento al que pertenece (clave de idempotencia en el servidor).
+     * @param datos Bytes restantes del búfer; se consumen.
+     * @throws IOException si no se pudo escribir o forzar a disco.
+     */
+    public void anotar(IdEvento id, ByteBuffer datos) throws IOException {
+        int longitud = datos.remaining();
+        if (CABECERA + longitud > bytesSegmento) {
+            throw new IllegalArgumentException("El registro no cabe en un segmento de la bandeja.");
+        }
+        ByteBuffer trama = trama(CABECERA + longitud);
+        trama.putInt(longitud).putInt(0);
+        id.escribir(trama);
+        trama.put(datos);
+        CRC32C crc = CRC.get();
+        crc.reset();
+        crc.update(trama.array(), 8, trama.position() - 8);
+        trama.putInt(4, (int) crc.getValue());
+        trama.flip();
+
+        long secuencia;
+        lock.lock();
+        try {
+            if (cerrada) throw new IllegalStateException("La bandeja de salida está cerrada.");
+            if (finEscrito > 0 && finEscrito + trama.remaining() > bytesSegmento) rotar();
+            long inicio = finEscrito;
+            try {
+                while (trama.hasRemaining()) canal.write(trama);
+            } catch (IOException e) {
+                // No se deja media trama: los registros posteriores quedarían ilegibles
+                canal.truncate(inicio);
+                canal.position(inicio);
+                throw e;
+            }
+            finEscrito = inicio + CABECERA + longitud;
+            secuencia = ++secuenciaEscrita;
+        } finally {
+            lock.unlock();
+        }
+        forzar(secuencia);
+        anotadas.increment();
+    }
+
+    /**
+     * Fuerza a disco todo lo escrito hasta la secuencia indicada. Un solo escritor hace el
+     * {@code force}; los que llegan mientras tanto encuentran su registro ya cubierto.
+     */
+    private void forzar(long secuencia) throws IOException {
+        synchronized (cerrojoForzado) {
+            if (secuenciaForzada >= secuencia) return;
+            FileChannel c;
+            Posicion fin;
+            long hasta;
+            lock.lock();
+            try {
+                c = canal;
+                fin = new Posicion(segmentoVivo, finEscrito);
+                hasta = secuenciaEscrita;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                c.force(false);
+            } catch (ClosedChannelException e) {
+                // Segmento sellado (o bandeja cerrada) entretanto: ya se forzó al cerrarlo
+            }
+            secuenciaForzada = hasta;
+            durable = fin;
+            cerrojoForzado.notifyAll();
+        }
+    }
+
+    /**
+     * Sella el segmento vivo (forzado y cerrado) y empieza el siguiente. Se llama con lock tomado.
+     */
+    private void rotar() throws IOException {
+        canal.force(false);
+        canal.close();
+        segmentoVivo++;
+        canal = FileChannel.open(rutaSegmento(segmentoVivo), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        finEscrito = 0;
+    }
+
+    /**
+     * Lee registros ya forzados a disco a partir de una posición.
+     * @param desde Posición del primer registro (p. ej. {@link #getConfirmada()}).
+     * @param maxRegistros Registros máximos a leer.
+     * @param maxBytes Bytes de datos a partir de los cuales se deja de leer.
+     * @param lector Recibe cada registro en orden.
+     * @return Posición siguiente al último registro leído (igual a {@code desde} si no había ninguno).
+     */
+    public Posicion leer(Posicion desde, int maxRegistros, int maxBytes, LectorRegistros lector) throws IOException {
+        Posicion limite;
+        synchronized (cerrojoForzado) {
+            limite = durable;
+        }
+        int segmento = desde.segmento;
+        long posicion = desde.desplazamiento;
+        int registros = 0;
+        long bytes = 0;
+        while (registros < maxRegistros && bytes < maxBytes && segmento <= limite.segmento) {
+            FileChannel c = canalLectura(segmento);
+            long fin = segmento < limite.segmento ? c.size() : limite.desplazamiento;
+            if (posicion >= fin) {
+                if (segmento == limite.segmento) break;
+                segmento++;
+                posicion = 0;
+                continue;
+            }
+
+            ByteBuffer b = bufferLectura;
+            b.clear();
+            b.limit((int) Math.min(b.capacity(), fin - posicion));
+            while (b.hasRemaining() && c.read(b, posicion + b.position()) >= 0) {
+                // Lectura posicional hasta llenar el tramo
+            }
+            b.flip();
+            while (b.remaining() >= CABECERA && registros < maxRegistros && bytes < maxBytes) {
+                int inicio = b.position();
+                int longitud = b.getInt(inicio);
+                if (b.remaining() < CABECERA + longitud) break;
+                b.position(inicio + 8);
+                IdEvento id = IdEvento.leer(b);
+                lector.registro(id, b.slice(inicio + CABECERA, longitud));
+                b.position(inicio + CABECERA + longitud);
+                registros++;
+                bytes += longitud;
+            }
+            if (b.position() == 0) {
+                // El registro no cabe en el búfer de lectura
+                bufferLectura = ByteBuffer.allocate(Integer.highestOneBit(CABECERA + b.getInt(0)) << 1);
+                continue;
+            }
+            posicion += b.position();
+        }
+        // Al final de un segmento sellado se pasa al siguiente, para que se pueda borrar al confirmar
+        if (segmento < limite.segmento && posicion >= canalLectura(segmento).size()) {
+            segmento++;
+            posicion = 0;
+        }
+        return new Posicion(segmento, posicion);
+    }
+
+    /**
+     * Espera a que haya registros forzados después de la posición.
+     * @return true si los hay; false si venció el plazo o la bandeja está cerrada.
+     */
+    public boolean esperarDatos(Posicion desde, long timeoutMs) throws InterruptedException {
+        long limite = System.currentTimeMillis() + timeoutMs;
+        synchronized (cerrojoForzado) {
+            while (durable.compareTo(desde) <= 0 && !cerrada) {
+                long restante = limite - System.currentTimeMillis();
+                if (restante <= 0) return false;
+                cerrojoForzado.wait(restante);
+            }
+            return durable.compareTo(desde) > 0;
+        }
+    }
+
+    /**
+     * Guarda la posición hasta la que el servidor ha aceptado los registros y borra los
+     * segmentos anteriores. Tras reabrir la bandeja, la lectura empieza aquí.
+     */
+    public void confirmar(Posicion hasta) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(16);
+        b.putInt(hasta.segmento).putLong(hasta.desplazamiento);
+        CRC32C crc = CRC.get();
+        crc.reset();
+        crc.update(b.array(), 0, 12);
+        b.putInt((int) crc.getValue());
+        b.flip();
+
+        Path temporal = directorio.resolve(FICHERO_CONFIRMADA + ".tmp");
+        try (FileChannel c = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (b.hasRemaining()) c.write(b);
+            c.force(true);
+        }
+        Files.move(temporal, directorio.resolve(FICHERO_CONFIRMADA), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        Posicion anterior = confirmada;
+        confirmada = hasta;
+
+        for (int n = anterior.segmento; n < hasta.segmento; n++) {
+            if (n == segmentoLectura) cerrarLectura();
+            Files.deleteIfExists(rutaSegmento(n));
+        }
+    }
+
+    private Posicion leerConfirmada() throws IOException {
+        try {
+            ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(directorio.resolve(FICHERO_CONFIRMADA)));
+            if (b.remaining() != 16) return null;
+            CRC32C crc = CRC.get();
+            crc.reset();
+            crc.update(b.array(), 0, 12);
+            Posicion p = new Posicion(b.getInt(), b.getLong());
+            return b.getInt() == (int) crc.getValue() ? p : null;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return Fin del último registro íntegro del segmento (longitud coherente y CRC correcto).
+     */
+    private long finValido(FileChannel c) throws IOException {
+        long tam = c.size();
+        long posicion = 0;
+        ByteBuffer cabecera = ByteBuffer.allocate(CABECERA);
+        ByteBuffer datos = ByteBuffer.allocate(4096);
+        CRC32C crc = CRC.get();
+        while (posicion + CABECERA <= tam) {
+            cabecera.clear();
+            while (cabecera.hasRemaining() && c.read(cabecera, posicion + cabecera.position()) >= 0) {
+                // Lectura posicional de la cabecera
+            }
+            int longitud = cabecera.getInt(0);
+            if (longitud < 0 || posicion + CABECERA + longitud > tam) break;
+            if (datos.capacity() < longitud) datos = ByteBuffer.allocate(longitud);
+            datos.clear().limit(longitud);
+            while (datos.hasRemaining() && c.read(datos, posicion + CABECERA + datos.position()) >= 0) {
+                // Lectura posicional de los datos
+            }
+            crc.reset();
+            crc.update(cabecera.array(), 8, 16);
+            crc.update(datos.array(), 0, longitud);
+            if (cabecera.getInt(4) != (int) crc.getValue()) break;
+            posicion += CABECERA + longitud;
+        }
+        return posicion;
+    }
+
+    private FileChannel canalLectura(int segmento) throws IOException {
+        if (segmento != segmentoLectura) {
+            cerrarLectura();
+            canalLectura = FileChannel.open(rutaSegmento(segmento), StandardOpenOption.READ);
+            segmentoLectura = segmento;
+        }
+        return canalLectura;
+    }
+
+    private void cerrarLectura() throws IOException {
+        if (canalLectura != null) canalLectura.close();
+        canalLectura = null;
+        segmentoLectura = -1;
+    }
+
+    private TreeMap<Integer, Path> segmentos() throws IOException {
+        TreeMap<Integer, Path> porNumero = new TreeMap<>();
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            for (Path p : (Iterable<Path>) ficheros::iterator) {
+                Matcher m = PATRON_SEGMENTO.matcher(p.getFileName().toString());
+                if (m.matches()) porNumero.put(Integer.parseInt(m.group(1)), p);
+            }
+        }
+        return porNumero;
+    }
+
+    private Path rutaSegmento(int n) {
+        return directorio.resolve(String.format("bandeja.%06d.wal", n));
+    }
+
+    private static ByteBuffer trama(int n) {
+        ByteBuffer b = TRAMAS.get();
+        if (b.capacity() < n) {
+            b = ByteBuffer.allocate(Integer.highestOneBit(n - 1) << 1);
+            TRAMAS.set(b);
+        }
+        b.clear();
+        return b;
+    }
+
+    public Path getDirectorio() { return directorio; }
+
+    /** @return Posición hasta la que el servidor ha aceptado los registros. */
+    public Posicion getConfirmada() { return confirmada; }
+
+    /** @return Posición siguiente al último registro forzado a disco. */
+    public Posicion getDurable() {
+        synchronized (cerrojoForzado) {
+            return durable;
+        }
+    }
+
+    /** @return Registros anotados desde la apertura. */
+    public long getAnotadas() { return anotadas.sum(); }
+
+    /**
+     * Fuerza y cierra el segmento vivo. Lo no confirmado se reenvía al volver a abrir la bandeja.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (cerrada) return;
+            cerrada = true;
+            canal.force(false);
+            canal.close();
+            cerrarLectura();
+        } catch (IOException e) {
+            System.err.println("⚠️ Error al cerrar la bandeja de salida: " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+        synchronized (cerrojoForzado) {
+            cerrojoForzado.notifyAll();
+        }
+    }
+}
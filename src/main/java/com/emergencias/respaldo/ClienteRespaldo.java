@@ -0,0 +1,262 @@
+package main.java.com.emergencias.respaldo;
+
+import main.java.com.emergencias.metricas.FaseAlerta;
+import main.java.com.emergencias.metricas.RegistroMetricas;
+import main.java.com.emergencias.model.IdEvento;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Sube a la nube el contenido de una {@link BandejaSalida} en lotes comprimidos.
+ *
+ * Un hilo de fondo espera a que haya registros en disco, deja que se acumulen durante
+ * {@link ConfiguracionRespaldo#getEsperaLoteMs()} (salvo que el lote anterior saliera lleno) y
+ * envía hasta {@link ConfiguracionRespaldo#getRegistrosPorLote()} alertas en un único POST con el
+ * cuerpo en gzip: una línea {@code <id>\t<línea del log>} por alerta. Así el coste de ida y vuelta
+ * se reparte entre todo el lote. Solo cuando el servidor responde 2xx se confirma la posición
+ * en la bandeja; si falla, se reintenta el mismo lote con espera exponencial y dispersión
+ * aleatoria, sin límite de intentos: ninguna alerta se descarta.
+ */
+public class ClienteRespaldo implements AutoCloseable {
+
+    private static final long ESPERA_DATOS_MS = 100; // Cadencia con la que se revisa el cierre
+    private static final int LONGITUD_ID = 36;
+
+    private final BandejaSalida bandeja;
+    private final ConfiguracionRespaldo config;
+    private final HttpClient http;
+    private final RegistroMetricas metricas = RegistroMetricas.global();
+    private final LongAdder lotes = new LongAdder();
+    private final LongAdder subidas = new LongAdder();
+    private final LongAdder reintentos = new LongAdder();
+    private final LongAdder bytesEnviados = new LongAdder();
+
+    // Lote en curso (solo lo toca el hilo de subida)
+    private final Cuerpo cuerpo = new Cuerpo();
+    private final StringBuilder textoId = new StringBuilder(LONGITUD_ID);
+    private final byte[] prefijo = new byte[LONGITUD_ID + 1];
+    private BandejaSalida.Posicion finLote;
+    private IdEvento primeroLote;
+    private IdEvento ultimoLote;
+    private int registrosLote;
+
+    private Thread hilo;
+    private volatile boolean vaciando;
+
+    /**
+     * @param bandeja Bandeja de la que se leen las alertas pendientes.
+     * @param config Destino, tamaño de lote y reintentos.
+     */
+    public ClienteRespaldo(BandejaSalida bandeja, ConfiguracionRespaldo config) {
+        this.bandeja = bandeja;
+        this.config = config;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(config.getTimeoutPeticionMs()))
+                .build();
+        prefijo[LONGITUD_ID] = '\t';
+    }
+
+    /**
+     * Arranca el hilo de subida. Empieza por lo que quedó sin confirmar en la bandeja.
+     */
+    public synchronized void iniciar() {
+        if (hilo != null) return;
+        hilo = new Thread(this::bucleSubida, "respaldo-subida");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    private void bucleSubida() {
+        BandejaSalida.Posicion posicion = bandeja.getConfirmada();
+        boolean loteLleno = false;
+        int fallosBandeja = 0;
+        try {
+            while (true) {
+                if (!loteLleno) {
+                    if (!bandeja.esperarDatos(posicion, ESPERA_DATOS_MS)) {
+                        if (vaciando) return;
+                        continue;
+                    }
+                    // Se deja acumular el lote; al vaciar se sube lo que haya
+                    if (!vaciando && config.getEsperaLoteMs() > 0) Thread.sleep(config.getEsperaLoteMs());
+                }
+                int registros;
+                try {
+                    registros = prepararLote(posicion);
+                    if (registros > 0) {
+                        subirConReintentos();
+                        bandeja.confirmar(finLote);
+                    }
+                    fallosBandeja = 0;
+                } catch (IOException e) {
+                    // Fallo local de la bandeja: se reintenta la misma posición más tarde
+                    System.err.println("❌ Error al leer la bandeja de salida: " + e.getMessage());
+                    Thread.sleep(esperaReintento(fallosBandeja++));
+                    continue;
+                }
+                if (registros == 0 && vaciando) return;
+                posicion = finLote;
+                loteLleno = registros >= config.getRegistrosPorLote();
+            }
+        } catch (InterruptedException e) {
+            // Cierre sin esperar: lo pendiente sigue en la bandeja para el próximo arranque
+        }
+    }
+
+    /**
+     * Lee el siguiente lote de la bandeja y lo comprime en el cuerpo reutilizable.
+     * @return Registros del lote (0 si no había ninguno).
+     */
+    int prepararLote(BandejaSalida.Posicion desde) throws IOException {
+        cuerpo.reset();
+        registrosLote = 0;
+        primeroLote = null;
+        try (GZIPOutputStream gzip = new GZIPOutputStream(cuerpo, 8192)) {
+            finLote = bandeja.leer(desde, config.getRegistrosPorLote(), config.getBytesPorLote(),
+                    (id, datos) -> escribirRegistro(gzip, id, datos));
+        }
+        return registrosLote;
+    }
+
+    private void escribirRegistro(GZIPOutputStream gzip, IdEvento id, ByteBuffer datos) throws IOException {
+        textoId.setLength(0);
+        id.escribir(textoId);
+        for (int i = 0; i < LONGITUD_ID; i++) prefijo[i] = (byte) textoId.charAt(i);
+        gzip.write(prefijo);
+        int longitud = datos.remaining();
+        gzip.write(datos.array(), datos.arrayOffset() + datos.position(), longitud);
+        if (longitud == 0 || datos.get(datos.limit() - 1) != '\n') gzip.write('\n');
+
+        if (primeroLote == null) primeroLote = id;
+        ultimoLote = id;
+        registrosLote++;
+    }
+
+    /**
+     * Envía el lote preparado hasta que el servidor lo acepte.
+     */
+    private void subirConReintentos() throws InterruptedException {
+        int intento = 0;
+        while (true) {
+            long inicio = System.nanoTime();
+            String motivo;
+            try {
+                int estado = enviarLote();
+                if (estado / 100 == 2) {
+                    metricas.registrarDesde(FaseAlerta.SUBIDA_RESPALDO, inicio);
+                    lotes.increment();
+                    subidas.add(registrosLote);
+                    bytesEnviados.add(cuerpo.size());
+                    if (config.hayTrazasConsola()) {
+                        System.out.printf("☁️ Respaldo completado: lote de %d alerta(s), %.1f KB comprimidos.\n",
+                                registrosLote, cuerpo.size() / 1024.0);
+                    }
+                    return;
+                }
+                motivo = "HTTP " + estado;
+            } catch (IOException e) {
+                motivo = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            }
+            reintentos.increment();
+            long espera = esperaReintento(intento++);
+            System.err.printf("⚠️ Subida del respaldo fallida (%s); reintento %d en %d ms.\n", motivo, intento, espera);
+            Thread.sleep(espera);
+        }
+    }
+
+    /**
+     * Envía el lote preparado con un solo POST.
+     * @return Código de estado HTTP de la respuesta.
+     */
+    int enviarLote() throws IOException, InterruptedException {
+        HttpRequest peticion = HttpRequest.newBuilder(config.getDestino())
+                .timeout(Duration.ofMillis(config.getTimeoutPeticionMs()))
+                .header("Content-Type", "text/plain; charset=utf-8")
+                .header("Content-Encoding", "gzip")
+                // Un reintento del mismo lote lleva la misma clave
+                .header("Idempotency-Key", primeroLote + "/" + ultimoLote)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(cuerpo.buffer(), 0, cuerpo.size()))
+                .build();
+        return http.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * Espera exponencial con dispersión: entre la mitad y el total de
+     * {@code min(máximo, inicial · 2^intento)}, para que los clientes no reintenten a la vez.
+     */
+    private long esperaReintento(int intento) {
+        long techo = Math.min(config.getReintentoMaximoMs(), config.getReintentoInicialMs() << Math.min(intento, 20));
+        return ThreadLocalRandom.current().nextLong(techo / 2, techo + 1);
+    }
+
+    /** @return Lotes aceptados por el servidor. */
+    public long getLotes() { return lotes.sum(); }
+
+    /** @return Alertas subidas (incluidas las reenviadas tras una caída). */
+    public long getSubidas() { return subidas.sum(); }
+
+    /** @return Envíos fallidos que se han reintentado. */
+    public long getReintentos() { return reintentos.sum(); }
+
+    /** @return Bytes comprimidos enviados en lotes aceptados. */
+    public long getBytesEnviados() { return bytesEnviados.sum(); }
+
+    /**
+     * Sube lo pendiente y detiene el hilo. Si no termina a tiempo (p. ej. servidor caído),
+     * lo pendiente queda en la bandeja y se sube en el próximo arranque.
+     * @param timeoutMs Tiempo máximo de espera.
+     * @return true si se vació la bandeja.
+     */
+    public boolean cerrar(long timeoutMs) {
+        Thread h;
+        synchronized (this) {
+            h = hilo;
+        }
+        boolean vaciada = true;
+        if (h != null) {
+            vaciando = true;
+            try {
+                h.join(timeoutMs);
+                if (h.isAlive()) {
+                    vaciada = false;
+                    System.err.println("⚠️ Respaldo sin terminar; lo pendiente se subirá en el próximo arranque.");
+                    h.interrupt();
+                    h.join();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                vaciada = false;
+            }
+        }
+        http.close();
+        return vaciada;
+    }
+
+    @Override
+    public void close() {
+        cerrar(config.getTimeoutPeticionMs());
+    }
+
+    /**
+     * Salida en memoria que expone su array para enviarlo sin copiarlo.
+     */
+    private static final class Cuerpo extends ByteArrayOutputStream {
+        Cuerpo() {
+            super(64 * 1024);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package main.java.com.emergencias.respaldo;
+
+import java.net.URI;
+
+/**
+ * Parámetros de la subida del respaldo en la nube ({@link ClienteRespaldo}): destino HTTP,
+ * tamaño de los lotes, espera para llenarlos y reintentos con espera exponencial.
+ */
+public class ConfiguracionRespaldo {
+
+    /** Propiedad del sistema con la URL del servidor de respaldo (sin ella se arranca el servidor local). */
+    public static final String PROPIEDAD_URL = "emergencias.respaldo.url";
+
+    private final URI destino;
+    private final int registrosPorLote;
+    private final int bytesPorLote;
+    private final long esperaLoteMs;
+    private final long reintentoInicialMs;
+    private final long reintentoMaximoMs;
+    private final long timeoutPeticionMs;
+    private final boolean trazasConsola;
+
+    /**
+     * @param destino URL a la que se envía cada lote con un POST.
+     * @param registrosPorLote Alertas máximas por lote.
+     * @param bytesPorLote Bytes máximos (sin comprimir) por lote.
+     * @param esperaLoteMs Tiempo que se deja acumular alertas antes de enviar un lote incompleto.
+     * @param reintentoInicialMs Espera antes del primer reintento; se dobla en cada fallo.
+     * @param reintentoMaximoMs Espera máxima entre reintentos.
+     * @param timeoutPeticionMs Tiempo máximo de cada petición.
+     */
+    public ConfiguracionRespaldo(URI destino, int registrosPorLote, int bytesPorLote, long esperaLoteMs,
+                                 long reintentoInicialMs, long reintentoMaximoMs, long timeoutPeticionMs) {
+        this(destino, registrosPorLote, bytesPorLote, esperaLoteMs, reintentoInicialMs, reintentoMaximoMs,
+                timeoutPeticionMs, true);
+    }
+
+    private ConfiguracionRespaldo(URI destino, int registrosPorLote, int bytesPorLote, long esperaLoteMs,
+                                  long reintentoInicialMs, long reintentoMaximoMs, long timeoutPeticionMs,
+                                  boolean trazasConsola) {
+        if (destino == null || registrosPorLote <= 0 || bytesPorLote <= 0 || esperaLoteMs < 0
+                || reintentoInicialMs <= 0 || reintentoMaximoMs < reintentoInicialMs || timeoutPeticionMs <= 0) {
+            throw new IllegalArgumentException("Destino no nulo, lotes positivos y reintentos crecientes.");
+        }
+        this.destino = destino;
+        this.registrosPorLote = registrosPorLote;
+        this.bytesPorLote = bytesPorLote;
+        this.esperaLoteMs = esperaLoteMs;
+        this.reintentoInicialMs = reintentoInicialMs;
+        this.reintentoMaximoMs = reintentoMaximoMs;
+        this.timeoutPeticionMs = timeoutPeticionMs;
+        this.trazasConsola = trazasConsola;
+    }
+
+    /**
+     * @return Configuración por defecto: lotes de hasta 500 alertas o 1 MB, 200 ms de espera para
+     * llenarlos y reintentos desde 250 ms hasta 30 s.
+     */
+    public static ConfiguracionRespaldo porDefecto(URI destino) {
+        return new ConfiguracionRespaldo(destino, 500, 1024 * 1024, 200, 250, 30_000, 10_000);
+    }
+
+    /** @return Copia con otro tamaño máximo de lote en alertas. */
+    public ConfiguracionRespaldo conRegistrosPorLote(int registros) {
+        return new ConfiguracionRespaldo(destino, registros, bytesPorLote, esperaLoteMs, reintentoInicialMs,
+                reintentoMaximoMs, timeoutPeticionMs, trazasConsola);
+    }
+
+    /** @return Copia con otras esperas (llenado del lote y reintentos). */
+    public ConfiguracionRespaldo conEsperas(long esperaLoteMs, long reintentoInicialMs, long reintentoMaximoMs) {
+        return new ConfiguracionRespaldo(destino, registrosPorLote, bytesPorLote, esperaLoteMs, reintentoInicialMs,
+                reintentoMaximoMs, timeoutPeticionMs, trazasConsola);
+    }
+
+    /** @return Copia sin el mensaje de consola de cada lote subido. */
+    public ConfiguracionRespaldo sinTrazasConsola() {
+        return new ConfiguracionRespaldo(destino, registrosPorLote, bytesPorLote, esperaLoteMs, reintentoInicialMs,
+                reintentoMaximoMs, timeoutPeticionMs, false);
+    }
+
+    public URI getDestino() { return destino; }
+    public int getRegistrosPorLote() { return registrosPorLote; }
+    public int getBytesPorLote() { return bytesPorLote; }
+    public long getEsperaLoteMs() { return esperaLoteMs; }
+    public long getReintentoInicialMs() { return reintentoInicialMs; }
+    public long getReintentoMaximoMs() { return reintentoMaximoMs; }
+    public long getTimeoutPeticionMs() { return timeoutPeticionMs; }
+    public boolean hayTrazasConsola() { return trazasConsola; }
+}
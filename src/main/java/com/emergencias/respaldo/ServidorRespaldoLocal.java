@@ -0,0 +1,194 @@
+package main.java.com.emergencias.respaldo;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import main.java.com.emergencias.model.IdEvento;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Servidor de respaldo local que sustituye al central para trabajar sin conexión y en las pruebas.
+ * Atiende {@code POST /respaldo} con el formato de {@link ClienteRespaldo} (gzip, una línea
+ * {@code <id>\t<línea del log>} por alerta) y descarta las alertas cuyo ID ya ha recibido, de modo
+ * que reenviar un lote es inocuo. Las nuevas se añaden, si se indica, a un fichero de almacén.
+ *
+ * Para las pruebas puede añadir latencia a cada petición y responder 503 a las siguientes N.
+ * Se puede arrancar por separado: {@code java ... ServidorRespaldoLocal [puerto] [almacén]}.
+ */
+public class ServidorRespaldoLocal implements AutoCloseable {
+
+    public static final String RUTA = "/respaldo";
+    public static final int PUERTO_POR_DEFECTO = 8089;
+
+    static {
+        // Sin TCP_NODELAY, la respuesta (cabeceras y cuerpo en dos escrituras) espera al ACK
+        // retardado del cliente: ~40 ms por lote. Solo tiene efecto antes del primer HttpServer.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer servidor;
+    private final Path almacen;
+    private final ConcurrentHashMap<IdEvento, Boolean> recibidas = new ConcurrentHashMap<>();
+    private final LongAdder peticiones = new LongAdder();
+    private final LongAdder duplicadas = new LongAdder();
+    private final AtomicInteger fallosPendientes = new AtomicInteger();
+    private volatile long latenciaMs;
+    private BufferedWriter escritorAlmacen;
+
+    /**
+     * @param puerto Puerto de escucha en la interfaz local (0 = uno libre cualquiera).
+     * @param almacen Fichero donde se añaden las alertas recibidas, o null para guardarlas solo en memoria.
+     */
+    public ServidorRespaldoLocal(int puerto, Path almacen) throws IOException {
+        this.servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto), 0);
+        this.almacen = almacen;
+        servidor.createContext(RUTA, this::atender);
+    }
+
+    /** Arranca la escucha. */
+    public ServidorRespaldoLocal iniciar() {
+        servidor.start();
+        return this;
+    }
+
+    /** @return URL a la que deben enviar los lotes los clientes. */
+    public URI getUrl() {
+        InetSocketAddress direccion = servidor.getAddress();
+        return URI.create("http://" + direccion.getHostString() + ":" + direccion.getPort() + RUTA);
+    }
+
+    private void atender(HttpExchange intercambio) throws IOException {
+        try {
+            peticiones.increment();
+            if (!"POST".equals(intercambio.getRequestMethod())) {
+                responder(intercambio, 405, "{\"error\":\"Solo se admite POST\"}");
+                return;
+            }
+            if (latenciaMs > 0) Thread.sleep(latenciaMs);
+            if (fallosPendientes.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                intercambio.getRequestBody().readAllBytes();
+                responder(intercambio, 503, "{\"error\":\"Fallo simulado\"}");
+                return;
+            }
+
+            InputStream cuerpo = intercambio.getRequestBody();
+            if ("gzip".equalsIgnoreCase(intercambio.getRequestHeaders().getFirst("Content-Encoding"))) {
+                cuerpo = new GZIPInputStream(cuerpo);
+            }
+            int nuevas = 0;
+            int repetidas = 0;
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(cuerpo, StandardCharsets.UTF_8))) {
+                String linea;
+                while ((linea = in.readLine()) != null) {
+                    int tab = linea.indexOf('\t');
+                    if (tab < 0) continue;
+                    IdEvento id = IdEvento.parsear(linea.substring(0, tab));
+                    if (recibidas.putIfAbsent(id, Boolean.TRUE) == null) {
+                        nuevas++;
+                        guardar(linea, tab + 1);
+                    } else {
+                        repetidas++;
+                    }
+                }
+            }
+            duplicadas.add(repetidas);
+            responder(intercambio, 200, "{\"recibidas\":" + nuevas + ",\"duplicadas\":" + repetidas + "}");
+        } catch (IllegalArgumentException e) {
+            responder(intercambio, 400, "{\"error\":\"Lote mal formado\"}");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            responder(intercambio, 503, "{\"error\":\"Servidor deteniéndose\"}");
+        } finally {
+            intercambio.close();
+        }
+    }
+
+    private synchronized void guardar(String linea, int inicio) throws IOException {
+        if (almacen == null) return;
+        if (escritorAlmacen == null) {
+            escritorAlmacen = Files.newBufferedWriter(almacen, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        }
+        escritorAlmacen.write(linea, inicio, linea.length() - inicio);
+        escritorAlmacen.newLine();
+        escritorAlmacen.flush();
+    }
+
+    private static void responder(HttpExchange intercambio, int estado, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", "application/json");
+        intercambio.sendResponseHeaders(estado, bytes.length);
+        try (OutputStream out = intercambio.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /** Responde 503 a las siguientes {@code n} peticiones. */
+    public void simularFallos(int n) {
+        fallosPendientes.set(n);
+    }
+
+    /** Añade una espera a cada petición (simula la ida y vuelta a un servidor remoto). */
+    public void setLatenciaMs(long latenciaMs) {
+        this.latenciaMs = latenciaMs;
+    }
+
+    /** @return true si ya se ha recibido la alerta. */
+    public boolean contiene(IdEvento id) {
+        return recibidas.containsKey(id);
+    }
+
+    /** @return Alertas distintas recibidas. */
+    public int getRecibidas() { return recibidas.size(); }
+
+    /** @return Alertas recibidas más de una vez (reenvíos). */
+    public long getDuplicadas() { return duplicadas.sum(); }
+
+    /** @return Peticiones atendidas (incluidas las fallidas). */
+    public long getPeticiones() { return peticiones.sum(); }
+
+    @Override
+    public void close() {
+        servidor.stop(0);
+        synchronized (this) {
+            if (escritorAlmacen != null) {
+                try {
+                    escritorAlmacen.close();
+                } catch (IOException e) {
+                    System.err.println("⚠️ Error al cerrar el almacén del respaldo: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Arranca el servidor por separado.
+     * @param args Puerto (por defecto {@value #PUERTO_POR_DEFECTO}) y fichero de almacén opcional.
+     */
+    public static void main(String[] args) throws IOException {
+        int puerto = args.length > 0 ? Integer.parseInt(args[0]) : PUERTO_POR_DEFECTO;
+        Path almacen = args.length > 1 ? Paths.get(args[1]) : null;
+        ServidorRespaldoLocal servidor = new ServidorRespaldoLocal(puerto, almacen).iniciar();
+        System.out.println("☁️ Servidor de respaldo local escuchando en " + servidor.getUrl());
+        Runtime.getRuntime().addShutdownHook(new Thread(servidor::close));
+    }
+}
@@ -0,0 +1,23 @@
+package main.java.com.emergencias.vitales;
+
+import main.java.com.emergencias.model.SignoVital;
+
+/**
+ * Canales de muestras que vigila el {@link DetectorAnomalias}: las constantes vitales
+ * (en el mismo orden que {@link SignoVital}) y el sensor de impacto del dispositivo.
+ */
+public enum CanalAnomalia {
+    RITMO_CARDIACO,
+    SPO2,
+    SISTOLICA,
+    DIASTOLICA,
+    /** Fuerza del impacto medida por el acelerómetro (0-99). */
+    IMPACTO;
+
+    private static final CanalAnomalia[] VALORES = values();
+
+    /** @return Canal de la constante vital indicada. */
+    public static CanalAnomalia de(SignoVital signo) {
+        return VALORES[signo.ordinal()];
+    }
+}
@@ -0,0 +1,225 @@
+package main.java.com.emergencias.vitales;
+
+import main.java.com.emergencias.model.EventoDispositivo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Etapa de detección en streaming que decide la activación automática a partir de las
+ * muestras de constantes vitales y del sensor de impacto de cada usuario.
+ *
+ * Cada muestra se evalúa en el momento contra las {@link ReglaAnomalia} de su canal y, si
+ * alguna entra en alarma, se emite un disparo ({@link EventoDispositivo#anomalia}) antes de
+ * volver del propio {@link #procesar}: la latencia hasta el disparo es la de evaluar las reglas.
+ *
+ * El estado se guarda por columnas: para cada regla, un array primitivo por variable (media,
+ * varianza, número de muestras, alarma) indexado por la ranura del usuario. Las columnas se
+ * reparten en páginas de {@value #TAMANO_PAGINA} ranuras que se añaden a medida que llegan
+ * usuarios nuevos, sin copiar ni mover las ya existentes; evaluar una muestra no reserva memoria.
+ * Es seguro para hilos: las muestras de un mismo usuario se serializan con un cerrojo de su
+ * franja y usuarios distintos se procesan en paralelo.
+ */
+public class DetectorAnomalias {
+
+    /** Usuarios para los que se reserva estado de entrada; el detector crece si llegan más. */
+    public static final int CAPACIDAD_POR_DEFECTO = 10_000;
+    /** Ranuras por página de estado. */
+    public static final int TAMANO_PAGINA = 1024;
+
+    private static final int BITS_PAGINA = Integer.numberOfTrailingZeros(TAMANO_PAGINA);
+    private static final int MASCARA_PAGINA = TAMANO_PAGINA - 1;
+    private static final int FRANJAS = 64;
+    private static final int SIN_DISPARO = -1;
+
+    private final ReglaAnomalia[] reglas;
+    private final int[][] reglasPorCanal; // [canal.ordinal()] -> índices de regla
+    private final Consumer<EventoDispositivo> alDisparar;
+
+    // Páginas de estado; el directorio se sustituye por una copia al añadir una página
+    private volatile Pagina[] paginas;
+    private final ConcurrentHashMap<String, Integer> ranuraPorId = new ConcurrentHashMap<>();
+    private final AtomicInteger siguienteRanura = new AtomicInteger();
+    private final Object[] franjas = new Object[FRANJAS];
+    private final LongAdder evaluadas = new LongAdder();
+    private final LongAdder disparos = new LongAdder();
+
+    /**
+     * @param capacidadUsuarios Usuarios para los que se reserva estado de entrada (no es un límite).
+     * @param reglas Reglas a evaluar (p. ej. {@link ReglaAnomalia#porDefecto()}).
+     * @param alDisparar Recibe cada disparo, en el hilo que procesó la muestra (p. ej. {@code motor::procesar}).
+     */
+    public DetectorAnomalias(int capacidadUsuarios, List<ReglaAnomalia> reglas, Consumer<EventoDispositivo> alDisparar) {
+        if (capacidadUsuarios <= 0) throw new IllegalArgumentException("La capacidad de usuarios debe ser positiva.");
+        this.reglas = reglas.toArray(new ReglaAnomalia[0]);
+        this.alDisparar = alDisparar;
+
+        CanalAnomalia[] canales = CanalAnomalia.values();
+        this.reglasPorCanal = new int[canales.length][];
+        for (CanalAnomalia canal : canales) {
+            List<Integer> indices = new ArrayList<>();
+            for (int r = 0; r < this.reglas.length; r++) {
+                if (this.reglas[r].getCanal() == canal) indices.add(r);
+            }
+            reglasPorCanal[canal.ordinal()] = indices.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        this.paginas = new Pagina[(capacidadUsuarios + MASCARA_PAGINA) >>> BITS_PAGINA];
+        for (int i = 0; i < paginas.length; i++) paginas[i] = new Pagina(this.reglas.length);
+        for (int i = 0; i < FRANJAS; i++) franjas[i] = new Object();
+    }
+
+    /**
+     * Estado de {@value #TAMANO_PAGINA} ranuras consecutivas: [regla][ranura dentro de la página].
+     */
+    private static final class Pagina {
+        final double[][] media;
+        final double[][] varianza;
+        final int[][] muestras;
+        final boolean[][] enAlarma;
+        final String[] idPorRanura = new String[TAMANO_PAGINA];
+
+        Pagina(int reglas) {
+            media = new double[reglas][TAMANO_PAGINA];
+            varianza = new double[reglas][TAMANO_PAGINA];
+            muestras = new int[reglas][TAMANO_PAGINA];
+            enAlarma = new boolean[reglas][TAMANO_PAGINA];
+        }
+    }
+
+    /**
+     * Devuelve la ranura del usuario, reservándola la primera vez (y una página nueva si
+     * las existentes están llenas).
+     */
+    public int ranura(String idUsuario) {
+        Integer ranura = ranuraPorId.get(idUsuario);
+        if (ranura != null) return ranura;
+        return ranuraPorId.computeIfAbsent(idUsuario, id -> {
+            int nueva = siguienteRanura.getAndIncrement();
+            pagina(nueva, true).idPorRanura[nueva & MASCARA_PAGINA] = id;
+            return nueva;
+        });
+    }
+
+    /**
+     * @param crear Si la página aún no existe, añadirla al directorio.
+     * @throws IllegalArgumentException si la ranura no se ha reservado.
+     */
+    private Pagina pagina(int ranura, boolean crear) {
+        Pagina[] actuales = paginas;
+        int indice = ranura >>> BITS_PAGINA;
+        if (indice < actuales.length) return actuales[indice];
+        if (!crear) throw new IllegalArgumentException("Ranura no reservada: " + ranura);
+        synchronized (this) {
+            actuales = paginas;
+            if (indice >= actuales.length) {
+                Pagina[] ampliadas = Arrays.copyOf(actuales, Math.max(indice + 1, actuales.length * 2));
+                for (int i = actuales.length; i < ampliadas.length; i++) ampliadas[i] = new Pagina(reglas.length);
+                paginas = actuales = ampliadas;
+            }
+            return actuales[indice];
+        }
+    }
+
+    /**
+     * Evalúa una muestra del usuario.
+     * @return true si la muestra ha provocado un disparo.
+     */
+    public boolean procesar(String idUsuario, CanalAnomalia canal, double valor) {
+        return procesar(ranura(idUsuario), canal, valor);
+    }
+
+    /**
+     * Evalúa una muestra de la ranura indicada (camino sin búsqueda por ID).
+     * @return true si la muestra ha provocado un disparo.
+     */
+    public boolean procesar(int ranura, CanalAnomalia canal, double valor) {
+        Pagina p = pagina(ranura, false);
+        int i = ranura & MASCARA_PAGINA;
+        int[] indices = reglasPorCanal[canal.ordinal()];
+        int disparada = SIN_DISPARO;
+        double magnitudDisparo = 0;
+        synchronized (franjas[ranura & (FRANJAS - 1)]) {
+            for (int r : indices) {
+                ReglaAnomalia regla = reglas[r];
+                double magnitud = actualizar(regla, r, p, i, valor);
+                if (Double.isNaN(magnitud)) continue; // Aún calentando la línea base
+                if (!p.enAlarma[r][i]) {
+                    if (regla.activa(magnitud)) {
+                        p.enAlarma[r][i] = true;
+                        if (disparada == SIN_DISPARO) {
+                            disparada = r;
+                            magnitudDisparo = magnitud;
+                        }
+                    }
+                } else if (regla.rearmada(magnitud)) {
+                    p.enAlarma[r][i] = false;
+                }
+            }
+        }
+        evaluadas.increment();
+        if (disparada == SIN_DISPARO) return false;
+
+        // Un solo disparo por muestra aunque entren en alarma varias reglas; se emite fuera del
+        // cerrojo porque el receptor puede bloquearse por contrapresión
+        disparos.increment();
+        String tipo = canal == CanalAnomalia.IMPACTO ? null : "Sanitaria";
+        alDisparar.accept(EventoDispositivo.anomalia(p.idPorRanura[i], tipo,
+                reglas[disparada].describir(valor, magnitudDisparo)));
+        return true;
+    }
+
+    /**
+     * Actualiza el estado de la regla con la muestra.
+     * @return Magnitud vigilada tras la muestra, o NaN si la regla aún no tiene base suficiente.
+     */
+    private static double actualizar(ReglaAnomalia regla, int r, Pagina p, int i, double valor) {
+        int n = p.muestras[r][i];
+        if (n < Integer.MAX_VALUE) p.muestras[r][i] = n + 1;
+        switch (regla.getTipo()) {
+            case EWMA: {
+                double m = n == 0 ? valor : p.media[r][i] + regla.getAlfa() * (valor - p.media[r][i]);
+                p.media[r][i] = m;
+                return m;
+            }
+            case ZSCORE: {
+                if (n == 0) {
+                    p.media[r][i] = valor;
+                    p.varianza[r][i] = 0;
+                    return Double.NaN;
+                }
+                double m = p.media[r][i];
+                double v = p.varianza[r][i];
+                double diferencia = valor - m;
+                double z = v > 0 ? diferencia / Math.sqrt(v) : 0;
+                // Media y varianza exponenciales (Welford ponderado)
+                double alfa = regla.getAlfa();
+                p.media[r][i] = m + alfa * diferencia;
+                p.varianza[r][i] = (1 - alfa) * (v + alfa * diferencia * diferencia);
+                return n < regla.getMuestrasMinimas() ? Double.NaN : z;
+            }
+            default:
+                return valor;
+        }
+    }
+
+    /** @return Usuarios con ranura reservada. */
+    public int getUsuarios() {
+        return siguienteRanura.get();
+    }
+
+    /** @return Muestras evaluadas desde la creación. */
+    public long getEvaluadas() {
+        return evaluadas.sum();
+    }
+
+    /** @return Disparos emitidos desde la creación. */
+    public long getDisparos() {
+        return disparos.sum();
+    }
+}
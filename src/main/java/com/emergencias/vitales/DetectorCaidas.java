@@ -0,0 +1,242 @@
+package main.java.com.emergencias.vitales;
+
+import main.java.com.emergencias.model.EventoDispositivo;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Detección de caídas sobre lotes del acelerómetro triaxial de cada dispositivo (50-100 Hz).
+ *
+ * Una caída es la secuencia clásica caída libre → impacto → quietud:
+ * <ol>
+ *     <li>la magnitud del vector de aceleración (SVM) baja de {@link #CAIDA_LIBRE_G};</li>
+ *     <li>en menos de {@link #VENTANA_IMPACTO_MS} supera {@link #IMPACTO_G};</li>
+ *     <li>tras {@link #ESPERA_TRAS_IMPACTO_MS} de rebotes, la SVM se queda en 1 g ± {@link #TOLERANCIA_QUIETUD_G}
+ *     durante {@link #VENTANA_QUIETUD_MS} (la persona no se levanta).</li>
+ * </ol>
+ * Cada lote se procesa en dos pasadas: primero se calcula la SVM al cuadrado de todas las muestras
+ * con un bucle sin saltos sobre arrays primitivos, que el JIT vectoriza; después se recorre ese
+ * resultado avanzando la máquina de estados del dispositivo. Al comparar con los umbrales al
+ * cuadrado no hace falta ninguna raíz. El estado sobrevive entre lotes, de modo que una caída
+ * puede repartirse entre varios, y se guarda por columnas indexadas por la ranura del dispositivo,
+ * repartidas en páginas de {@value #TAMANO_PAGINA} ranuras que se añaden cuando llegan dispositivos
+ * nuevos. En régimen estable procesar un lote no reserva memoria.
+ */
+public class DetectorCaidas {
+
+    public static final float CAIDA_LIBRE_G = 0.6f;
+    public static final float IMPACTO_G = 2.5f;
+    public static final float TOLERANCIA_QUIETUD_G = 0.2f;
+    public static final long VENTANA_IMPACTO_MS = 1000;
+    public static final long ESPERA_TRAS_IMPACTO_MS = 500;
+    public static final long VENTANA_QUIETUD_MS = 1500;
+    /** Dispositivos para los que se reserva estado de entrada; el detector crece si llegan más. */
+    public static final int CAPACIDAD_POR_DEFECTO = 10_000;
+    /** Ranuras por página de estado. */
+    public static final int TAMANO_PAGINA = 1024;
+
+    private static final int BITS_PAGINA = Integer.numberOfTrailingZeros(TAMANO_PAGINA);
+    private static final int MASCARA_PAGINA = TAMANO_PAGINA - 1;
+    private static final int FRANJAS = 64;
+    private static final byte NORMAL = 0;
+    private static final byte CAIDA_LIBRE = 1;
+    private static final byte IMPACTO = 2;
+
+    private static final float CAIDA_LIBRE2 = CAIDA_LIBRE_G * CAIDA_LIBRE_G;
+    private static final float IMPACTO2 = IMPACTO_G * IMPACTO_G;
+    private static final float QUIETUD_MIN2 = (1 - TOLERANCIA_QUIETUD_G) * (1 - TOLERANCIA_QUIETUD_G);
+    private static final float QUIETUD_MAX2 = (1 + TOLERANCIA_QUIETUD_G) * (1 + TOLERANCIA_QUIETUD_G);
+
+    private static final ThreadLocal<float[]> MAGNITUDES = ThreadLocal.withInitial(() -> new float[256]);
+
+    private final Consumer<EventoDispositivo> alDisparar;
+
+    // Páginas de estado; el directorio se sustituye por una copia al añadir una página
+    private volatile Pagina[] paginas;
+    private final ConcurrentHashMap<String, Integer> ranuraPorId = new ConcurrentHashMap<>();
+    private final AtomicInteger siguienteRanura = new AtomicInteger();
+    private final Object[] franjas = new Object[FRANJAS];
+    private final LongAdder muestras = new LongAdder();
+    private final LongAdder caidas = new LongAdder();
+
+    /**
+     * @param capacidadDispositivos Dispositivos para los que se reserva estado de entrada (no es un límite).
+     * @param alDisparar Recibe cada caída detectada, en el hilo que procesó el lote.
+     */
+    public DetectorCaidas(int capacidadDispositivos, Consumer<EventoDispositivo> alDisparar) {
+        if (capacidadDispositivos <= 0) throw new IllegalArgumentException("La capacidad de dispositivos debe ser positiva.");
+        this.alDisparar = alDisparar;
+        this.paginas = new Pagina[(capacidadDispositivos + MASCARA_PAGINA) >>> BITS_PAGINA];
+        for (int i = 0; i < paginas.length; i++) paginas[i] = new Pagina();
+        for (int i = 0; i < FRANJAS; i++) franjas[i] = new Object();
+    }
+
+    /**
+     * Estado de {@value #TAMANO_PAGINA} ranuras consecutivas.
+     */
+    private static final class Pagina {
+        final byte[] fase = new byte[TAMANO_PAGINA];
+        final long[] instanteFaseMs = new long[TAMANO_PAGINA];   // Inicio de la caída libre o instante del impacto
+        final float[] picoImpacto2 = new float[TAMANO_PAGINA];
+        final long[] inicioQuietudMs = new long[TAMANO_PAGINA];  // -1 si aún no ha empezado la quietud
+        final String[] idPorRanura = new String[TAMANO_PAGINA];
+    }
+
+    /**
+     * Devuelve la ranura del dispositivo del usuario, reservándola la primera vez (y una
+     * página nueva si las existentes están llenas).
+     */
+    public int ranura(String idUsuario) {
+        Integer ranura = ranuraPorId.get(idUsuario);
+        if (ranura != null) return ranura;
+        return ranuraPorId.computeIfAbsent(idUsuario, id -> {
+            int nueva = siguienteRanura.getAndIncrement();
+            pagina(nueva, true).idPorRanura[nueva & MASCARA_PAGINA] = id;
+            return nueva;
+        });
+    }
+
+    /**
+     * @param crear Si la página aún no existe, añadirla al directorio.
+     * @throws IllegalArgumentException si la ranura no se ha reservado.
+     */
+    private Pagina pagina(int ranura, boolean crear) {
+        Pagina[] actuales = paginas;
+        int indice = ranura >>> BITS_PAGINA;
+        if (indice < actuales.length) return actuales[indice];
+        if (!crear) throw new IllegalArgumentException("Ranura no reservada: " + ranura);
+        synchronized (this) {
+            actuales = paginas;
+            if (indice >= actuales.length) {
+                Pagina[] ampliadas = Arrays.copyOf(actuales, Math.max(indice + 1, actuales.length * 2));
+                for (int i = actuales.length; i < ampliadas.length; i++) ampliadas[i] = new Pagina();
+                paginas = actuales = ampliadas;
+            }
+            return actuales[indice];
+        }
+    }
+
+    /**
+     * Procesa un lote de muestras del acelerómetro del usuario.
+     * @see #procesarLote(int, long, int, float[], float[], float[], int)
+     */
+    public int procesarLote(String idUsuario, long instanteInicialMs, int hz, float[] x, float[] y, float[] z, int n) {
+        return procesarLote(ranura(idUsuario), instanteInicialMs, hz, x, y, z, n);
+    }
+
+    /**
+     * Procesa un lote de muestras consecutivas del acelerómetro de un dispositivo.
+     * Los lotes de un mismo dispositivo deben llegar en orden.
+     * @param instanteInicialMs Instante de la primera muestra (epoch ms).
+     * @param hz Frecuencia de muestreo.
+     * @param x Aceleración en el eje X, en g (igual para y, z).
+     * @param n Número de muestras válidas del lote.
+     * @return Caídas detectadas en el lote.
+     */
+    public int procesarLote(int ranura, long instanteInicialMs, int hz, float[] x, float[] y, float[] z, int n) {
+        if (hz <= 0) throw new IllegalArgumentException("La frecuencia de muestreo debe ser positiva.");
+        Pagina p = pagina(ranura, false);
+        int k = ranura & MASCARA_PAGINA;
+        float[] m2 = magnitudes(n);
+        magnitudesAlCuadrado(x, y, z, m2, n);
+
+        int detectadas = 0;
+        float picoDisparo = 0;
+        synchronized (franjas[ranura & (FRANJAS - 1)]) {
+            byte f = p.fase[k];
+            long tFase = p.instanteFaseMs[k];
+            float pico = p.picoImpacto2[k];
+            long tQuietud = p.inicioQuietudMs[k];
+            for (int i = 0; i < n; i++) {
+                long t = instanteInicialMs + i * 1000L / hz;
+                float v = m2[i];
+                switch (f) {
+                    case NORMAL:
+                        if (v < CAIDA_LIBRE2) {
+                            f = CAIDA_LIBRE;
+                            tFase = t;
+                        }
+                        break;
+                    case CAIDA_LIBRE:
+                        if (v >= IMPACTO2) {
+                            f = IMPACTO;
+                            tFase = t;
+                            pico = v;
+                            tQuietud = -1;
+                        } else if (t - tFase > VENTANA_IMPACTO_MS) {
+                            f = v < CAIDA_LIBRE2 ? CAIDA_LIBRE : NORMAL; // Sin impacto: se descarta
+                            tFase = t;
+                        }
+                        break;
+                    default: // IMPACTO: rebotes y después quietud
+                        if (t - tFase < ESPERA_TRAS_IMPACTO_MS) {
+                            if (v > pico) pico = v;
+                        } else if (v >= QUIETUD_MIN2 && v <= QUIETUD_MAX2) {
+                            if (tQuietud < 0) tQuietud = t;
+                            if (t - tQuietud >= VENTANA_QUIETUD_MS) {
+                                detectadas++;
+                                picoDisparo = pico;
+                                f = NORMAL;
+                            }
+                        } else {
+                            // Se mueve después del impacto: se ha levantado o sigue en actividad
+                            f = v < CAIDA_LIBRE2 ? CAIDA_LIBRE : NORMAL;
+                            tFase = t;
+                        }
+                }
+            }
+            p.fase[k] = f;
+            p.instanteFaseMs[k] = tFase;
+            p.picoImpacto2[k] = pico;
+            p.inicioQuietudMs[k] = tQuietud;
+        }
+        muestras.add(n);
+        if (detectadas == 0) return 0;
+
+        // Se emite fuera del cerrojo: el receptor puede bloquearse por contrapresión
+        caidas.add(detectadas);
+        alDisparar.accept(EventoDispositivo.anomalia(p.idPorRanura[k], null,
+                String.format(Locale.ROOT, "Caída detectada: impacto de %.1f g y %.1f s sin moverse",
+                        Math.sqrt(picoDisparo), VENTANA_QUIETUD_MS / 1000.0)));
+        return detectadas;
+    }
+
+    /**
+     * SVM al cuadrado de cada muestra: {@code x² + y² + z²}. Bucle contado sin saltos ni
+     * dependencias entre iteraciones, que el compilador JIT convierte en instrucciones SIMD.
+     */
+    static void magnitudesAlCuadrado(float[] x, float[] y, float[] z, float[] salida, int n) {
+        for (int i = 0; i < n; i++) {
+            salida[i] = x[i] * x[i] + y[i] * y[i] + z[i] * z[i];
+        }
+    }
+
+    private static float[] magnitudes(int n) {
+        float[] m = MAGNITUDES.get();
+        if (m.length < n) {
+            m = new float[Integer.highestOneBit(n - 1) << 1];
+            MAGNITUDES.set(m);
+        }
+        return m;
+    }
+
+    /** @return Dispositivos con ranura reservada. */
+    public int getDispositivos() {
+        return siguienteRanura.get();
+    }
+
+    /** @return Muestras procesadas desde la creación. */
+    public long getMuestras() {
+        return muestras.sum();
+    }
+
+    /** @return Caídas detectadas desde la creación. */
+    public long getCaidas() {
+        return caidas.sum();
+    }
+}
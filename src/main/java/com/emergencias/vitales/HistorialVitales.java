@@ -0,0 +1,115 @@
+package main.java.com.emergencias.vitales;
+
+import main.java.com.emergencias.model.EstadisticaVentana;
+import main.java.com.emergencias.model.SignoVital;
+import main.java.com.emergencias.model.VentanaVitales;
+import main.java.com.emergencias.model.VitalSigns;
+
+/**
+ * Historial de signos vitales de un usuario en búferes circulares de tamaño fijo.
+ *
+ * Cada constante se guarda en su propio array primitivo ({@code int[]}), alineado con un
+ * array de instantes; registrar una lectura solo escribe en esas posiciones y no reserva
+ * memoria. Al llenarse, cada lectura nueva sustituye a la más antigua. Las lecturas deben
+ * llegar en orden cronológico. Es seguro para hilos: escritor y lectores se coordinan con
+ * el monitor del propio historial, que solo se retiene lo que dura la copia o el cálculo.
+ */
+public class HistorialVitales {
+
+    private static final int SIGNOS = SignoVital.values().length;
+
+    private final long[] instantesMs;
+    private final int[][] valores; // [SignoVital.ordinal()][posición]
+    private int siguiente; // Posición donde se escribirá la próxima lectura
+    private int tamano;
+    private long registradas;
+
+    /**
+     * @param capacidad Número de lecturas que se conservan (p. ej. 300 = 5 min a 1 Hz).
+     */
+    public HistorialVitales(int capacidad) {
+        if (capacidad <= 0) throw new IllegalArgumentException("La capacidad del historial debe ser positiva.");
+        this.instantesMs = new long[capacidad];
+        this.valores = new int[SIGNOS][capacidad];
+    }
+
+    /**
+     * Registra una lectura sin reservar memoria.
+     */
+    public synchronized void registrar(long instanteMs, int ritmoCardiaco, int nivelOxigeno,
+                                       int presionSistolica, int presionDiastolica) {
+        int p = siguiente;
+        instantesMs[p] = instanteMs;
+        // Columnas en el orden de SignoVital
+        valores[0][p] = ritmoCardiaco;
+        valores[1][p] = nivelOxigeno;
+        valores[2][p] = presionSistolica;
+        valores[3][p] = presionDiastolica;
+        siguiente = p + 1 == instantesMs.length ? 0 : p + 1;
+        if (tamano < instantesMs.length) tamano++;
+        registradas++;
+    }
+
+    public int getCapacidad() { return instantesMs.length; }
+
+    /** @return Lecturas conservadas ahora mismo (como mucho la capacidad). */
+    public synchronized int size() { return tamano; }
+
+    /** @return Lecturas registradas desde la creación, incluidas las ya sobrescritas. */
+    public synchronized long getRegistradas() { return registradas; }
+
+    /**
+     * @return La lectura más reciente, o null si aún no hay ninguna.
+     */
+    public synchronized VitalSigns ultima() {
+        if (tamano == 0) return null;
+        int p = anterior(siguiente);
+        return new VitalSigns(valores[0][p], valores[1][p], valores[2][p], valores[3][p]);
+    }
+
+    /**
+     * Resumen de una constante en las lecturas de los últimos {@code duracionMs}, calculado
+     * directamente sobre el búfer.
+     * @return El resumen, o null si no hay lecturas en la ventana.
+     */
+    public synchronized EstadisticaVentana estadistica(SignoVital signo, long ahoraMs, long duracionMs) {
+        int n = muestrasEnVentana(ahoraMs, duracionMs);
+        return EstadisticaVentana.calcular(signo, instantesMs, valores[signo.ordinal()], inicio(n), n);
+    }
+
+    /**
+     * Copia las lecturas de los últimos {@code duracionMs} para adjuntarlas a un evento.
+     */
+    public synchronized VentanaVitales ventana(long ahoraMs, long duracionMs) {
+        int n = muestrasEnVentana(ahoraMs, duracionMs);
+        int desde = inicio(n);
+        long[] instantes = new long[n];
+        int[][] copia = new int[SIGNOS][n];
+        // Como mucho dos tramos: hasta el final del array y desde el principio
+        int primerTramo = Math.min(n, instantesMs.length - desde);
+        System.arraycopy(instantesMs, desde, instantes, 0, primerTramo);
+        System.arraycopy(instantesMs, 0, instantes, primerTramo, n - primerTramo);
+        for (int s = 0; s < SIGNOS; s++) {
+            System.arraycopy(valores[s], desde, copia[s], 0, primerTramo);
+            System.arraycopy(valores[s], 0, copia[s], primerTramo, n - primerTramo);
+        }
+        return new VentanaVitales(duracionMs, instantes, copia);
+    }
+
+    /** Cuenta hacia atrás desde la lectura más reciente las que caen dentro de la ventana. */
+    private int muestrasEnVentana(long ahoraMs, long duracionMs) {
+        long desde = ahoraMs - duracionMs;
+        int n = 0;
+        for (int p = anterior(siguiente); n < tamano && instantesMs[p] >= desde; p = anterior(p)) n++;
+        return n;
+    }
+
+    private int inicio(int n) {
+        int p = siguiente - n;
+        return p < 0 ? p + instantesMs.length : p;
+    }
+
+    private int anterior(int p) {
+        return p == 0 ? instantesMs.length - 1 : p - 1;
+    }
+}
@@ -0,0 +1,111 @@
+package main.java.com.emergencias.vitales;
+
+import main.java.com.emergencias.model.SignoVital;
+import main.java.com.emergencias.model.VentanaVitales;
+import main.java.com.emergencias.model.VitalSigns;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ingesta continua de signos vitales de todos los usuarios monitorizados.
+ * Cada usuario tiene su {@link HistorialVitales}, creado con la primera lectura; a partir de
+ * ahí registrar una lectura es una búsqueda en el mapa y unas escrituras en arrays primitivos.
+ * Si se le da un {@link DetectorAnomalias}, cada lectura se evalúa además en el momento
+ * para decidir la activación automática.
+ */
+public class MonitorVitales {
+
+    /** Capacidad por defecto: 5 minutos de lecturas a 1 Hz. */
+    public static final int CAPACIDAD_POR_DEFECTO = 300;
+    /** Historial que se adjunta a una alerta: el último minuto. */
+    public static final long VENTANA_ALERTA_MS = 60_000;
+
+    private final ConcurrentHashMap<String, HistorialVitales> historiales = new ConcurrentHashMap<>();
+    private final int capacidad;
+    private final DetectorAnomalias anomalias;
+
+    public MonitorVitales() {
+        this(CAPACIDAD_POR_DEFECTO);
+    }
+
+    /**
+     * @param capacidad Lecturas que se conservan por usuario.
+     */
+    public MonitorVitales(int capacidad) {
+        this(capacidad, null);
+    }
+
+    /**
+     * @param capacidad Lecturas que se conservan por usuario.
+     * @param anomalias Detección en streaming que evalúa cada lectura (puede ser null).
+     */
+    public MonitorVitales(int capacidad, DetectorAnomalias anomalias) {
+        if (capacidad <= 0) throw new IllegalArgumentException("La capacidad del historial debe ser positiva.");
+        this.capacidad = capacidad;
+        this.anomalias = anomalias;
+    }
+
+    /**
+     * Registra una lectura del dispositivo de un usuario.
+     * @param idUsuario ID del perfil (el mismo que en {@code RegistroUsuarios}).
+     * @param instanteMs Momento de la lectura (epoch ms).
+     */
+    public void registrar(String idUsuario, long instanteMs, int ritmoCardiaco, int nivelOxigeno,
+                          int presionSistolica, int presionDiastolica) {
+        // La ranura se reserva antes de tocar el historial: si fallara, la lectura no queda a medias
+        int ranura = anomalias != null ? anomalias.ranura(idUsuario) : -1;
+        historial(idUsuario).registrar(instanteMs, ritmoCardiaco, nivelOxigeno, presionSistolica, presionDiastolica);
+        if (anomalias != null) {
+            anomalias.procesar(ranura, CanalAnomalia.de(SignoVital.RITMO_CARDIACO), ritmoCardiaco);
+            anomalias.procesar(ranura, CanalAnomalia.de(SignoVital.SPO2), nivelOxigeno);
+            anomalias.procesar(ranura, CanalAnomalia.de(SignoVital.SISTOLICA), presionSistolica);
+            anomalias.procesar(ranura, CanalAnomalia.de(SignoVital.DIASTOLICA), presionDiastolica);
+        }
+    }
+
+    /**
+     * Registra una muestra del sensor de impacto (0-99). No se guarda en el historial;
+     * solo se evalúa para la activación automática.
+     * @return true si ha provocado un disparo.
+     */
+    public boolean registrarImpacto(String idUsuario, int fuerza) {
+        return anomalias != null && anomalias.procesar(idUsuario, CanalAnomalia.IMPACTO, fuerza);
+    }
+
+    /** @return Detección en streaming asociada, o null si no hay. */
+    public DetectorAnomalias getAnomalias() {
+        return anomalias;
+    }
+
+    /**
+     * Registra una lectura puntual (p. ej. la tomada al confirmar una emergencia).
+     */
+    public void registrar(String idUsuario, long instanteMs, VitalSigns lectura) {
+        registrar(idUsuario, instanteMs, lectura.getRitmoCardiaco(), lectura.getNivelOxigeno(),
+                lectura.getPresionSistolica(), lectura.getPresionDiastolica());
+    }
+
+    /**
+     * @return Historial del usuario, creándolo vacío si aún no tenía.
+     */
+    public HistorialVitales historial(String idUsuario) {
+        HistorialVitales h = historiales.get(idUsuario); // Camino rápido sin reservar memoria
+        if (h == null) h = historiales.computeIfAbsent(idUsuario, id -> new HistorialVitales(capacidad));
+        return h;
+    }
+
+    /**
+     * @return Copia de las lecturas del usuario en los últimos {@code duracionMs}, o null si no tiene ninguna.
+     */
+    public VentanaVitales ventana(String idUsuario, long duracionMs) {
+        HistorialVitales h = historiales.get(idUsuario);
+        if (h == null) return null;
+        VentanaVitales v = h.ventana(System.currentTimeMillis(), duracionMs);
+        return v.isEmpty() ? null : v;
+    }
+
+    /** @return Usuarios con historial. */
+    public int size() {
+        return historiales.size();
+    }
+}
@@ -0,0 +1,145 @@
+package main.java.com.emergencias.vitales;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Configuración inmutable de una regla de detección incremental sobre un canal.
+ *
+ * Todas las reglas tienen histéresis: la alarma se activa al cruzar el umbral de activación
+ * y no puede volver a dispararse hasta que la magnitud vigilada cruce de vuelta el umbral
+ * de rearme. Lo que cambia es la magnitud:
+ * <ul>
+ *     <li>{@link Tipo#HISTERESIS}: la muestra tal cual.</li>
+ *     <li>{@link Tipo#EWMA}: la media móvil exponencial de las muestras (filtra picos aislados).</li>
+ *     <li>{@link Tipo#ZSCORE}: la desviación de la muestra respecto a la media y varianza
+ *     exponenciales del propio usuario, en desviaciones típicas (detecta cambios bruscos
+ *     respecto a su línea base, sea cual sea).</li>
+ * </ul>
+ */
+public class ReglaAnomalia {
+
+    /** Umbral histórico del sensor de impacto para la activación automática. */
+    public static final int UMBRAL_IMPACTO = 50;
+
+    public enum Tipo { HISTERESIS, EWMA, ZSCORE }
+
+    /** Hacia dónde es anómala la magnitud: por encima, por debajo o en valor absoluto. */
+    public enum Sentido { SUPERIOR, INFERIOR, ABSOLUTO }
+
+    private final CanalAnomalia canal;
+    private final Tipo tipo;
+    private final Sentido sentido;
+    private final double umbralActivacion;
+    private final double umbralRearme;
+    private final double alfa;
+    private final int muestrasMinimas;
+
+    private ReglaAnomalia(CanalAnomalia canal, Tipo tipo, Sentido sentido, double umbralActivacion,
+                          double umbralRearme, double alfa, int muestrasMinimas) {
+        boolean rearmeCoherente = sentido == Sentido.INFERIOR
+                ? umbralRearme >= umbralActivacion : umbralRearme <= umbralActivacion;
+        if (!rearmeCoherente) {
+            throw new IllegalArgumentException("El umbral de rearme debe quedar del lado normal del de activación.");
+        }
+        if (tipo != Tipo.HISTERESIS && (alfa <= 0 || alfa > 1)) {
+            throw new IllegalArgumentException("El factor de suavizado debe estar en (0, 1].");
+        }
+        this.canal = canal;
+        this.tipo = tipo;
+        this.sentido = sentido;
+        this.umbralActivacion = umbralActivacion;
+        this.umbralRearme = umbralRearme;
+        this.alfa = alfa;
+        this.muestrasMinimas = muestrasMinimas;
+    }
+
+    /** @return Alarma cuando la muestra alcanza {@code activar}; se rearma por debajo de {@code rearmar}. */
+    public static ReglaAnomalia histeresisSuperior(CanalAnomalia canal, double activar, double rearmar) {
+        return new ReglaAnomalia(canal, Tipo.HISTERESIS, Sentido.SUPERIOR, activar, rearmar, 0, 0);
+    }
+
+    /** @return Alarma cuando la muestra baja hasta {@code activar}; se rearma por encima de {@code rearmar}. */
+    public static ReglaAnomalia histeresisInferior(CanalAnomalia canal, double activar, double rearmar) {
+        return new ReglaAnomalia(canal, Tipo.HISTERESIS, Sentido.INFERIOR, activar, rearmar, 0, 0);
+    }
+
+    /** @return Alarma cuando la media exponencial (factor {@code alfa}) alcanza {@code activar}. */
+    public static ReglaAnomalia ewmaSuperior(CanalAnomalia canal, double alfa, double activar, double rearmar) {
+        return new ReglaAnomalia(canal, Tipo.EWMA, Sentido.SUPERIOR, activar, rearmar, alfa, 0);
+    }
+
+    /** @return Alarma cuando la media exponencial (factor {@code alfa}) baja hasta {@code activar}. */
+    public static ReglaAnomalia ewmaInferior(CanalAnomalia canal, double alfa, double activar, double rearmar) {
+        return new ReglaAnomalia(canal, Tipo.EWMA, Sentido.INFERIOR, activar, rearmar, alfa, 0);
+    }
+
+    /**
+     * @return Alarma cuando una muestra se aleja {@code zActivar} desviaciones típicas de la línea
+     *         base del usuario, una vez vistas {@code muestrasMinimas} muestras.
+     */
+    public static ReglaAnomalia zScore(CanalAnomalia canal, double alfa, double zActivar, double zRearmar,
+                                       int muestrasMinimas) {
+        return new ReglaAnomalia(canal, Tipo.ZSCORE, Sentido.ABSOLUTO, zActivar, zRearmar, alfa, muestrasMinimas);
+    }
+
+    /**
+     * Reglas por defecto: impacto con el umbral histórico, límites clínicos con histéresis,
+     * SpO2 suavizada para ignorar lecturas sueltas del pulsioxímetro y cambios bruscos de ritmo.
+     */
+    public static List<ReglaAnomalia> porDefecto() {
+        return Arrays.asList(
+                histeresisSuperior(CanalAnomalia.IMPACTO, UMBRAL_IMPACTO, 30),
+                histeresisSuperior(CanalAnomalia.RITMO_CARDIACO, 150, 130),
+                histeresisInferior(CanalAnomalia.RITMO_CARDIACO, 40, 50),
+                ewmaInferior(CanalAnomalia.SPO2, 0.3, 88, 92),
+                histeresisSuperior(CanalAnomalia.SISTOLICA, 180, 160),
+                zScore(CanalAnomalia.RITMO_CARDIACO, 0.05, 5, 2, 30));
+    }
+
+    public CanalAnomalia getCanal() { return canal; }
+    public Tipo getTipo() { return tipo; }
+    public Sentido getSentido() { return sentido; }
+    public double getUmbralActivacion() { return umbralActivacion; }
+    public double getUmbralRearme() { return umbralRearme; }
+    public double getAlfa() { return alfa; }
+    public int getMuestrasMinimas() { return muestrasMinimas; }
+
+    /** @return true si la magnitud vigilada está en zona de alarma. */
+    boolean activa(double magnitud) {
+        switch (sentido) {
+            case INFERIOR: return magnitud <= umbralActivacion;
+            case ABSOLUTO: return Math.abs(magnitud) >= umbralActivacion;
+            default: return magnitud >= umbralActivacion;
+        }
+    }
+
+    /** @return true si la magnitud vigilada ha vuelto a la zona normal. */
+    boolean rearmada(double magnitud) {
+        switch (sentido) {
+            case INFERIOR: return magnitud > umbralRearme;
+            case ABSOLUTO: return Math.abs(magnitud) < umbralRearme;
+            default: return magnitud < umbralRearme;
+        }
+    }
+
+    /**
+     * @return Descripción legible de un disparo de esta regla.
+     */
+    String describir(double valor, double magnitud) {
+        switch (tipo) {
+            case EWMA:
+                return String.format(Locale.ROOT, "%s: media %.1f (muestra %.1f, umbral %.1f)", canal, magnitud, valor, umbralActivacion);
+            case ZSCORE:
+                return String.format(Locale.ROOT, "%s: cambio brusco %.1f (z=%.1f)", canal, valor, magnitud);
+            default:
+                return String.format(Locale.ROOT, "%s: %.1f (umbral %.1f)", canal, valor, umbralActivacion);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s %s %s %.1f/%.1f", canal, tipo, sentido, umbralActivacion, umbralRearme);
+    }
+}
@@ -0,0 +1,167 @@
+package test.java;
+
+import main.java.com.emergencias.alert.AcuseDespacho;
+import main.java.com.emergencias.alert.AgrupadorAlertas;
+import main.java.com.emergencias.alert.AlertSender;
+import main.java.com.emergencias.alert.ConfiguracionPipeline;
+import main.java.com.emergencias.detector.TemporizadorConfirmaciones;
+import main.java.com.emergencias.model.EmergencyEvent;
+import main.java.com.emergencias.model.UserData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la agrupación de ráfagas de alertas por usuario y tipo.
+ */
+class AgrupadorAlertasTest {
+
+    private static final long VENTANA_MS = 300;
+
+    private Path directorio;
+    private Path log;
+    private AlertSender sender;
+    private TemporizadorConfirmaciones temporizador;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directorio = Files.createTempDirectory("agrupador");
+        log = directorio.resolve("alertas_log.txt");
+        sender = new AlertSender("112", ConfiguracionPipeline.porDefecto().sinTrazasConsola(), log);
+        temporizador = new TemporizadorConfirmaciones(10, 64, Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        temporizador.close();
+        sender.cerrar(5);
+        Files.deleteIfExists(log);
+        Files.deleteIfExists(directorio);
+    }
+
+    private static UserData usuario(int i) {
+        return new UserData("U" + i, "Usuario " + i, "60000000" + i, "Sin datos", 38.0, -1.0);
+    }
+
+    private static EmergencyEvent evento(UserData usuario, String tipo, String ubicacion) {
+        EmergencyEvent e = new EmergencyEvent(tipo, ubicacion, usuario);
+        e.setEsGrave(true);
+        return e;
+    }
+
+    private List<String> lineas(String marca) throws IOException {
+        return Files.readAllLines(log).stream().filter(l -> l.contains(marca)).collect(Collectors.toList());
+    }
+
+    @Test
+    void testRafagaSeEnviaUnaVezYLuegoUnaActualizacion() throws Exception {
+        AgrupadorAlertas agrupador = new AgrupadorAlertas(sender, VENTANA_MS, 100, temporizador);
+        UserData u = usuario(1);
+        EmergencyEvent primera = evento(u, "Sanitaria", "38.0000, -1.0000");
+
+        List<CompletableFuture<AcuseDespacho>> acuses = new ArrayList<>();
+        acuses.add(agrupador.sendAlert(primera));
+        for (int i = 1; i < 20; i++) acuses.add(agrupador.sendAlert(evento(u, "sanitaria", "38.0000, -1.00" + i)));
+
+        assertEquals(1, agrupador.getEnviadas());
+        assertEquals(19, agrupador.getAgrupadas());
+        assertEquals(1, agrupador.getVentanasAbiertas());
+        for (CompletableFuture<AcuseDespacho> acuse : acuses) assertEquals(primera.getIdEvento(), acuse.join().getIdEvento());
+
+        // Vence el plazo sin más alertas: una actualización con la última ubicación y la ventana se cierra
+        long limite = System.currentTimeMillis() + 5_000;
+        while (agrupador.getVentanasAbiertas() > 0 && System.currentTimeMillis() < limite) Thread.sleep(20);
+        assertEquals(0, agrupador.getVentanasAbiertas());
+        assertEquals(1, agrupador.getActualizaciones());
+        sender.cerrar(5);
+
+        assertEquals(1, lineas("ALERTA GRAVE").size());
+        List<String> actualizaciones = lineas("ACTUALIZACION");
+        assertEquals(1, actualizaciones.size());
+        assertTrue(actualizaciones.get(0).contains("ID: " + primera.getIdEvento() + " | Agrupadas: 19"), actualizaciones.get(0));
+        assertTrue(actualizaciones.get(0).contains("Ubicacion: 38.0000, -1.0019"), actualizaciones.get(0));
+    }
+
+    @Test
+    void testUsuariosYTiposDistintosNoSeAgrupan() {
+        AgrupadorAlertas agrupador = new AgrupadorAlertas(sender, VENTANA_MS, 100, temporizador);
+        agrupador.sendAlert(evento(usuario(1), "Sanitaria", null)).join();
+        agrupador.sendAlert(evento(usuario(1), "Tráfico", null)).join();
+        agrupador.sendAlert(evento(usuario(2), "Sanitaria", null)).join();
+
+        assertEquals(3, agrupador.getEnviadas());
+        assertEquals(0, agrupador.getAgrupadas());
+        assertEquals(3, agrupador.getVentanasAbiertas());
+    }
+
+    @Test
+    void testConLasVentanasLlenasSeEnviaSinAgrupar() {
+        AgrupadorAlertas agrupador = new AgrupadorAlertas(sender, 60_000, 2, temporizador);
+        for (int i = 0; i < 5; i++) agrupador.sendAlert(evento(usuario(i), "General", null)).join();
+
+        assertEquals(5, agrupador.getEnviadas());
+        assertEquals(3, agrupador.getSinAgrupar());
+        assertEquals(2, agrupador.getVentanasAbiertas());
+        // Las ventanas abiertas siguen agrupando
+        agrupador.sendAlert(evento(usuario(0), "General", null)).join();
+        assertEquals(1, agrupador.getAgrupadas());
+    }
+
+    @Test
+    void testSiLaOriginalFallaLaVentanaNoSeQuedaAbierta() {
+        AlertSender cerrado = new AlertSender("112", ConfiguracionPipeline.porDefecto().sinTrazasConsola(), log);
+        cerrado.cerrar(5);
+        AgrupadorAlertas agrupador = new AgrupadorAlertas(cerrado, 60_000, 100, temporizador);
+        UserData u = usuario(1);
+
+        CompletableFuture<AcuseDespacho> primera = agrupador.sendAlert(evento(u, "Sanitaria", null));
+        assertTrue(primera.isCompletedExceptionally());
+        assertEquals(0, agrupador.getVentanasAbiertas(), "Una original sin despachar no abre ventana");
+
+        // La siguiente del mismo usuario y tipo se intenta despachar, no se agrupa con la fallida
+        agrupador.sendAlert(evento(u, "Sanitaria", null));
+        assertEquals(2, agrupador.getEnviadas());
+        assertEquals(0, agrupador.getAgrupadas());
+    }
+
+    @Test
+    void testConcurrenteNoPierdeNiDuplicaAlertas() throws Exception {
+        AgrupadorAlertas agrupador = new AgrupadorAlertas(sender, 60_000, 100, temporizador);
+        UserData[] usuarios = new UserData[10];
+        for (int i = 0; i < usuarios.length; i++) usuarios[i] = usuario(i);
+
+        List<Thread> hilos = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int semilla = t;
+            Thread hilo = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    agrupador.sendAlert(evento(usuarios[(semilla + i) % usuarios.length], "Sanitaria", null)).join();
+                }
+            });
+            hilos.add(hilo);
+            hilo.start();
+        }
+        for (Thread hilo : hilos) hilo.join();
+
+        assertEquals(10, agrupador.getEnviadas());
+        assertEquals(3990, agrupador.getAgrupadas());
+
+        agrupador.vaciar();
+        sender.cerrar(5);
+        assertEquals(0, agrupador.getVentanasAbiertas());
+        assertEquals(10, lineas("ALERTA GRAVE").size());
+        int totalAgrupadas = lineas("ACTUALIZACION").stream()
+                .mapToInt(l -> Integer.parseInt(l.replaceAll(".*Agrupadas: (\\d+).*", "$1"))).sum();
+        assertEquals(3990, totalAgrupadas);
+    }
+}
@@ -0,0 +1,221 @@
+package test.java;
+
+import main.java.com.emergencias.alert.AlertLogQuery;
+import main.java.com.emergencias.alert.LineaLogAlerta;
+import main.java.com.emergencias.alert.SegmentosLog;
+import main.java.com.emergencias.model.GeneradorIds;
+import main.java.com.emergencias.model.IdEvento;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del motor de consultas indexado sobre el log de alertas.
+ */
+class AlertLogQueryTest {
+
+    private static final DateTimeFormatter FORMATO = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 11, 30, 18, 0, 0);
+    private static final String[] TIPOS = {"Sanitaria", "Tráfico", "general"};
+
+    private Path directorio;
+    private Path log;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directorio = Files.createTempDirectory("alertas-query");
+        log = directorio.resolve("alertas_log.txt");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            for (Path p : (Iterable<Path>) ficheros::iterator) Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(directorio);
+    }
+
+    private static String id(int i) {
+        return String.format("%08x-0000-4000-8000-%012d", i, i);
+    }
+
+    /** Línea con el formato actual de persistAlert (con vitales) o el antiguo (sin ellos). */
+    private static String linea(int i) {
+        String ts = BASE.plusMinutes(i).format(FORMATO);
+        String vitales = i % 2 == 0 ? " | Vitales: [HR: 120 bpm | SpO2: 95% | PA: 130/80]" : "";
+        return String.format("[%s] ALERTA GRAVE | Tipo: %s | ID: %s%s | Ubicacion: 38°16'47.1\"N (Elche, España) | Usuario: Raul Parreño Agullo\n",
+                ts, TIPOS[i % TIPOS.length], id(i), vitales);
+    }
+
+    private void escribirLineas(int desde, int hasta) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = desde; i < hasta; i++) sb.append(linea(i));
+        Files.write(log, sb.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Test
+    void testParseaLasVariantesDeLinea() {
+        LineaLogAlerta conVitales = LineaLogAlerta.parsear(linea(0).trim(), 0);
+        LineaLogAlerta sinVitales = LineaLogAlerta.parsear(linea(1).trim(), 0);
+
+        assertNotNull(conVitales);
+        assertNotNull(sinVitales);
+        assertEquals("[HR: 120 bpm | SpO2: 95% | PA: 130/80]", conVitales.getVitales());
+        assertNull(sinVitales.getVitales());
+        assertEquals("Tráfico", sinVitales.getTipo());
+        assertEquals("Raul Parreño Agullo", sinVitales.getUsuario());
+        assertTrue(sinVitales.getUbicacion().contains("Elche"));
+        assertNull(LineaLogAlerta.parsear("línea corrupta", 0));
+
+        LineaLogAlerta sinUbicacion = LineaLogAlerta.parsear("[2026-01-11 14:17:05] ALERTA GRAVE | Tipo: Indefinido (TIMEOUT) | "
+                + "ID: c4b2e61c-da0c-4889-bde5-e897991f36b9 | Vitales: [HR: 67 bpm | SpO2: 90% | PA: 125/88] | Usuario: Raul Parreño Agullo", 0);
+        assertNotNull(sinUbicacion);
+        assertEquals("Indefinido (TIMEOUT)", sinUbicacion.getTipo());
+        assertNull(sinUbicacion.getUbicacion());
+        assertEquals("Raul Parreño Agullo", sinUbicacion.getUsuario());
+    }
+
+    @Test
+    void testBusquedaPorIdYPorPrefijo() throws IOException {
+        escribirLineas(0, 300);
+        try (AlertLogQuery consulta = new AlertLogQuery(log)) {
+            LineaLogAlerta encontrada = consulta.buscarPorId(id(137));
+            assertNotNull(encontrada);
+            assertEquals(BASE.plusMinutes(137), encontrada.getTimestamp());
+            assertNull(consulta.buscarPorId("no-existe"));
+
+            List<LineaLogAlerta> porPrefijo = consulta.buscarPorPrefijoId(id(42).substring(0, 8));
+            assertEquals(1, porPrefijo.size());
+            assertEquals(id(42), porPrefijo.get(0).getIdEvento());
+        }
+    }
+
+    @Test
+    void testBusquedaPorFormaCortaDelId() throws IOException {
+        escribirLineas(0, 50);
+        IdEvento id = GeneradorIds.uuidV7().siguiente();
+        String nueva = linea(50).replace(id(50), id.toString());
+        Files.write(log, nueva.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        try (AlertLogQuery consulta = new AlertLogQuery(log)) {
+            List<LineaLogAlerta> encontradas = consulta.buscarPorPrefijoId(id.corto().toLowerCase());
+            assertEquals(1, encontradas.size());
+            assertEquals(id.toString(), encontradas.get(0).getIdEvento());
+        }
+    }
+
+    @Test
+    void testRangoTemporalConFiltroDeTipoIgualAFuerzaBruta() throws IOException {
+        escribirLineas(0, 500);
+        try (AlertLogQuery consulta = new AlertLogQuery(log)) {
+            LocalDateTime desde = BASE.plusMinutes(100);
+            LocalDateTime hasta = BASE.plusMinutes(260);
+
+            List<LineaLogAlerta> todas = consulta.buscarPorRango(desde, hasta);
+            assertEquals(161, todas.size());
+            assertEquals(id(100), todas.get(0).getIdEvento());
+            assertEquals(id(260), todas.get(todas.size() - 1).getIdEvento());
+
+            // "trafico" sin tilde debe coincidir con "Tráfico"
+            List<LineaLogAlerta> trafico = consulta.buscar(desde, hasta, "trafico");
+            long esperadas = todas.stream().filter(l -> l.getTipo().equals("Tráfico")).count();
+            assertEquals(esperadas, trafico.size());
+            assertTrue(trafico.stream().allMatch(l -> l.getTipo().equals("Tráfico")));
+
+            assertEquals(167, consulta.buscarPorTipo("TRÁFICO").size());
+            assertTrue(consulta.buscarPorRango(BASE.minusDays(1), BASE.minusSeconds(1)).isEmpty());
+        }
+    }
+
+    @Test
+    void testIndiceIncrementalYLineaIncompleta() throws IOException {
+        escribirLineas(0, 10);
+        try (AlertLogQuery consulta = new AlertLogQuery(log)) {
+            assertEquals(10, consulta.size());
+
+            escribirLineas(10, 20);
+            String parcial = linea(20);
+            Files.write(log, parcial.substring(0, 40).getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            assertEquals(20, consulta.size(), "La línea incompleta no debe indexarse todavía");
+
+            Files.write(log, parcial.substring(40).getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            assertEquals(21, consulta.size());
+            assertNotNull(consulta.buscarPorId(id(20)));
+        }
+    }
+
+    @Test
+    void testLasConsultasIncluyenLosSegmentosSellados() throws IOException {
+        // Dos segmentos sellados (el más antiguo ya comprimido) y el vivo
+        escribirLineas(0, 100);
+        SegmentosLog.comprimir(Files.move(log, SegmentosLog.rutaSellado(log, 1)));
+        escribirLineas(100, 200);
+        Files.move(log, SegmentosLog.rutaSellado(log, 2));
+        escribirLineas(200, 300);
+
+        try (AlertLogQuery consulta = new AlertLogQuery(log)) {
+            assertEquals(300, consulta.size());
+            assertEquals(BASE.plusMinutes(37), consulta.buscarPorId(id(37)).getTimestamp());
+            assertNotNull(consulta.buscarPorId(id(150)));
+            assertNotNull(consulta.buscarPorId(id(250)));
+            assertEquals(id(42), consulta.buscarPorPrefijoId(id(42).substring(0, 8)).get(0).getIdEvento());
+            assertEquals(List.of(id(1), id(10), id(100)), consulta.buscarPorPrefijoId("000000").stream()
+                    .filter(l -> List.of(id(1), id(10), id(100)).contains(l.getIdEvento()))
+                    .map(LineaLogAlerta::getIdEvento).toList());
+
+            List<LineaLogAlerta> rango = consulta.buscarPorRango(BASE.plusMinutes(90), BASE.plusMinutes(210));
+            assertEquals(121, rango.size());
+            assertEquals(id(90), rango.get(0).getIdEvento(), "Los sellados van antes que el vivo, en orden");
+            assertEquals(id(210), rango.get(rango.size() - 1).getIdEvento());
+            assertEquals(100, consulta.buscarPorTipo("sanitaria").size());
+
+            // Sellar el vivo entre consultas no pierde ni duplica alertas
+            Files.move(log, SegmentosLog.rutaSellado(log, 3));
+            escribirLineas(300, 310);
+            assertEquals(310, consulta.size());
+            assertNotNull(consulta.buscarPorId(id(250)));
+
+            // La retención borra el más antiguo: sus alertas dejan de aparecer
+            Files.delete(SegmentosLog.sellados(log).get(0));
+            assertEquals(210, consulta.size());
+            assertNull(consulta.buscarPorId(id(37)));
+        }
+    }
+
+    @Test
+    void testIndicePersistidoSeReutilizaYSeReconstruyeSiElLogCambia() throws IOException {
+        escribirLineas(0, 100);
+        try (AlertLogQuery consulta = new AlertLogQuery(log)) {
+            assertEquals(100, consulta.size());
+        }
+        assertTrue(Files.exists(log.resolveSibling("alertas_log.txt.idx")));
+
+        escribirLineas(100, 120);
+        try (AlertLogQuery consulta = new AlertLogQuery(log)) {
+            assertEquals(120, consulta.size());
+            assertNotNull(consulta.buscarPorId(id(5)));
+            assertNotNull(consulta.buscarPorId(id(115)));
+        }
+
+        // Log sustituido por otro más corto: el índice antiguo no debe usarse
+        Files.delete(log);
+        escribirLineas(500, 505);
+        try (AlertLogQuery consulta = new AlertLogQuery(log)) {
+            assertEquals(5, consulta.size());
+            assertNull(consulta.buscarPorId(id(5)));
+            assertNotNull(consulta.buscarPorId(id(502)));
+        }
+    }
+}
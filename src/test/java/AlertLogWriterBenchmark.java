@@ -0,0 +1,69 @@
+package test.java;
+
+import main.java.com.emergencias.alert.AlertLogWriter;
+import main.java.com.emergencias.alert.PoliticaDurabilidad;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Comparativa de rendimiento del log de alertas: apertura/cierre de {@link FileWriter}
+ * por alerta (implementación anterior de persistAlert) frente al escritor con
+ * confirmación en grupo, con varios hilos escribiendo a la vez.
+ * Uso: {@code java ... test.java.AlertLogWriterBenchmark [hilos] [alertasPorHilo]}
+ */
+public class AlertLogWriterBenchmark {
+
+    private static final String LINEA = "[2025-11-30 18:43:03] ALERTA GRAVE | Tipo: Sanitaria | ID: e7d7de5a-3562-404d-ae49-3dec3c037888"
+            + " | Vitales: [HR: 120 bpm | SpO2: 95% | PA: 130/80] | Ubicacion: 38.2265, -1.6188 | Usuario: Usuario Prueba\n";
+    private static final Object LOCK = new Object();
+
+    interface Escritor {
+        void escribir(String linea) throws IOException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int hilos = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int porHilo = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        Path fichero = Files.createTempFile("bench-alertas", ".txt");
+
+        System.out.printf("Hilos: %d, alertas por hilo: %d%n", hilos, porHilo);
+        medir("FileWriter por alerta (anterior)", hilos, porHilo, fichero, linea -> {
+            synchronized (LOCK) {
+                try (FileWriter w = new FileWriter(fichero.toFile(), true)) {
+                    w.write(linea);
+                }
+            }
+        }, null);
+
+        for (PoliticaDurabilidad politica : new PoliticaDurabilidad[]{
+                PoliticaDurabilidad.cadaAlerta(), PoliticaDurabilidad.cadaAlertas(256), PoliticaDurabilidad.cadaMilisegundos(50)}) {
+            AlertLogWriter writer = new AlertLogWriter(fichero, politica);
+            medir("Confirmación en grupo, force " + politica, hilos, porHilo, fichero, writer::escribir, writer);
+        }
+        Files.deleteIfExists(fichero);
+    }
+
+    private static void medir(String nombre, int hilos, int porHilo, Path fichero, Escritor escritor,
+                              AutoCloseable recurso) throws Exception {
+        Files.deleteIfExists(fichero);
+        Thread[] trabajadores = new Thread[hilos];
+        long inicio = System.nanoTime();
+        for (int h = 0; h < hilos; h++) {
+            trabajadores[h] = new Thread(() -> {
+                try {
+                    for (int i = 0; i < porHilo; i++) escritor.escribir(LINEA);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            trabajadores[h].start();
+        }
+        for (Thread t : trabajadores) t.join();
+        if (recurso != null) recurso.close();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("%-45s %10.0f alertas/s%n", nombre, hilos * porHilo / segundos);
+    }
+}
@@ -0,0 +1,242 @@
+package test.java;
+
+import main.java.com.emergencias.alert.AlertLogWriter;
+import main.java.com.emergencias.alert.PoliticaDurabilidad;
+import main.java.com.emergencias.alert.PoliticaRotacion;
+import main.java.com.emergencias.alert.SegmentosLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del escritor del log de alertas con confirmación en grupo.
+ */
+class AlertLogWriterTest {
+
+    private Path directorio;
+    private Path log;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directorio = Files.createTempDirectory("alertas-log");
+        log = directorio.resolve("alertas_log.txt");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            for (Path p : (Iterable<Path>) ficheros::iterator) Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(directorio);
+    }
+
+    private static String linea(int i) {
+        return String.format("[2025-11-30 18:00:00] ALERTA GRAVE | Tipo: Test | ID: %06d | Usuario: Secuencial\n", i);
+    }
+
+    private List<String> leerTodo() throws IOException {
+        try (Stream<String> lineas = SegmentosLog.lineas(log)) {
+            return lineas.collect(Collectors.toList());
+        }
+    }
+
+    private void escribirConcurrente(AlertLogWriter writer, int hilos, int porHilo) throws InterruptedException {
+        Thread[] escritores = new Thread[hilos];
+        for (int h = 0; h < hilos; h++) {
+            final int id = h;
+            escritores[h] = new Thread(() -> {
+                for (int i = 0; i < porHilo; i++) {
+                    writer.escribir(String.format("[2025-11-30 18:00:00] ALERTA GRAVE | Tipo: Test | ID: %d-%d | Usuario: Hilo %d\n", id, i, id));
+                }
+            });
+            escritores[h].start();
+        }
+        for (Thread t : escritores) t.join();
+    }
+
+    @Test
+    void testEscritoresConcurrentesProducenLineasCompletasYSinPerdidas() throws Exception {
+        try (AlertLogWriter writer = new AlertLogWriter(log, PoliticaDurabilidad.cadaAlerta())) {
+            escribirConcurrente(writer, 8, 250);
+        }
+
+        List<String> lineas = Files.readAllLines(log);
+        assertEquals(2000, lineas.size());
+        Set<String> ids = new HashSet<>();
+        for (String linea : lineas) {
+            assertTrue(linea.startsWith("[2025-11-30 18:00:00] ALERTA GRAVE") && linea.endsWith("Hilo " + linea.split("ID: ")[1].split("-")[0]),
+                    "Línea entrelazada o truncada: " + linea);
+            ids.add(linea.split("ID: ")[1].split(" ")[0]);
+        }
+        assertEquals(2000, ids.size());
+    }
+
+    @Test
+    void testLaLineaEsVisibleAlVolverDeEscribirConPoliticasDiferidas() throws Exception {
+        try (AlertLogWriter writer = new AlertLogWriter(log, PoliticaDurabilidad.cadaMilisegundos(10_000))) {
+            writer.escribir("linea 1\n");
+            assertEquals(List.of("linea 1"), Files.readAllLines(log));
+
+            writer.escribir("linea 2\n");
+            assertEquals(2, Files.readAllLines(log).size());
+        }
+    }
+
+    @Test
+    void testCierreVuelcaLoPendienteConPoliticaPorNumeroDeAlertas() throws Exception {
+        AlertLogWriter writer = new AlertLogWriter(log, PoliticaDurabilidad.cadaAlertas(1000));
+        escribirConcurrente(writer, 4, 10);
+        writer.close();
+
+        assertEquals(40, Files.readAllLines(log).size());
+        assertThrows(IllegalStateException.class, () -> writer.escribir("tarde\n"));
+    }
+
+    @Test
+    void testUnVolcadoFallidoSeReintentaSinHacerFallarALasLineasSiguientes() throws Exception {
+        Path subdirectorio = directorio.resolve("aun-no-existe");
+        Path enSubdirectorio = subdirectorio.resolve("alertas_log.txt");
+        try (AlertLogWriter writer = new AlertLogWriter(enSubdirectorio, PoliticaDurabilidad.cadaAlerta())) {
+            assertThrows(UncheckedIOException.class, () -> writer.escribir(linea(1)));
+
+            Files.createDirectory(subdirectorio);
+            assertDoesNotThrow(() -> writer.escribir(linea(2)), "El error queda en el lote que falló");
+            assertEquals(List.of(linea(1).trim(), linea(2).trim()), Files.readAllLines(enSubdirectorio),
+                    "El lote fallido se conserva y se escribe en el reintento");
+        } finally {
+            Files.deleteIfExists(enSubdirectorio);
+            Files.deleteIfExists(subdirectorio);
+        }
+    }
+
+    @Test
+    void testElCierreNoEsperaIndefinidamenteSiElVolcadoSigueFallando() {
+        AlertLogWriter writer = new AlertLogWriter(directorio.resolve("no-existe").resolve("alertas_log.txt"),
+                PoliticaDurabilidad.cadaAlerta());
+        assertThrows(UncheckedIOException.class, () -> writer.escribir(linea(1)));
+
+        long inicio = System.nanoTime();
+        writer.close();
+        assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(5), "El cierre reintenta un número acotado de veces");
+    }
+
+    @Test
+    void testElFicheroNoSeCreaSinAlertas() {
+        new AlertLogWriter(log, PoliticaDurabilidad.cadaAlerta()).close();
+
+        assertFalse(Files.exists(log));
+    }
+
+    @Test
+    void testRotacionPorTamanoSellaComprimeYSeLeeEnOrden() throws Exception {
+        try (AlertLogWriter writer = new AlertLogWriter(log, PoliticaDurabilidad.cadaAlerta(), PoliticaRotacion.porTamano(2000))) {
+            for (int i = 0; i < 200; i++) writer.escribir(linea(i));
+        }
+
+        List<Path> sellados = SegmentosLog.sellados(log);
+        assertTrue(sellados.size() > 5, "Debe haber varios segmentos sellados: " + sellados);
+        assertTrue(sellados.stream().allMatch(SegmentosLog::esComprimido), "Todos los sellados deben estar comprimidos");
+        assertTrue(Files.size(log) <= 2000);
+
+        List<String> lineas = leerTodo();
+        assertEquals(200, lineas.size());
+        for (int i = 0; i < 200; i++) assertEquals(linea(i).trim(), lineas.get(i));
+        assertEquals(200, SegmentosLog.eventos(log).count());
+    }
+
+    @Test
+    void testRetencionConservaSoloLosUltimosSegmentos() throws Exception {
+        PoliticaRotacion rotacion = PoliticaRotacion.porTamano(500).reteniendoSegmentos(2);
+        try (AlertLogWriter writer = new AlertLogWriter(log, PoliticaDurabilidad.cadaAlerta(), rotacion)) {
+            for (int i = 0; i < 100; i++) writer.escribir(linea(i));
+        }
+
+        assertEquals(2, SegmentosLog.sellados(log).size());
+        List<String> lineas = leerTodo();
+        assertTrue(lineas.size() < 100);
+        assertEquals(linea(99).trim(), lineas.get(lineas.size() - 1));
+        assertEquals(linea(100 - lineas.size()).trim(), lineas.get(0), "Lo conservado debe ser la cola contigua del log");
+    }
+
+    @Test
+    void testLaRetencionNoBorraSegmentosPendientesDeComprimir() throws Exception {
+        for (int n = 1; n <= 3; n++) Files.write(SegmentosLog.rutaSellado(log, n), linea(n).getBytes(StandardCharsets.UTF_8));
+        SegmentosLog.comprimir(SegmentosLog.rutaSellado(log, 1));
+        SegmentosLog.comprimir(SegmentosLog.rutaSellado(log, 2));
+
+        assertEquals(1, SegmentosLog.aplicarRetencion(log, PoliticaRotacion.porTamano(500).reteniendoSegmentos(1)));
+        assertTrue(Files.exists(SegmentosLog.rutaSellado(log, 3)), "El pendiente de comprimir no se borra");
+        // Comprimir un segmento que ya no existe no es un error
+        Path borrado = SegmentosLog.rutaSellado(log, 1);
+        assertDoesNotThrow(() -> SegmentosLog.comprimir(borrado));
+        assertEquals(0, SegmentosLog.aplicarRetencion(log, PoliticaRotacion.porDefecto()),
+                "La política por defecto no borra registros de auditoría");
+    }
+
+    @Test
+    void testLaDuracionDelSegmentoSeCuentaDesdeSuAperturaAnotada() throws Exception {
+        PoliticaRotacion diaria = PoliticaRotacion.porTiempo(TimeUnit.DAYS.toMillis(1));
+        try (AlertLogWriter writer = new AlertLogWriter(log, PoliticaDurabilidad.cadaAlerta(), diaria)) {
+            writer.escribir(linea(0));
+        }
+        Path inicio = log.resolveSibling("alertas_log.txt.inicio");
+        assertTrue(Files.exists(inicio));
+
+        // Reabrir el log sin que haya pasado el día no lo sella, aunque el fichero se haya modificado
+        try (AlertLogWriter writer = new AlertLogWriter(log, PoliticaDurabilidad.cadaAlerta(), diaria)) {
+            writer.escribir(linea(1));
+        }
+        assertTrue(SegmentosLog.sellados(log).isEmpty());
+
+        // Con la apertura anotada hace dos días, la siguiente línea va a un segmento nuevo
+        Files.writeString(inicio, Long.toString(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2)));
+        try (AlertLogWriter writer = new AlertLogWriter(log, PoliticaDurabilidad.cadaAlerta(), diaria)) {
+            writer.escribir(linea(2));
+        }
+        assertEquals(1, SegmentosLog.sellados(log).size());
+        assertEquals(List.of(linea(2).trim()), Files.readAllLines(log));
+        assertEquals(List.of(linea(0).trim(), linea(1).trim(), linea(2).trim()), leerTodo());
+    }
+
+    @Test
+    void testRotacionConEscritoresConcurrentesNoPierdeLineas() throws Exception {
+        try (AlertLogWriter writer = new AlertLogWriter(log, PoliticaDurabilidad.cadaAlertas(64), PoliticaRotacion.porTamano(10_000))) {
+            escribirConcurrente(writer, 8, 250);
+        }
+
+        List<String> lineas = leerTodo();
+        assertEquals(2000, lineas.size());
+        assertEquals(2000, lineas.stream().map(l -> l.split("ID: ")[1].split(" ")[0]).distinct().count());
+    }
+
+    @Test
+    void testArranqueRecuperaCompresionesPendientesYContinuaLaNumeracion() throws Exception {
+        Path huerfano = SegmentosLog.rutaSellado(log, 3);
+        Files.write(huerfano, linea(0).getBytes(StandardCharsets.UTF_8));
+        Files.write(log, linea(1).getBytes(StandardCharsets.UTF_8));
+
+        try (AlertLogWriter writer = new AlertLogWriter(log, PoliticaDurabilidad.cadaAlerta(), PoliticaRotacion.porTamano(150))) {
+            writer.escribir(linea(2));
+        }
+
+        assertFalse(Files.exists(huerfano));
+        assertTrue(Files.exists(huerfano.resolveSibling(huerfano.getFileName() + ".gz")));
+        assertTrue(Files.exists(SegmentosLog.rutaSellado(log, 4).resolveSibling(
+                SegmentosLog.rutaSellado(log, 4).getFileName() + ".gz")));
+        assertEquals(List.of(linea(0).trim(), linea(1).trim(), linea(2).trim()), leerTodo());
+    }
+}
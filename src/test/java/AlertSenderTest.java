@@ -1,16 +1,30 @@
 package test.java;
 
+import main.java.com.emergencias.alert.AcuseDespacho;
 import main.java.com.emergencias.alert.AlertSender;
+import main.java.com.emergencias.alert.ConfiguracionPipeline;
 import main.java.com.emergencias.model.EmergencyEvent;
+import main.java.com.emergencias.model.IdEvento;
 import main.java.com.emergencias.model.UserData;
+import main.java.com.emergencias.respaldo.BandejaSalida;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -24,6 +38,8 @@ class AlertSenderTest {
     private EmergencyEvent eventGrave;
     private EmergencyEvent eventNoGrave;
     private final String LOG_FILENAME = "alertas_log.txt";
+    private Path directorioLog;
+    private Path logPath;
 
     @BeforeEach
     void setUp() throws IOException {
@@ -31,22 +47,32 @@ class AlertSenderTest {
         // Esto mantiene la coherencia con el nuevo modelo de datos dinámicos [cite: 16, 21]
         dummyUser = new UserData("Test Sender", "987654321", "Test Info", 38.267, -0.716);
 
-        alertSender = new AlertSender("112");
+        // Cada prueba escribe en su propio log temporal y no en el compartido del directorio de trabajo
+        directorioLog = Files.createTempDirectory("alert-sender");
+        logPath = directorioLog.resolve(LOG_FILENAME);
+        alertSender = new AlertSender("112", ConfiguracionPipeline.porDefecto(), logPath);
 
         eventGrave = new EmergencyEvent("Accidente", "Test Loc 1", dummyUser);
         eventGrave.setEsGrave(true);
 
         eventNoGrave = new EmergencyEvent("Falso Positivo", "Test Loc 2", dummyUser);
         eventNoGrave.setEsGrave(false);
+    }
 
-        Files.deleteIfExists(Paths.get(LOG_FILENAME));
+    @AfterEach
+    void tearDown() throws IOException {
+        alertSender.cerrar(5);
+        try (Stream<Path> ficheros = Files.list(directorioLog)) {
+            for (Path p : (Iterable<Path>) ficheros::iterator) Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(directorioLog);
     }
 
     @Test
     void testEnvioAlertaConGravedadConfirmadaYCreacionLog() throws IOException {
-        assertDoesNotThrow(() -> alertSender.sendAlert(eventGrave));
+        // El envío es asíncrono: se espera al acuse del despacho, que incluye el log local
+        assertDoesNotThrow(() -> alertSender.sendAlert(eventGrave).join());
 
-        Path logPath = Paths.get(LOG_FILENAME);
         assertTrue(Files.exists(logPath), "El archivo de log debe crearse.");
 
         List<String> logLines = Files.readAllLines(logPath);
@@ -63,7 +89,136 @@ class AlertSenderTest {
     void testEnvioAlertaSinGravedadConfirmadaNoCreaLog() throws IOException {
         assertDoesNotThrow(() -> alertSender.sendAlert(eventNoGrave));
 
-        Path logPath = Paths.get(LOG_FILENAME);
         assertFalse(Files.exists(logPath), "El archivo de log NO debe crearse para eventos no graves.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSiLaAlertaNoLlegaAlLogElAcuseTerminaConError() {
+        AlertSender sinLog = new AlertSender("112", ConfiguracionPipeline.porDefecto().sinTrazasConsola(),
+                Paths.get("no-existe", "sub", LOG_FILENAME));
+        CompletableFuture<AcuseDespacho> acuse = sinLog.sendAlert(eventGrave);
+
+        CompletionException error = assertThrows(CompletionException.class, acuse::join);
+        assertInstanceOf(UncheckedIOException.class, error.getCause(), "La política de durabilidad se respeta en el acuse");
+        sinLog.cerrar(5);
+    }
+
+    @Test
+    void testElRespaldoSeAnotaEnLaBandejaAntesDelAcuse() throws Exception {
+        Path directorio = Files.createTempDirectory("bandeja-sender");
+        try (BandejaSalida bandeja = new BandejaSalida(directorio)) {
+            AlertSender conRespaldo = new AlertSender("112", ConfiguracionPipeline.porDefecto().sinTrazasConsola(),
+                    directorio.resolve(LOG_FILENAME), bandeja);
+            AcuseDespacho acuse = conRespaldo.sendAlert(eventGrave).get(5, TimeUnit.SECONDS);
+
+            assertEquals(eventGrave.getIdEvento(), acuse.getIdEvento());
+            // Con el acuse en la mano la alerta ya está en la bandeja, sin esperar a los contactos
+            assertEquals(1, bandeja.getAnotadas());
+            assertDoesNotThrow(() -> acuse.getTareasSecundarias().get(5, TimeUnit.SECONDS));
+            List<IdEvento> anotadas = new ArrayList<>();
+            bandeja.leer(bandeja.getConfirmada(), 10, Integer.MAX_VALUE, (id, datos) -> anotadas.add(id));
+            assertEquals(List.of(eventGrave.getId()), anotadas);
+            conRespaldo.cerrar(5);
+        } finally {
+            try (Stream<Path> ficheros = Files.list(directorio)) {
+                for (Path p : (Iterable<Path>) ficheros::iterator) Files.deleteIfExists(p);
+            }
+            Files.deleteIfExists(directorio);
+        }
+    }
+
+    @Test
+    void testContrapresionRechazarDescartaTareasCuandoLaColaSeLlena() {
+        AlertSender saturado = new AlertSender("112",
+                new ConfiguracionPipeline(1, 1, ConfiguracionPipeline.Contrapresion.RECHAZAR),
+                directorioLog.resolve("saturado_" + LOG_FILENAME));
+        List<CompletableFuture<Void>> secundarias = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            EmergencyEvent e = new EmergencyEvent("Accidente", "Loc " + i, dummyUser);
+            e.setEsGrave(true);
+            CompletableFuture<AcuseDespacho> acuse = saturado.sendAlert(e);
+            secundarias.add(acuse.thenCompose(AcuseDespacho::getTareasSecundarias));
+        }
+
+        long fallidas = secundarias.stream().filter(f -> {
+            try {
+                f.get(10, TimeUnit.SECONDS);
+                return false;
+            } catch (Exception ex) {
+                return true;
+            }
+        }).count();
+        saturado.cerrar(10);
+
+        assertTrue(fallidas > 0, "Con colas de tamaño 1 alguna tarea debe rechazarse.");
+    }
+
+    @Test
+    void testLaEtapaBloqueanteEsperaHuecoYSiempreTieneTrabajador() throws Exception {
+        ThreadPoolExecutor etapa = new ConfiguracionPipeline(1, 1, ConfiguracionPipeline.Contrapresion.BLOQUEAR)
+                .crearEtapa("prueba-bloquear");
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch ejecutadas = new CountDownLatch(3);
+        etapa.execute(() -> {
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ejecutadas.countDown();
+        });
+        etapa.execute(ejecutadas::countDown);
+        Thread productor = new Thread(() -> etapa.execute(ejecutadas::countDown));
+        productor.start();
+        productor.join(300);
+        assertTrue(productor.isAlive(), "Con la etapa llena el llamante debe esperar hueco");
+        liberar.countDown();
+        productor.join(5_000);
+        assertTrue(ejecutadas.await(5, TimeUnit.SECONDS));
+
+        // Tras liberarse el trabajador por inactividad, una tarea nueva debe ejecutarse igualmente
+        Thread.sleep(2_500);
+        assertEquals(0, etapa.getPoolSize());
+        CountDownLatch tardia = new CountDownLatch(1);
+        etapa.execute(tardia::countDown);
+        assertTrue(tardia.await(5, TimeUnit.SECONDS), "Ninguna tarea se queda en cola sin trabajador");
+
+        etapa.shutdown();
+        assertThrows(RejectedExecutionException.class, () -> etapa.execute(() -> { }));
+        assertTrue(etapa.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testLaContrapresionNoDescartaElRespaldoDeUnaAlertaConfirmada() throws Exception {
+        Path directorio = Files.createTempDirectory("bandeja-saturada");
+        try (BandejaSalida bandeja = new BandejaSalida(directorio)) {
+            AlertSender saturado = new AlertSender("112", new ConfiguracionPipeline(1, 1,
+                    ConfiguracionPipeline.Contrapresion.RECHAZAR).sinTrazasConsola(),
+                    directorio.resolve(LOG_FILENAME), bandeja);
+            List<CompletableFuture<AcuseDespacho>> acuses = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                EmergencyEvent e = new EmergencyEvent("Accidente", "Loc " + i, dummyUser);
+                e.setEsGrave(true);
+                acuses.add(saturado.sendAlert(e));
+            }
+
+            long confirmadas = acuses.stream().filter(f -> {
+                try {
+                    f.get(10, TimeUnit.SECONDS);
+                    return true;
+                } catch (Exception ex) {
+                    return false;
+                }
+            }).count();
+            saturado.cerrar(10);
+
+            assertTrue(confirmadas > 0);
+            assertEquals(confirmadas, bandeja.getAnotadas(), "Toda alerta confirmada debe estar en la bandeja");
+        } finally {
+            try (Stream<Path> ficheros = Files.list(directorio)) {
+                for (Path p : (Iterable<Path>) ficheros::iterator) Files.deleteIfExists(p);
+            }
+            Files.deleteIfExists(directorio);
+        }
+    }
+}
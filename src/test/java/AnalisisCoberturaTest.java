@@ -0,0 +1,149 @@
+package test.java;
+
+import main.java.com.emergencias.controller.CentroSaludLoader;
+import main.java.com.emergencias.geo.AnalisisCobertura;
+import main.java.com.emergencias.geo.CentroSaludIndex;
+import main.java.com.emergencias.geo.GeoUtils;
+import main.java.com.emergencias.geo.InformeCobertura;
+import main.java.com.emergencias.geo.MallaCobertura;
+import main.java.com.emergencias.model.CatalogoCentros;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del análisis de cobertura por malla.
+ * Cada celda se contrasta con el recorrido lineal de Haversine sobre todo el catálogo.
+ */
+class AnalisisCoberturaTest {
+
+    private static final double TOLERANCIA_KM = 1e-3; // Las distancias se guardan en float
+
+    private CatalogoCentros catalogo;
+    private CentroSaludIndex indice;
+    private MallaCobertura malla;
+
+    @BeforeEach
+    void setUp() {
+        catalogo = new CentroSaludLoader().cargarCatalogo();
+        indice = CentroSaludIndex.construir(catalogo);
+        // 150 x 120 celdas: más de dos tramos de rasterizado
+        malla = new MallaCobertura(37.3, 38.7, -2.0, -0.7, 150, 120);
+    }
+
+    private double fuerzaBruta(double lat, double lon) {
+        double mejor = Double.MAX_VALUE;
+        for (int i = 0; i < catalogo.size(); i++) {
+            mejor = Math.min(mejor, GeoUtils.calcularHaversine(lat, lon, catalogo.getLatitudGrados(i),
+                    catalogo.getLongitudGrados(i)));
+        }
+        return mejor;
+    }
+
+    @Test
+    void testCadaCeldaCoincideConLaFuerzaBruta() {
+        try (ForkJoinPool pool = new ForkJoinPool(4)) {
+            InformeCobertura informe = new AnalisisCobertura(indice, pool).analizar(malla, 15);
+
+            for (int f = 0; f < malla.getFilas(); f++) {
+                for (int c = 0; c < malla.getColumnas(); c++) {
+                    double lat = malla.latitudCelda(f), lon = malla.longitudCelda(c);
+                    double esperada = fuerzaBruta(lat, lon);
+                    assertEquals(esperada, informe.distanciaKm(f, c), TOLERANCIA_KM, "Celda " + f + "," + c);
+                    int centro = informe.centroMasCercano(f, c);
+                    assertEquals(esperada, GeoUtils.calcularHaversine(lat, lon, catalogo.getLatitudGrados(centro),
+                            catalogo.getLongitudGrados(centro)), TOLERANCIA_KM);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testPercentilesYDesatendidasPorMunicipio() {
+        double umbral = 12;
+        InformeCobertura informe = new AnalisisCobertura(indice).analizar(malla, umbral);
+
+        int n = malla.celdas();
+        float[] todas = new float[n];
+        Map<String, List<Float>> porMunicipio = new HashMap<>();
+        for (int f = 0, i = 0; f < malla.getFilas(); f++) {
+            for (int c = 0; c < malla.getColumnas(); c++, i++) {
+                todas[i] = (float) informe.distanciaKm(f, c);
+                porMunicipio.computeIfAbsent(catalogo.getMunicipio(informe.centroMasCercano(f, c)),
+                        k -> new ArrayList<>()).add(todas[i]);
+            }
+        }
+        Arrays.sort(todas);
+
+        assertEquals(n, informe.getCeldas());
+        for (double p : new double[]{0, 1, 50, 90, 95, 99, 100}) {
+            int rango = Math.max(1, (int) Math.ceil(n * p / 100.0)) - 1;
+            assertEquals(todas[rango], informe.percentilKm(p), 0.0, "Percentil " + p);
+        }
+        assertEquals(todas[n - 1], informe.getMaximoKm(), 0.0);
+        long lejanas = 0;
+        for (float d : todas) if (d > umbral) lejanas++;
+        assertEquals(lejanas, informe.getDesatendidas());
+        assertTrue(lejanas > 0 && lejanas < n, "El umbral debe separar la malla para que la prueba tenga sentido");
+
+        assertEquals(porMunicipio.size(), informe.getMunicipios().size());
+        int anterior = Integer.MAX_VALUE;
+        for (InformeCobertura.Municipio m : informe.getMunicipios()) {
+            List<Float> distancias = porMunicipio.get(m.getNombre());
+            assertNotNull(distancias, m.getNombre());
+            distancias.sort(null);
+            assertEquals(distancias.size(), m.getCeldas());
+            assertEquals(distancias.stream().filter(d -> d > umbral).count(), m.getDesatendidas());
+            assertEquals(distancias.get(Math.max(1, (int) Math.ceil(distancias.size() * 0.5)) - 1), m.getP50Km(), 0.0);
+            assertEquals(distancias.get(distancias.size() - 1), m.getMaximoKm(), 0.0);
+            assertTrue(m.getDesatendidas() <= anterior, "Ordenados de más a menos desatendidas");
+            anterior = m.getDesatendidas();
+        }
+    }
+
+    @Test
+    void testElResultadoNoDependeDelNumeroDeHilos() {
+        InformeCobertura secuencial;
+        InformeCobertura paralelo;
+        try (ForkJoinPool uno = new ForkJoinPool(1); ForkJoinPool varios = new ForkJoinPool(8)) {
+            secuencial = new AnalisisCobertura(indice, uno).analizar(malla, 10);
+            paralelo = new AnalisisCobertura(indice, varios).analizar(malla, 10);
+        }
+        for (int f = 0; f < malla.getFilas(); f++) {
+            for (int c = 0; c < malla.getColumnas(); c++) {
+                assertEquals(secuencial.distanciaKm(f, c), paralelo.distanciaKm(f, c), 0.0);
+            }
+        }
+        assertEquals(secuencial.getMunicipios().toString(), paralelo.getMunicipios().toString());
+        assertEquals(secuencial.getMediaKm(), paralelo.getMediaKm(), 1e-9);
+    }
+
+    @Test
+    void testMallaPorResolucionYValidaciones() {
+        MallaCobertura porKm = MallaCobertura.porResolucionKm(38.0, 38.1, -1.2, -1.0, 0.5);
+        assertEquals(23, porKm.getFilas(), "0,1° de latitud son ~11,1 km");
+        assertEquals(36, porKm.getColumnas(), "0,2° de longitud a 38° son ~17,5 km");
+        assertEquals(38.0 + 0.05 / 23, porKm.latitudCelda(0), 1e-12);
+
+        MallaCobertura alrededor = MallaCobertura.alrededorDe(catalogo, 1, 5);
+        for (int i = 0; i < catalogo.size(); i++) {
+            assertTrue(catalogo.getLatitudGrados(i) > alrededor.getLatMin() + 0.04);
+            assertTrue(catalogo.getLongitudGrados(i) < alrededor.getLonMax() - 0.05);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> new MallaCobertura(38.1, 38.0, -1.2, -1.0, 10, 10));
+        assertThrows(IllegalArgumentException.class, () -> new MallaCobertura(38.0, 38.1, -1.2, -1.0, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new MallaCobertura(38.0, 38.1, -1.2, -1.0, 100_000, 100_000));
+        assertThrows(IllegalArgumentException.class, () -> MallaCobertura.porResolucionKm(30, 40, -5, 5, 0));
+        assertThrows(IllegalStateException.class,
+                () -> new AnalisisCobertura(CentroSaludIndex.construir(List.of())).analizar(porKm, 10));
+    }
+}
@@ -0,0 +1,180 @@
+package test.java;
+
+import main.java.com.emergencias.model.GeneradorIds;
+import main.java.com.emergencias.model.IdEvento;
+import main.java.com.emergencias.respaldo.BandejaSalida;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la bandeja de salida (WAL) del respaldo en la nube.
+ */
+class BandejaSalidaTest {
+
+    private final GeneradorIds ids = GeneradorIds.uuidV7();
+    private Path directorio;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directorio = Files.createTempDirectory("bandeja");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            for (Path p : (Iterable<Path>) ficheros::iterator) Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(directorio);
+    }
+
+    private static ByteBuffer linea(int i) {
+        return ByteBuffer.wrap(("[2026-01-01 00:00:00] ALERTA GRAVE | Tipo: Sanitaria | n=" + i + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<IdEvento> anotar(BandejaSalida bandeja, int desde, int n) throws IOException {
+        List<IdEvento> anotados = new ArrayList<>();
+        for (int i = desde; i < desde + n; i++) {
+            IdEvento id = ids.siguiente();
+            bandeja.anotar(id, linea(i));
+            anotados.add(id);
+        }
+        return anotados;
+    }
+
+    /** Lee todo lo pendiente desde la posición confirmada: pares (id, texto). */
+    private static List<String> leerTodo(BandejaSalida bandeja, List<IdEvento> idsLeidos) throws IOException {
+        List<String> textos = new ArrayList<>();
+        BandejaSalida.Posicion posicion = bandeja.getConfirmada();
+        while (true) {
+            int antes = textos.size();
+            posicion = bandeja.leer(posicion, 7, Integer.MAX_VALUE, (id, datos) -> {
+                idsLeidos.add(id);
+                textos.add(StandardCharsets.UTF_8.decode(datos).toString());
+            });
+            if (textos.size() == antes) return textos;
+        }
+    }
+
+    private List<Path> segmentos() throws IOException {
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            return ficheros.filter(p -> p.getFileName().toString().endsWith(".wal")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void testLosRegistrosSobrevivenAlReabrir() throws IOException {
+        List<IdEvento> anotados;
+        try (BandejaSalida bandeja = new BandejaSalida(directorio)) {
+            anotados = anotar(bandeja, 0, 100);
+            assertEquals(100, bandeja.getAnotadas());
+        }
+        try (BandejaSalida bandeja = new BandejaSalida(directorio)) {
+            List<IdEvento> leidos = new ArrayList<>();
+            List<String> textos = leerTodo(bandeja, leidos);
+            assertEquals(anotados, leidos);
+            assertTrue(textos.get(42).endsWith("n=42\n"), textos.get(42));
+        }
+    }
+
+    @Test
+    void testLaLecturaEmpiezaEnLaPosicionConfirmada() throws IOException {
+        List<IdEvento> anotados;
+        try (BandejaSalida bandeja = new BandejaSalida(directorio)) {
+            anotados = anotar(bandeja, 0, 50);
+            BandejaSalida.Posicion tras30 = bandeja.leer(bandeja.getConfirmada(), 30, Integer.MAX_VALUE, (id, d) -> { });
+            bandeja.confirmar(tras30);
+        }
+        try (BandejaSalida bandeja = new BandejaSalida(directorio)) {
+            List<IdEvento> leidos = new ArrayList<>();
+            leerTodo(bandeja, leidos);
+            assertEquals(anotados.subList(30, 50), leidos);
+        }
+    }
+
+    @Test
+    void testSeDescartaElRegistroAMedioEscribir() throws IOException {
+        List<IdEvento> anotados;
+        try (BandejaSalida bandeja = new BandejaSalida(directorio)) {
+            anotados = anotar(bandeja, 0, 20);
+        }
+        // Caída a mitad de una escritura: cabecera de un registro sin sus datos
+        Path vivo = segmentos().get(0);
+        long tam = Files.size(vivo);
+        Files.write(vivo, new byte[]{0, 0, 0, 60, 1, 2, 3, 4, 5, 6, 7}, StandardOpenOption.APPEND);
+
+        try (BandejaSalida bandeja = new BandejaSalida(directorio)) {
+            assertEquals(tam, Files.size(vivo));
+            anotados.addAll(anotar(bandeja, 20, 5));
+            List<IdEvento> leidos = new ArrayList<>();
+            leerTodo(bandeja, leidos);
+            assertEquals(anotados, leidos);
+        }
+    }
+
+    @Test
+    void testSeRotanYBorranLosSegmentosConfirmados() throws IOException {
+        try (BandejaSalida bandeja = new BandejaSalida(directorio, 1024)) {
+            List<IdEvento> anotados = anotar(bandeja, 0, 200);
+            assertTrue(segmentos().size() > 5, "Debe haber varios segmentos: " + segmentos());
+
+            List<IdEvento> leidos = new ArrayList<>();
+            BandejaSalida.Posicion fin = bandeja.leer(bandeja.getConfirmada(), Integer.MAX_VALUE, Integer.MAX_VALUE,
+                    (id, datos) -> leidos.add(id));
+            assertEquals(anotados, leidos);
+            assertEquals(bandeja.getDurable(), fin);
+
+            bandeja.confirmar(fin);
+            assertEquals(1, segmentos().size());
+        }
+        try (BandejaSalida bandeja = new BandejaSalida(directorio, 1024)) {
+            assertTrue(leerTodo(bandeja, new ArrayList<>()).isEmpty());
+        }
+    }
+
+    @Test
+    void testEscritoresConcurrentes() throws Exception {
+        try (BandejaSalida bandeja = new BandejaSalida(directorio, 64 * 1024)) {
+            Set<IdEvento> anotados = ConcurrentHashMap.newKeySet();
+            List<Thread> hilos = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                Thread hilo = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < 250; i++) {
+                            IdEvento id = ids.siguiente();
+                            bandeja.anotar(id, linea(i));
+                            anotados.add(id);
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+                hilos.add(hilo);
+                hilo.start();
+            }
+            for (Thread hilo : hilos) hilo.join();
+
+            List<IdEvento> leidos = new ArrayList<>();
+            leerTodo(bandeja, leidos);
+            assertEquals(2000, leidos.size());
+            assertEquals(anotados, new HashSet<>(leidos));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package test.java;
+
+import main.java.com.emergencias.model.CatalogoCentros;
+import main.java.com.emergencias.model.CentroSalud;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias del catálogo columnar de centros de salud.
+ */
+class CatalogoCentrosTest {
+
+    @Test
+    void testCoordenadasConvertidasARadianesYCodificacionDeMunicipio() {
+        List<CentroSalud> centros = new ArrayList<>();
+        centros.add(new CentroSalud("1", "Centro A", "C/ A", "Murcia", "968000001", "38,0", "-1.0"));
+        centros.add(new CentroSalud("2", "Centro B", "C/ B", "Lorca", "968000002", "37.6", "-1.7"));
+        centros.add(new CentroSalud("3", "Centro C", "C/ C", "Murcia", "968000003", "38.1", "-1.1"));
+
+        CatalogoCentros catalogo = CatalogoCentros.desde(centros);
+
+        assertEquals(3, catalogo.size());
+        assertEquals(Math.toRadians(38.0), catalogo.columnaLatitudRad()[0], 1e-12);
+        assertEquals(Math.toRadians(-1.7), catalogo.columnaLongitudRad()[1], 1e-12);
+        assertEquals(catalogo.getCodigoMunicipio(0), catalogo.getCodigoMunicipio(2),
+                "Los centros del mismo municipio deben compartir código de diccionario.");
+        assertEquals(2, catalogo.diccionarioMunicipios().length);
+        assertEquals("Lorca", catalogo.getMunicipio(1));
+        assertEquals(1, catalogo.getId(1));
+    }
+
+    @Test
+    void testCoordenadasInvalidasSeRechazanEnLaCarga() {
+        CatalogoCentros.Builder builder = new CatalogoCentros.Builder();
+
+        assertTrue(builder.agregar(new CentroSalud("Válido", "C/ A", "Elche", "1", "38.26", "-0.71")));
+        assertFalse(builder.agregar(new CentroSalud("Sin latitud", "C/ B", "Elche", "2", null, "-0.71")));
+        assertFalse(builder.agregar(new CentroSalud("Texto", "C/ C", "Elche", "3", "abc", "-0.71")));
+        assertFalse(builder.agregar(new CentroSalud("Fuera de rango", "C/ D", "Elche", "4", "95.0", "-0.71")));
+
+        CatalogoCentros catalogo = builder.construir();
+        assertEquals(1, catalogo.size());
+        assertEquals(3, builder.getRechazados());
+        assertEquals("Válido", catalogo.getNombre(0));
+    }
+}
@@ -0,0 +1,173 @@
+package test.java;
+
+import main.java.com.emergencias.controller.CentroSaludLoader;
+import main.java.com.emergencias.geo.CentroSaludIndex;
+import main.java.com.emergencias.geo.GeoUtils;
+import main.java.com.emergencias.geo.ResultadoCercania;
+import main.java.com.emergencias.model.CentroSalud;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del índice espacial de centros de salud.
+ * Cada consulta se contrasta con el recorrido lineal original (fuerza bruta).
+ */
+class CentroSaludIndexTest {
+
+    private static final double TOLERANCIA_KM = 1e-6;
+
+    private List<CentroSalud> centrosReales;
+    private List<CentroSalud> centrosSinteticos;
+    private Random rand;
+
+    @BeforeEach
+    void setUp() {
+        centrosReales = new CentroSaludLoader().cargarCentros();
+        rand = new Random(42);
+
+        // Red sintética a escala peninsular para forzar un árbol profundo
+        centrosSinteticos = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            double lat = 36.0 + rand.nextDouble() * 7.5;
+            double lon = -9.0 + rand.nextDouble() * 12.0;
+            centrosSinteticos.add(new CentroSalud("Centro " + i, "Dirección " + i, "Municipio " + (i % 50),
+                    "900000000", String.valueOf(lat), String.valueOf(lon)));
+        }
+    }
+
+    /** Recorrido lineal equivalente al de la versión anterior de recomendarCentroCercano. */
+    private List<Double> distanciasFuerzaBruta(List<CentroSalud> centros, double lat, double lon) {
+        List<Double> distancias = new ArrayList<>();
+        for (CentroSalud centro : centros) {
+            try {
+                double cLat = Double.parseDouble(centro.getLatitud().replace(",", "."));
+                double cLon = Double.parseDouble(centro.getLongitud().replace(",", "."));
+                distancias.add(GeoUtils.calcularHaversine(lat, lon, cLat, cLon));
+            } catch (Exception e) { /* Coordenadas inválidas */ }
+        }
+        distancias.sort(Double::compare);
+        return distancias;
+    }
+
+    @Test
+    void testMasCercanoCoincideConFuerzaBrutaEnDatosReales() {
+        assertFalse(centrosReales.isEmpty(), "El catálogo real debe cargarse desde centros.json.");
+        CentroSaludIndex indice = CentroSaludIndex.construir(centrosReales);
+
+        for (int i = 0; i < 500; i++) {
+            double lat = 37.3 + rand.nextDouble() * 1.5;
+            double lon = -2.4 + rand.nextDouble() * 1.8;
+            ResultadoCercania r = indice.masCercano(lat, lon);
+            double esperado = distanciasFuerzaBruta(centrosReales, lat, lon).get(0);
+
+            assertNotNull(r);
+            assertEquals(esperado, r.getDistanciaKm(), TOLERANCIA_KM);
+        }
+    }
+
+    @Test
+    void testKMasCercanosCoincideConFuerzaBruta() {
+        CentroSaludIndex indice = CentroSaludIndex.construir(centrosSinteticos);
+
+        for (int i = 0; i < 200; i++) {
+            double lat = 35.0 + rand.nextDouble() * 9.5;
+            double lon = -10.0 + rand.nextDouble() * 14.0;
+            int k = 1 + rand.nextInt(12);
+            List<ResultadoCercania> res = indice.kMasCercanos(lat, lon, k);
+            List<Double> esperadas = distanciasFuerzaBruta(centrosSinteticos, lat, lon);
+
+            assertEquals(k, res.size());
+            for (int j = 0; j < k; j++) {
+                assertEquals(esperadas.get(j), res.get(j).getDistanciaKm(), TOLERANCIA_KM);
+            }
+        }
+    }
+
+    @Test
+    void testDentroDeRadioCoincideConFuerzaBruta() {
+        CentroSaludIndex indice = CentroSaludIndex.construir(centrosSinteticos);
+
+        for (int i = 0; i < 200; i++) {
+            double lat = 36.0 + rand.nextDouble() * 7.5;
+            double lon = -9.0 + rand.nextDouble() * 12.0;
+            double radio = rand.nextDouble() * 60;
+            List<ResultadoCercania> res = indice.dentroDeRadio(lat, lon, radio);
+            long esperados = distanciasFuerzaBruta(centrosSinteticos, lat, lon).stream()
+                    .filter(d -> d <= radio).count();
+
+            assertEquals(esperados, res.size(), "Número de centros dentro del radio");
+            for (int j = 1; j < res.size(); j++) {
+                assertTrue(res.get(j - 1).getDistanciaKm() <= res.get(j).getDistanciaKm());
+            }
+        }
+    }
+
+    @Test
+    void testConsultasEnLoteCoincidenConLasIndividuales() {
+        // Catálogo real (barrido de columnas) y sintético (árbol); ráfaga concentrada más puntos sueltos
+        for (List<CentroSalud> centros : List.of(centrosReales, centrosSinteticos)) {
+            CentroSaludIndex indice = CentroSaludIndex.construir(centros);
+            double[] lats = new double[300];
+            double[] lons = new double[300];
+            for (int i = 0; i < lats.length; i++) {
+                boolean incidente = i % 3 != 0;
+                lats[i] = incidente ? 37.98 + rand.nextDouble() * 0.09 : 36.0 + rand.nextDouble() * 7.5;
+                lons[i] = incidente ? -1.18 + rand.nextDouble() * 0.11 : -9.0 + rand.nextDouble() * 12.0;
+            }
+
+            ResultadoCercania[] lote = indice.masCercanos(lats, lons);
+            List<List<ResultadoCercania>> tresEnLote = indice.kMasCercanos(lats, lons, 3);
+
+            assertEquals(lats.length, lote.length);
+            assertEquals(lats.length, tresEnLote.size());
+            for (int i = 0; i < lats.length; i++) {
+                List<Double> esperadas = distanciasFuerzaBruta(centros, lats[i], lons[i]);
+                assertEquals(esperadas.get(0), lote[i].getDistanciaKm(), TOLERANCIA_KM, "Punto " + i);
+                assertEquals(3, tresEnLote.get(i).size());
+                for (int j = 0; j < 3; j++) {
+                    assertEquals(esperadas.get(j), tresEnLote.get(i).get(j).getDistanciaKm(), TOLERANCIA_KM);
+                }
+                assertEquals(3, tresEnLote.get(i).stream().mapToInt(ResultadoCercania::getFila).distinct().count(),
+                        "Sin centros repetidos");
+            }
+        }
+    }
+
+    @Test
+    void testConsultasEnLoteLimitesYValidacion() {
+        CentroSaludIndex indice = CentroSaludIndex.construir(centrosReales);
+        assertEquals(0, indice.masCercanos(new double[0], new double[0]).length);
+        assertEquals(centrosReales.size(), indice.kMasCercanos(new double[]{38.0}, new double[]{-1.1}, 1000).get(0).size());
+        assertThrows(IllegalArgumentException.class, () -> indice.masCercanos(new double[2], new double[1]));
+
+        CentroSaludIndex vacio = CentroSaludIndex.construir(new ArrayList<>());
+        assertNull(vacio.masCercanos(new double[]{38.0}, new double[]{-1.0})[0]);
+        assertTrue(vacio.kMasCercanos(new double[]{38.0}, new double[]{-1.0}, 3).get(0).isEmpty());
+    }
+
+    @Test
+    void testCoordenadasInvalidasSeDescartanAlConstruir() {
+        List<CentroSalud> centros = new ArrayList<>();
+        centros.add(new CentroSalud("Válido", "C/ Uno", "Elche", "1", "38,267", "-0.716"));
+        centros.add(new CentroSalud("Inválido", "C/ Dos", "Elche", "2", "sin dato", "-0.716"));
+        CentroSaludIndex indice = CentroSaludIndex.construir(centros);
+
+        assertEquals(1, indice.size());
+        assertEquals("Válido", indice.masCercano(38.0, -1.0).getCentro().getNombre());
+    }
+
+    @Test
+    void testIndiceVacioDevuelveNulo() {
+        CentroSaludIndex indice = CentroSaludIndex.construir(new ArrayList<>());
+
+        assertNull(indice.masCercano(38.0, -1.0));
+        assertTrue(indice.kMasCercanos(38.0, -1.0, 3).isEmpty());
+        assertTrue(indice.dentroDeRadio(38.0, -1.0, 10).isEmpty());
+    }
+}
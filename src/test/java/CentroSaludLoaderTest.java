@@ -0,0 +1,88 @@
+package test.java;
+
+import main.java.com.emergencias.controller.CentroSaludLoader;
+import main.java.com.emergencias.model.CatalogoCentros;
+import main.java.com.emergencias.model.CentroSalud;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias del cargador en streaming de centros de salud.
+ */
+class CentroSaludLoaderTest {
+
+    private final CentroSaludLoader loader = new CentroSaludLoader();
+
+    private InputStream json(String contenido) {
+        return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testCargaDelFicheroPorDefecto() {
+        List<CentroSalud> centros = loader.cargarCentros();
+
+        assertFalse(centros.isEmpty(), "Debe cargar los centros de centros.json.");
+        assertNotNull(centros.get(0).getCodigo(), "El código del centro debe leerse.");
+    }
+
+    @Test
+    void testRegistrosMalFormadosSeNotificanSinAbortar() {
+        String contenido = "[" +
+                "{\"Código\": \"1\", \"Nombre\": \"Centro A\", \"Municipio\": \"Murcia\", \"Latitud\": \"38.0\", \"Longitud\": \"-1.1\"}," +
+                "\"no soy un objeto\"," +
+                "{\"Nombre\": \"Centro B\", \"Latitud\": {\"grados\": 38}, \"Longitud\": \"-1.2\"}," +
+                "{\"Municipio\": \"Sin nombre\"}," +
+                "{\"Nombre\": \"Centro C\", \"Latitud\": 37.9, \"Longitud\": -1.3, \"Extra\": [1, 2]}" +
+                "]";
+        List<CentroSalud> emitidos = new ArrayList<>();
+        List<CentroSaludLoader.RegistroInvalido> errores = new ArrayList<>();
+
+        CentroSaludLoader.ResumenCarga resumen = loader.cargar(json(contenido), emitidos::add, errores::add);
+
+        assertTrue(resumen.isCompleta());
+        assertEquals(2, resumen.getEmitidos());
+        assertEquals(3, resumen.getInvalidos());
+        assertEquals(3, errores.size());
+        assertEquals("Centro A", emitidos.get(0).getNombre());
+        assertEquals("37.9", emitidos.get(1).getLatitud(), "Las coordenadas numéricas se aceptan como texto.");
+        assertEquals(1, errores.get(0).getPosicion());
+    }
+
+    @Test
+    void testErrorDeSintaxisDetieneLaLecturaConservandoLoLeido() {
+        String contenido = "[{\"Nombre\": \"Centro A\", \"Latitud\": \"38.0\", \"Longitud\": \"-1.1\"}, {\"Nombre\": ";
+        List<CentroSalud> emitidos = new ArrayList<>();
+        List<CentroSaludLoader.RegistroInvalido> errores = new ArrayList<>();
+
+        CentroSaludLoader.ResumenCarga resumen = loader.cargar(json(contenido), emitidos::add, errores::add);
+
+        assertFalse(resumen.isCompleta());
+        assertEquals(1, emitidos.size());
+        assertEquals(1, errores.size());
+    }
+
+    @Test
+    void testCentrosRechazadosPorCoordenadasSeNotificanComoInvalidos() {
+        String contenido = "[" +
+                "{\"Nombre\": \"Centro A\", \"Latitud\": \"38.0\", \"Longitud\": \"-1.1\"}," +
+                "{\"Nombre\": \"Centro Polar\", \"Latitud\": \"95\", \"Longitud\": \"-1.2\"}" +
+                "]";
+        CatalogoCentros.Builder builder = new CatalogoCentros.Builder();
+        List<CentroSaludLoader.RegistroInvalido> errores = new ArrayList<>();
+
+        CentroSaludLoader.ResumenCarga resumen = loader.cargarAceptando(json(contenido), builder::agregar, errores::add);
+
+        assertEquals(1, resumen.getEmitidos());
+        assertEquals(1, resumen.getInvalidos());
+        assertEquals(1, errores.size());
+        assertEquals(1, errores.get(0).getPosicion());
+        assertEquals(1, builder.construir().size());
+    }
+}
@@ -0,0 +1,160 @@
+package test.java;
+
+import main.java.com.emergencias.model.GeneradorIds;
+import main.java.com.emergencias.model.IdEvento;
+import main.java.com.emergencias.respaldo.BandejaSalida;
+import main.java.com.emergencias.respaldo.ClienteRespaldo;
+import main.java.com.emergencias.respaldo.ConfiguracionRespaldo;
+import main.java.com.emergencias.respaldo.ServidorRespaldoLocal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la subida por lotes del respaldo contra el servidor de respaldo local.
+ */
+class ClienteRespaldoTest {
+
+    private final GeneradorIds ids = GeneradorIds.uuidV7();
+    private Path directorio;
+    private ServidorRespaldoLocal servidor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directorio = Files.createTempDirectory("respaldo");
+        servidor = new ServidorRespaldoLocal(0, directorio.resolve("servidor.txt")).iniciar();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        servidor.close();
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            for (Path p : (Iterable<Path>) ficheros::iterator) Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(directorio);
+    }
+
+    private ConfiguracionRespaldo config(URI destino, int porLote) {
+        return ConfiguracionRespaldo.porDefecto(destino).conRegistrosPorLote(porLote).conEsperas(0, 10, 50)
+                .sinTrazasConsola();
+    }
+
+    private List<IdEvento> anotar(BandejaSalida bandeja, int n) throws IOException {
+        List<IdEvento> anotados = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            IdEvento id = ids.siguiente();
+            bandeja.anotar(id, ByteBuffer.wrap(("[2026-01-01 00:00:00] ALERTA GRAVE | ID: " + id + " | n=" + i + "\n")
+                    .getBytes(StandardCharsets.UTF_8)));
+            anotados.add(id);
+        }
+        return anotados;
+    }
+
+    @Test
+    void testSubeEnLotesComprimidos() throws IOException {
+        try (BandejaSalida bandeja = new BandejaSalida(directorio.resolve("wal"))) {
+            List<IdEvento> anotados = anotar(bandeja, 1000);
+            ClienteRespaldo cliente = new ClienteRespaldo(bandeja, config(servidor.getUrl(), 100));
+            cliente.iniciar();
+            assertTrue(cliente.cerrar(10_000));
+
+            assertEquals(1000, servidor.getRecibidas());
+            for (IdEvento id : anotados) assertTrue(servidor.contiene(id));
+            assertEquals(10, cliente.getLotes());
+            assertEquals(10, servidor.getPeticiones());
+            assertEquals(1000, cliente.getSubidas());
+            assertEquals(bandeja.getDurable(), bandeja.getConfirmada());
+            // Las líneas del log se comprimen muy por debajo de su tamaño
+            assertTrue(cliente.getBytesEnviados() < Files.size(directorio.resolve("servidor.txt")) / 2);
+        }
+        assertEquals(1000, Files.readAllLines(directorio.resolve("servidor.txt")).size());
+        borrar(directorio.resolve("wal"));
+    }
+
+    @Test
+    void testReintentaHastaQueElServidorAcepta() throws IOException {
+        Path wal = directorio.resolve("wal");
+        try (BandejaSalida bandeja = new BandejaSalida(wal)) {
+            servidor.simularFallos(3);
+            anotar(bandeja, 50);
+            ClienteRespaldo cliente = new ClienteRespaldo(bandeja, config(servidor.getUrl(), 500));
+            cliente.iniciar();
+            assertTrue(cliente.cerrar(10_000));
+
+            assertEquals(3, cliente.getReintentos());
+            assertEquals(1, cliente.getLotes());
+            assertEquals(50, servidor.getRecibidas());
+        }
+        borrar(wal);
+    }
+
+    @Test
+    void testReenvioTrasCaidaEsIdempotente() throws IOException {
+        Path wal = directorio.resolve("wal");
+        List<IdEvento> anotados;
+        try (BandejaSalida bandeja = new BandejaSalida(wal)) {
+            anotados = anotar(bandeja, 200);
+            ClienteRespaldo cliente = new ClienteRespaldo(bandeja, config(servidor.getUrl(), 64));
+            cliente.iniciar();
+            assertTrue(cliente.cerrar(10_000));
+        }
+        // Caída justo después del acuse y antes de guardar la posición confirmada
+        Files.delete(wal.resolve("bandeja.confirmada"));
+
+        try (BandejaSalida bandeja = new BandejaSalida(wal)) {
+            ClienteRespaldo cliente = new ClienteRespaldo(bandeja, config(servidor.getUrl(), 64));
+            cliente.iniciar();
+            assertTrue(cliente.cerrar(10_000));
+            assertEquals(200, cliente.getSubidas());
+        }
+        assertEquals(200, servidor.getRecibidas());
+        assertEquals(200, servidor.getDuplicadas());
+        for (IdEvento id : anotados) assertTrue(servidor.contiene(id));
+        borrar(wal);
+    }
+
+    @Test
+    void testConElServidorCaidoLasAlertasEsperanEnLaBandeja() throws IOException {
+        Path wal = directorio.resolve("wal");
+        URI caido;
+        try (ServerSocket libre = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            caido = URI.create("http://127.0.0.1:" + libre.getLocalPort() + ServidorRespaldoLocal.RUTA);
+        } // Al cerrarlo nadie escucha en ese puerto
+        try (BandejaSalida bandeja = new BandejaSalida(wal)) {
+            anotar(bandeja, 30);
+            ClienteRespaldo cliente = new ClienteRespaldo(bandeja, config(caido, 500));
+            cliente.iniciar();
+            assertFalse(cliente.cerrar(300));
+            assertTrue(cliente.getReintentos() > 0);
+        }
+        // En el siguiente arranque se sube todo
+        try (BandejaSalida bandeja = new BandejaSalida(wal)) {
+            ClienteRespaldo cliente = new ClienteRespaldo(bandeja, config(servidor.getUrl(), 500));
+            cliente.iniciar();
+            assertTrue(cliente.cerrar(10_000));
+        }
+        assertEquals(30, servidor.getRecibidas());
+        borrar(wal);
+    }
+
+    private static void borrar(Path wal) throws IOException {
+        try (Stream<Path> ficheros = Files.list(wal)) {
+            for (Path p : (Iterable<Path>) ficheros::iterator) Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(wal);
+    }
+}
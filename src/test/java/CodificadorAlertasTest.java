@@ -0,0 +1,146 @@
+package test.java;
+
+import main.java.com.emergencias.alert.CodificadorAlertas;
+import main.java.com.emergencias.alert.LineaLogAlerta;
+import main.java.com.emergencias.model.EmergencyEvent;
+import main.java.com.emergencias.model.SignoVital;
+import main.java.com.emergencias.model.UserData;
+import main.java.com.emergencias.model.VentanaVitales;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del codificador de alertas: mismo resultado que el formateo con String.format
+ * y sin reservar memoria en régimen estable.
+ */
+class CodificadorAlertasTest {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private EmergencyEvent evento(UserData usuario, String tipo) {
+        EmergencyEvent evento = new EmergencyEvent(tipo, "38.2265, -1.6188", usuario);
+        evento.setEsGrave(true);
+        evento.leerSignosVitales(new VentanaVitales(60_000, new long[]{System.currentTimeMillis()},
+                new int[][]{{120}, {95}, {130}, {80}}));
+        return evento;
+    }
+
+    private static String texto(ByteBuffer b) {
+        byte[] copia = new byte[b.remaining()];
+        b.duplicate().get(copia);
+        return new String(copia, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testPaqueteIgualQueElFormatoOriginal() {
+        UserData usuario = new UserData("U-pq", "José Peña 🚑", "600111222", "Alergia: penicilina", 38.0, -1.1);
+        EmergencyEvent e = new EmergencyEvent("Tráfico", "Ubicación desconocida", usuario);
+        e.setEsGrave(true);
+        String esperado = String.format("DESTINO: %s | TIPO: %s | ID Evento: %s\nUBICACIÓN: %s\n"
+                        + "INFO PACIENTE: %s (Tel: %s)\nINFO MÉDICA: %s\nSIGNOS VITALES: %s\n%s",
+                "112", "Tráfico", e.getId().corto(), "Ubicación desconocida",
+                "José Peña 🚑", "600111222", "Alergia: penicilina", "No disponibles", "");
+
+        assertEquals(esperado, CodificadorAlertas.delHilo().paquete("112", e).toString());
+        assertEquals(esperado, texto(CodificadorAlertas.delHilo().paqueteUtf8("112", e)));
+        ByteBuffer utf8 = CodificadorAlertas.delHilo().paqueteUtf8("112", e);
+        byte[] bytes = new byte[utf8.remaining()];
+        utf8.get(bytes);
+        assertArrayEquals(esperado.getBytes(StandardCharsets.UTF_8), bytes);
+    }
+
+    @Test
+    void testLineaLogIgualQueElFormatoOriginalYAnalizable() {
+        UserData usuario = new UserData("U-log", "Raúl Parreño", "600333444", "Sin datos", 38.0, -1.1);
+        EmergencyEvent e = evento(usuario, "Sanitaria");
+        long ahora = System.currentTimeMillis();
+
+        String linea = texto(CodificadorAlertas.delHilo().lineaLog(e, ahora));
+
+        String esperado = String.format("[%s] ALERTA GRAVE | Tipo: %s | ID: %s | Vitales: %s | Ubicacion: %s | Usuario: %s\n",
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(ahora), ZoneId.systemDefault()).format(FORMATTER),
+                "Sanitaria", e.getIdEvento(), "[HR: 120 bpm | SpO2: 95% | PA: 130/80]", "38.2265, -1.6188", "Raúl Parreño");
+        assertEquals(esperado, linea);
+        LineaLogAlerta analizada = LineaLogAlerta.parsear(linea.trim(), 0);
+        assertNotNull(analizada);
+        assertEquals("Raúl Parreño", analizada.getUsuario());
+        assertEquals("[HR: 120 bpm | SpO2: 95% | PA: 130/80]", analizada.getVitales());
+    }
+
+    @Test
+    void testCabeceraSeRecalculaSiCambiaElPerfil() {
+        UserData v1 = new UserData("U-cab", "Nombre Antiguo", "600555666", "Info", 38.0, -1.1);
+        assertTrue(CodificadorAlertas.delHilo().paquete("112", evento(v1, "General")).toString().contains("Nombre Antiguo"));
+
+        // Los perfiles se actualizan publicando una copia
+        UserData v2 = v1.copia();
+        v2.setNombre("Nombre Nuevo");
+        String linea = texto(CodificadorAlertas.delHilo().lineaLog(evento(v2, "General"), System.currentTimeMillis()));
+        assertTrue(linea.endsWith("| Usuario: Nombre Nuevo\n"), linea);
+    }
+
+    @Test
+    void testCodificarNoReservaMemoria() {
+        UserData usuario = new UserData("U-mem", "Usuario Prueba", "600777888", "Sin alergias", 38.0, -1.1);
+        EmergencyEvent e = evento(usuario, "Sanitaria");
+        long t0 = System.currentTimeMillis();
+        CodificadorAlertas codificador = CodificadorAlertas.delHilo();
+        for (int i = 0; i < 10_000; i++) { // Calentamiento
+            codificador.paqueteUtf8("112", e);
+            codificador.lineaLog(e, t0);
+        }
+
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long hilo = Thread.currentThread().threadId();
+        long antes = hilos.getThreadAllocatedBytes(hilo);
+        long total = 0;
+        for (int i = 0; i < 100_000; i++) {
+            total += codificador.paqueteUtf8("112", e).remaining();
+            total += codificador.lineaLog(e, t0).remaining(); // Mismo segundo: marca de tiempo en caché
+        }
+        long reservados = hilos.getThreadAllocatedBytes(hilo) - antes;
+
+        assertTrue(total > 0);
+        assertTrue(reservados < 64 * 1024, "Se han reservado " + reservados + " bytes para 200k codificaciones");
+    }
+
+    @Test
+    void testEvolucionIgualQueElResumenFormateado() {
+        UserData usuario = new UserData("U-evo", "Usuario Evolución", "600999000", "Sin datos", 38.0, -1.1);
+        EmergencyEvent e = new EmergencyEvent("Sanitaria", "38.2265, -1.6188", usuario);
+        e.setEsGrave(true);
+        long t0 = System.currentTimeMillis();
+        VentanaVitales ventana = new VentanaVitales(90_000, new long[]{t0, t0 + 20_000, t0 + 45_000, t0 + 70_000},
+                new int[][]{{118, 124, 131, 140}, {97, 95, 92, 90}, {130, 128, 125, 121}, {80, 80, 81, 80}});
+        e.leerSignosVitales(ventana);
+
+        StringBuilder esperado = new StringBuilder(String.format(Locale.ROOT, "%d lecturas en %d s", 4, 90));
+        for (SignoVital signo : SignoVital.values()) esperado.append(" | ").append(ventana.estadistica(signo));
+
+        String paquete = CodificadorAlertas.delHilo().paquete("112", e).toString();
+        assertTrue(paquete.endsWith("EVOLUCIÓN: " + esperado + "\n"), paquete);
+        assertEquals(esperado.toString(), ventana.toString());
+    }
+
+    @Test
+    void testLasCabecerasNoSeConfundenEntreMuchosUsuarios() {
+        CodificadorAlertas codificador = CodificadorAlertas.delHilo();
+        for (int vuelta = 0; vuelta < 2; vuelta++) {
+            for (int i = 0; i < 5_000; i++) {
+                UserData usuario = new UserData("U-multi-" + i, "Usuario " + i, "6" + i, "Info " + i, 38.0, -1.1);
+                String paquete = codificador.paquete("112", evento(usuario, "General")).toString();
+                assertTrue(paquete.contains("INFO PACIENTE: Usuario " + i + " (Tel: 6" + i + ")\n"), paquete);
+            }
+        }
+    }
+}
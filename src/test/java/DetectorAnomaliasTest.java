@@ -0,0 +1,143 @@
+package test.java;
+
+import main.java.com.emergencias.model.EventoDispositivo;
+import main.java.com.emergencias.vitales.CanalAnomalia;
+import main.java.com.emergencias.vitales.DetectorAnomalias;
+import main.java.com.emergencias.vitales.MonitorVitales;
+import main.java.com.emergencias.vitales.ReglaAnomalia;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la detección de anomalías en streaming.
+ */
+class DetectorAnomaliasTest {
+
+    private final List<EventoDispositivo> disparos = Collections.synchronizedList(new ArrayList<>());
+
+    private DetectorAnomalias detector(ReglaAnomalia... reglas) {
+        return new DetectorAnomalias(1000, Arrays.asList(reglas), disparos::add);
+    }
+
+    @Test
+    void testHisteresisDisparaUnaVezHastaRearmarse() {
+        DetectorAnomalias d = detector(ReglaAnomalia.histeresisSuperior(CanalAnomalia.IMPACTO, 50, 30));
+
+        assertFalse(d.procesar("U1", CanalAnomalia.IMPACTO, 20));
+        assertTrue(d.procesar("U1", CanalAnomalia.IMPACTO, 70));
+        // Sigue por encima o oscila entre rearme y activación: no vuelve a disparar
+        assertFalse(d.procesar("U1", CanalAnomalia.IMPACTO, 90));
+        assertFalse(d.procesar("U1", CanalAnomalia.IMPACTO, 40));
+        assertFalse(d.procesar("U1", CanalAnomalia.IMPACTO, 55));
+        // Baja del rearme y vuelve a subir: nuevo disparo
+        assertFalse(d.procesar("U1", CanalAnomalia.IMPACTO, 10));
+        assertTrue(d.procesar("U1", CanalAnomalia.IMPACTO, 60));
+        // Otro usuario tiene su propio estado
+        assertTrue(d.procesar("U2", CanalAnomalia.IMPACTO, 60));
+
+        assertEquals(3, disparos.size());
+        EventoDispositivo disparo = disparos.get(0);
+        assertEquals("U1", disparo.getIdUsuario());
+        assertTrue(disparo.isAutomatico());
+        assertNull(disparo.getConfirmacionGravedad(), "El usuario aún puede confirmar o descartar");
+        assertTrue(disparo.getAnomalia().contains("IMPACTO"));
+    }
+
+    @Test
+    void testEwmaIgnoraLecturasSueltasPeroNoUnaCaidaSostenida() {
+        DetectorAnomalias d = detector(ReglaAnomalia.ewmaInferior(CanalAnomalia.SPO2, 0.3, 88, 92));
+
+        for (int i = 0; i < 20; i++) d.procesar("U1", CanalAnomalia.SPO2, 97);
+        assertFalse(d.procesar("U1", CanalAnomalia.SPO2, 80), "Una lectura suelta no basta");
+        for (int i = 0; i < 5; i++) d.procesar("U1", CanalAnomalia.SPO2, 97);
+        assertTrue(disparos.isEmpty());
+
+        int muestrasHastaDisparo = 0;
+        while (disparos.isEmpty() && muestrasHastaDisparo < 20) {
+            d.procesar("U1", CanalAnomalia.SPO2, 84);
+            muestrasHastaDisparo++;
+        }
+        assertEquals(1, disparos.size());
+        assertTrue(muestrasHastaDisparo > 1 && muestrasHastaDisparo < 10, "Muestras: " + muestrasHastaDisparo);
+        assertEquals("Sanitaria", disparos.get(0).getTipo());
+    }
+
+    @Test
+    void testZScoreDetectaCambioBruscoRespectoALaLineaBase() {
+        DetectorAnomalias d = detector(ReglaAnomalia.zScore(CanalAnomalia.RITMO_CARDIACO, 0.05, 5, 2, 30));
+        Random ruido = new Random(7);
+
+        // Línea base de reposo en torno a 60 bpm: nunca dispara
+        for (int i = 0; i < 500; i++) d.procesar("U1", CanalAnomalia.RITMO_CARDIACO, 60 + ruido.nextGaussian() * 2);
+        assertTrue(disparos.isEmpty());
+        // 95 bpm no supera ningún límite clínico, pero es un salto enorme para este usuario
+        assertTrue(d.procesar("U1", CanalAnomalia.RITMO_CARDIACO, 95));
+        // Un usuario nuevo no dispara mientras calienta su línea base
+        assertFalse(d.procesar("U2", CanalAnomalia.RITMO_CARDIACO, 60));
+        assertFalse(d.procesar("U2", CanalAnomalia.RITMO_CARDIACO, 140));
+    }
+
+    @Test
+    void testProcesarNoReservaMemoria() {
+        DetectorAnomalias d = new DetectorAnomalias(5000, ReglaAnomalia.porDefecto(), disparos::add);
+        int[] ranuras = new int[5000];
+        for (int u = 0; u < ranuras.length; u++) ranuras[u] = d.ranura("U" + u);
+        // Calentamiento para que el JIT compile el camino caliente
+        for (int i = 0; i < 200_000; i++) {
+            d.procesar(ranuras[i % ranuras.length], CanalAnomalia.RITMO_CARDIACO, 70 + (i & 7));
+        }
+
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long hilo = Thread.currentThread().threadId();
+        long antes = hilos.getThreadAllocatedBytes(hilo);
+        for (int i = 0; i < 1_000_000; i++) {
+            d.procesar(ranuras[i % ranuras.length], CanalAnomalia.RITMO_CARDIACO, 70 + (i & 7));
+            d.procesar(ranuras[i % ranuras.length], CanalAnomalia.SPO2, 96 + (i & 3));
+        }
+        long reservados = hilos.getThreadAllocatedBytes(hilo) - antes;
+
+        assertTrue(disparos.isEmpty());
+        assertEquals(2_200_000, d.getEvaluadas());
+        assertTrue(reservados < 64 * 1024, "Se han reservado " + reservados + " bytes para 2M muestras");
+    }
+
+    @Test
+    void testSuperarLaCapacidadInicialNoPierdeLecturasNiEstado() {
+        DetectorAnomalias d = new DetectorAnomalias(10, ReglaAnomalia.porDefecto(), disparos::add);
+        MonitorVitales monitor = new MonitorVitales(60, d);
+        long t = System.currentTimeMillis();
+        int usuarios = DetectorAnomalias.TAMANO_PAGINA * 3 + 1;
+        for (int u = 0; u < usuarios; u++) monitor.registrar("U" + u, t, 80, 97, 120, 80);
+
+        assertEquals(usuarios, d.getUsuarios());
+        assertEquals(1, monitor.historial("U" + (usuarios - 1)).size());
+        assertTrue(disparos.isEmpty());
+        // La ranura de un usuario reservado en la primera página sigue siendo la misma
+        assertEquals(0, d.ranura("U0"));
+        monitor.registrar("U" + (usuarios - 1), t + 1000, 80, 97, 195, 100);
+        assertEquals(1, disparos.size());
+        assertEquals("U" + (usuarios - 1), disparos.get(0).getIdUsuario());
+    }
+
+    @Test
+    void testElMonitorEvaluaCadaLecturaVital() {
+        DetectorAnomalias d = new DetectorAnomalias(100, ReglaAnomalia.porDefecto(), disparos::add);
+        MonitorVitales monitor = new MonitorVitales(60, d);
+        long t = System.currentTimeMillis();
+
+        monitor.registrar("U1", t, 80, 97, 120, 80);
+        assertTrue(disparos.isEmpty());
+        monitor.registrar("U1", t + 1000, 80, 97, 195, 100);
+        assertEquals(1, disparos.size(), "Presión sistólica por encima del límite");
+        assertTrue(monitor.registrarImpacto("U2", 75));
+        assertEquals(2, monitor.historial("U1").size());
+    }
+}
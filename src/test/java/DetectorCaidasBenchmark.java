@@ -0,0 +1,73 @@
+package test.java;
+
+import main.java.com.emergencias.vitales.DetectorCaidas;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rendimiento de la detección de caídas: muestras del acelerómetro procesadas por segundo,
+ * con un hilo y con un hilo por núcleo (cada hilo atiende su propio grupo de dispositivos).
+ * Uso: {@code java ... test.java.DetectorCaidasBenchmark [dispositivosPorHilo] [segundos] [muestrasPorLote]}
+ */
+public class DetectorCaidasBenchmark {
+
+    private static final int HZ = 100;
+
+    public static void main(String[] args) throws Exception {
+        int dispositivos = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        double segundos = args.length > 1 ? Double.parseDouble(args[1]) : 5;
+        int lote = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int nucleos = Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("Dispositivos por hilo: %d, lotes de %d muestras a %d Hz, %.0f s por medida%n",
+                dispositivos, lote, HZ, segundos);
+        medir(1, dispositivos, segundos, lote); // Calentamiento del JIT
+        double unHilo = medir(1, dispositivos, segundos, lote);
+        System.out.printf("%-30s %14.0f muestras/s%n", "1 hilo", unHilo);
+        double todos = medir(nucleos, dispositivos, segundos, lote);
+        System.out.printf("%-30s %14.0f muestras/s (%.0f por núcleo)%n", nucleos + " hilos", todos, todos / nucleos);
+        System.out.printf("Equivale a %.0f dispositivos a %d Hz por núcleo%n", todos / nucleos / HZ, HZ);
+    }
+
+    private static double medir(int hilos, int dispositivos, double segundos, int lote) throws InterruptedException {
+        DetectorCaidas detector = new DetectorCaidas(hilos * dispositivos, disparo -> { });
+        AtomicLong total = new AtomicLong();
+        long duracionNanos = (long) (segundos * 1e9);
+        Thread[] trabajadores = new Thread[hilos];
+        for (int h = 0; h < hilos; h++) {
+            final int primera = h * dispositivos;
+            trabajadores[h] = new Thread(() -> {
+                // Lotes pregenerados: actividad normal con ruido, como la mayor parte del tráfico real
+                Random rnd = new Random(primera);
+                float[][] x = new float[16][lote], y = new float[16][lote], z = new float[16][lote];
+                for (int b = 0; b < 16; b++) {
+                    for (int i = 0; i < lote; i++) {
+                        x[b][i] = (float) (rnd.nextGaussian() * 0.2);
+                        y[b][i] = (float) (rnd.nextGaussian() * 0.2);
+                        z[b][i] = 1f + (float) (rnd.nextGaussian() * 0.3);
+                    }
+                }
+                int[] ranuras = new int[dispositivos];
+                for (int d = 0; d < dispositivos; d++) ranuras[d] = detector.ranura("D" + (primera + d));
+
+                long muestras = 0;
+                long instante = 0;
+                long fin = System.nanoTime() + duracionNanos;
+                while (System.nanoTime() < fin) {
+                    for (int d = 0; d < dispositivos; d++) {
+                        int b = d & 15;
+                        detector.procesarLote(ranuras[d], instante, HZ, x[b], y[b], z[b], lote);
+                    }
+                    muestras += (long) dispositivos * lote;
+                    instante += lote * 1000L / HZ;
+                }
+                total.addAndGet(muestras);
+            });
+        }
+        long inicio = System.nanoTime();
+        for (Thread t : trabajadores) t.start();
+        for (Thread t : trabajadores) t.join();
+        return total.get() / ((System.nanoTime() - inicio) / 1e9);
+    }
+}
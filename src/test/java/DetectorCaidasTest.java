@@ -0,0 +1,109 @@
+package test.java;
+
+import main.java.com.emergencias.model.EventoDispositivo;
+import main.java.com.emergencias.vitales.DetectorCaidas;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la detección de caídas sobre lotes del acelerómetro.
+ */
+class DetectorCaidasTest {
+
+    private static final int HZ = 50;
+    private static final long T0 = 1_700_000_000_000L;
+
+    private final List<EventoDispositivo> disparos = new ArrayList<>();
+    private final DetectorCaidas detector = new DetectorCaidas(100, disparos::add);
+
+    /** Señal del acelerómetro construida por tramos de magnitud constante en el eje Z. */
+    private static final class Senal {
+        final float[] x = new float[5000], y = new float[5000], z = new float[5000];
+        int n;
+
+        Senal tramo(double segundos, float g) {
+            for (int i = 0; i < segundos * HZ; i++) z[n++] = g;
+            return this;
+        }
+
+        /** Caminar: oscilación de ±0.4 g en torno a 1 g, a 2 pasos por segundo. */
+        Senal caminar(double segundos) {
+            for (int i = 0; i < segundos * HZ; i++, n++) {
+                z[n] = 1f + 0.4f * (float) Math.sin(2 * Math.PI * 2 * n / HZ);
+                x[n] = 0.1f;
+            }
+            return this;
+        }
+
+        /** Caída: 0.3 s de caída libre, impacto de 3.5 g y rebotes. */
+        Senal caer() {
+            return tramo(0.3, 0.2f).tramo(0.04, 3.5f).tramo(0.1, 1.8f).tramo(0.1, 0.7f);
+        }
+
+        int procesar(DetectorCaidas d, String usuario, int tamanoLote) {
+            int caidas = 0;
+            for (int desde = 0; desde < n; desde += tamanoLote) {
+                int m = Math.min(tamanoLote, n - desde);
+                float[] lx = new float[m], ly = new float[m], lz = new float[m];
+                System.arraycopy(x, desde, lx, 0, m);
+                System.arraycopy(y, desde, ly, 0, m);
+                System.arraycopy(z, desde, lz, 0, m);
+                caidas += d.procesarLote(usuario, T0 + desde * 1000L / HZ, HZ, lx, ly, lz, m);
+            }
+            return caidas;
+        }
+    }
+
+    @Test
+    void testCaidaSeguidaDeQuietudDispara() {
+        Senal caida = new Senal().tramo(2, 1f).caer().tramo(3, 1f);
+
+        assertEquals(1, caida.procesar(detector, "U1", 100));
+        assertEquals(1, disparos.size());
+        EventoDispositivo disparo = disparos.get(0);
+        assertEquals("U1", disparo.getIdUsuario());
+        assertTrue(disparo.isAutomatico());
+        assertTrue(disparo.getAnomalia().contains("3.5 g"), disparo.getAnomalia());
+    }
+
+    @Test
+    void testActividadNormalNoDispara() {
+        Senal actividad = new Senal().caminar(20)
+                .tramo(0.3, 0.2f).tramo(2, 1f)                   // Sentarse de golpe: sin impacto
+                .tramo(0.04, 3f).tramo(2, 1f);                   // Golpe sin caída libre previa
+        assertEquals(0, actividad.procesar(detector, "U1", 100));
+    }
+
+    @Test
+    void testSeLevantaTrasElImpactoNoDispara() {
+        Senal tropiezo = new Senal().tramo(1, 1f).caer().tramo(0.6, 1f).caminar(5);
+        assertEquals(0, tropiezo.procesar(detector, "U1", 100));
+    }
+
+    @Test
+    void testLaCaidaPuedeRepartirseEntreLotesYDispositivos() {
+        Senal caida = new Senal().tramo(1, 1f).caer().tramo(3, 1f);
+        // Lotes de 7 muestras: cada fase cae en un lote distinto
+        assertEquals(1, caida.procesar(detector, "U1", 7));
+        // Otro dispositivo solo caminando no se ve afectado por el estado del primero
+        assertEquals(0, new Senal().caminar(5).procesar(detector, "U2", 7));
+        assertEquals(1, detector.getCaidas());
+        assertEquals(2, detector.getDispositivos());
+    }
+
+    @Test
+    void testMasDispositivosQueLaCapacidadInicial() {
+        DetectorCaidas pequeno = new DetectorCaidas(1, disparos::add);
+        int dispositivos = DetectorCaidas.TAMANO_PAGINA + 5;
+        for (int i = 0; i < dispositivos; i++) pequeno.ranura("D" + i);
+
+        Senal caida = new Senal().tramo(1, 1f).caer().tramo(3, 1f);
+        assertEquals(1, caida.procesar(pequeno, "D" + (dispositivos - 1), 100));
+        assertEquals(dispositivos, pequeno.getDispositivos());
+        assertEquals("D" + (dispositivos - 1), disparos.get(0).getIdUsuario());
+    }
+}
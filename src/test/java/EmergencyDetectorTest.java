@@ -1,5 +1,6 @@
 package test.java;
 
+import main.java.com.emergencias.detector.CanalConsola;
 import main.java.com.emergencias.detector.EmergencyDetector;
 import main.java.com.emergencias.model.EmergencyEvent;
 import main.java.com.emergencias.model.UserData;
@@ -31,8 +32,8 @@ class EmergencyDetectorTest {
         // Estructura dinámica necesaria para el constructor del detector [cite: 19, 21]
         dummyCentros = new ArrayList<>();
 
-        // El detector ahora recibe tanto el usuario como la lista de centros [cite: 46]
-        detector = new EmergencyDetector(dummyUser, dummyCentros);
+        // El detector recibe la lista de centros; el usuario llega con cada detección
+        detector = new EmergencyDetector(dummyCentros);
 
         originalSystemIn = System.in;
     }
@@ -50,7 +51,7 @@ class EmergencyDetectorTest {
     @Test
     void testActivacionManualExitosa() {
         mockUserInput("E\nSanitaria\nS\n");
-        EmergencyEvent event = detector.detectEvent(false);
+        EmergencyEvent event = detector.detectEvent(dummyUser, false);
 
         assertNotNull(event, "El evento no debe ser nulo en una activacion manual confirmada.");
         assertTrue(event.esGrave(), "El evento debe estar marcado como grave.");
@@ -61,7 +62,7 @@ class EmergencyDetectorTest {
         // Si el usuario cancela, el detector activará la lógica de búsqueda de centros [cite: 48, 49]
         mockUserInput("E\nsanitaria\nN\n");
 
-        EmergencyEvent event = detector.detectEvent(false);
+        EmergencyEvent event = detector.detectEvent(dummyUser, false);
 
         assertNull(event, "El evento debe ser nulo si la validacion es cancelada.");
     }
@@ -69,7 +70,8 @@ class EmergencyDetectorTest {
     @Test
     void testActivacionAutomaticaConfirmada() {
         mockUserInput("Vehicular\nS\n");
-        EmergencyEvent event = detector.detectEvent(true);
+        // Sensor fijo por encima del umbral para que la activación no dependa del azar
+        EmergencyEvent event = detector.detectEvent(dummyUser, true, new CanalConsola(() -> 80));
 
         assertNotNull(event, "El evento no debe ser nulo si se confirma la emergencia automatica.");
         assertTrue(event.esGrave(), "El evento automatico confirmado debe ser grave.");
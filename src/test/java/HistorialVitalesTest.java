@@ -0,0 +1,87 @@
+package test.java;
+
+import main.java.com.emergencias.model.EmergencyEvent;
+import main.java.com.emergencias.model.EstadisticaVentana;
+import main.java.com.emergencias.model.SignoVital;
+import main.java.com.emergencias.model.UserData;
+import main.java.com.emergencias.model.VentanaVitales;
+import main.java.com.emergencias.vitales.HistorialVitales;
+import main.java.com.emergencias.vitales.MonitorVitales;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del historial circular de signos vitales y de su ingesta por usuario.
+ */
+class HistorialVitalesTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    /** Lectura i-ésima a 1 Hz con el ritmo cardiaco subiendo 1 bpm por segundo. */
+    private static void registrar(HistorialVitales h, int i) {
+        h.registrar(T0 + i * 1000L, 80 + i, 98, 120, 80);
+    }
+
+    @Test
+    void testAlLlenarseSobrescribeLasMasAntiguas() {
+        HistorialVitales h = new HistorialVitales(10);
+        for (int i = 0; i < 25; i++) registrar(h, i);
+
+        assertEquals(10, h.size());
+        assertEquals(25, h.getRegistradas());
+        assertEquals(104, h.ultima().getRitmoCardiaco());
+
+        // La ventana completa da la vuelta al array y debe salir en orden cronológico
+        VentanaVitales v = h.ventana(T0 + 24_000, 60_000);
+        assertEquals(10, v.size());
+        for (int i = 0; i < v.size(); i++) {
+            assertEquals(95 + i, v.getValor(SignoVital.RITMO_CARDIACO, i));
+            assertEquals(T0 + (15 + i) * 1000L, v.getInstanteMs(i));
+        }
+    }
+
+    @Test
+    void testEstadisticaDeVentanaYTendencia() {
+        HistorialVitales h = new HistorialVitales(300);
+        for (int i = 0; i < 120; i++) registrar(h, i);
+
+        // Últimos 30 s: lecturas 89..119
+        EstadisticaVentana hr = h.estadistica(SignoVital.RITMO_CARDIACO, T0 + 119_000, 30_000);
+        assertEquals(31, hr.getMuestras());
+        assertEquals(169, hr.getMinimo());
+        assertEquals(199, hr.getMaximo());
+        assertEquals(184.0, hr.getMedia(), 1e-9);
+        assertEquals(60.0, hr.getTendenciaPorMinuto(), 1e-6, "Sube 1 bpm por segundo");
+
+        EstadisticaVentana spo2 = h.estadistica(SignoVital.SPO2, T0 + 119_000, 30_000);
+        assertEquals(0.0, spo2.getTendenciaPorMinuto(), 1e-9);
+        assertNull(h.estadistica(SignoVital.SPO2, T0 + 500_000, 30_000), "Sin lecturas recientes no hay resumen");
+
+        // La copia da el mismo resultado que el cálculo sobre el búfer
+        VentanaVitales v = h.ventana(T0 + 119_000, 30_000);
+        assertEquals(hr.getMedia(), v.estadistica(SignoVital.RITMO_CARDIACO).getMedia(), 1e-9);
+    }
+
+    @Test
+    void testElEventoAdjuntaElHistorialDelUsuario() {
+        MonitorVitales monitor = new MonitorVitales(60);
+        long ahora = System.currentTimeMillis();
+        for (int i = 0; i < 90; i++) monitor.registrar("U1", ahora - (89 - i) * 1000L, 70 + i % 5, 97, 125, 85);
+
+        UserData usuario = new UserData("U1", "Monitorizado", "600000001", "Sin datos", 38.2, -0.7);
+        EmergencyEvent evento = new EmergencyEvent("Sanitaria", "38.2, -0.7", usuario);
+        evento.leerSignosVitales(monitor.ventana("U1", MonitorVitales.VENTANA_ALERTA_MS));
+
+        assertNotNull(evento.getHistorialVitales());
+        assertTrue(evento.getHistorialVitales().size() >= 59 && evento.getHistorialVitales().size() <= 60);
+        assertEquals(70 + 89 % 5, evento.getVitalSigns().getRitmoCardiaco(), "Los signos del evento son la última lectura");
+        assertTrue(evento.toString().contains("Evolución Vitales: "));
+
+        assertNull(monitor.ventana("desconocido", 60_000));
+        EmergencyEvent sinMonitor = new EmergencyEvent("Sanitaria", "38.2, -0.7", usuario);
+        sinMonitor.leerSignosVitales(null);
+        assertNotNull(sinMonitor.getVitalSigns(), "Sin historial se leen los sensores una vez");
+        assertNull(sinMonitor.getHistorialVitales());
+    }
+}
@@ -0,0 +1,105 @@
+package test.java;
+
+import main.java.com.emergencias.model.EmergencyEvent;
+import main.java.com.emergencias.model.GeneradorIds;
+import main.java.com.emergencias.model.IdEvento;
+import main.java.com.emergencias.model.UserData;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de los identificadores de evento ordenados por tiempo.
+ */
+class IdEventoTest {
+
+    @Test
+    void testUuidV7ValidoYConInstante() {
+        long antes = System.currentTimeMillis();
+        IdEvento id = GeneradorIds.uuidV7().siguiente();
+        long despues = System.currentTimeMillis();
+
+        UUID uuid = UUID.fromString(id.toString());
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertEquals(7, id.getVersion());
+        // Puede ir algún milisegundo por delante si el contador del hilo se agotó antes
+        assertTrue(id.getInstanteMs() >= antes && id.getInstanteMs() <= despues + 5, "instante " + id.getInstanteMs());
+        assertEquals(-1, IdEvento.desdeUuid(UUID.randomUUID()).getInstanteMs());
+    }
+
+    @Test
+    void testEstrictamenteCrecientesEnUnHilo() {
+        GeneradorIds generador = GeneradorIds.uuidV7();
+        IdEvento anterior = generador.siguiente();
+        for (int i = 0; i < 1_000_000; i++) {
+            IdEvento id = generador.siguiente();
+            assertTrue(id.compareTo(anterior) > 0, anterior + " >= " + id);
+            // El orden de bits coincide con el orden de la forma canónica
+            if (i % 10_000 == 0) assertTrue(id.toString().compareTo(anterior.toString()) > 0);
+            anterior = id;
+        }
+    }
+
+    @Test
+    void testSinColisionesEntreHilos() throws InterruptedException {
+        Set<IdEvento> vistos = ConcurrentHashMap.newKeySet();
+        List<Thread> hilos = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread hilo = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) vistos.add(GeneradorIds.uuidV7().siguiente());
+            });
+            hilos.add(hilo);
+            hilo.start();
+        }
+        for (Thread hilo : hilos) hilo.join();
+
+        assertEquals(800_000, vistos.size());
+    }
+
+    @Test
+    void testRepresentacionesIdaYVuelta() {
+        IdEvento id = GeneradorIds.uuidV7().siguiente();
+
+        assertEquals(id, IdEvento.parsear(id.toString()));
+        assertEquals(id, IdEvento.leer(ByteBuffer.wrap(id.toBytes())));
+        assertEquals(IdEvento.BYTES, id.toBytes().length);
+        assertEquals(id.toString(), id.escribir(new StringBuilder()).toString());
+        assertThrows(IllegalArgumentException.class, () -> IdEvento.parsear("no-es-un-id"));
+    }
+
+    @Test
+    void testFormaCortaSinAmbiguedades() {
+        IdEvento id = new IdEvento(0x0192f3c48a1e7b3cL, 0x9d2e4f5a6b7c8d9eL);
+        String corto = id.corto();
+
+        assertEquals(IdEvento.LONGITUD_CORTA, corto.length());
+        assertTrue(corto.matches("[0-9A-HJKMNP-TV-Z]+"), corto);
+        // Tecleada en minúsculas, con guiones o con I/L/O en lugar de 1/0
+        String tecleada = corto.toLowerCase().replace('1', 'l').replace('0', 'o');
+        assertEquals(corto, IdEvento.normalizarCorto(tecleada.substring(0, 5) + "-" + tecleada.substring(5)));
+        assertNull(IdEvento.normalizarCorto("ABC"));
+        assertNull(IdEvento.normalizarCorto("UUUUUUUUUU"));
+    }
+
+    @Test
+    void testGeneradorIntercambiable() {
+        UserData usuario = new UserData("Usuario Prueba", "600000000", "Sin datos", 38.0, -1.0);
+        try {
+            EmergencyEvent.setGeneradorIds(GeneradorIds.ALEATORIO);
+            assertEquals(4, new EmergencyEvent("General", null, usuario).getId().getVersion());
+        } finally {
+            EmergencyEvent.setGeneradorIds(GeneradorIds.uuidV7());
+        }
+        EmergencyEvent evento = new EmergencyEvent("General", null, usuario);
+        assertEquals(7, evento.getId().getVersion());
+        assertEquals(evento.getId().toString(), evento.getIdEvento());
+    }
+}
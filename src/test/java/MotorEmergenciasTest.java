@@ -0,0 +1,142 @@
+package test.java;
+
+import main.java.com.emergencias.alert.AlertSender;
+import main.java.com.emergencias.alert.ConfiguracionPipeline;
+import main.java.com.emergencias.controller.EstadoEvento;
+import main.java.com.emergencias.controller.MotorEmergencias;
+import main.java.com.emergencias.controller.RegistroUsuarios;
+import main.java.com.emergencias.controller.ResultadoEvento;
+import main.java.com.emergencias.detector.CanalConsola;
+import main.java.com.emergencias.detector.EmergencyDetector;
+import main.java.com.emergencias.detector.TemporizadorConfirmaciones;
+import main.java.com.emergencias.geo.CentroSaludIndex;
+import main.java.com.emergencias.model.EventoDispositivo;
+import main.java.com.emergencias.model.UserData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del motor sin interfaz de procesamiento de disparos de dispositivo.
+ */
+class MotorEmergenciasTest {
+
+    private AlertSender sender;
+    private MotorEmergencias motor;
+
+    @BeforeEach
+    void setUp() {
+        RegistroUsuarios usuarios = new RegistroUsuarios();
+        for (int i = 0; i < 100; i++) {
+            usuarios.registrar(new UserData("U" + i, "Usuario " + i, String.valueOf(600000000 + i), "Sin datos", 38.2, -0.7));
+        }
+        // Plazo de confirmación corto para no esperar los 10 s reales
+        CentroSaludIndex sinCentros = CentroSaludIndex.construir(new ArrayList<>());
+        EmergencyDetector detector = new EmergencyDetector(() -> sinCentros, new CanalConsola(),
+                TemporizadorConfirmaciones.global(), 300);
+        sender = new AlertSender("112", ConfiguracionPipeline.porDefecto().sinTrazasConsola());
+        motor = new MotorEmergencias(usuarios, detector, sender, MotorEmergencias.configuracionPorDefecto());
+    }
+
+    @AfterEach
+    void tearDown() {
+        motor.close();
+        sender.cerrar(10);
+    }
+
+    private ResultadoEvento procesar(EventoDispositivo disparo) throws Exception {
+        return motor.procesar(disparo).get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testDisparoManualConfirmadoTerminaConAlertaEnviada() throws Exception {
+        ResultadoEvento r = procesar(EventoDispositivo.manual("U1", "Sanitaria", "S"));
+
+        assertEquals(EstadoEvento.ALERTA_ENVIADA, r.getEstado());
+        assertTrue(r.getEvento().esGrave());
+        assertNotNull(r.getEvento().getVitalSigns(), "Los signos vitales se leen antes del envío");
+        assertEquals(r.getEvento().getIdEvento(), r.getAcuse().getIdEvento());
+        assertEquals("Usuario 1", r.getEvento().getDatosUsuario().getNombre());
+    }
+
+    @Test
+    void testDisparoAutomaticoSinRespuestaSeEscalaComoGrave() throws Exception {
+        ResultadoEvento r = procesar(EventoDispositivo.sensor("600000007", 90, null, null));
+
+        assertEquals(EstadoEvento.ALERTA_ENVIADA, r.getEstado());
+        assertEquals("General", r.getEvento().getTipoEmergencia());
+        assertEquals("Usuario 7", r.getEvento().getDatosUsuario().getNombre(), "El usuario se resuelve también por teléfono");
+    }
+
+    @Test
+    void testConfirmacionRemotaAntesDelPlazo() throws Exception {
+        CompletableFuture<ResultadoEvento> descartado = motor.procesar(EventoDispositivo.sensor("U4", 90, "Sanitaria", null));
+        CompletableFuture<ResultadoEvento> confirmado = motor.procesar(EventoDispositivo.sensor("U5", 90, "Sanitaria", null));
+        while (motor.getEsperandoConfirmacion() < 2) Thread.sleep(5);
+
+        assertTrue(motor.confirmar("U4", "N"));
+        assertTrue(motor.confirmar("600000005", "S"), "La confirmación también se acepta por teléfono");
+        assertFalse(motor.confirmar("U6", "S"), "Sin disparo pendiente no hay nada que confirmar");
+
+        assertEquals(EstadoEvento.DESCARTADO, descartado.get(10, TimeUnit.SECONDS).getEstado());
+        assertEquals(EstadoEvento.ALERTA_ENVIADA, confirmado.get(10, TimeUnit.SECONDS).getEstado());
+        assertEquals(0, motor.getEsperandoConfirmacion());
+    }
+
+    @Test
+    void testDisparoPorAnomaliaSeActivaSinLecturaDeSensor() throws Exception {
+        ResultadoEvento r = procesar(EventoDispositivo.anomalia("U8", "Sanitaria", "SPO2: media 85.0"));
+
+        assertEquals(EstadoEvento.ALERTA_ENVIADA, r.getEstado(), "Sin respuesta del usuario se escala");
+        assertEquals("Sanitaria", r.getEvento().getTipoEmergencia());
+    }
+
+    @Test
+    void testDescartes() throws Exception {
+        ResultadoEvento desconocido = procesar(EventoDispositivo.manual("nadie", "General", "S"));
+        ResultadoEvento bajoUmbral = procesar(EventoDispositivo.sensor("U2", 10, null, null));
+        ResultadoEvento cancelado = procesar(EventoDispositivo.manual("U3", "Sanitaria", "N"));
+
+        assertEquals(EstadoEvento.DESCARTADO, desconocido.getEstado());
+        assertNull(desconocido.getEvento());
+        assertEquals(EstadoEvento.DESCARTADO, bajoUmbral.getEstado());
+        assertEquals(EstadoEvento.DESCARTADO, cancelado.getEstado());
+        assertEquals(3, motor.getTerminados(EstadoEvento.DESCARTADO));
+        assertEquals(0, motor.getTerminados(EstadoEvento.ALERTA_ENVIADA));
+    }
+
+    @Test
+    void testMuchosUsuariosConcurrentesCompartenElMotor() throws Exception {
+        List<CompletableFuture<ResultadoEvento>> futuros = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String usuario = "U" + (i % 100);
+            futuros.add(motor.procesar(i % 4 == 0
+                    ? EventoDispositivo.manual(usuario, "Tráfico", "N")
+                    : EventoDispositivo.sensor(usuario, 75, "Sanitaria", "S")));
+        }
+        CompletableFuture.allOf(futuros.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+
+        assertEquals(1500, motor.getTerminados(EstadoEvento.ALERTA_ENVIADA));
+        assertEquals(500, motor.getTerminados(EstadoEvento.DESCARTADO));
+        assertEquals(0, motor.getTerminados(EstadoEvento.ERROR));
+        assertEquals(1500, futuros.stream().map(f -> f.join().getEvento())
+                .filter(e -> e != null && e.esGrave()).map(e -> e.getIdEvento()).distinct().count());
+    }
+
+    @Test
+    void testLasTransicionesDeEstadoSonLasDocumentadas() {
+        assertTrue(EstadoEvento.RECIBIDO.puedePasarA(EstadoEvento.DETECCION));
+        assertTrue(EstadoEvento.DETECCION.puedePasarA(EstadoEvento.DESCARTADO));
+        assertFalse(EstadoEvento.SIGNOS_VITALES.puedePasarA(EstadoEvento.DESCARTADO));
+        assertFalse(EstadoEvento.RECIBIDO.puedePasarA(EstadoEvento.ENVIO));
+        assertFalse(EstadoEvento.ALERTA_ENVIADA.puedePasarA(EstadoEvento.ERROR));
+        assertTrue(EstadoEvento.ENVIO.puedePasarA(EstadoEvento.ERROR));
+    }
+}
@@ -0,0 +1,182 @@
+package test.java;
+
+import main.java.com.emergencias.contactos.CanalNotificacion;
+import main.java.com.emergencias.contactos.EntregaContacto;
+import main.java.com.emergencias.contactos.NotificadorContactos;
+import main.java.com.emergencias.controller.RegistroUsuarios;
+import main.java.com.emergencias.model.CanalContacto;
+import main.java.com.emergencias.model.ContactoEmergencia;
+import main.java.com.emergencias.model.UserData;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del aviso en paralelo a los contactos de emergencia.
+ */
+class NotificadorContactosTest {
+
+    private static UserData usuarioCon(int contactos, List<CanalContacto> canales) {
+        UserData usuario = new UserData("U1", "Ana", "600000001", "Asma", 38.1, -1.2);
+        List<ContactoEmergencia> lista = new ArrayList<>();
+        for (int i = 0; i < contactos; i++) {
+            lista.add(new ContactoEmergencia("Contacto " + i, "61000000" + i, "Familiar", canales));
+        }
+        usuario.setContactos(lista);
+        return usuario;
+    }
+
+    private static Map<CanalContacto, Integer> limites(int sms, int llamadas, int push) {
+        Map<CanalContacto, Integer> limites = new EnumMap<>(CanalContacto.class);
+        limites.put(CanalContacto.SMS, sms);
+        limites.put(CanalContacto.LLAMADA, llamadas);
+        limites.put(CanalContacto.PUSH, push);
+        return limites;
+    }
+
+    @Test
+    void testLaLatenciaEsLaDelContactoMasLentoYNoLaSuma() {
+        NotificadorContactos notificador = new NotificadorContactos((contacto, canal, mensaje) -> {
+            Thread.sleep(200);
+            return true;
+        });
+
+        long inicio = System.nanoTime();
+        List<EntregaContacto> entregas = notificador.notificar(usuarioCon(8, List.of(CanalContacto.SMS)), "Aviso");
+        long ms = (System.nanoTime() - inicio) / 1_000_000;
+
+        assertEquals(8, entregas.size());
+        assertTrue(entregas.stream().allMatch(EntregaContacto::isEntregada));
+        assertEquals("Contacto 0", entregas.get(0).getContacto().getNombre(), "Mismo orden que el perfil");
+        assertTrue(ms < 1_000, "8 avisos de 200 ms en paralelo no deben sumarse: " + ms + " ms");
+        assertEquals(8, notificador.getEntregadas());
+    }
+
+    @Test
+    void testRespetaElLimiteDeIntentosSimultaneosPorCanal() {
+        AtomicInteger enCurso = new AtomicInteger();
+        AtomicInteger maximo = new AtomicInteger();
+        CanalNotificacion canal = (contacto, c, mensaje) -> {
+            maximo.accumulateAndGet(enCurso.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } finally {
+                enCurso.decrementAndGet();
+            }
+            return true;
+        };
+        NotificadorContactos notificador = new NotificadorContactos(canal, limites(32, 2, 128), 5_000);
+
+        List<EntregaContacto> entregas = notificador.notificar(usuarioCon(10, List.of(CanalContacto.LLAMADA)), "Aviso");
+
+        assertTrue(entregas.stream().allMatch(EntregaContacto::isEntregada));
+        assertEquals(2, maximo.get(), "Nunca más de 2 llamadas a la vez");
+    }
+
+    @Test
+    void testSiVenceElPlazoSePasaAlSiguienteCanal() {
+        CanalNotificacion canal = (contacto, c, mensaje) -> {
+            if (c == CanalContacto.LLAMADA) Thread.sleep(10_000); // Nadie descuelga
+            return true;
+        };
+        NotificadorContactos notificador = new NotificadorContactos(canal, limites(32, 4, 128), 100);
+
+        long inicio = System.nanoTime();
+        List<EntregaContacto> entregas = notificador.notificar(
+                usuarioCon(3, List.of(CanalContacto.LLAMADA, CanalContacto.SMS)), "Aviso");
+        long ms = (System.nanoTime() - inicio) / 1_000_000;
+
+        for (EntregaContacto entrega : entregas) {
+            assertTrue(entrega.isEntregada());
+            assertEquals(CanalContacto.SMS, entrega.getCanal());
+            assertEquals(2, entrega.getIntentos());
+        }
+        assertTrue(ms < 2_000, "El plazo corta la llamada: " + ms + " ms");
+        assertEquals(3, notificador.getIntentosVencidos());
+    }
+
+    @Test
+    void testUnProveedorColgadoNoRetieneElHuecoDelCanal() {
+        CountDownLatch suelta = new CountDownLatch(1);
+        CanalNotificacion canal = (contacto, c, mensaje) -> {
+            if (c == CanalContacto.LLAMADA) {
+                // Ignora la interrupción, como un proveedor que no devuelve el control
+                while (true) {
+                    try {
+                        suelta.await();
+                        return true;
+                    } catch (InterruptedException ignorada) {
+                        // Sigue colgado
+                    }
+                }
+            }
+            return true;
+        };
+        NotificadorContactos notificador = new NotificadorContactos(canal, limites(32, 1, 128), 100);
+
+        try {
+            long inicio = System.nanoTime();
+            List<EntregaContacto> entregas = notificador.notificar(
+                    usuarioCon(3, List.of(CanalContacto.LLAMADA, CanalContacto.SMS)), "Aviso");
+            List<EntregaContacto> siguiente = notificador.notificar(
+                    usuarioCon(1, List.of(CanalContacto.LLAMADA, CanalContacto.SMS)), "Aviso");
+            long ms = (System.nanoTime() - inicio) / 1_000_000;
+
+            assertTrue(entregas.stream().allMatch(e -> e.isEntregada() && e.getCanal() == CanalContacto.SMS));
+            assertTrue(siguiente.get(0).isEntregada(), "Los avisos siguientes no se bloquean");
+            assertTrue(ms < 2_000, "La espera por hueco cuenta dentro del plazo: " + ms + " ms");
+            assertEquals(4, notificador.getIntentosVencidos());
+        } finally {
+            suelta.countDown();
+        }
+    }
+
+    @Test
+    void testFallosYRechazosAgotanLosCanales() {
+        CanalNotificacion canal = (contacto, c, mensaje) -> {
+            if (c == CanalContacto.PUSH) throw new IllegalStateException("dispositivo no registrado");
+            return false; // SMS rechazado por el operador
+        };
+        NotificadorContactos notificador = new NotificadorContactos(canal, limites(1, 1, 1), 1_000);
+
+        List<EntregaContacto> entregas = notificador.notificar(
+                usuarioCon(2, List.of(CanalContacto.PUSH, CanalContacto.SMS)), "Aviso");
+
+        for (EntregaContacto entrega : entregas) {
+            assertFalse(entrega.isEntregada());
+            assertNull(entrega.getCanal());
+            assertEquals(2, entrega.getIntentos());
+            assertTrue(entrega.getError().startsWith("SMS"), entrega.getError());
+        }
+        assertEquals(2, notificador.getFallidas());
+
+        // Con límite 1 por canal, una segunda ronda solo termina si se devolvieron los permisos
+        assertEquals(1, notificador.notificar(usuarioCon(1, List.of(CanalContacto.PUSH)), "Aviso").size());
+        assertEquals(3, notificador.getFallidas());
+    }
+
+    @Test
+    void testLosContactosSeLeenDelJsonConSusCanales() throws IOException {
+        RegistroUsuarios registro = new RegistroUsuarios();
+        String json = "[{\"id\": \"U1\", \"nombre\": \"Ana\", \"telefono\": \"600000001\", \"contactos\": [" +
+                "{\"nombre\": \"Eva\", \"telefono\": \"610000001\", \"relacion\": \"Madre\", \"canales\": [\"call\", \"sms\"]}," +
+                "{\"nombre\": \"Luis\", \"telefono\": \"610000002\", \"relacion\": \"Hermano\"}]}]";
+        registro.cargarJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), u -> { });
+
+        List<ContactoEmergencia> contactos = registro.porId("U1").getContactos();
+        assertEquals(2, contactos.size());
+        assertEquals(List.of(CanalContacto.LLAMADA, CanalContacto.SMS), contactos.get(0).getCanales());
+        assertEquals(List.of(CanalContacto.SMS), contactos.get(1).getCanales(), "Sin canales se usa SMS");
+        assertThrows(UnsupportedOperationException.class, () -> contactos.add(contactos.get(0)));
+    }
+}
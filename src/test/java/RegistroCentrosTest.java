@@ -0,0 +1,126 @@
+package test.java;
+
+import main.java.com.emergencias.controller.RegistroCentros;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del registro compartido de centros con recarga en caliente.
+ */
+class RegistroCentrosTest {
+
+    private Path dir;
+    private Path json;
+    private RegistroCentros registro;
+
+    private String centros(int n) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(String.format("{\"Nombre\": \"Centro %d\", \"Municipio\": \"M%d\", \"Latitud\": \"%s\", \"Longitud\": \"-1.1\"}",
+                    i, i % 3, String.valueOf(37.0 + i * 0.01)));
+        }
+        return sb.append(']').toString();
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("registro-test");
+        json = dir.resolve("centros.json");
+        Files.writeString(json, centros(3));
+        registro = new RegistroCentros(json, dir.resolve("centros.snap"));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        registro.detener();
+        try (Stream<Path> ficheros = Files.walk(dir)) {
+            ficheros.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private void esperarVersion(long numero) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 15_000;
+        while (registro.actual().getNumero() < numero && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void testCargaInicialDesdeJson() {
+        RegistroCentros.VersionCatalogo v = registro.actual();
+
+        assertEquals(1, v.getNumero());
+        assertEquals(3, v.getCatalogo().size());
+        assertEquals("JSON", v.getOrigen());
+        assertSame(v.getCatalogo(), v.getIndice().getCatalogo(), "Catálogo e índice se publican juntos.");
+    }
+
+    @Test
+    void testVigilanciaRecargaYPublicaNuevaVersion() throws Exception {
+        registro.iniciarVigilancia();
+        Thread.sleep(100);
+
+        Files.writeString(json, centros(7));
+        esperarVersion(2);
+
+        RegistroCentros.VersionCatalogo v = registro.actual();
+        assertEquals(2, v.getNumero());
+        assertEquals(7, v.getCatalogo().size());
+        assertSame(v.getCatalogo(), v.getIndice().getCatalogo());
+    }
+
+    @Test
+    void testFicheroAMedioEscribirNoSustituyeLaVersionVigente() throws Exception {
+        Files.writeString(json, "[{\"Nombre\": \"Centro 0\", ");
+        registro.recargar();
+        Thread.sleep(500);
+        assertEquals(1, registro.actual().getNumero(), "Un JSON truncado no se publica.");
+
+        Files.writeString(json, centros(5));
+        registro.recargar();
+        esperarVersion(2);
+
+        assertEquals(2, registro.actual().getNumero(), "Solo la recarga válida publica versión.");
+        assertEquals(5, registro.actual().getCatalogo().size());
+    }
+
+    @Test
+    void testLectoresSiempreVenVersionesCompletas() throws Exception {
+        Thread[] lectores = new Thread[4];
+        boolean[] incoherente = new boolean[1];
+        for (int i = 0; i < lectores.length; i++) {
+            lectores[i] = new Thread(() -> {
+                for (int j = 0; j < 20_000; j++) {
+                    RegistroCentros.VersionCatalogo v = registro.actual();
+                    if (v.getIndice().getCatalogo() != v.getCatalogo()
+                            || v.getIndice().masCercano(37.0, -1.1) == null) {
+                        incoherente[0] = true;
+                    }
+                }
+            });
+            lectores[i].start();
+        }
+        for (int n = 2; n < 12; n++) {
+            Files.writeString(json, centros(n));
+            registro.recargar();
+        }
+        for (Thread t : lectores) t.join();
+        long limite = System.currentTimeMillis() + 15_000;
+        while (registro.actual().getCatalogo().size() != 11 && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+
+        assertFalse(incoherente[0]);
+        assertEquals(11, registro.actual().getCatalogo().size(), "La última recarga lee el fichero completo.");
+    }
+}
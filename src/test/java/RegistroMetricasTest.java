@@ -0,0 +1,108 @@
+package test.java;
+
+import main.java.com.emergencias.metricas.ContadorEvento;
+import main.java.com.emergencias.metricas.FaseAlerta;
+import main.java.com.emergencias.metricas.HistogramaLatencia;
+import main.java.com.emergencias.metricas.RegistroMetricas;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del registro de métricas del ciclo de vida de las alertas.
+ */
+class RegistroMetricasTest {
+
+    @Test
+    void testPercentilesDentroDelErrorDeLasCubetas() {
+        HistogramaLatencia h = new HistogramaLatencia();
+        // 1..10000 µs: el percentil p vale p * 100 µs
+        for (int i = 1; i <= 10_000; i++) h.registrar(i * 1_000L);
+        HistogramaLatencia.Instantanea s = h.instantanea();
+
+        assertEquals(10_000, s.getTotal());
+        assertEquals(10_000_000L, s.getMaximoNanos());
+        assertEquals(5_000_500.0, s.getMediaNanos(), 1);
+        for (double p : new double[]{50, 90, 99, 99.9}) {
+            double esperado = p * 100_000;
+            double error = Math.abs(s.percentil(p) - esperado) / esperado;
+            assertTrue(error < 0.0625, "p" + p + " = " + s.percentil(p) + " (esperado " + esperado + ")");
+        }
+        assertEquals(10_000_000L, s.percentil(100));
+    }
+
+    @Test
+    void testRegistroConcurrenteSinPerdidas() throws InterruptedException {
+        RegistroMetricas metricas = new RegistroMetricas();
+        List<Thread> hilos = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread hilo = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    metricas.registrar(FaseAlerta.PAQUETE, i);
+                    metricas.incrementar(ContadorEvento.CONFIRMADOS);
+                }
+            });
+            hilos.add(hilo);
+            hilo.start();
+        }
+        for (Thread hilo : hilos) hilo.join();
+
+        assertEquals(800_000, metricas.getFase(FaseAlerta.PAQUETE).getTotal());
+        assertEquals(99_999, metricas.getFase(FaseAlerta.PAQUETE).getMaximoNanos());
+        assertEquals(800_000, metricas.getContador(ContadorEvento.CONFIRMADOS));
+        assertEquals(0, metricas.getContador(ContadorEvento.CANCELADOS));
+    }
+
+    @Test
+    void testRegistrarNoReservaMemoria() {
+        RegistroMetricas metricas = new RegistroMetricas();
+        for (int i = 0; i < 10_000; i++) metricas.registrar(FaseAlerta.GRAVEDAD, i); // Calentamiento
+
+        com.sun.management.ThreadMXBean hilos = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long hilo = Thread.currentThread().threadId();
+        long antes = hilos.getThreadAllocatedBytes(hilo);
+        for (int i = 0; i < 1_000_000; i++) {
+            metricas.registrar(FaseAlerta.GRAVEDAD, i * 997L);
+            metricas.incrementar(ContadorEvento.ESCALADOS_TIMEOUT);
+        }
+        long reservados = hilos.getThreadAllocatedBytes(hilo) - antes;
+
+        assertTrue(reservados < 64 * 1024, "Se han reservado " + reservados + " bytes para 1M registros");
+    }
+
+    @Test
+    void testVolcadoTextoYJson() throws Exception {
+        Path dir = Files.createTempDirectory("metricas");
+        RegistroMetricas metricas = new RegistroMetricas();
+        metricas.registrar(FaseAlerta.DISPARO_A_DESPACHO, 250_000_000L);
+        metricas.incrementar(ContadorEvento.CANCELADOS);
+        Path texto = dir.resolve("metricas.prom");
+        Path json = dir.resolve("metricas.json");
+
+        metricas.volcar(texto, json);
+
+        String prom = Files.readString(texto);
+        assertTrue(prom.contains("emergencias_fase_latencia_segundos_count{fase=\"disparo_a_despacho\"} 1"));
+        assertTrue(prom.contains("emergencias_eventos_total{resultado=\"cancelado\"} 1"));
+        JsonNode raiz = new ObjectMapper().readTree(json.toFile());
+        assertEquals(1, raiz.path("fases").path("disparo_a_despacho").path("total").asLong());
+        assertEquals(250.0, raiz.path("fases").path("disparo_a_despacho").path("max_ms").asDouble(), 1e-9);
+        assertEquals(0, raiz.path("fases").path("activacion").path("total").asLong());
+        assertEquals(1, raiz.path("eventos").path("cancelado").asLong());
+        // Sin temporales olvidados junto a los ficheros
+        try (var ficheros = Files.list(dir)) {
+            assertEquals(2, ficheros.count());
+        }
+        Files.delete(texto);
+        Files.delete(json);
+        Files.delete(dir);
+    }
+}
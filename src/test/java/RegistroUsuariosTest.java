@@ -0,0 +1,164 @@
+package test.java;
+
+import main.java.com.emergencias.controller.RegistroUsuarios;
+import main.java.com.emergencias.model.UserData;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del almacén de perfiles de usuario indexado por ID y teléfono.
+ */
+class RegistroUsuariosTest {
+
+    private static ByteArrayInputStream json(String texto) {
+        return new ByteArrayInputStream(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testCargaEnBloqueIndexaPorIdYTelefonoYDescartaInvalidos() throws IOException {
+        RegistroUsuarios registro = new RegistroUsuarios();
+        List<String> orden = new ArrayList<>();
+        int publicados = registro.cargarJson(json("[" +
+                "{\"id\": \"U1\", \"nombre\": \"Ana\", \"telefono\": \"+34 600 000 001\", \"infoMedica\": \"Asma\"}," +
+                "{\"nombre\": \"Sin teléfono\"}," +
+                "{\"nombre\": \"Luis\", \"telefono\": \"600000002\", \"latitudSimulada\": \"no-es-numero\"}," +
+                "{\"nombre\": \"Eva\", \"telefono\": \"600-000-003\", \"campoDesconocido\": [1, 2]}" +
+                "]"), u -> orden.add(u.getId()));
+
+        assertEquals(2, publicados);
+        assertEquals(List.of("U1", "600-000-003"), orden);
+        assertEquals("Ana", registro.porId("U1").getNombre());
+        assertEquals("Ana", registro.porTelefono("600000001").getNombre());
+        assertEquals("Eva", registro.porTelefono("+34600000003").getNombre());
+        assertNull(registro.porId("desconocido"));
+        assertNull(registro.porTelefono("999"));
+    }
+
+    @Test
+    void testLosElementosQueNoSonObjetosYLosTelefonosRepetidosNoCortanLaCarga() throws IOException {
+        RegistroUsuarios registro = new RegistroUsuarios();
+        int publicados = registro.cargarJson(json("[" +
+                "{\"id\": \"U1\", \"nombre\": \"Ana\", \"telefono\": \"600000001\"}," +
+                "null, \"texto\", [{\"id\": \"anidado\"}], 7," +
+                "{\"id\": \"U2\", \"nombre\": \"Duplicada\", \"telefono\": \"+34 600 000 001\"}," +
+                "{\"id\": \"U3\", \"nombre\": \"Luis\", \"telefono\": \"600000003\"}" +
+                "]"), null);
+
+        assertEquals(2, publicados);
+        assertEquals("Luis", registro.porId("U3").getNombre(), "La carga sigue tras los elementos inválidos");
+        assertNull(registro.porId("anidado"));
+        assertNull(registro.porId("U2"));
+        assertEquals("U1", registro.porTelefono("600000001").getId(), "Un duplicado no roba el teléfono");
+        assertThrows(IllegalArgumentException.class,
+                () -> registro.actualizar("U3", u -> u.setTelefono("600 000 001")));
+        assertEquals("600000003", registro.porId("U3").getTelefono());
+    }
+
+    @Test
+    void testCopiaEnEscrituraNoModificaLosPerfilesPublicados() {
+        RegistroUsuarios registro = new RegistroUsuarios();
+        UserData original = new UserData("U1", "Ana", "600000001", "Asma", 38.1, -1.2);
+        registro.registrar(original);
+
+        // Cambiar el objeto del llamante no afecta a lo publicado
+        original.setNombre("Modificada fuera");
+        UserData publicado = registro.porId("U1");
+        assertEquals("Ana", publicado.getNombre());
+
+        UserData nuevo = registro.actualizar("U1", u -> {
+            u.setTelefono("611111111");
+            u.setInfoMedica("Asma, alergia al polen");
+        });
+
+        assertNotSame(publicado, nuevo);
+        assertEquals("Asma", publicado.getInfoMedica(), "La versión anterior es inmutable para sus lectores");
+        assertSame(nuevo, registro.porId("U1"));
+        assertSame(nuevo, registro.porTelefono("611111111"));
+        assertNull(registro.porTelefono("600000001"), "El teléfono antiguo deja de resolver");
+        assertThrows(IllegalArgumentException.class, () -> registro.actualizar("U1", u -> u.setNombre(" ")));
+        assertNull(registro.actualizar("no-existe", u -> u.setNombre("X")));
+
+        assertTrue(registro.eliminar("U1"));
+        assertNull(registro.porTelefono("611111111"));
+    }
+
+    @Test
+    void testSinIdExplicitoElTelefonoInicialQuedaComoId() {
+        RegistroUsuarios registro = new RegistroUsuarios();
+        registro.registrar(new UserData("Luis", "600000002", "Sin datos", 38.0, -1.0));
+
+        UserData nuevo = registro.actualizar("600000002", u -> u.setTelefono("622222222"));
+
+        assertEquals("600000002", nuevo.getId(), "El ID no sigue al teléfono");
+        assertSame(nuevo, registro.porId("600000002"));
+        assertSame(nuevo, registro.porTelefono("622222222"));
+        assertNull(registro.porTelefono("600000002"));
+        assertEquals(1, registro.size());
+    }
+
+    @Test
+    void testCargaPerezosaDesdeDirectorio() throws IOException {
+        Path dir = Files.createTempDirectory("perfiles");
+        try {
+            Files.writeString(dir.resolve("U7.json"), "{\"nombre\": \"Marta\", \"telefono\": \"600000007\"}");
+            AtomicInteger cargas = new AtomicInteger();
+            RegistroUsuarios registro = new RegistroUsuarios(id -> {
+                cargas.incrementAndGet();
+                return RegistroUsuarios.desdeDirectorio(dir).apply(id);
+            });
+
+            assertEquals(0, registro.size());
+            assertNull(registro.porTelefono("600000007"), "Por teléfono solo se ven los perfiles ya cargados");
+            assertEquals("Marta", registro.porId("U7").getNombre());
+            assertEquals("Marta", registro.porId("U7").getNombre());
+            assertEquals(1, cargas.get(), "Un perfil se carga una sola vez");
+            assertEquals("Marta", registro.porTelefono("600000007").getNombre());
+            assertNull(registro.porId("../U7"));
+        } finally {
+            Files.deleteIfExists(dir.resolve("U7.json"));
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    void testLectoresConcurrentesVenSiempreUnPerfilCompleto() throws Exception {
+        RegistroUsuarios registro = new RegistroUsuarios();
+        for (int i = 0; i < 1000; i++) {
+            registro.registrar(new UserData("U" + i, "Usuario " + i, String.valueOf(600000000 + i), "v0", null, null));
+        }
+
+        AtomicBoolean parar = new AtomicBoolean();
+        AtomicInteger errores = new AtomicInteger();
+        Thread[] lectores = new Thread[4];
+        for (int h = 0; h < lectores.length; h++) {
+            lectores[h] = new Thread(() -> {
+                int i = 0;
+                while (!parar.get()) {
+                    UserData u = registro.porId("U" + (i++ % 1000));
+                    if (u == null || !u.getInfoMedica().startsWith("v")) errores.incrementAndGet();
+                }
+            });
+            lectores[h].start();
+        }
+        for (int version = 1; version <= 20; version++) {
+            final String info = "v" + version;
+            for (int i = 0; i < 1000; i++) registro.actualizar("U" + i, u -> u.setInfoMedica(info));
+        }
+        parar.set(true);
+        for (Thread t : lectores) t.join();
+
+        assertEquals(0, errores.get());
+        assertEquals("v20", registro.porTelefono("600000999").getInfoMedica());
+    }
+}
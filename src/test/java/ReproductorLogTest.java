@@ -0,0 +1,193 @@
+package test.java;
+
+import main.java.com.emergencias.alert.LineaLogAlerta;
+import main.java.com.emergencias.controller.EstadoEvento;
+import main.java.com.emergencias.controller.RegistroUsuarios;
+import main.java.com.emergencias.geo.CentroSaludIndex;
+import main.java.com.emergencias.model.EventoDispositivo;
+import main.java.com.emergencias.model.UserData;
+import main.java.com.emergencias.model.VitalSigns;
+import main.java.com.emergencias.reproduccion.ConfiguracionReproduccion;
+import main.java.com.emergencias.reproduccion.InformeReproduccion;
+import main.java.com.emergencias.reproduccion.ReproductorLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la reproducción del log de alertas contra el motor.
+ */
+class ReproductorLogTest {
+
+    private Path directorio;
+    private RegistroUsuarios usuarios;
+    private CentroSaludIndex indice;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directorio = Files.createTempDirectory("reproduccion");
+        usuarios = new RegistroUsuarios();
+        usuarios.registrar(new UserData("U1", "Raúl Parreño Agulló", "600000001", "Sin datos", 38.27, -0.71));
+        indice = CentroSaludIndex.construir(new ArrayList<>());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            for (Path p : (Iterable<Path>) ficheros::iterator) Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(directorio);
+    }
+
+    private static String linea(String instante, String tipo, String resto) {
+        return "[" + instante + "] ALERTA GRAVE | Tipo: " + tipo + " | ID: " + UUID.randomUUID() + resto;
+    }
+
+    private Path escribirLog(String... lineas) throws IOException {
+        Path log = directorio.resolve("alertas_log.txt");
+        Files.write(log, List.of(lineas), StandardCharsets.UTF_8);
+        return log;
+    }
+
+    private ReproductorLog reproductor(ConfiguracionReproduccion config) {
+        return new ReproductorLog(usuarios, indice, directorio.resolve("salida.txt"), config);
+    }
+
+    @Test
+    void testCadaLineaSeTraduceEnSuDisparo() {
+        LineaLogAlerta manual = LineaLogAlerta.parsear(linea("2026-01-11 14:16:24", "general",
+                " | Vitales: [HR: 106 bpm | SpO2: 99% | PA: 115/90] | Usuario: Raul Parreño Agullo"), 0);
+        LineaLogAlerta indefinida = LineaLogAlerta.parsear(linea("2026-01-11 14:17:05", "Indefinido (TIMEOUT)",
+                " | Usuario: Raul Parreño Agullo"), 1);
+        LineaLogAlerta vehicular = LineaLogAlerta.parsear(linea("2025-11-30 19:12:43", "Vehicular (TIMEOUT)",
+                " | Vitales: N/A | Usuario: Raul Parreño Agullo"), 2);
+
+        EventoDispositivo d = ReproductorLog.disparo(manual, "U1");
+        assertFalse(d.isAutomatico());
+        assertEquals("general", d.getTipo());
+        assertEquals("S", d.getConfirmacionGravedad());
+
+        d = ReproductorLog.disparo(indefinida, "U1");
+        assertTrue(d.isAutomatico(), "Una alerta vencida vuelve a ser un disparo del sensor");
+        assertNull(d.getTipo());
+        assertNull(d.getConfirmacionGravedad(), "Sin respuesta: debe volver a vencer el plazo");
+        assertEquals("Vehicular", ReproductorLog.disparo(vehicular, "U1").getTipo());
+
+        VitalSigns v = ReproductorLog.vitales(manual);
+        assertEquals(106, v.getRitmoCardiaco());
+        assertEquals(99, v.getNivelOxigeno());
+        assertEquals(115, v.getPresionSistolica());
+        assertEquals(90, v.getPresionDiastolica());
+        assertNull(ReproductorLog.vitales(indefinida));
+        assertNull(ReproductorLog.vitales(vehicular));
+    }
+
+    @Test
+    void testUsuariosPorNombreSinTildesYSinteticos() {
+        try (ReproductorLog reproductor = reproductor(ConfiguracionReproduccion.maxima())) {
+            LineaLogAlerta conocido = LineaLogAlerta.parsear(linea("2026-01-11 14:16:24", "Sanitaria",
+                    " | Usuario: raul  PARREÑO agullo"), 0);
+            assertEquals("U1", reproductor.resolverUsuario(conocido));
+
+            LineaLogAlerta decimal = LineaLogAlerta.parsear(linea("2026-02-15 05:32:32", "sanitaria",
+                    " | Ubicacion: 38,2265, -1,6188 | Usuario: Ana Desconocida"), 1);
+            LineaLogAlerta sexagesimal = LineaLogAlerta.parsear(linea("2025-11-30 18:43:03", "Sanitaria",
+                    " | Ubicacion: 38°16'47.1\"N 0°42'57.0\"W (Elche, España) | Usuario: Luis Desconocido"), 2);
+            int antes = usuarios.size();
+            String idAna = reproductor.resolverUsuario(decimal);
+            String idLuis = reproductor.resolverUsuario(sexagesimal);
+            assertEquals(idAna, reproductor.resolverUsuario(decimal), "Un usuario sintético se registra una sola vez");
+            assertEquals(antes + 2, usuarios.size());
+
+            UserData ana = usuarios.porId(idAna);
+            assertEquals("Ana Desconocida", ana.getNombre());
+            assertEquals(38.2265, ana.getLatitudSimulada(), 1e-9);
+            assertEquals(-1.6188, ana.getLongitudSimulada(), 1e-9);
+            UserData luis = usuarios.porId(idLuis);
+            assertEquals(38 + 16 / 60.0 + 47.1 / 3600, luis.getLatitudSimulada(), 1e-9);
+            assertEquals(-(42 / 60.0 + 57.0 / 3600), luis.getLongitudSimulada(), 1e-9);
+        }
+    }
+
+    @Test
+    void testReproduccionAMaximaVelocidadRecorreTodaLaRuta() throws Exception {
+        Path log = escribirLog(
+                linea("2025-11-30 18:46:28", "Trafico", " | Usuario: Raul Parreño Agullo"),
+                "línea corrupta que se salta",
+                linea("2025-11-30 18:43:03", "Sanitaria", " | Usuario: Raul Parreño Agullo"),
+                linea("2025-11-30 18:47:30", "Indefinido (TIMEOUT)", " | Usuario: Raul Parreño Agullo"),
+                linea("2025-12-02 10:00:00", "sanitaria",
+                        " | Vitales: [HR: 98 bpm | SpO2: 90% | PA: 147/84] | Usuario: Marta Nueva"));
+        List<LineaLogAlerta> lineas = ReproductorLog.leer(log);
+        assertEquals(4, lineas.size());
+        assertEquals("Sanitaria", lineas.get(0).getTipo(), "Las alertas se reproducen en orden cronológico");
+
+        InformeReproduccion informe;
+        ConfiguracionReproduccion config = ConfiguracionReproduccion.maxima().conRepeticiones(3);
+        try (ReproductorLog reproductor = reproductor(config)) {
+            informe = reproductor.reproducir(lineas);
+        }
+
+        assertEquals(12, informe.getEventos());
+        assertEquals(12, informe.getTerminados(EstadoEvento.ALERTA_ENVIADA));
+        assertEquals(0, informe.getTerminados(EstadoEvento.ERROR));
+        assertEquals(12, informe.getLatenciaServicio().getTotal());
+        assertEquals(12, informe.getLatenciaProgramada().getTotal());
+        assertTrue(informe.getLatenciaProgramada().percentil(99) >= informe.getLatenciaProgramada().percentil(50));
+        assertTrue(informe.getEventosPorSegundo() > 0);
+        // Pasada: 3 min 25 s, 1 min 2 s y dos días, cada hueco comprimido a 60 s; entre pasadas, 1 s
+        long pasadaSeg = 3 * 60;
+        assertEquals(((pasadaSeg + 1) * 2 + pasadaSeg) * 1_000_000_000L, informe.getNanosSimulados());
+
+        List<String> escritas = Files.readAllLines(directorio.resolve("salida.txt"), StandardCharsets.UTF_8);
+        assertEquals(12, escritas.size(), "Cada evento reproducido se escribe en el log de salida");
+        assertEquals(3, escritas.stream().filter(l -> l.contains("Usuario: Marta Nueva")).count());
+        assertTrue(escritas.stream().filter(l -> l.contains("Marta Nueva")).allMatch(l -> l.contains("HR: 98 bpm")),
+                "Los signos vitales del log se publican antes del disparo");
+    }
+
+    @Test
+    void testVelocidadEscaladaRespetaLosHuecosComprimidos() throws Exception {
+        Path log = escribirLog(
+                linea("2026-01-11 13:45:06", "Sanitaria", " | Usuario: Raul Parreño Agullo"),
+                linea("2026-01-11 13:45:07", "Sanitaria", " | Usuario: Raul Parreño Agullo"),
+                linea("2026-01-12 13:45:07", "Trafico", " | Usuario: Raul Parreño Agullo"));
+
+        // x10: 1 s del log y un día comprimido a 1,5 s son 250 ms reales
+        ConfiguracionReproduccion config = ConfiguracionReproduccion.escalada(10).conHuecoMaximoMs(1_500);
+        InformeReproduccion informe;
+        try (ReproductorLog reproductor = reproductor(config)) {
+            informe = reproductor.reproducir(ReproductorLog.leer(log));
+        }
+
+        assertEquals(3, informe.getTerminados(EstadoEvento.ALERTA_ENVIADA));
+        assertEquals(2_500_000_000L, informe.getNanosSimulados());
+        assertTrue(informe.getNanosReales() >= 250_000_000L, "El último evento no entra antes de su instante");
+        assertTrue(informe.getNanosReales() < 5_000_000_000L, "El hueco de un día se ha comprimido");
+    }
+
+    @Test
+    void testConfiguracionDesdeConsola() {
+        assertEquals(1, ConfiguracionReproduccion.parsear("original").getVelocidad());
+        assertTrue(ConfiguracionReproduccion.parsear("max").esVelocidadMaxima());
+        assertEquals(60, ConfiguracionReproduccion.parsear("x60").getVelocidad());
+        assertEquals(2.5, ConfiguracionReproduccion.parsear("2.5").getVelocidad());
+        assertEquals(10_000, ConfiguracionReproduccion.original().getPlazoConfirmacionMs());
+        assertEquals(1_000, ConfiguracionReproduccion.escalada(10).getPlazoConfirmacionMs());
+        assertEquals(1, ConfiguracionReproduccion.maxima().getPlazoConfirmacionMs());
+        assertThrows(IllegalArgumentException.class, () -> ConfiguracionReproduccion.parsear("rapido"));
+        assertThrows(IllegalArgumentException.class, () -> ConfiguracionReproduccion.escalada(0));
+        assertThrows(IllegalArgumentException.class, () -> ConfiguracionReproduccion.maxima().conRepeticiones(0));
+    }
+}
@@ -0,0 +1,123 @@
+package test.java;
+
+import main.java.com.emergencias.controller.CentroSaludLoader;
+import main.java.com.emergencias.controller.SnapshotBinario;
+import main.java.com.emergencias.model.CanalContacto;
+import main.java.com.emergencias.model.CatalogoCentros;
+import main.java.com.emergencias.model.ContactoEmergencia;
+import main.java.com.emergencias.model.UserData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del snapshot binario del catálogo de centros y de usuarios.
+ */
+class SnapshotBinarioTest {
+
+    private Path dir;
+    private Path json;
+    private Path snap;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("snapshot-test");
+        json = dir.resolve("centros.json");
+        snap = dir.resolve("centros.snap");
+        Files.copy(CentroSaludLoader.RUTA_POR_DEFECTO, json);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> ficheros = Files.walk(dir)) {
+            ficheros.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Test
+    void testSnapshotReproduceElCatalogoDelJson() throws IOException {
+        CatalogoCentros original = new CentroSaludLoader().cargarCatalogo(json);
+        SnapshotBinario.escribirCatalogo(original, json, snap);
+
+        CatalogoCentros leido = SnapshotBinario.leerCatalogo(snap, json);
+
+        assertNotNull(leido, "El snapshot recién generado debe ser válido.");
+        assertEquals(original.size(), leido.size());
+        for (int i = 0; i < original.size(); i++) {
+            assertEquals(original.getNombre(i), leido.getNombre(i));
+            assertEquals(original.getMunicipio(i), leido.getMunicipio(i));
+            assertEquals(original.getCodigo(i), leido.getCodigo(i));
+            assertEquals(original.columnaLatitudRad()[i], leido.columnaLatitudRad()[i]);
+            assertEquals(original.columnaLongitudRad()[i], leido.columnaLongitudRad()[i]);
+        }
+    }
+
+    @Test
+    void testSnapshotObsoletoSiCambiaElContenidoDelJson() throws IOException {
+        SnapshotBinario.escribirCatalogo(new CentroSaludLoader().cargarCatalogo(json), json, snap);
+
+        Files.writeString(json, "[]");
+
+        assertNull(SnapshotBinario.leerCatalogo(snap, json), "Un JSON modificado invalida el snapshot.");
+    }
+
+    @Test
+    void testSnapshotSigueValidoSiSoloCambiaLaFecha() throws IOException {
+        SnapshotBinario.escribirCatalogo(new CentroSaludLoader().cargarCatalogo(json), json, snap);
+
+        Files.setLastModifiedTime(json, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+
+        assertNotNull(SnapshotBinario.leerCatalogo(snap, json), "Con el mismo contenido el checksum lo valida.");
+    }
+
+    @Test
+    void testSnapshotCorruptoSeDescarta() throws IOException {
+        SnapshotBinario.escribirCatalogo(new CentroSaludLoader().cargarCatalogo(json), json, snap);
+        byte[] bytes = Files.readAllBytes(snap);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(snap, bytes);
+
+        assertNull(SnapshotBinario.leerCatalogo(snap, json));
+    }
+
+    @Test
+    void testSnapshotDeUsuarios() throws IOException {
+        Path usuariosJson = dir.resolve("users.json");
+        Path usuariosSnap = dir.resolve("users.snap");
+        Files.writeString(usuariosJson, "[]");
+        List<UserData> usuarios = List.of(
+                new UserData("Ana", "600000001", "Asma", 38.1, -1.2),
+                new UserData("U-0002", "Luis", "600000002", null, null, null));
+        usuarios.get(0).setContactos(List.of(
+                new ContactoEmergencia("Eva", "610000001", "Madre", List.of(CanalContacto.LLAMADA, CanalContacto.SMS)),
+                new ContactoEmergencia("Pablo", "610000002", null, List.of(CanalContacto.PUSH))));
+
+        SnapshotBinario.escribirUsuarios(usuarios, usuariosJson, usuariosSnap);
+        List<UserData> leidos = SnapshotBinario.leerUsuarios(usuariosSnap, usuariosJson);
+
+        assertNotNull(leidos);
+        assertEquals(2, leidos.size());
+        assertEquals("Ana", leidos.get(0).getNombre());
+        assertEquals(-1.2, leidos.get(0).getLongitudSimulada());
+        assertNull(leidos.get(1).getLatitudSimulada());
+        assertEquals("600000001", leidos.get(0).getId(), "Sin ID propio se usa el teléfono");
+        assertEquals("U-0002", leidos.get(1).getId());
+        List<ContactoEmergencia> contactos = leidos.get(0).getContactos();
+        assertEquals(2, contactos.size());
+        assertEquals("Madre", contactos.get(0).getRelacion());
+        assertEquals(List.of(CanalContacto.LLAMADA, CanalContacto.SMS), contactos.get(0).getCanales());
+        assertNull(contactos.get(1).getRelacion());
+        assertEquals(List.of(CanalContacto.PUSH), contactos.get(1).getCanales());
+        assertTrue(leidos.get(1).getContactos().isEmpty());
+    }
+}
@@ -0,0 +1,74 @@
+package test.java;
+
+import main.java.com.emergencias.detector.TemporizadorConfirmaciones;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la rueda de cuentas atrás de confirmación.
+ */
+class TemporizadorConfirmacionesTest {
+
+    private TemporizadorConfirmaciones temporizador;
+
+    @BeforeEach
+    void setUp() {
+        // Rueda pequeña para que los plazos largos den varias vueltas
+        temporizador = new TemporizadorConfirmaciones(10, 8, Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown() {
+        temporizador.close();
+    }
+
+    @Test
+    void testVenceTrasElPlazoYNoAntes() throws InterruptedException {
+        CountDownLatch vencida = new CountDownLatch(1);
+        long inicio = System.nanoTime();
+        TemporizadorConfirmaciones.Cuenta cuenta = temporizador.armar(250, vencida::countDown);
+
+        assertTrue(vencida.await(5, TimeUnit.SECONDS));
+        long transcurridoMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        assertTrue(transcurridoMs >= 250, "Venció antes de tiempo: " + transcurridoMs + " ms");
+        assertTrue(cuenta.isVencida());
+        assertFalse(cuenta.cancelar(), "Una cuenta vencida ya no se puede cancelar");
+    }
+
+    @Test
+    void testLasCanceladasNoVencen() throws InterruptedException {
+        AtomicInteger vencidas = new AtomicInteger();
+        CountDownLatch restantes = new CountDownLatch(50_000);
+        List<TemporizadorConfirmaciones.Cuenta> cuentas = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            cuentas.add(temporizador.armar(500 + i % 200, () -> {
+                vencidas.incrementAndGet();
+                restantes.countDown();
+            }));
+        }
+        for (int i = 0; i < cuentas.size(); i += 2) assertTrue(cuentas.get(i).cancelar());
+        assertEquals(50_000, temporizador.getPendientes());
+
+        assertTrue(restantes.await(10, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(50_000, vencidas.get());
+        assertEquals(0, temporizador.getPendientes());
+        assertTrue(cuentas.get(0).isCancelada());
+    }
+
+    @Test
+    void testPlazoCeroVenceEnElSiguienteTick() throws InterruptedException {
+        CountDownLatch vencida = new CountDownLatch(1);
+        temporizador.armar(0, vencida::countDown);
+        assertTrue(vencida.await(1, TimeUnit.SECONDS));
+    }
+}